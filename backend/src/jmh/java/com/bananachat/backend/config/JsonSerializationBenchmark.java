@@ -0,0 +1,69 @@
+package com.bananachat.backend.config;
+
+import com.bananachat.backend.model.ChatMessage;
+import com.bananachat.backend.model.GroupChatMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON das mensagens STOMP com o ObjectMapper do JacksonConfig (o mesmo do
+ * conversor do Spring Boot e do MessageFanout)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+  private ObjectMapper objectMapper;
+
+  private ChatMessage chatMessage;
+  private GroupChatMessage groupMessage;
+
+  private byte[] chatMessageJson;
+  private byte[] groupMessageJson;
+
+  @Setup
+  public void setUp() throws Exception {
+    objectMapper = new JacksonConfig().objectMapper();
+    chatMessage = new ChatMessage("Oi, tudo bem? Vamos almoçar hoje?", "mariana.souza", "carlos.lima",
+        ChatMessage.MessageType.CHAT);
+    groupMessage = new GroupChatMessage("Reunião às 15h na sala 3", "mariana.souza", 42L, "Equipe de Produto",
+        GroupChatMessage.MessageType.CHAT);
+    chatMessageJson = objectMapper.writeValueAsBytes(chatMessage);
+    groupMessageJson = objectMapper.writeValueAsBytes(groupMessage);
+  }
+
+  @Benchmark
+  public byte[] serializeChatMessage() throws Exception {
+    return objectMapper.writeValueAsBytes(chatMessage);
+  }
+
+  @Benchmark
+  public byte[] serializeGroupChatMessage() throws Exception {
+    return objectMapper.writeValueAsBytes(groupMessage);
+  }
+
+  @Benchmark
+  public ChatMessage deserializeChatMessage() throws Exception {
+    return objectMapper.readValue(chatMessageJson, ChatMessage.class);
+  }
+
+  @Benchmark
+  public GroupChatMessage deserializeGroupChatMessage() throws Exception {
+    return objectMapper.readValue(groupMessageJson, GroupChatMessage.class);
+  }
+}
@@ -0,0 +1,76 @@
+package com.bananachat.backend.dto;
+
+import com.bananachat.backend.entity.Group;
+import com.bananachat.backend.entity.GroupMessage;
+import com.bananachat.backend.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem do GroupDto (um UserDto por membro, mais a verificação de membro do
+ * usuário atual) e do GroupMessageDto, para grupos de vários tamanhos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupDtoBenchmark {
+
+  @Param({ "10", "100", "1000", "10000" })
+  private int members;
+
+  private Group group;
+  private List<User> memberList;
+  private Long lastMemberId;
+  private GroupMessage message;
+
+  @Setup
+  public void setUp() {
+    memberList = new ArrayList<>(members);
+    for (long id = 1; id <= members; id++) {
+      User user = new User("usuario" + id, "usuario" + id + "@bananachat.com", "senha", "Usuário " + id);
+      user.setId(id);
+      memberList.add(user);
+    }
+    lastMemberId = (long) members;
+
+    group = new Group("Equipe de Produto", "Discussões da equipe de produto", memberList.get(0),
+        Group.GroupType.PUBLIC);
+    group.setId(42L);
+    group.setMemberCount(members);
+
+    message = new GroupMessage("Reunião às 15h na sala 3", memberList.get(0), group, GroupMessage.MessageType.CHAT);
+    message.setId(1L);
+  }
+
+  @Benchmark
+  public GroupDto groupDto() {
+    return new GroupDto(group, memberList);
+  }
+
+  // Pior caso da verificação isUserMember: o usuário atual é o último da lista
+  @Benchmark
+  public GroupDto groupDtoForCurrentUser() {
+    return new GroupDto(group, memberList, lastMemberId);
+  }
+
+  @Benchmark
+  public GroupMessageDto groupMessageDto() {
+    return new GroupMessageDto(message);
+  }
+}
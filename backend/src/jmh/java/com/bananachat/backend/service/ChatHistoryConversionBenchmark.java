@@ -0,0 +1,68 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.dto.ChatHistoryDto;
+import com.bananachat.backend.entity.ChatHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChatHistoryService.convertToDto, feito para cada linha das páginas de
+ * histórico: uma mensagem e uma página de 50
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatHistoryConversionBenchmark {
+
+  private static final int PAGE_SIZE = 50;
+
+  // convertToDto não usa as dependências do serviço
+  private final ChatHistoryService chatHistoryService = new ChatHistoryService();
+
+  private ChatHistory privateMessage;
+  private List<ChatHistory> page;
+
+  @Setup
+  public void setUp() {
+    privateMessage = history(1L);
+    page = new ArrayList<>(PAGE_SIZE);
+    for (long id = 1; id <= PAGE_SIZE; id++) {
+      page.add(history(id));
+    }
+  }
+
+  @Benchmark
+  public ChatHistoryDto convertOne() {
+    return chatHistoryService.convertToDto(privateMessage);
+  }
+
+  @Benchmark
+  public void convertPage(Blackhole blackhole) {
+    for (ChatHistory history : page) {
+      blackhole.consume(chatHistoryService.convertToDto(history));
+    }
+  }
+
+  private static ChatHistory history(long id) {
+    ChatHistory history = new ChatHistory("mariana.souza", "carlos.lima", "Mensagem " + id + " da conversa",
+        ChatHistory.MessageType.CHAT);
+    history.setId(id);
+    return history;
+  }
+}
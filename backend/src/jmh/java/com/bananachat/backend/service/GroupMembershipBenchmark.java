@@ -0,0 +1,80 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.repository.GroupMembershipRepository;
+import com.bananachat.backend.repository.GroupRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verificação de membro feita a cada mensagem de grupo. A entidade Group não
+ * tem mais isMember: a checagem é do GroupMembershipIndex, medido aqui com
+ * muitos grupos e membros, já carregados do banco (repositórios simulados só
+ * na carga).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class GroupMembershipBenchmark {
+
+  private static final int GROUPS = 1000;
+
+  @Param({ "10", "1000", "10000" })
+  private int membersPerGroup;
+
+  private GroupMembershipIndex membershipIndex;
+
+  @Setup
+  public void setUp() {
+    GroupRepository groupRepository = mock(GroupRepository.class);
+    GroupMembershipRepository groupMembershipRepository = mock(GroupMembershipRepository.class);
+    when(groupRepository.findActiveFlagById(anyLong())).thenReturn(Optional.of(true));
+    // Grupo g tem os usuários g .. g + membersPerGroup - 1
+    when(groupMembershipRepository.findUserIdsByGroupId(anyLong())).thenAnswer(invocation -> {
+      long groupId = invocation.getArgument(0);
+      return LongStream.range(groupId, groupId + membersPerGroup).boxed().toList();
+    });
+
+    membershipIndex = new GroupMembershipIndex();
+    ReflectionTestUtils.setField(membershipIndex, "groupRepository", groupRepository);
+    ReflectionTestUtils.setField(membershipIndex, "groupMembershipRepository", groupMembershipRepository);
+    for (long groupId = 1; groupId <= GROUPS; groupId++) {
+      membershipIndex.isActive(groupId);
+    }
+  }
+
+  @Benchmark
+  public boolean isMember() {
+    long groupId = 1 + ThreadLocalRandom.current().nextInt(GROUPS);
+    return membershipIndex.isMember(groupId, groupId + ThreadLocalRandom.current().nextInt(membersPerGroup));
+  }
+
+  @Benchmark
+  public boolean isNotMember() {
+    long groupId = 1 + ThreadLocalRandom.current().nextInt(GROUPS);
+    return membershipIndex.isMember(groupId, groupId + membersPerGroup + ThreadLocalRandom.current().nextInt(100));
+  }
+}
@@ -0,0 +1,89 @@
+package com.bananachat.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OnlineUsersService sob contenção: threads conectando e desconectando
+ * sessões enquanto outras leem a lista (snapshot), consultam a presença,
+ * como o /api/users/online e o envio de mensagens privadas fazem, e marcam
+ * atividade, como cada frame recebido faz
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OnlineUsersBenchmark {
+
+  // Usuários online no início de cada trial
+  @Param({ "100", "10000" })
+  private int online;
+
+  private OnlineUsersService onlineUsersService;
+  private String[] usernames;
+  private String[] sessionIds;
+
+  @Setup
+  public void setUp() {
+    onlineUsersService = new OnlineUsersService();
+    // O dobro de nomes: metade entra e sai durante a medição
+    usernames = new String[online * 2];
+    for (int i = 0; i < usernames.length; i++) {
+      usernames[i] = "usuario" + i;
+    }
+    sessionIds = new String[usernames.length];
+    for (int i = 0; i < sessionIds.length; i++) {
+      sessionIds[i] = "sessao" + i;
+    }
+    for (int i = 0; i < online; i++) {
+      onlineUsersService.addSession(usernames[i], sessionIds[i]);
+    }
+  }
+
+  @Benchmark
+  @Group("presence")
+  @GroupThreads(2)
+  public void connectAndDisconnect() {
+    int index = online + ThreadLocalRandom.current().nextInt(online);
+    onlineUsersService.addSession(usernames[index], sessionIds[index]);
+    onlineUsersService.removeSession(sessionIds[index]);
+  }
+
+  @Benchmark
+  @Group("presence")
+  @GroupThreads(2)
+  public boolean touch() {
+    return onlineUsersService.touch(sessionIds[ThreadLocalRandom.current().nextInt(online)]);
+  }
+
+  @Benchmark
+  @Group("presence")
+  @GroupThreads(2)
+  public boolean isUserOnline() {
+    return onlineUsersService.isUserOnline(usernames[ThreadLocalRandom.current().nextInt(usernames.length)]);
+  }
+
+  @Benchmark
+  @Group("presence")
+  @GroupThreads(1)
+  public Set<String> snapshot() {
+    return onlineUsersService.getOnlineUsers();
+  }
+}
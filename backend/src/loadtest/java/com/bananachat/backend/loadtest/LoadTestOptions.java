@@ -0,0 +1,98 @@
+package com.bananachat.backend.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Opções do StompLoadGenerator, no formato --nome=valor
+ */
+final class LoadTestOptions {
+
+  enum Kind {
+    PUBLIC("público"),
+    PRIVATE("privado"),
+    GROUP("grupo");
+
+    final String label;
+
+    Kind(String label) {
+      this.label = label;
+    }
+  }
+
+  // Endpoint STOMP sem SockJS; a API REST (cadastro de usuários e grupos) é derivada dele
+  String url = "ws://localhost:8080/ws-chat-raw";
+  // Sobe a aplicação nesta JVM, com o ActiveMQ embarcado, em vez de usar url
+  boolean embeddedApp = false;
+  int sessions = 100;
+  int groups = 10;
+  int groupSize = 20;
+  // Mensagens por segundo no total (0 = sem limite)
+  int rate = 500;
+  int senderThreads = 4;
+  int warmupSeconds = 10;
+  int durationSeconds = 60;
+  // Tempo máximo esperando as entregas depois do último envio
+  int drainSeconds = 10;
+  // Pesos de cada tipo de mensagem
+  final Map<Kind, Integer> mix = new EnumMap<>(Map.of(Kind.PUBLIC, 20, Kind.PRIVATE, 60, Kind.GROUP, 20));
+  // Diretório para os histogramas completos (.hgrm), ou vazio
+  String hdrDir = "";
+
+  static LoadTestOptions parse(String[] args) {
+    LoadTestOptions options = new LoadTestOptions();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException("Argumento inválido: " + arg + " (use --nome=valor)");
+      }
+      String value = arg.substring(separator + 1);
+      switch (arg.substring(2, separator)) {
+        case "url" -> options.url = value;
+        case "embedded-app" -> options.embeddedApp = Boolean.parseBoolean(value);
+        case "sessions" -> options.sessions = positive(arg, value);
+        case "groups" -> options.groups = Integer.parseInt(value);
+        case "group-size" -> options.groupSize = positive(arg, value);
+        case "rate" -> options.rate = Integer.parseInt(value);
+        case "sender-threads" -> options.senderThreads = positive(arg, value);
+        case "warmup-seconds" -> options.warmupSeconds = Integer.parseInt(value);
+        case "duration-seconds" -> options.durationSeconds = positive(arg, value);
+        case "drain-seconds" -> options.drainSeconds = Integer.parseInt(value);
+        case "mix" -> options.parseMix(arg, value);
+        case "hdr-dir" -> options.hdrDir = value;
+        default -> throw new IllegalArgumentException("Opção desconhecida: " + arg);
+      }
+    }
+    if (options.sessions < 2) {
+      throw new IllegalArgumentException("--sessions precisa ser pelo menos 2 (mensagens privadas)");
+    }
+    options.groupSize = Math.min(options.groupSize, options.sessions);
+    if (options.groups == 0) {
+      options.mix.put(Kind.GROUP, 0);
+    }
+    if (options.mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+      throw new IllegalArgumentException("--mix precisa de pelo menos um peso positivo");
+    }
+    return options;
+  }
+
+  // Ex.: public=20,private=60,group=20; tipos omitidos ficam com peso 0
+  private void parseMix(String arg, String value) {
+    mix.replaceAll((kind, weight) -> 0);
+    for (String part : value.split(",")) {
+      String[] entry = part.split(":|=");
+      if (entry.length != 2) {
+        throw new IllegalArgumentException("Mix inválido: " + arg + " (use public=20,private=60,group=20)");
+      }
+      mix.put(Kind.valueOf(entry[0].trim().toUpperCase()), Integer.parseInt(entry[1].trim()));
+    }
+  }
+
+  private static int positive(String arg, String value) {
+    int parsed = Integer.parseInt(value);
+    if (parsed <= 0) {
+      throw new IllegalArgumentException("Valor precisa ser positivo: " + arg);
+    }
+    return parsed;
+  }
+}
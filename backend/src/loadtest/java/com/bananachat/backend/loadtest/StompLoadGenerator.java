@@ -0,0 +1,469 @@
+package com.bananachat.backend.loadtest;
+
+import com.bananachat.backend.BackendApplication;
+import com.bananachat.backend.loadtest.LoadTestOptions.Kind;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.PrintStream;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga STOMP: abre N sessões em /ws-chat-raw, entra no chat por
+ * /app/chat.addUser e envia uma mistura de mensagens públicas, privadas e de
+ * grupo num ritmo fixo, medindo a latência do envio até cada entrega.
+ *
+ * Usuários e grupos são criados pela API REST com um prefixo por execução.
+ * Todas as sessões assinam /topic/public, a própria fila privada e os tópicos
+ * dos seus grupos, como o frontend. A latência parte do instante planejado do
+ * envio (não do envio real), para que atrasos do gerador ou do servidor não
+ * escondam a fila que se forma (coordinated omission).
+ *
+ * Saída: vazão de envios e entregas, p50/p99/p99.9/máximo (HdrHistogram),
+ * entregas perdidas e erros por tipo.
+ */
+public final class StompLoadGenerator {
+
+  private static final String MARKER = "lt|";
+  private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+  private static final int CONNECT_BATCH = 50;
+
+  private final LoadTestOptions options;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpClient http = HttpClient.newHttpClient();
+  private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+  private final Map<Kind, Stats> stats = new EnumMap<>(Kind.class);
+  private final LongAdder sessionErrors = new LongAdder();
+
+  private final List<Client> clients = new ArrayList<>();
+  private final List<List<Client>> groupMembers = new ArrayList<>();
+  private final List<Long> groupIds = new ArrayList<>();
+
+  private WebSocketStompClient stompClient;
+  private String apiUrl;
+
+  StompLoadGenerator(LoadTestOptions options) {
+    this.options = options;
+    for (Kind kind : Kind.values()) {
+      stats.put(kind, new Stats());
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTestOptions options = LoadTestOptions.parse(args);
+    ConfigurableApplicationContext app = options.embeddedApp ? startApp(options) : null;
+    try {
+      new StompLoadGenerator(options).run();
+    } finally {
+      if (app != null) {
+        app.close();
+      }
+    }
+    // As threads do cliente WebSocket não são daemon
+    System.exit(0);
+  }
+
+  void run() throws Exception {
+    URI wsUri = URI.create(options.url);
+    apiUrl = (wsUri.getScheme().equals("wss") ? "https" : "http") + "://" + wsUri.getAuthority();
+
+    System.out.printf("Preparando %d usuários e %d grupos de %d membros em %s (execução %s)%n",
+        options.sessions, options.groups, options.groupSize, apiUrl, runId);
+    createUsersAndGroups();
+    connect();
+
+    System.out.printf("Enviando %s msgs/s por %ds (+%ds de aquecimento), mix %s%n",
+        options.rate > 0 ? options.rate : "máx", options.durationSeconds, options.warmupSeconds, options.mix);
+    send();
+    drain();
+    report();
+
+    clients.forEach(client -> client.session.disconnect());
+    stompClient.stop();
+  }
+
+  private void createUsersAndGroups() throws Exception {
+    for (int i = 0; i < options.sessions; i++) {
+      String username = "load-" + runId + "-" + i;
+      post("/api/users/register", Map.of(
+          "username", username,
+          "email", username + "@loadtest.bananachat.com",
+          "password", "loadtest",
+          "displayName", "Carga " + i));
+      clients.add(new Client(username));
+    }
+
+    for (int g = 0; g < options.groups; g++) {
+      List<Client> members = new ArrayList<>();
+      for (int k = 0; k < options.groupSize; k++) {
+        members.add(clients.get((g * options.groupSize + k) % clients.size()));
+      }
+      String owner = members.get(0).username;
+      JsonNode group = post("/api/groups?owner=" + owner, Map.of(
+          "name", "Carga " + runId + " " + g,
+          "description", "Grupo do teste de carga",
+          "type", "PUBLIC",
+          "maxMembers", options.groupSize));
+      long groupId = group.get("id").asLong();
+      for (Client member : members.subList(1, members.size())) {
+        post("/api/groups/" + groupId + "/members?username=" + member.username, null);
+      }
+      members.forEach(member -> member.groups.add(groupId));
+      groupIds.add(groupId);
+      groupMembers.add(members);
+    }
+  }
+
+  private void connect() throws Exception {
+    WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+    // Lotes de mensagens de grupo chegam num único frame
+    container.setDefaultMaxTextMessageBufferSize(512 * 1024);
+    stompClient = new WebSocketStompClient(new StandardWebSocketClient(container));
+    stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    stompClient.setInboundMessageSizeLimit(512 * 1024);
+
+    for (int start = 0; start < clients.size(); start += CONNECT_BATCH) {
+      List<Client> batch = clients.subList(start, Math.min(start + CONNECT_BATCH, clients.size()));
+      List<CompletableFuture<StompSession>> futures = new ArrayList<>();
+      for (int i = 0; i < batch.size(); i++) {
+        futures.add(stompClient.connectAsync(options.url, new SessionErrorHandler()));
+      }
+      for (int i = 0; i < batch.size(); i++) {
+        batch.get(i).session = futures.get(i).get(30, TimeUnit.SECONDS);
+      }
+    }
+
+    for (Client client : clients) {
+      client.session.subscribe("/topic/public", new Receiver(Kind.PUBLIC));
+      client.session.subscribe("/queue/private." + client.username, new Receiver(Kind.PRIVATE));
+      for (Long groupId : client.groups) {
+        client.session.subscribe("/topic/group." + groupId, new Receiver(Kind.GROUP));
+      }
+      client.send("/app/chat.addUser", Map.of(
+          "sender", client.username,
+          "content", client.username + " entrou",
+          "type", "JOIN"));
+    }
+    // Tempo para as assinaturas chegarem ao broker
+    Thread.sleep(1_000);
+    System.out.printf("%d sessões conectadas%n", clients.size());
+  }
+
+  private void send() throws InterruptedException {
+    long start = System.nanoTime();
+    long measureStart = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+    long end = measureStart + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+    // Intervalo entre envios de cada thread
+    long interval = options.rate > 0 ? TimeUnit.SECONDS.toNanos(options.senderThreads) / options.rate : 0;
+
+    List<Thread> senders = new ArrayList<>();
+    for (int t = 0; t < options.senderThreads; t++) {
+      long offset = interval * t / options.senderThreads;
+      Thread sender = new Thread(() -> {
+        for (long i = 0;; i++) {
+          long intended = interval > 0 ? start + offset + i * interval : System.nanoTime();
+          if (intended >= end) {
+            return;
+          }
+          long wait = intended - System.nanoTime();
+          if (wait > 0) {
+            LockSupport.parkNanos(wait);
+          }
+          sendOne(intended, intended >= measureStart);
+        }
+      }, "load-sender-" + t);
+      sender.start();
+      senders.add(sender);
+    }
+    for (Thread sender : senders) {
+      sender.join();
+    }
+  }
+
+  private void sendOne(long intendedNanos, boolean measured) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    Kind kind = pickKind(random);
+    String content = MARKER + (measured ? "m|" : "w|") + intendedNanos;
+    Client sender;
+    String destination;
+    Map<String, Object> message;
+    int deliveries;
+    switch (kind) {
+      case PUBLIC -> {
+        sender = clients.get(random.nextInt(clients.size()));
+        destination = "/app/chat.sendMessage";
+        message = Map.of("content", content, "sender", sender.username, "type", "CHAT");
+        deliveries = clients.size();
+      }
+      case PRIVATE -> {
+        int from = random.nextInt(clients.size());
+        int to = (from + 1 + random.nextInt(clients.size() - 1)) % clients.size();
+        sender = clients.get(from);
+        destination = "/app/chat.sendPrivateMessage";
+        message = Map.of("content", content, "sender", sender.username, "recipient", clients.get(to).username,
+            "type", "CHAT");
+        // Destinatário e remetente
+        deliveries = 2;
+      }
+      default -> {
+        int group = random.nextInt(groupIds.size());
+        List<Client> members = groupMembers.get(group);
+        sender = members.get(random.nextInt(members.size()));
+        destination = "/app/group.sendMessage";
+        message = Map.of("content", content, "sender", sender.username, "groupId", groupIds.get(group),
+            "type", "CHAT");
+        deliveries = members.size();
+      }
+    }
+
+    Stats kindStats = stats.get(kind);
+    try {
+      sender.send(destination, message);
+      if (measured) {
+        kindStats.sent.increment();
+        kindStats.expected.add(deliveries);
+      }
+    } catch (RuntimeException e) {
+      if (measured) {
+        kindStats.sendErrors.increment();
+      }
+    }
+  }
+
+  private Kind pickKind(ThreadLocalRandom random) {
+    int total = options.mix.values().stream().mapToInt(Integer::intValue).sum();
+    int pick = random.nextInt(total);
+    for (Map.Entry<Kind, Integer> entry : options.mix.entrySet()) {
+      pick -= entry.getValue();
+      if (pick < 0) {
+        return entry.getKey();
+      }
+    }
+    throw new IllegalStateException("Mix sem pesos");
+  }
+
+  private void drain() throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.drainSeconds);
+    while (System.nanoTime() < deadline
+        && stats.values().stream().anyMatch(s -> s.received.sum() < s.expected.sum())) {
+      Thread.sleep(50);
+    }
+  }
+
+  private void report() throws Exception {
+    double seconds = options.durationSeconds;
+    Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+    long totalSent = 0;
+    long totalDeliveries = 0;
+    long totalLost = 0;
+    long totalSendErrors = 0;
+
+    System.out.println();
+    System.out.println("tipo       enviadas    msgs/s   entregas  entregas/s        perdidas     erros envio"
+        + "   p50 ms   p99 ms  p99.9 ms   máx ms");
+    for (Kind kind : Kind.values()) {
+      Stats kindStats = stats.get(kind);
+      Histogram latency = kindStats.latency.copy();
+      long sent = kindStats.sent.sum();
+      long lost = Math.max(0, kindStats.expected.sum() - kindStats.received.sum());
+      long sendErrors = kindStats.sendErrors.sum();
+      if (sent + sendErrors == 0) {
+        continue;
+      }
+      printRow(kind.label, sent, seconds, latency, lost, kindStats.expected.sum(), sendErrors);
+      total.add(latency);
+      totalSent += sent;
+      totalDeliveries += kindStats.expected.sum();
+      totalLost += lost;
+      totalSendErrors += sendErrors;
+      writeHistogram(kind.name().toLowerCase(), latency);
+    }
+    printRow("total", totalSent, seconds, total, totalLost, totalDeliveries, totalSendErrors);
+    writeHistogram("total", total);
+    System.out.printf("erros de sessão (ERROR/transporte): %d%n", sessionErrors.sum());
+  }
+
+  private static void printRow(String label, long sent, double seconds, Histogram latency, long lost,
+      long expected, long sendErrors) {
+    System.out.printf("%-9s %9d %9.0f %10d %11.0f %15s %15s %8.2f %8.2f %9.2f %8.2f%n",
+        label, sent, sent / seconds, latency.getTotalCount(), latency.getTotalCount() / seconds,
+        lost + " (" + percent(lost, expected) + ")",
+        sendErrors + " (" + percent(sendErrors, sent + sendErrors) + ")",
+        millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+        millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()));
+  }
+
+  private void writeHistogram(String name, Histogram latency) throws Exception {
+    if (options.hdrDir.isBlank()) {
+      return;
+    }
+    Path dir = Files.createDirectories(Path.of(options.hdrDir));
+    try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(name + ".hgrm")))) {
+      // Valores em µs; a distribuição sai em ms
+      latency.outputPercentileDistribution(out, 1000.0);
+    }
+  }
+
+  private JsonNode post(String path, Object body) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(apiUrl + path))
+        .header("Content-Type", "application/json")
+        .POST(body != null
+            ? HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body))
+            : HttpRequest.BodyPublishers.noBody())
+        .build();
+    HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() >= 300) {
+      throw new IllegalStateException("POST " + path + " falhou: " + response.statusCode() + " " + response.body());
+    }
+    return response.body().isEmpty() ? null : objectMapper.readTree(response.body());
+  }
+
+  private static ConfigurableApplicationContext startApp(LoadTestOptions options) throws Exception {
+    // Argumentos de linha de comando: têm precedência sobre o application.properties
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class).run(
+        "--server.port=0",
+        "--chat.broker.mode=embedded",
+        "--chat.broker.embedded.stomp-port=" + freePort(),
+        "--spring.datasource.url=jdbc:h2:mem:loadtest",
+        "--spring.jpa.show-sql=false",
+        "--logging.level.root=WARN");
+
+    // O relay recusa conexões de clientes até a sessão de sistema conectar no broker
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (!context.getBeansOfType(AbstractBrokerMessageHandler.class).values().stream()
+        .allMatch(AbstractBrokerMessageHandler::isBrokerAvailable)) {
+      if (System.nanoTime() > deadline) {
+        throw new IllegalStateException("Broker embarcado indisponível");
+      }
+      Thread.sleep(50);
+    }
+    options.url = "ws://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/ws-chat-raw";
+    return context;
+  }
+
+  private static int freePort() throws Exception {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+
+  private static String percent(long part, long whole) {
+    return whole > 0 ? String.format("%.2f%%", part * 100.0 / whole) : "0%";
+  }
+
+  private static final class Stats {
+    final ConcurrentHistogram latency = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+    final LongAdder sent = new LongAdder();
+    final LongAdder sendErrors = new LongAdder();
+    // Entregas esperadas: uma por sessão que assina o destino
+    final LongAdder expected = new LongAdder();
+    final LongAdder received = new LongAdder();
+  }
+
+  private static final class Client {
+    final String username;
+    final List<Long> groups = new ArrayList<>();
+    StompSession session;
+
+    Client(String username) {
+      this.username = username;
+    }
+
+    // A sessão WebSocket não aceita envios concorrentes
+    synchronized void send(String destination, Object payload) {
+      session.send(destination, payload);
+    }
+  }
+
+  /**
+   * Registra a latência das mensagens da fase medida (um frame de grupo pode
+   * trazer um lote)
+   */
+  private final class Receiver implements StompFrameHandler {
+    private final Stats kindStats;
+
+    Receiver(Kind kind) {
+      this.kindStats = stats.get(kind);
+    }
+
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+      return JsonNode.class;
+    }
+
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+      long now = System.nanoTime();
+      JsonNode node = (JsonNode) payload;
+      if (node.isArray()) {
+        node.forEach(message -> record(message, now));
+      } else {
+        record(node, now);
+      }
+    }
+
+    private void record(JsonNode message, long now) {
+      String content = message.path("content").asText();
+      if (content.startsWith(MARKER + "m|")) {
+        long intended = Long.parseLong(content.substring(MARKER.length() + 2));
+        kindStats.latency.recordValue(Math.min(HIGHEST_LATENCY_MICROS, (now - intended) / 1000));
+        kindStats.received.increment();
+      }
+    }
+  }
+
+  private final class SessionErrorHandler extends StompSessionHandlerAdapter {
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+      // Fora das assinaturas só chegam frames ERROR
+      sessionErrors.increment();
+    }
+
+    @Override
+    public void handleException(StompSession session, StompCommand command, StompHeaders headers, byte[] payload,
+        Throwable exception) {
+      sessionErrors.increment();
+    }
+
+    @Override
+    public void handleTransportError(StompSession session, Throwable exception) {
+      sessionErrors.increment();
+    }
+  }
+}
@@ -0,0 +1,410 @@
+package com.bananachat.backend.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import com.bananachat.backend.dto.PayloadCodecStatsDto;
+import com.bananachat.backend.model.ChatMessage;
+import com.bananachat.backend.model.GroupChatMessage;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Payload binário (CBOR) nas mensagens STOMP, negociado por cliente, ao lado
+ * do JSON.
+ *
+ * Entrada: frames SEND com content-type application/cbor (ou
+ * application/octet-stream;codec=cbor, para clientes que só enviam frame
+ * binário com octet-stream) são lidos pelo conversor de
+ * {@link #messageConverter()}; os demais continuam em JSON.
+ *
+ * Saída: o cliente pede CBOR no CONNECT com o header accept:application/cbor,
+ * só no endpoint /ws-chat-raw (SockJS não transporta frames binários). As
+ * mensagens, publicadas em JSON, são convertidas no canal de saída e vão como
+ * frame binário com content-type application/octet-stream;codec=cbor, já que
+ * o Spring só envia frame binário para application/octet-stream. A conversão
+ * fica em cache pelo destino e pelo conteúdo do JSON, então uma mensagem
+ * entregue a vários assinantes é convertida uma vez, inclusive com o relay,
+ * que entrega uma cópia do payload a cada sessão.
+ *
+ * ChatMessage e GroupChatMessage usam nomes curtos (c, s, r, g, n, k, t),
+ * omitem campos nulos e levam o timestamp em milissegundos desde a época, no
+ * fuso do servidor.
+ */
+@Component
+public class BinaryPayloadCodec implements ChannelInterceptor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BinaryPayloadCodec.class);
+
+  public static final MimeType CBOR = new MimeType("application", "cbor");
+
+  // Content-type dos frames binários enviados aos clientes
+  public static final MimeType BINARY_FRAME = new MimeType("application", "octet-stream", Map.of("codec", "cbor"));
+
+  static final String ACCEPT_HEADER = "accept";
+
+  // Atributo da sessão marcado no handshake do endpoint WebSocket puro
+  static final String RAW_WEBSOCKET_ATTRIBUTE = "chat.rawWebSocket";
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Value("${chat.websocket.binary-payloads.enabled:true}")
+  private boolean enabled;
+
+  private final ObjectMapper compactMapper = compactMapper();
+
+  // Sessões que pediram CBOR
+  private final Set<String> binarySessions = ConcurrentHashMap.newKeySet();
+
+  // JSON -> CBOR pelo conteúdo, para o mesmo payload enviado a vários assinantes
+  private final Cache<PayloadKey, byte[]> transcoded = Caffeine.newBuilder()
+      .maximumSize(1024)
+      .expireAfterWrite(Duration.ofSeconds(10))
+      .build();
+
+  // Estatísticas
+  private final AtomicLong binaryFrames = new AtomicLong();
+  private final AtomicLong transcodedFrames = new AtomicLong();
+  private final AtomicLong failedFrames = new AtomicLong();
+  private final AtomicLong jsonBytes = new AtomicLong();
+  private final AtomicLong binaryBytes = new AtomicLong();
+  private final AtomicLong transcodeNanos = new AtomicLong();
+
+  @PostConstruct
+  public void init() {
+    LOGGER.info("Payload binário (CBOR) {}", enabled ? "disponível para clientes que pedirem" : "desabilitado");
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Conversor para frames recebidos em CBOR
+   */
+  public MessageConverter messageConverter() {
+    MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter(CBOR, BINARY_FRAME);
+    converter.setObjectMapper(compactMapper);
+    // Sem content-type o frame é JSON; este conversor só atende CBOR explícito
+    converter.setStrictContentTypeMatch(true);
+    return converter;
+  }
+
+  /**
+   * Marca as sessões do endpoint WebSocket puro, as únicas que recebem CBOR
+   */
+  public static HandshakeInterceptor rawWebSocketMarker() {
+    return new HandshakeInterceptor() {
+      @Override
+      public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+          WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        attributes.put(RAW_WEBSOCKET_ATTRIBUTE, Boolean.TRUE);
+        return true;
+      }
+
+      @Override
+      public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+          WebSocketHandler wsHandler, Exception exception) {
+      }
+    };
+  }
+
+  /**
+   * Registrado nos canais de entrada (CONNECT e DISCONNECT de cada sessão) e de
+   * saída (MESSAGE para as sessões que pediram CBOR)
+   */
+  @Override
+  public Message<?> preSend(Message<?> message, MessageChannel channel) {
+    if (!enabled) {
+      return message;
+    }
+    MessageHeaders headers = message.getHeaders();
+    SimpMessageType messageType = SimpMessageHeaderAccessor.getMessageType(headers);
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+    if (messageType == null || sessionId == null) {
+      return message;
+    }
+
+    switch (messageType) {
+      case CONNECT:
+        if (acceptsBinary(message)) {
+          binarySessions.add(sessionId);
+          LOGGER.debug("Sessão {} recebe mensagens em CBOR", sessionId);
+        }
+        return message;
+      case DISCONNECT:
+        binarySessions.remove(sessionId);
+        return message;
+      case MESSAGE:
+        return binarySessions.contains(sessionId) ? toBinaryFrame(message) : message;
+      default:
+        return message;
+    }
+  }
+
+  /**
+   * Converte o payload JSON publicado no destino para CBOR, com os nomes curtos
+   * quando o destino carrega ChatMessage ou GroupChatMessage
+   */
+  public byte[] toBinary(String destination, byte[] json) throws IOException {
+    JsonNode tree = objectMapper.readTree(json);
+    Class<?> type = compactType(destination);
+    if (type == null) {
+      return compactMapper.writeValueAsBytes(tree);
+    }
+    // Lotes de mensagens de grupo chegam como array
+    Class<?> valueType = tree.isArray() ? type.arrayType() : type;
+    return compactMapper.writeValueAsBytes(objectMapper.treeToValue(tree, valueType));
+  }
+
+  /**
+   * Retorna as estatísticas do codec binário
+   */
+  public PayloadCodecStatsDto getStats() {
+    long transcodes = transcodedFrames.get();
+    return new PayloadCodecStatsDto(
+        enabled,
+        binarySessions.size(),
+        binaryFrames.get(),
+        transcodes,
+        failedFrames.get(),
+        jsonBytes.get(),
+        binaryBytes.get(),
+        transcodes > 0 ? transcodeNanos.get() / 1000.0 / transcodes : 0);
+  }
+
+  private Message<?> toBinaryFrame(Message<?> message) {
+    if (!(message.getPayload() instanceof byte[] json) || !isJson(message.getHeaders())) {
+      return message;
+    }
+
+    String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+    PayloadKey key = new PayloadKey(destination, json);
+    byte[] binary = transcoded.getIfPresent(key);
+    if (binary == null) {
+      long start = System.nanoTime();
+      try {
+        binary = toBinary(destination, json);
+      } catch (IOException | IllegalArgumentException e) {
+        // Mensagem fora do formato esperado: segue em JSON
+        failedFrames.incrementAndGet();
+        LOGGER.warn("Erro ao converter mensagem de {} para CBOR: {}", destination, e.getMessage());
+        return message;
+      }
+      transcodeNanos.addAndGet(System.nanoTime() - start);
+      transcodedFrames.incrementAndGet();
+      transcoded.put(key, binary);
+    }
+
+    binaryFrames.incrementAndGet();
+    jsonBytes.addAndGet(json.length);
+    binaryBytes.addAndGet(binary.length);
+
+    // Mensagens do broker simples não trazem o comando STOMP; o relay já traz MESSAGE
+    StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+    accessor.updateStompCommandAsServerMessage();
+    accessor.setContentType(BINARY_FRAME);
+    return MessageBuilder.createMessage(binary, accessor.getMessageHeaders());
+  }
+
+  private static boolean acceptsBinary(Message<?> message) {
+    Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(message.getHeaders());
+    if (attributes == null || !attributes.containsKey(RAW_WEBSOCKET_ATTRIBUTE)) {
+      return false;
+    }
+    String accept = StompHeaderAccessor.wrap(message).getFirstNativeHeader(ACCEPT_HEADER);
+    if (accept == null) {
+      return false;
+    }
+    for (MimeType mimeType : MimeTypeUtils.parseMimeTypes(accept)) {
+      if (CBOR.equalsTypeAndSubtype(mimeType)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isJson(MessageHeaders headers) {
+    Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+    MimeType mimeType = contentType instanceof MimeType value ? value
+        : contentType instanceof String value ? MimeTypeUtils.parseMimeType(value) : null;
+    return mimeType != null && MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(mimeType);
+  }
+
+  // Destinos com tipo conhecido; os demais vão em CBOR com os nomes originais
+  private static Class<?> compactType(String destination) {
+    if (destination == null) {
+      return null;
+    }
+    if (destination.equals("/topic/public") || destination.startsWith("/queue/private.")) {
+      return ChatMessage.class;
+    }
+    if (destination.startsWith("/topic/group.")) {
+      return GroupChatMessage.class;
+    }
+    return null;
+  }
+
+  /**
+   * Mapper CBOR com os nomes curtos e o timestamp em milissegundos
+   */
+  public static ObjectMapper compactMapper() {
+    SimpleModule epochTime = new SimpleModule("EpochMillis");
+    epochTime.addSerializer(LocalDateTime.class, new EpochMillisSerializer());
+    epochTime.addDeserializer(LocalDateTime.class, new EpochMillisDeserializer());
+
+    return CBORMapper.builder()
+        .addModule(epochTime)
+        .addMixIn(ChatMessage.class, ChatMessageMixin.class)
+        .addMixIn(GroupChatMessage.class, GroupChatMessageMixin.class)
+        .serializationInclusion(JsonInclude.Include.NON_NULL)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .build();
+  }
+
+  /**
+   * Chave do cache de conversão: o tipo convertido depende do destino
+   */
+  private static final class PayloadKey {
+    private final String destination;
+    private final byte[] json;
+    private final int hash;
+
+    PayloadKey(String destination, byte[] json) {
+      this.destination = destination;
+      this.json = json;
+      this.hash = 31 * Objects.hashCode(destination) + Arrays.hashCode(json);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof PayloadKey key && hash == key.hash
+          && Objects.equals(destination, key.destination) && Arrays.equals(json, key.json);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * LocalDateTime como milissegundos desde a época, no fuso do servidor
+   */
+  static final class EpochMillisSerializer extends StdSerializer<LocalDateTime> {
+    private static final long serialVersionUID = 1L;
+
+    EpochMillisSerializer() {
+      super(LocalDateTime.class);
+    }
+
+    @Override
+    public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      gen.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+  }
+
+  /**
+   * Aceita milissegundos desde a época ou a data em texto (ISO)
+   */
+  static final class EpochMillisDeserializer extends StdDeserializer<LocalDateTime> {
+    private static final long serialVersionUID = 1L;
+
+    EpochMillisDeserializer() {
+      super(LocalDateTime.class);
+    }
+
+    @Override
+    public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+      if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(parser.getLongValue()), ZoneId.systemDefault());
+      }
+      return LocalDateTime.parse(parser.getValueAsString());
+    }
+  }
+
+  abstract static class ChatMessageMixin {
+    @JsonProperty("c")
+    abstract String getContent();
+
+    @JsonProperty("s")
+    abstract String getSender();
+
+    @JsonProperty("r")
+    abstract String getRecipient();
+
+    @JsonProperty("k")
+    abstract ChatMessage.MessageType getType();
+
+    @JsonProperty("t")
+    abstract LocalDateTime getTimestamp();
+  }
+
+  abstract static class GroupChatMessageMixin {
+    @JsonProperty("c")
+    abstract String getContent();
+
+    @JsonProperty("s")
+    abstract String getSender();
+
+    @JsonProperty("g")
+    abstract Long getGroupId();
+
+    @JsonProperty("n")
+    abstract String getGroupName();
+
+    @JsonProperty("k")
+    abstract GroupChatMessage.MessageType getType();
+
+    @JsonProperty("t")
+    abstract LocalDateTime getTimestamp();
+  }
+}
@@ -0,0 +1,237 @@
+package com.bananachat.backend.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.bananachat.backend.dto.ChannelExecutorStatsDto;
+
+/**
+ * Executores dos canais STOMP de entrada (frames recebidos dos clientes, que
+ * chegam aos handlers @MessageMapping) e de saída (frames enviados às sessões).
+ *
+ * Tamanho do pool, capacidade da fila e política de rejeição vêm de
+ * chat.websocket.inbound.* e chat.websocket.outbound.*; os padrões do Spring
+ * usam fila ilimitada, o que esconde o acúmulo de mensagens numa rajada. Com
+ * threads virtuais o canal de entrada não tem pool nem fila.
+ *
+ * Cada tarefa é instrumentada para medir o tempo de espera na fila e o tempo
+ * de execução; as estatísticas ficam em /api/metrics/channels.
+ */
+@Component
+public class ChannelExecutors {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ChannelExecutors.class);
+
+  private static final int CPUS = Runtime.getRuntime().availableProcessors();
+
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  @Value("${chat.websocket.inbound.core-pool-size:0}")
+  private int inboundCorePoolSize;
+
+  @Value("${chat.websocket.inbound.max-pool-size:0}")
+  private int inboundMaxPoolSize;
+
+  @Value("${chat.websocket.inbound.queue-capacity:10000}")
+  private int inboundQueueCapacity;
+
+  @Value("${chat.websocket.inbound.rejection-policy:caller-runs}")
+  private String inboundRejectionPolicy;
+
+  @Value("${chat.websocket.outbound.core-pool-size:0}")
+  private int outboundCorePoolSize;
+
+  @Value("${chat.websocket.outbound.max-pool-size:0}")
+  private int outboundMaxPoolSize;
+
+  @Value("${chat.websocket.outbound.queue-capacity:10000}")
+  private int outboundQueueCapacity;
+
+  @Value("${chat.websocket.outbound.rejection-policy:caller-runs}")
+  private String outboundRejectionPolicy;
+
+  @Value("${chat.websocket.keep-alive-seconds:60}")
+  private int keepAliveSeconds;
+
+  private final List<Channel> channels = new ArrayList<>();
+
+  /**
+   * Executor do canal de entrada (clientInboundChannel)
+   */
+  public Executor inbound() {
+    if (virtualThreads) {
+      SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("chat-inbound-");
+      executor.setVirtualThreads(true);
+      Channel channel = register(new Channel("inbound", null, 0));
+      executor.setTaskDecorator(channel);
+      LOGGER.info("Canal de entrada STOMP usando threads virtuais");
+      return executor;
+    }
+    return pool("inbound", "chat-inbound-", inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity,
+        inboundRejectionPolicy);
+  }
+
+  /**
+   * Executor do canal de saída (clientOutboundChannel)
+   */
+  public Executor outbound() {
+    return pool("outbound", "chat-outbound-", outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity,
+        outboundRejectionPolicy);
+  }
+
+  /**
+   * Retorna as estatísticas de cada canal
+   */
+  public List<ChannelExecutorStatsDto> getStats() {
+    synchronized (channels) {
+      return channels.stream().map(Channel::stats).toList();
+    }
+  }
+
+  private Executor pool(String name, String threadPrefix, int corePoolSize, int maxPoolSize, int queueCapacity,
+      String rejectionPolicy) {
+    int core = corePoolSize > 0 ? corePoolSize : CPUS * 2;
+    int max = Math.max(core, maxPoolSize > 0 ? maxPoolSize : CPUS * 4);
+
+    // Inicializado pelo Spring: o executor passado ao canal vira um bean
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix(threadPrefix);
+    executor.setCorePoolSize(core);
+    executor.setMaxPoolSize(max);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setKeepAliveSeconds(keepAliveSeconds);
+    executor.setAllowCoreThreadTimeOut(true);
+
+    Channel channel = register(new Channel(name, executor, queueCapacity));
+    executor.setTaskDecorator(channel);
+    executor.setRejectedExecutionHandler(channel.counting(rejectionHandler(rejectionPolicy)));
+
+    LOGGER.info("Canal {} STOMP: {}-{} threads, fila de {}, rejeição {}", name, core, max, queueCapacity,
+        rejectionPolicy);
+    return executor;
+  }
+
+  private Channel register(Channel channel) {
+    synchronized (channels) {
+      channels.add(channel);
+    }
+    return channel;
+  }
+
+  /**
+   * abort: descarta e registra erro no canal; caller-runs: a thread que
+   * publicou executa a tarefa (contrapressão até o socket); discard e
+   * discard-oldest: descarta a nova ou a mais antiga da fila
+   */
+  static RejectedExecutionHandler rejectionHandler(String policy) {
+    switch (policy.trim().toLowerCase()) {
+      case "abort":
+        return new ThreadPoolExecutor.AbortPolicy();
+      case "caller-runs":
+        return new ThreadPoolExecutor.CallerRunsPolicy();
+      case "discard":
+        return new ThreadPoolExecutor.DiscardPolicy();
+      case "discard-oldest":
+        return new ThreadPoolExecutor.DiscardOldestPolicy();
+      default:
+        throw new IllegalArgumentException("Política de rejeição inválida: " + policy
+            + " (use abort, caller-runs, discard ou discard-oldest)");
+    }
+  }
+
+  /**
+   * Estado e medições de um canal. Como TaskDecorator, marca o momento em que
+   * a tarefa foi enfileirada e mede espera e execução.
+   */
+  static final class Channel implements TaskDecorator {
+    final String name;
+    final ThreadPoolTaskExecutor pool;
+    final int queueCapacity;
+
+    final AtomicInteger active = new AtomicInteger();
+    final AtomicLong submitted = new AtomicLong();
+    final AtomicLong completed = new AtomicLong();
+    final AtomicLong rejected = new AtomicLong();
+    final AtomicLong totalWaitNanos = new AtomicLong();
+    final AtomicLong totalRunNanos = new AtomicLong();
+    final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    Channel(String name, ThreadPoolTaskExecutor pool, int queueCapacity) {
+      this.name = name;
+      this.pool = pool;
+      this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+      long enqueuedAt = System.nanoTime();
+      submitted.incrementAndGet();
+      return () -> {
+        long startedAt = System.nanoTime();
+        long wait = startedAt - enqueuedAt;
+        totalWaitNanos.addAndGet(wait);
+        maxWaitNanos.accumulate(wait);
+        active.incrementAndGet();
+        try {
+          task.run();
+        } finally {
+          active.decrementAndGet();
+          completed.incrementAndGet();
+          totalRunNanos.addAndGet(System.nanoTime() - startedAt);
+        }
+      };
+    }
+
+    RejectedExecutionHandler counting(RejectedExecutionHandler policy) {
+      return (task, executor) -> {
+        rejected.incrementAndGet();
+        policy.rejectedExecution(task, executor);
+      };
+    }
+
+    int queueDepth() {
+      if (pool == null) {
+        return 0;
+      }
+      try {
+        return pool.getThreadPoolExecutor().getQueue().size();
+      } catch (IllegalStateException e) {
+        // Ainda não inicializado
+        return 0;
+      }
+    }
+
+    ChannelExecutorStatsDto stats() {
+      long done = completed.get();
+      return new ChannelExecutorStatsDto(
+          name,
+          pool != null ? "pool" : "virtual",
+          pool != null ? pool.getPoolSize() : active.get(),
+          pool != null ? pool.getMaxPoolSize() : 0,
+          active.get(),
+          queueDepth(),
+          queueCapacity,
+          submitted.get(),
+          done,
+          rejected.get(),
+          done > 0 ? totalWaitNanos.get() / 1000.0 / done : 0,
+          maxWaitNanos.get() / 1000.0,
+          done > 0 ? totalRunNanos.get() / 1000.0 / done : 0);
+    }
+  }
+}
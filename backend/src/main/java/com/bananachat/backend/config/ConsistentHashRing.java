@@ -0,0 +1,93 @@
+package com.bananachat.backend.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Anel de hash consistente com nós virtuais. Cada nó ocupa vários pontos do
+ * anel; uma chave pertence ao primeiro ponto no sentido horário. Quando um nó
+ * fica indisponível, só as chaves dele passam para o próximo nó disponível, e
+ * voltam quando ele retorna.
+ */
+final class ConsistentHashRing {
+
+  private final long[] points;
+  private final int[] owners;
+  private final int nodeCount;
+
+  ConsistentHashRing(List<String> nodes, int virtualNodes) {
+    if (nodes.isEmpty()) {
+      throw new IllegalArgumentException("O anel precisa de pelo menos um nó");
+    }
+    if (virtualNodes < 1) {
+      throw new IllegalArgumentException("Número de nós virtuais inválido: " + virtualNodes);
+    }
+
+    int size = nodes.size() * virtualNodes;
+    long[] hashes = new long[size];
+    for (int node = 0; node < nodes.size(); node++) {
+      for (int v = 0; v < virtualNodes; v++) {
+        hashes[node * virtualNodes + v] = hash(nodes.get(node) + "#" + v);
+      }
+    }
+
+    // Ordena os pontos levando junto o dono de cada um
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+
+    this.points = new long[size];
+    this.owners = new int[size];
+    for (int i = 0; i < size; i++) {
+      points[i] = hashes[order[i]];
+      owners[i] = order[i] / virtualNodes;
+    }
+    this.nodeCount = nodes.size();
+  }
+
+  /**
+   * Nó dono da chave entre os disponíveis, ou -1 se nenhum estiver
+   */
+  int route(String key, IntPredicate available) {
+    int index = Arrays.binarySearch(points, hash(key));
+    if (index < 0) {
+      index = -index - 1;
+    }
+
+    boolean[] tried = new boolean[nodeCount];
+    int remaining = nodeCount;
+    for (int step = 0; step < points.length && remaining > 0; step++) {
+      int owner = owners[(index + step) % points.length];
+      if (!tried[owner]) {
+        if (available.test(owner)) {
+          return owner;
+        }
+        tried[owner] = true;
+        remaining--;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * FNV-1a de 64 bits sobre os bytes UTF-8, com a mistura final do MurmurHash3
+   * para espalhar chaves parecidas (group.1, group.2...) pelo anel
+   */
+  static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      h ^= b & 0xff;
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,36 @@
+package com.bananachat.backend.config;
+
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+
+/**
+ * Acrescenta a tag controller (nome da classe) ao http.server.requests, para
+ * ver a latência HTTP por controller além de por URI
+ */
+@Component
+public class ControllerObservationConvention extends DefaultServerRequestObservationConvention {
+
+  private static final KeyValue NO_CONTROLLER = KeyValue.of("controller", "none");
+
+  @Override
+  public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+    return super.getLowCardinalityKeyValues(context).and(controller(context));
+  }
+
+  private static KeyValue controller(ServerRequestObservationContext context) {
+    if (context.getCarrier() == null) {
+      return NO_CONTROLLER;
+    }
+    Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+    if (handler instanceof HandlerMethod handlerMethod) {
+      return KeyValue.of("controller", handlerMethod.getBeanType().getSimpleName());
+    }
+    return NO_CONTROLLER;
+  }
+}
@@ -0,0 +1,40 @@
+package com.bananachat.backend.config;
+
+import org.apache.activemq.broker.BrokerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Broker ActiveMQ dentro da própria JVM (chat.broker.mode=embedded), para
+ * instalações de um único nó. O relay STOMP do WebSocketConfig conecta nele
+ * pela interface local, então /topic e /queue têm a mesma semântica do
+ * ActiveMQ externo, sem depender de outro processo.
+ */
+@Configuration
+@ConditionalOnProperty(name = "chat.broker.mode", havingValue = "embedded")
+public class EmbeddedBrokerConfig {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EmbeddedBrokerConfig.class);
+
+  @Value("${chat.broker.embedded.stomp-port:61613}")
+  private int stompPort;
+
+  @Bean(initMethod = "start", destroyMethod = "stop")
+  public BrokerService embeddedBroker() throws Exception {
+    BrokerService broker = new BrokerService();
+    broker.setBrokerName("bananachat-embedded");
+    broker.setPersistent(false);
+    broker.setUseJmx(false);
+    broker.setAdvisorySupport(false);
+    broker.setUseShutdownHook(false);
+    broker.addConnector("stomp://" + WebSocketConfig.EMBEDDED_BROKER_HOST + ":" + stompPort);
+
+    LOGGER.info("Broker ActiveMQ embarcado com STOMP em {}:{}", WebSocketConfig.EMBEDDED_BROKER_HOST,
+        stompPort);
+    return broker;
+  }
+}
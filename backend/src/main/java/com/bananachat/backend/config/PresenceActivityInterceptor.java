@@ -0,0 +1,30 @@
+package com.bananachat.backend.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import com.bananachat.backend.service.OnlineUsersService;
+
+/**
+ * Marca atividade na presença a cada frame recebido, inclusive os heartbeats
+ * do cliente, para que só sessões realmente paradas expirem pelo TTL
+ */
+@Component
+public class PresenceActivityInterceptor implements ChannelInterceptor {
+
+  @Autowired
+  private OnlineUsersService onlineUsersService;
+
+  @Override
+  public Message<?> preSend(Message<?> message, MessageChannel channel) {
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    if (sessionId != null) {
+      onlineUsersService.touch(sessionId);
+    }
+    return message;
+  }
+}
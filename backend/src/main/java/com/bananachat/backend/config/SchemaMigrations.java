@@ -0,0 +1,67 @@
+package com.bananachat.backend.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ajustes de dados que o ddl-auto=update não faz sozinho (backfill de colunas
+ * novas em bancos já existentes). Cada passo é idempotente e roda na subida.
+ */
+@Component
+public class SchemaMigrations implements ApplicationRunner {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SchemaMigrations.class);
+
+  /**
+   * Índices declarados em ChatHistory e GroupMessage, repetidos aqui para
+   * bancos em que o Hibernate não gerencia o schema (ddl-auto diferente de
+   * update)
+   */
+  private static final List<String> INDEXES = List.of(
+      "CREATE INDEX IF NOT EXISTS idx_chat_history_timestamp ON chat_history (timestamp, id)",
+      "CREATE INDEX IF NOT EXISTS idx_chat_history_recipient_timestamp ON chat_history (recipient, timestamp, id)",
+      "CREATE INDEX IF NOT EXISTS idx_chat_history_sender_recipient ON chat_history (sender, recipient, timestamp, id)",
+      "CREATE INDEX IF NOT EXISTS idx_chat_history_type_timestamp ON chat_history (type, timestamp)",
+      "CREATE INDEX IF NOT EXISTS idx_chat_history_conversation ON chat_history (conversation_key, timestamp, id)",
+      "CREATE INDEX IF NOT EXISTS idx_group_messages_group_timestamp ON group_messages (group_id, timestamp, id)",
+      "CREATE INDEX IF NOT EXISTS idx_group_messages_sender ON group_messages (sender_id)");
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    // groups.member_count passou a ser desnormalizado a partir de user_groups
+    int groups = jdbcTemplate.update(
+        "UPDATE groups g SET member_count = (SELECT COUNT(*) FROM user_groups m WHERE m.group_id = g.id) "
+            + "WHERE g.member_count IS NULL");
+    int memberships = jdbcTemplate.update(
+        "UPDATE user_groups SET joined_at = CURRENT_TIMESTAMP WHERE joined_at IS NULL");
+
+    if (groups > 0 || memberships > 0) {
+      LOGGER.info("Backfill de participação em grupos: {} grupos, {} participações", groups, memberships);
+    }
+
+    // chat_history.conversation_key: mesma regra de ChatHistory.conversationKey
+    // (par ordenado separado por CHAR(31))
+    int conversations = jdbcTemplate.update(
+        "UPDATE chat_history SET conversation_key = CASE WHEN sender <= recipient "
+            + "THEN sender || CHAR(31) || recipient ELSE recipient || CHAR(31) || sender END "
+            + "WHERE recipient IS NOT NULL AND conversation_key IS NULL");
+    if (conversations > 0) {
+      LOGGER.info("Backfill da chave de conversa: {} mensagens privadas", conversations);
+    }
+
+    // Índices das consultas de histórico
+    for (String ddl : INDEXES) {
+      jdbcTemplate.execute(ddl);
+    }
+  }
+}
@@ -0,0 +1,484 @@
+package com.bananachat.backend.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.BrokerAvailabilityEvent;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import com.bananachat.backend.dto.BrokerShardStatsDto;
+
+/**
+ * Distribui os destinos STOMP entre vários brokers (chat.broker.mode=sharded).
+ * Cada destino (/topic/group.42, /queue/private.ana) pertence a um shard pelo
+ * hash consistente do nome; assinaturas e envios de clientes e do servidor
+ * para o mesmo destino vão sempre para o mesmo broker.
+ *
+ * Cada shard é um relay STOMP do Spring com canais próprios. Uma sessão de
+ * cliente abre uma conexão em cada shard disponível, e o CONNECTED só chega ao
+ * cliente depois que todos responderam. A saúde de cada shard vem da sessão de
+ * sistema do relay (CONNECT e heartbeats): quando um shard cai, os destinos
+ * dele passam para o próximo do anel e as sessões ligadas a ele recebem ERROR e
+ * reconectam. Quando ele volta, as sessões abertas durante a falha são
+ * encerradas do mesmo jeito, para refazerem as assinaturas no dono certo.
+ * Um SUBSCRIBE ou SEND cujo dono não está entre os shards da sessão (ou sem
+ * nenhum shard disponível) também encerra a sessão com ERROR, em vez de sumir
+ * sem aviso, e entra em getDroppedFrames.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.broker.mode", havingValue = "sharded")
+public class ShardedBrokerRelay implements MessageHandler, SmartLifecycle {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ShardedBrokerRelay.class);
+
+  private static final byte[] EMPTY_PAYLOAD = new byte[0];
+
+  // host:porta STOMP de cada broker, separados por vírgula
+  @Value("${chat.broker.sharded.endpoints:}")
+  private List<String> endpoints;
+
+  @Value("${chat.broker.sharded.virtual-nodes:160}")
+  private int virtualNodes;
+
+  // Intervalo dos heartbeats da sessão de sistema, que detectam broker fora do ar
+  @Value("${chat.broker.sharded.heartbeat-ms:10000}")
+  private long heartbeatMillis;
+
+  @Value("${spring.activemq.user}")
+  private String activeMqUser;
+
+  @Value("${spring.activemq.password}")
+  private String activeMqPassword;
+
+  @Autowired
+  @Qualifier("clientInboundChannel")
+  private SubscribableChannel clientInboundChannel;
+
+  @Autowired
+  @Qualifier("clientOutboundChannel")
+  private MessageChannel clientOutboundChannel;
+
+  @Autowired
+  @Qualifier("brokerChannel")
+  private SubscribableChannel brokerChannel;
+
+  private List<Shard> shards = List.of();
+
+  private ConsistentHashRing ring;
+
+  private final Map<String, SessionRoute> sessions = new ConcurrentHashMap<>();
+
+  private volatile boolean running;
+
+  // SUBSCRIBE/SEND de clientes sem conexão com o shard dono do destino
+  private final AtomicLong droppedFrames = new AtomicLong();
+
+  @Override
+  public void start() {
+    List<Shard> relays = new ArrayList<>();
+    for (String endpoint : endpoints) {
+      relays.add(relay(endpoint.trim()));
+    }
+    init(relays);
+
+    relays.forEach(shard -> ((StompBrokerRelayMessageHandler) shard.handler).start());
+    clientInboundChannel.subscribe(this);
+    brokerChannel.subscribe(this);
+    running = true;
+    LOGGER.info("Broker STOMP distribuído em {} shards: {}", relays.size(), endpoints);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    clientInboundChannel.unsubscribe(this);
+    brokerChannel.unsubscribe(this);
+    shards.forEach(shard -> ((StompBrokerRelayMessageHandler) shard.handler).stop());
+    sessions.clear();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Define os shards e monta o anel
+   */
+  void init(List<Shard> shards) {
+    if (shards.isEmpty()) {
+      throw new IllegalArgumentException("chat.broker.sharded.endpoints não pode ficar vazio");
+    }
+    this.shards = List.copyOf(shards);
+    this.ring = new ConsistentHashRing(shards.stream().map(shard -> shard.endpoint).toList(), virtualNodes);
+  }
+
+  @Override
+  public void handleMessage(Message<?> message) {
+    SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    if (type == null) {
+      return;
+    }
+
+    switch (type) {
+      case CONNECT:
+        connect(sessionId, message);
+        break;
+      case DISCONNECT:
+        SessionRoute closed = sessions.remove(sessionId);
+        if (closed != null) {
+          closed.shards.forEach(index -> shards.get(index).handle(copy(message)));
+        }
+        break;
+      case HEARTBEAT:
+        SessionRoute alive = sessions.get(sessionId);
+        if (alive != null) {
+          alive.shards.forEach(index -> shards.get(index).handle(copy(message)));
+        }
+        break;
+      case SUBSCRIBE:
+        subscribe(sessionId, message);
+        break;
+      case UNSUBSCRIBE:
+        SessionRoute route = sessions.get(sessionId);
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+        Integer subscribed = route != null && subscriptionId != null
+            ? route.subscriptions.remove(subscriptionId)
+            : null;
+        if (subscribed != null) {
+          shards.get(subscribed).handle(message);
+        }
+        break;
+      case MESSAGE:
+        send(sessionId, message);
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void connect(String sessionId, Message<?> message) {
+    List<Integer> targets = new ArrayList<>();
+    for (int i = 0; i < shards.size(); i++) {
+      if (shards.get(i).isAvailable()) {
+        targets.add(i);
+      }
+    }
+    if (targets.isEmpty()) {
+      sendError(sessionId, "Broker not available.");
+      return;
+    }
+
+    sessions.put(sessionId, new SessionRoute(Set.copyOf(targets)));
+    // Cada relay altera os cabeçalhos do CONNECT, então cada um recebe uma cópia
+    targets.forEach(index -> shards.get(index).handle(copy(message)));
+  }
+
+  private void subscribe(String sessionId, Message<?> message) {
+    SessionRoute route = sessions.get(sessionId);
+    String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+    String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+    if (route == null || subscriptionId == null || !isBrokerDestination(destination)) {
+      return;
+    }
+
+    int index = owner(destination);
+    if (index < 0 || !route.shards.contains(index)) {
+      unroutable(sessionId, route, destination);
+      return;
+    }
+    route.subscriptions.put(subscriptionId, index);
+    shards.get(index).handle(message);
+  }
+
+  private void send(String sessionId, Message<?> message) {
+    String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+    if (!isBrokerDestination(destination)) {
+      return;
+    }
+
+    int index = owner(destination);
+    if (sessionId == null) {
+      // Envio do servidor (SimpMessagingTemplate), pela sessão de sistema do shard
+      if (index < 0) {
+        throw new MessageDeliveryException(message, "Nenhum shard de broker disponível para " + destination);
+      }
+      shards.get(index).handle(message);
+      return;
+    }
+
+    SessionRoute route = sessions.get(sessionId);
+    if (route == null) {
+      return;
+    }
+    if (index < 0 || !route.shards.contains(index)) {
+      unroutable(sessionId, route, destination);
+      return;
+    }
+    shards.get(index).handle(message);
+  }
+
+  /**
+   * Frame de cliente para um shard em que a sessão não tem conexão (shard que
+   * voltou depois do CONNECT, antes do availabilityChanged) ou sem shard
+   * disponível: a sessão é encerrada com ERROR para o cliente reconectar
+   */
+  private void unroutable(String sessionId, SessionRoute route, String destination) {
+    droppedFrames.incrementAndGet();
+    LOGGER.warn("Frame para {} sem shard na sessão {}; sessão reiniciada", destination, sessionId);
+    resetSession(sessionId, route, "Broker shard for " + destination + " not connected, please reconnect.");
+  }
+
+  // Encerra a sessão nos shards dela e avisa o cliente; false se já foi encerrada
+  private boolean resetSession(String sessionId, SessionRoute route, String text) {
+    if (!sessions.remove(sessionId, route)) {
+      return false;
+    }
+    route.shards.forEach(i -> shards.get(i).handle(disconnect(sessionId)));
+    sendError(sessionId, text);
+    return true;
+  }
+
+  /**
+   * Shard dono do destino entre os disponíveis, ou -1
+   */
+  int owner(String destination) {
+    String key = shardKey(destination);
+    int preferred = ring.route(key, index -> true);
+    int index = ring.route(key, i -> shards.get(i).isAvailable());
+    if (index >= 0 && index != preferred) {
+      shards.get(index).failovers.incrementAndGet();
+    }
+    return index;
+  }
+
+  /**
+   * Chave do destino no anel: o nome sem o prefixo do broker (group.42,
+   * private.ana, public)
+   */
+  static String shardKey(String destination) {
+    for (String prefix : WebSocketConfig.BROKER_DESTINATION_PREFIXES) {
+      if (destination.startsWith(prefix + "/")) {
+        return destination.substring(prefix.length() + 1);
+      }
+    }
+    return destination;
+  }
+
+  private static boolean isBrokerDestination(String destination) {
+    if (destination == null) {
+      return false;
+    }
+    for (String prefix : WebSocketConfig.BROKER_DESTINATION_PREFIXES) {
+      if (destination.startsWith(prefix + "/")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Mensagens de um shard para os clientes. Só o último CONNECTED de cada
+   * sessão passa, quando todos os shards já aceitam frames dela.
+   */
+  void toClient(Message<?> message) {
+    StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+    if (accessor != null && StompCommand.CONNECTED.equals(accessor.getCommand())) {
+      SessionRoute route = sessions.get(accessor.getSessionId());
+      if (route == null || route.awaitingConnected.decrementAndGet() > 0) {
+        return;
+      }
+    }
+    clientOutboundChannel.send(message);
+  }
+
+  /**
+   * Chamado quando a sessão de sistema de um shard conecta ou cai
+   */
+  void availabilityChanged(Shard shard, boolean available) {
+    if (!available) {
+      LOGGER.warn("Shard de broker {} indisponível; destinos dele passam para o próximo do anel", shard.endpoint);
+      return;
+    }
+
+    int index = shards.indexOf(shard);
+    int reset = 0;
+    for (Map.Entry<String, SessionRoute> entry : sessions.entrySet()) {
+      if (!entry.getValue().shards.contains(index)
+          && resetSession(entry.getKey(), entry.getValue(), "Broker shard restored, please reconnect.")) {
+        reset++;
+      }
+    }
+    LOGGER.info("Shard de broker {} disponível; {} sessões reiniciadas", shard.endpoint, reset);
+  }
+
+  /**
+   * Endpoints configurados (host:porta), na ordem dos shards
+   */
+  public List<String> getEndpoints() {
+    return endpoints.stream().map(String::trim).toList();
+  }
+
+  /**
+   * Indica se o relay do shard está conectado ao broker; false antes do start
+   */
+  public boolean isShardAvailable(String endpoint) {
+    for (Shard shard : shards) {
+      if (shard.endpoint.equals(endpoint)) {
+        return shard.isAvailable();
+      }
+    }
+    return false;
+  }
+
+  /**
+   * SUBSCRIBE/SEND de clientes descartados por falta de conexão com o shard
+   * dono (cada um reinicia a sessão)
+   */
+  public long getDroppedFrames() {
+    return droppedFrames.get();
+  }
+
+  /**
+   * Retorna as estatísticas de cada shard
+   */
+  public List<BrokerShardStatsDto> getStats() {
+    List<BrokerShardStatsDto> stats = new ArrayList<>();
+    for (int i = 0; i < shards.size(); i++) {
+      Shard shard = shards.get(i);
+      long sessionCount = 0;
+      long subscriptionCount = 0;
+      for (SessionRoute route : sessions.values()) {
+        if (route.shards.contains(i)) {
+          sessionCount++;
+        }
+        for (Integer owner : route.subscriptions.values()) {
+          if (owner == i) {
+            subscriptionCount++;
+          }
+        }
+      }
+      stats.add(new BrokerShardStatsDto(shard.endpoint, shard.isAvailable(), sessionCount, subscriptionCount,
+          shard.routed.get(), shard.failovers.get()));
+    }
+    return stats;
+  }
+
+  private void sendError(String sessionId, String text) {
+    StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.ERROR);
+    accessor.setSessionId(sessionId);
+    accessor.setMessage(text);
+    clientOutboundChannel.send(MessageBuilder.createMessage(EMPTY_PAYLOAD, accessor.getMessageHeaders()));
+  }
+
+  private static Message<?> disconnect(String sessionId) {
+    StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+    accessor.setSessionId(sessionId);
+    return MessageBuilder.createMessage(EMPTY_PAYLOAD, accessor.getMessageHeaders());
+  }
+
+  private static Message<?> copy(Message<?> message) {
+    return MessageBuilder.createMessage(message.getPayload(), StompHeaderAccessor.wrap(message).getMessageHeaders());
+  }
+
+  private Shard relay(String endpoint) {
+    int separator = endpoint.lastIndexOf(':');
+    if (separator <= 0) {
+      throw new IllegalArgumentException("Endpoint de broker inválido: " + endpoint + " (use host:porta)");
+    }
+
+    // Canais próprios: quem entrega as mensagens ao relay é o roteador
+    StompBrokerRelayMessageHandler relay = new StompBrokerRelayMessageHandler(new ExecutorSubscribableChannel(),
+        toClientChannel(), new ExecutorSubscribableChannel(), List.of(WebSocketConfig.BROKER_DESTINATION_PREFIXES));
+    relay.setRelayHost(endpoint.substring(0, separator));
+    relay.setRelayPort(Integer.parseInt(endpoint.substring(separator + 1)));
+    relay.setClientLogin(activeMqUser);
+    relay.setClientPasscode(activeMqPassword);
+    relay.setSystemLogin(activeMqUser);
+    relay.setSystemPasscode(activeMqPassword);
+    relay.setSystemHeartbeatSendInterval(heartbeatMillis);
+    relay.setSystemHeartbeatReceiveInterval(heartbeatMillis);
+
+    Shard shard = new Shard(endpoint, relay, relay::isBrokerAvailable);
+    relay.setApplicationEventPublisher(event -> {
+      if (event instanceof BrokerAvailabilityEvent availability) {
+        availabilityChanged(shard, availability.isBrokerAvailable());
+      }
+    });
+    return shard;
+  }
+
+  private MessageChannel toClientChannel() {
+    return (message, timeout) -> {
+      toClient(message);
+      return true;
+    };
+  }
+
+  /**
+   * Um broker do anel
+   */
+  static final class Shard {
+    final String endpoint;
+    final MessageHandler handler;
+    final BooleanSupplier available;
+    final AtomicLong routed = new AtomicLong();
+    final AtomicLong failovers = new AtomicLong();
+
+    Shard(String endpoint, MessageHandler handler, BooleanSupplier available) {
+      this.endpoint = endpoint;
+      this.handler = handler;
+      this.available = available;
+    }
+
+    boolean isAvailable() {
+      return available.getAsBoolean();
+    }
+
+    void handle(Message<?> message) {
+      routed.incrementAndGet();
+      handler.handleMessage(message);
+    }
+  }
+
+  /**
+   * Shards em que a sessão tem conexão e shard de cada assinatura
+   */
+  private static final class SessionRoute {
+    final Set<Integer> shards;
+    final AtomicInteger awaitingConnected;
+    final Map<String, Integer> subscriptions = new ConcurrentHashMap<>();
+
+    SessionRoute(Set<Integer> shards) {
+      this.shards = shards;
+      this.awaitingConnected = new AtomicInteger(shards.size());
+    }
+  }
+}
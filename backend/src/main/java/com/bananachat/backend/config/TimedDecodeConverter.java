@@ -0,0 +1,54 @@
+package com.bananachat.backend.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.SmartMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import com.bananachat.backend.service.MessagePipelineMetrics;
+import com.bananachat.backend.service.MessagePipelineMetrics.Destination;
+import com.bananachat.backend.service.MessagePipelineMetrics.Stage;
+
+/**
+ * Envolve os conversores STOMP para medir a etapa decode (payload para o
+ * parâmetro @Payload) das mensagens do pipeline. A conversão de saída passa
+ * direto.
+ */
+final class TimedDecodeConverter implements SmartMessageConverter {
+
+  private final SmartMessageConverter delegate;
+  private final MessagePipelineMetrics pipelineMetrics;
+
+  TimedDecodeConverter(SmartMessageConverter delegate, MessagePipelineMetrics pipelineMetrics) {
+    this.delegate = delegate;
+    this.pipelineMetrics = pipelineMetrics;
+  }
+
+  @Override
+  public Object fromMessage(Message<?> message, Class<?> targetClass) {
+    return fromMessage(message, targetClass, null);
+  }
+
+  @Override
+  public Object fromMessage(Message<?> message, Class<?> targetClass, Object conversionHint) {
+    Destination destination = MessagePipelineMetrics.forAppDestination(
+        SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+    if (destination == null) {
+      return delegate.fromMessage(message, targetClass, conversionHint);
+    }
+    long startNanos = System.nanoTime();
+    Object payload = delegate.fromMessage(message, targetClass, conversionHint);
+    pipelineMetrics.record(Stage.DECODE, destination, startNanos);
+    return payload;
+  }
+
+  @Override
+  public Message<?> toMessage(Object payload, MessageHeaders headers) {
+    return delegate.toMessage(payload, headers);
+  }
+
+  @Override
+  public Message<?> toMessage(Object payload, MessageHeaders headers, Object conversionHint) {
+    return delegate.toMessage(payload, headers, conversionHint);
+  }
+}
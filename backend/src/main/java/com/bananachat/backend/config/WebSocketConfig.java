@@ -1,15 +1,48 @@
 package com.bananachat.backend.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import com.bananachat.backend.service.MessagePipelineMetrics;
+
 @Configuration
 @EnableWebSocketMessageBroker
-public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer, DisposableBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WebSocketConfig.class);
+
+  static final String EMBEDDED_BROKER_HOST = "127.0.0.1";
+
+  static final String[] BROKER_DESTINATION_PREFIXES = { "/topic", "/queue" };
+
+  // Heartbeat do broker simples (enviado, esperado), em ms
+  private static final long[] SIMPLE_BROKER_HEARTBEAT = { 10000, 10000 };
+
+  /**
+   * relay: ActiveMQ externo (clusters); sharded: vários ActiveMQ externos, com
+   * os destinos distribuídos por hash; embedded: ActiveMQ na própria JVM;
+   * simple: broker em memória do Spring, sem ActiveMQ
+   */
+  @Value("${chat.broker.mode:relay}")
+  private String brokerMode;
+
+  @Value("${chat.broker.embedded.stomp-port:61613}")
+  private int embeddedStompPort;
 
   @Value("${spring.activemq.broker-url}")
   private String activeMqBrokerUrl;
@@ -20,21 +53,116 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
   @Value("${spring.activemq.password}")
   private String activeMqPassword;
 
+  // Requer Java 21 (perfil Maven virtual-threads)
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  @Value("${chat.websocket.preserve-order:true}")
+  private boolean preserveOrder;
+
+  @Autowired
+  private ChannelExecutors channelExecutors;
+
+  @Autowired
+  private BinaryPayloadCodec binaryPayloadCodec;
+
+  @Autowired
+  private MessagePipelineMetrics pipelineMetrics;
+
+  @Autowired
+  private PresenceActivityInterceptor presenceActivityInterceptor;
+
+  private ThreadPoolTaskScheduler heartbeatScheduler;
+
   @Override
   public void configureMessageBroker(MessageBrokerRegistry config) {
-    // Configura o broker externo do ActiveMQ
-    config.enableStompBrokerRelay("/topic", "/queue")
-        .setRelayHost(extractHostFromBrokerUrl(activeMqBrokerUrl))
-        .setRelayPort(extractPortFromBrokerUrl(activeMqBrokerUrl))
-        .setClientLogin(activeMqUser)
-        .setClientPasscode(activeMqPassword)
-        .setSystemLogin(activeMqUser)
-        .setSystemPasscode(activeMqPassword);
+    switch (brokerMode.trim().toLowerCase()) {
+      case "relay":
+        // Configura o broker externo do ActiveMQ
+        enableRelay(config, extractHostFromBrokerUrl(activeMqBrokerUrl),
+            extractPortFromBrokerUrl(activeMqBrokerUrl));
+        break;
+      case "sharded":
+        // O ShardedBrokerRelay encaminha para os shards; este relay fica parado
+        // e só evita que o Spring crie o broker simples
+        config.enableStompBrokerRelay(BROKER_DESTINATION_PREFIXES).setAutoStartup(false);
+        break;
+      case "embedded":
+        // Broker iniciado pelo EmbeddedBrokerConfig, na interface local
+        enableRelay(config, EMBEDDED_BROKER_HOST, embeddedStompPort);
+        break;
+      case "simple":
+        heartbeatScheduler = new ThreadPoolTaskScheduler();
+        heartbeatScheduler.setPoolSize(1);
+        heartbeatScheduler.setThreadNamePrefix("chat-broker-heartbeat-");
+        heartbeatScheduler.initialize();
+        config.enableSimpleBroker(BROKER_DESTINATION_PREFIXES)
+            .setHeartbeatValue(SIMPLE_BROKER_HEARTBEAT)
+            .setTaskScheduler(heartbeatScheduler);
+        break;
+      default:
+        throw new IllegalArgumentException("Modo de broker inválido: " + brokerMode
+            + " (use relay, sharded, embedded ou simple)");
+    }
+    LOGGER.info("Broker STOMP no modo {}", brokerMode);
 
     // Define o prefixo para mensagens que são destinadas a métodos anotados com
     // @MessageMapping.
     // O cliente React enviará mensagens para destinos que começam com "/app".
     config.setApplicationDestinationPrefixes("/app");
+
+    // Mensagens para uma mesma sessão saem na ordem em que foram publicadas,
+    // mesmo com várias threads no canal de saída. Com threads virtuais não há
+    // limite de threads, então a ordem é sempre garantida.
+    config.setPreservePublishOrder(preserveOrder || virtualThreads);
+  }
+
+  @Override
+  public void configureClientInboundChannel(ChannelRegistration registration) {
+    // Os handlers @MessageMapping bloqueiam no JPA; com threads virtuais cada
+    // frame recebido roda na sua própria thread, sem pool para dimensionar
+    registration.executor(channelExecutors.inbound());
+    registration.interceptors(presenceActivityInterceptor, binaryPayloadCodec);
+  }
+
+  @Override
+  public void configureClientOutboundChannel(ChannelRegistration registration) {
+    registration.executor(channelExecutors.outbound());
+    // Converte para CBOR as mensagens das sessões que pediram payload binário
+    registration.interceptors(binaryPayloadCodec);
+  }
+
+  @Override
+  public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+    // CBOR só para frames com content-type application/cbor; o conversor JSON
+    // do Spring Boot continua atendendo os demais
+    if (binaryPayloadCodec.isEnabled()) {
+      messageConverters.add(binaryPayloadCodec.messageConverter());
+    }
+
+    // O Spring Boot registra os seus antes (@Order(0)); todos passam a medir a
+    // etapa decode do pipeline de mensagens
+    List<MessageConverter> converters = new ArrayList<>(messageConverters);
+    messageConverters.clear();
+    messageConverters.add(new TimedDecodeConverter(new CompositeMessageConverter(converters), pipelineMetrics));
+    return true;
+  }
+
+  @Override
+  public void destroy() {
+    if (heartbeatScheduler != null) {
+      heartbeatScheduler.shutdown();
+    }
+  }
+
+  private void enableRelay(MessageBrokerRegistry config, String host, int port) {
+    config.enableStompBrokerRelay(BROKER_DESTINATION_PREFIXES)
+        .setRelayHost(host)
+        .setRelayPort(port)
+        .setClientLogin(activeMqUser)
+        .setClientPasscode(activeMqPassword)
+        .setSystemLogin(activeMqUser)
+        .setSystemPasscode(activeMqPassword);
   }
 
   private String extractHostFromBrokerUrl(String brokerUrl) {
@@ -65,6 +193,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         .withSockJS();
     registry.addEndpoint("/ws-chat-raw")
         .setAllowedOrigins("http://localhost:3000", "http://localhost:3001", "http://localhost:3002",
-            "http://localhost:5173");
+            "http://localhost:5173")
+        // Só este endpoint transporta frames binários (CBOR)
+        .addInterceptors(BinaryPayloadCodec.rawWebSocketMarker());
+
+    // Frames de uma mesma sessão são processados em ordem, um de cada vez;
+    // sessões diferentes continuam em paralelo
+    registry.setPreserveReceiveOrder(preserveOrder || virtualThreads);
   }
 }
\ No newline at end of file
@@ -4,7 +4,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
@@ -12,15 +11,18 @@ import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 import com.bananachat.backend.model.ChatMessage;
 import com.bananachat.backend.service.ChatHistoryService;
+import com.bananachat.backend.service.MessageFanout;
 import com.bananachat.backend.service.OnlineUsersService;
 
+import jakarta.annotation.PostConstruct;
+
 @Component
 public class WebSocketEventListener {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(WebSocketEventListener.class);
 
   @Autowired
-  private SimpMessageSendingOperations messagingTemplate;
+  private MessageFanout messageFanout;
 
   @Autowired
   private ChatHistoryService chatHistoryService;
@@ -28,6 +30,18 @@ public class WebSocketEventListener {
   @Autowired
   private OnlineUsersService onlineUsersService;
 
+  @PostConstruct
+  public void init() {
+    // Só as mudanças vão para os clientes; a lista completa fica em /api/users/presence
+    onlineUsersService.onPresenceChange(delta -> messageFanout.send(delta, "/topic/presence"));
+
+    // Sessões que expiraram sem DISCONNECT também geram o LEAVE
+    onlineUsersService.onUserExpired(username -> {
+      LOGGER.info("Usuário {} expirou por inatividade", username);
+      broadcastLeave(username);
+    });
+  }
+
   @EventListener
   public void handleWebSocketConnectListener(SessionConnectedEvent event) {
     LOGGER.info("Recebida nova conexão WebSocket");
@@ -35,29 +49,27 @@ public class WebSocketEventListener {
 
   @EventListener
   public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
-    StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
-
-    String username = null;
-    var sessionAttributes = headerAccessor.getSessionAttributes();
-    if (sessionAttributes != null) {
-      username = (String) sessionAttributes.get("username");
-    }
-
+    // Só a última sessão do usuário gera o LEAVE; fechar uma de várias abas não
+    String username = onlineUsersService.removeSession(event.getSessionId());
     if (username != null) {
       LOGGER.info("Usuário desconectado: {}", username);
+      broadcastLeave(username);
+    } else if (LOGGER.isDebugEnabled()) {
+      var sessionAttributes = StompHeaderAccessor.wrap(event.getMessage()).getSessionAttributes();
+      LOGGER.debug("Sessão {} encerrada sem saída do usuário {}", event.getSessionId(),
+          sessionAttributes != null ? sessionAttributes.get("username") : null);
+    }
+  }
 
-      // Remove o usuário da lista de usuários online
-      onlineUsersService.removeUser(username);
-
-      ChatMessage chatMessage = new ChatMessage();
-      chatMessage.setType(ChatMessage.MessageType.LEAVE);
-      chatMessage.setSender(username);
-      chatMessage.setContent(username + " deixou o chat!");
+  private void broadcastLeave(String username) {
+    ChatMessage chatMessage = new ChatMessage();
+    chatMessage.setType(ChatMessage.MessageType.LEAVE);
+    chatMessage.setSender(username);
+    chatMessage.setContent(username + " deixou o chat!");
 
-      // Salva a mensagem de saída no histórico
-      chatHistoryService.saveMessage(chatMessage);
+    // Salva a mensagem de saída no histórico
+    chatHistoryService.saveMessage(chatMessage);
 
-      messagingTemplate.convertAndSend("/topic/public", chatMessage);
-    }
+    messageFanout.send(chatMessage, "/topic/public");
   }
 }
@@ -0,0 +1,93 @@
+package com.bananachat.backend.config;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import com.bananachat.backend.service.OnlineUsersService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Gauges do estado das conexões, registrados pelo Spring Boot no MeterRegistry:
+ * chat.users.online e chat.presence.sessions (OnlineUsersService),
+ * chat.websocket.sessions (sessões abertas por transporte) e
+ * chat.broker.available (1 se o broker, ou cada shard no modo sharded, está
+ * conectado); no modo sharded, chat.broker.dropped.frames conta os frames de
+ * clientes sem conexão com o shard dono do destino.
+ */
+@Component
+public class WebSocketMetrics implements MeterBinder {
+
+  @Autowired
+  private OnlineUsersService onlineUsersService;
+
+  @Autowired
+  private WebSocketMessageBrokerStats brokerStats;
+
+  // Relay para o ActiveMQ (modos relay, embedded e, parado, sharded) ou broker simples
+  @Autowired
+  private List<AbstractBrokerMessageHandler> brokers;
+
+  // Só existe com chat.broker.mode=sharded
+  @Autowired(required = false)
+  private ShardedBrokerRelay shardedBrokerRelay;
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("chat.users.online", onlineUsersService, OnlineUsersService::getOnlineUsersCount)
+        .description("Usuários online")
+        .register(registry);
+    Gauge.builder("chat.presence.sessions", onlineUsersService, OnlineUsersService::getSessionsCount)
+        .description("Sessões com presença registrada (um usuário pode ter várias abas)")
+        .register(registry);
+
+    sessionGauge(registry, "websocket", SubProtocolWebSocketHandler.Stats::getWebSocketSessions);
+    sessionGauge(registry, "http-streaming", SubProtocolWebSocketHandler.Stats::getHttpStreamingSessions);
+    sessionGauge(registry, "http-polling", SubProtocolWebSocketHandler.Stats::getHttpPollingSessions);
+
+    if (shardedBrokerRelay != null) {
+      for (String endpoint : shardedBrokerRelay.getEndpoints()) {
+        Gauge.builder("chat.broker.available", shardedBrokerRelay,
+            relay -> relay.isShardAvailable(endpoint) ? 1 : 0)
+            .description("1 se o broker STOMP está conectado")
+            .tag("broker", endpoint)
+            .register(registry);
+      }
+      FunctionCounter.builder("chat.broker.dropped.frames", shardedBrokerRelay,
+          ShardedBrokerRelay::getDroppedFrames)
+          .description("SUBSCRIBE/SEND sem conexão com o shard dono do destino (sessão reiniciada)")
+          .register(registry);
+    } else {
+      for (AbstractBrokerMessageHandler broker : brokers) {
+        String name = broker instanceof StompBrokerRelayMessageHandler relay
+            ? relay.getRelayHost() + ":" + relay.getRelayPort()
+            : "simple";
+        Gauge.builder("chat.broker.available", broker, handler -> handler.isBrokerAvailable() ? 1 : 0)
+            .description("1 se o broker STOMP está conectado")
+            .tag("broker", name)
+            .register(registry);
+      }
+    }
+  }
+
+  private void sessionGauge(MeterRegistry registry, String transport,
+      ToIntFunction<SubProtocolWebSocketHandler.Stats> sessions) {
+    Gauge.builder("chat.websocket.sessions", brokerStats, stats -> {
+      SubProtocolWebSocketHandler.Stats sessionStats = stats.getWebSocketSessionStats();
+      return sessionStats != null ? sessions.applyAsInt(sessionStats) : 0;
+    })
+        .description("Sessões WebSocket/SockJS abertas")
+        .tag("transport", transport)
+        .register(registry);
+  }
+}
@@ -8,15 +8,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 import com.bananachat.backend.entity.GroupMessage;
 import com.bananachat.backend.model.ChatMessage;
 import com.bananachat.backend.model.GroupChatMessage;
 import com.bananachat.backend.service.ChatHistoryService;
+import com.bananachat.backend.service.ChatMetrics;
+import com.bananachat.backend.service.GroupMembershipIndex;
+import com.bananachat.backend.service.GroupMessageBatcher;
 import com.bananachat.backend.service.GroupMessageService;
 import com.bananachat.backend.service.GroupService;
+import com.bananachat.backend.service.MessageFanout;
+import com.bananachat.backend.service.MessagePipelineMetrics;
+import com.bananachat.backend.service.MessagePipelineMetrics.Destination;
+import com.bananachat.backend.service.MessagePipelineMetrics.Stage;
+import com.bananachat.backend.service.MessageWriteBehindService;
 import com.bananachat.backend.service.OnlineUsersService;
 import com.bananachat.backend.service.UserService;
 
@@ -26,7 +33,7 @@ public class ChatController {
     private static final Logger LOGGER = LoggerFactory.getLogger(ChatController.class);
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate; // Usado para enviar mensagens via WebSocket
+    private MessageFanout messageFanout; // Usado para enviar mensagens via WebSocket
 
     @Autowired
     private ChatHistoryService chatHistoryService;
@@ -43,35 +50,57 @@ public class ChatController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private MessageWriteBehindService messageWriteBehindService;
+
+    @Autowired
+    private GroupMembershipIndex membershipIndex;
+
+    @Autowired
+    private GroupMessageBatcher groupMessageBatcher;
+
+    @Autowired
+    private MessagePipelineMetrics pipelineMetrics;
+
+    @Autowired
+    private ChatMetrics chatMetrics;
+
     /**
      * Manipula o envio de mensagens de chat.
      * Recebe mensagens do cliente via WebSocket no destino "/app/chat.sendMessage".
      *
-     * @param chatMessage A mensagem recebida do cliente.
+     * @param chatMessage    A mensagem recebida do cliente.
+     * @param headerAccessor Permite acessar informações da sessão WebSocket.
      */
     @MessageMapping("/chat.sendMessage")
-    public void sendMessage(@Payload ChatMessage chatMessage) {
+    public void sendMessage(@Payload ChatMessage chatMessage, SimpMessageHeaderAccessor headerAccessor) {
         long startNanos = System.nanoTime();
-        LOGGER.info("Mensagem recebida via WebSocket: {}", chatMessage.getContent());
+        // Conteúdo só em debug; os tempos de cada etapa vão para o MessagePipelineMetrics
+        LOGGER.debug("Mensagem recebida via WebSocket: {}", chatMessage.getContent());
+
+        // Saída explícita: encerra a presença desta sessão, e o LEAVE só sai se
+        // era a última sessão do usuário (o disconnect depois não repete)
+        if (chatMessage.getType() == ChatMessage.MessageType.LEAVE
+                && onlineUsersService.removeSession(headerAccessor.getSessionId()) == null) {
+            LOGGER.debug("Usuário {} segue online em outra sessão, LEAVE não enviado", chatMessage.getSender());
+            return;
+        }
 
         // Garante que o timestamp seja sempre definido no servidor com precisão de
         // nanosegundos
-        LocalDateTime now = LocalDateTime.now();
-        chatMessage.setTimestamp(now);
+        chatMessage.setTimestamp(LocalDateTime.now());
+        long validatedNanos = pipelineMetrics.record(Stage.VALIDATE, Destination.PUBLIC, startNanos);
 
-        long timestampNanos = System.nanoTime();
-        LOGGER.info("Timestamp definido: {} (processamento: {}ns) para mensagem: {}",
-                now, timestampNanos - startNanos, chatMessage.getContent());
-
-        // Salva a mensagem no histórico
-        chatHistoryService.saveMessage(chatMessage);
+        // Salva a mensagem no histórico (síncrono ou via write-behind)
+        messageWriteBehindService.persistChatMessage(chatMessage);
+        long persistedNanos = pipelineMetrics.record(Stage.PERSIST, Destination.PUBLIC, validatedNanos);
 
         // Envia diretamente para todos os clientes conectados
-        messagingTemplate.convertAndSend("/topic/public", chatMessage);
+        messageFanout.send(chatMessage, "/topic/public");
+        pipelineMetrics.record(Stage.BROADCAST, Destination.PUBLIC, persistedNanos);
+        chatMetrics.messageSent(Destination.PUBLIC);
 
-        long endNanos = System.nanoTime();
-        LOGGER.info("Mensagem enviada com timestamp: {} (tempo total: {}ns)",
-                chatMessage.getTimestamp(), endNanos - startNanos);
+        LOGGER.debug("Mensagem enviada com timestamp: {}", chatMessage.getTimestamp());
     }
 
     /**
@@ -83,16 +112,10 @@ public class ChatController {
      */
     @MessageMapping("/chat.addUser")
     public void addUser(@Payload ChatMessage chatMessage, SimpMessageHeaderAccessor headerAccessor) {
-        long startNanos = System.nanoTime();
-        LOGGER.info("Novo usuário entrando no chat: {}", chatMessage.getSender());
+        LOGGER.debug("Novo usuário entrando no chat: {}", chatMessage.getSender());
 
         // Garante que o timestamp seja sempre definido no servidor com precisão
-        LocalDateTime now = LocalDateTime.now();
-        chatMessage.setTimestamp(now);
-
-        long timestampNanos = System.nanoTime();
-        LOGGER.info("Timestamp definido: {} (processamento: {}ns) para entrada do usuário: {}",
-                now, timestampNanos - startNanos, chatMessage.getSender());
+        chatMessage.setTimestamp(LocalDateTime.now());
 
         // Adiciona o nome de usuário na sessão do WebSocket
         try {
@@ -104,16 +127,20 @@ public class ChatController {
             LOGGER.warn("Não foi possível adicionar username à sessão: {}", e.getMessage());
         }
 
-        // Adiciona o usuário à lista de usuários online
-        onlineUsersService.addUser(chatMessage.getSender());
+        // Registra a sessão na presença; só a primeira sessão do usuário
+        // (outra aba não) gera o JOIN
+        if (!onlineUsersService.addSession(chatMessage.getSender(), headerAccessor.getSessionId())) {
+            LOGGER.debug("Usuário {} já estava online, JOIN não enviado", chatMessage.getSender());
+            return;
+        }
 
         // Salva a mensagem no histórico
         chatHistoryService.saveMessage(chatMessage);
 
         // Envia diretamente para todos os clientes conectados
-        messagingTemplate.convertAndSend("/topic/public", chatMessage);
+        messageFanout.send(chatMessage, "/topic/public");
 
-        LOGGER.info("Usuário adicionado com timestamp: {}", chatMessage.getTimestamp());
+        LOGGER.debug("Usuário adicionado com timestamp: {}", chatMessage.getTimestamp());
     }
 
     /**
@@ -126,35 +153,29 @@ public class ChatController {
     @MessageMapping("/chat.sendPrivateMessage")
     public void sendPrivateMessage(@Payload ChatMessage chatMessage) {
         long startNanos = System.nanoTime();
-        LOGGER.info("Mensagem privada recebida: {} -> {}: {}",
+        LOGGER.debug("Mensagem privada recebida: {} -> {}: {}",
                 chatMessage.getSender(), chatMessage.getRecipient(), chatMessage.getContent());
 
         // Garante que o timestamp seja sempre definido no servidor com precisão
-        LocalDateTime now = LocalDateTime.now();
-        chatMessage.setTimestamp(now);
-
-        long timestampNanos = System.nanoTime();
-        LOGGER.info("Timestamp definido: {} (processamento: {}ns) para mensagem privada: {}",
-                now, timestampNanos - startNanos, chatMessage.getContent());
+        chatMessage.setTimestamp(LocalDateTime.now());
+        long validatedNanos = pipelineMetrics.record(Stage.VALIDATE, Destination.PRIVATE, startNanos);
 
-        // Salva a mensagem no histórico
-        chatHistoryService.saveMessage(chatMessage);
+        // Salva a mensagem no histórico (síncrono ou via write-behind)
+        messageWriteBehindService.persistChatMessage(chatMessage);
+        long persistedNanos = pipelineMetrics.record(Stage.PERSIST, Destination.PRIVATE, validatedNanos);
 
         // Envia para a queue privada do destinatário
         if (chatMessage.getRecipient() != null) {
             String privateQueueRecipient = "/queue/private." + chatMessage.getRecipient();
-            messagingTemplate.convertAndSend(privateQueueRecipient, chatMessage);
-            LOGGER.info("Mensagem privada enviada para destinatário: {}", privateQueueRecipient);
 
             // IMPORTANTE: Também envia para o remetente para que ele veja sua própria
-            // mensagem
+            // mensagem. A mensagem é serializada uma vez para as duas queues.
             String privateQueueSender = "/queue/private." + chatMessage.getSender();
-            messagingTemplate.convertAndSend(privateQueueSender, chatMessage);
-            LOGGER.info("Mensagem privada enviada para remetente: {}", privateQueueSender);
-
-            long endNanos = System.nanoTime();
-            LOGGER.info("Mensagem privada processada com timestamp: {} (tempo total: {}ns)",
-                    chatMessage.getTimestamp(), endNanos - startNanos);
+            messageFanout.send(chatMessage, privateQueueRecipient, privateQueueSender);
+            pipelineMetrics.record(Stage.BROADCAST, Destination.PRIVATE, persistedNanos);
+            chatMetrics.messageSent(Destination.PRIVATE);
+            LOGGER.debug("Mensagem privada enviada para destinatário: {} e remetente: {}",
+                    privateQueueRecipient, privateQueueSender);
         }
     }
 
@@ -168,29 +189,28 @@ public class ChatController {
     @MessageMapping("/group.sendMessage")
     public void sendGroupMessage(@Payload GroupChatMessage groupMessage) {
         long startNanos = System.nanoTime();
-        LOGGER.info("Mensagem de grupo recebida: {} no grupo ID: {} do usuário: {}",
+        LOGGER.debug("Mensagem de grupo recebida: {} no grupo ID: {} do usuário: {}",
                 groupMessage.getContent(), groupMessage.getGroupId(), groupMessage.getSender());
 
         // Garante que o timestamp seja sempre definido no servidor
-        LocalDateTime now = LocalDateTime.now();
-        groupMessage.setTimestamp(now);
+        groupMessage.setTimestamp(LocalDateTime.now());
 
         try {
-            // Debug: Verificar se o usuário existe
-            if (!userService.validateUser(groupMessage.getSender())) {
+            // Verificações feitas pelo índice em memória (sem consultas no caso comum)
+            Long senderId = membershipIndex.resolveUserId(groupMessage.getSender()).orElse(null);
+            if (senderId == null) {
                 LOGGER.error("Usuário {} não encontrado no sistema", groupMessage.getSender());
                 return;
             }
 
-            // Debug: Verificar se o grupo existe
-            if (!groupService.findGroupEntityById(groupMessage.getGroupId()).isPresent()) {
+            if (!membershipIndex.isActive(groupMessage.getGroupId())) {
                 LOGGER.error("Grupo ID {} não encontrado", groupMessage.getGroupId());
                 return;
             }
 
             // Verificar se o usuário é membro do grupo
-            boolean isMember = groupService.isUserMemberOfGroup(groupMessage.getGroupId(), groupMessage.getSender());
-            LOGGER.info("Verificação de membro: usuário {} no grupo {} = {}",
+            boolean isMember = membershipIndex.isMember(groupMessage.getGroupId(), senderId);
+            LOGGER.debug("Verificação de membro: usuário {} no grupo {} = {}",
                     groupMessage.getSender(), groupMessage.getGroupId(), isMember);
 
             if (!isMember) {
@@ -199,23 +219,19 @@ public class ChatController {
                 return;
             }
 
+            long validatedNanos = pipelineMetrics.record(Stage.VALIDATE, Destination.GROUP, startNanos);
+
             // Salvar a mensagem no banco
-            LOGGER.info("Salvando mensagem no banco...");
-            groupMessageService.saveMessage(
-                    groupMessage.getContent(),
-                    groupMessage.getSender(),
-                    groupMessage.getGroupId(),
+            messageWriteBehindService.persistGroupMessage(
+                    groupMessage,
                     GroupMessage.MessageType.valueOf(groupMessage.getType().name()));
-            LOGGER.info("Mensagem salva no banco com sucesso");
+            long persistedNanos = pipelineMetrics.record(Stage.PERSIST, Destination.GROUP, validatedNanos);
 
-            // Enviar para todos os membros do grupo
-            String groupTopic = "/topic/group." + groupMessage.getGroupId();
-            LOGGER.info("Enviando mensagem para tópico: {}", groupTopic);
-            messagingTemplate.convertAndSend(groupTopic, groupMessage);
-
-            long endNanos = System.nanoTime();
-            LOGGER.info("Mensagem de grupo enviada para tópico: {} (tempo total: {}ns)",
-                    groupTopic, endNanos - startNanos);
+            // Enviar para todos os membros do grupo (em lotes, se o grupo usar)
+            groupMessageBatcher.publish(groupMessage);
+            pipelineMetrics.record(Stage.BROADCAST, Destination.GROUP, persistedNanos);
+            chatMetrics.groupMessageSent(groupMessage.getGroupId());
+            LOGGER.debug("Mensagem de grupo enviada para o grupo {}", groupMessage.getGroupId());
 
         } catch (Exception e) {
             LOGGER.error("Erro ao processar mensagem de grupo: {}", e.getMessage(), e);
@@ -231,12 +247,10 @@ public class ChatController {
      */
     @MessageMapping("/group.joinGroup")
     public void joinGroup(@Payload GroupChatMessage groupMessage) {
-        long startNanos = System.nanoTime();
-        LOGGER.info("Usuário {} entrando no grupo ID: {}", groupMessage.getSender(), groupMessage.getGroupId());
+        LOGGER.debug("Usuário {} entrando no grupo ID: {}", groupMessage.getSender(), groupMessage.getGroupId());
 
         // Garante que o timestamp seja sempre definido no servidor
-        LocalDateTime now = LocalDateTime.now();
-        groupMessage.setTimestamp(now);
+        groupMessage.setTimestamp(LocalDateTime.now());
         groupMessage.setType(GroupChatMessage.MessageType.JOIN);
 
         try {
@@ -256,13 +270,10 @@ public class ChatController {
                     groupMessage.getGroupId(),
                     GroupMessage.MessageType.JOIN);
 
-            // Enviar para todos os membros do grupo
-            String groupTopic = "/topic/group." + groupMessage.getGroupId();
-            messagingTemplate.convertAndSend(groupTopic, groupMessage);
+            // Enviar para todos os membros do grupo, na mesma fila das mensagens
+            groupMessageBatcher.publish(groupMessage);
 
-            long endNanos = System.nanoTime();
-            LOGGER.info("Usuário {} entrou no grupo {} (tempo total: {}ns)",
-                    groupMessage.getSender(), groupMessage.getGroupId(), endNanos - startNanos);
+            LOGGER.debug("Usuário {} entrou no grupo {}", groupMessage.getSender(), groupMessage.getGroupId());
 
         } catch (Exception e) {
             LOGGER.error("Erro ao processar entrada no grupo: {}", e.getMessage(), e);
@@ -278,12 +289,10 @@ public class ChatController {
      */
     @MessageMapping("/group.leaveGroup")
     public void leaveGroup(@Payload GroupChatMessage groupMessage) {
-        long startNanos = System.nanoTime();
-        LOGGER.info("Usuário {} saindo do grupo ID: {}", groupMessage.getSender(), groupMessage.getGroupId());
+        LOGGER.debug("Usuário {} saindo do grupo ID: {}", groupMessage.getSender(), groupMessage.getGroupId());
 
         // Garante que o timestamp seja sempre definido no servidor
-        LocalDateTime now = LocalDateTime.now();
-        groupMessage.setTimestamp(now);
+        groupMessage.setTimestamp(LocalDateTime.now());
         groupMessage.setType(GroupChatMessage.MessageType.LEAVE);
 
         try {
@@ -294,13 +303,10 @@ public class ChatController {
                     groupMessage.getGroupId(),
                     GroupMessage.MessageType.LEAVE);
 
-            // Enviar para todos os membros do grupo
-            String groupTopic = "/topic/group." + groupMessage.getGroupId();
-            messagingTemplate.convertAndSend(groupTopic, groupMessage);
+            // Enviar para todos os membros do grupo, na mesma fila das mensagens
+            groupMessageBatcher.publish(groupMessage);
 
-            long endNanos = System.nanoTime();
-            LOGGER.info("Usuário {} saiu do grupo {} (tempo total: {}ns)",
-                    groupMessage.getSender(), groupMessage.getGroupId(), endNanos - startNanos);
+            LOGGER.debug("Usuário {} saiu do grupo {}", groupMessage.getSender(), groupMessage.getGroupId());
 
         } catch (Exception e) {
             LOGGER.error("Erro ao processar saída do grupo: {}", e.getMessage(), e);
@@ -2,15 +2,21 @@ package com.bananachat.backend.controller;
 
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.bananachat.backend.controller.UserController.ErrorResponse;
 import com.bananachat.backend.dto.ChatHistoryDto;
+import com.bananachat.backend.dto.ConversationDto;
 import com.bananachat.backend.service.ChatHistoryService;
 
 @RestController
@@ -18,6 +24,8 @@ import com.bananachat.backend.service.ChatHistoryService;
 @CrossOrigin(origins = "*") // Permite CORS para desenvolvimento
 public class ChatHistoryController {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(ChatHistoryController.class);
+
   @Autowired
   private ChatHistoryService chatHistoryService;
 
@@ -51,6 +59,30 @@ public class ChatHistoryController {
     return ResponseEntity.ok(history);
   }
 
+  /**
+   * Endpoint para buscar as mensagens públicas mais recentes
+   */
+  @GetMapping("/history/public/recent")
+  public ResponseEntity<List<ChatHistoryDto>> getRecentPublicMessages(
+      @RequestParam(defaultValue = "50") int limit) {
+
+    List<ChatHistoryDto> messages = chatHistoryService.getRecentPublicMessages(limit);
+    return ResponseEntity.ok(messages);
+  }
+
+  /**
+   * Endpoint para buscar as mensagens privadas mais recentes entre dois usuários
+   */
+  @GetMapping("/history/private/recent")
+  public ResponseEntity<List<ChatHistoryDto>> getRecentPrivateMessages(
+      @RequestParam String user1,
+      @RequestParam String user2,
+      @RequestParam(defaultValue = "50") int limit) {
+
+    List<ChatHistoryDto> messages = chatHistoryService.getRecentPrivateMessages(user1, user2, limit);
+    return ResponseEntity.ok(messages);
+  }
+
   /**
    * Endpoint para buscar mensagens privadas entre dois usuários
    */
@@ -62,4 +94,98 @@ public class ChatHistoryController {
     List<ChatHistoryDto> privateMessages = chatHistoryService.getPrivateMessages(user1, user2);
     return ResponseEntity.ok(privateMessages);
   }
+
+  /**
+   * Endpoint para listar as conversas privadas de um usuário
+   */
+  @GetMapping("/conversations")
+  public ResponseEntity<List<ConversationDto>> getConversations(@RequestParam String username) {
+    List<ConversationDto> conversations = chatHistoryService.getConversations(username);
+    return ResponseEntity.ok(conversations);
+  }
+
+  /**
+   * Endpoint para paginar o histórico completo por cursor. Sem before/after
+   * retorna a página mais recente.
+   */
+  @GetMapping("/history/page")
+  public ResponseEntity<?> getHistoryPage(
+      @RequestParam(required = false) String before,
+      @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "50") int limit) {
+    try {
+      return ResponseEntity.ok(chatHistoryService.getHistoryPage(before, after, limit));
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Erro ao paginar histórico: {}", e.getMessage());
+      return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+  }
+
+  /**
+   * Endpoint para paginar o histórico público por cursor
+   */
+  @GetMapping("/history/public/page")
+  public ResponseEntity<?> getPublicHistoryPage(
+      @RequestParam(required = false) String before,
+      @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "50") int limit) {
+    try {
+      return ResponseEntity.ok(chatHistoryService.getPublicHistoryPage(before, after, limit));
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Erro ao paginar histórico público: {}", e.getMessage());
+      return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+  }
+
+  /**
+   * Endpoint para paginar a conversa privada entre dois usuários por cursor
+   */
+  @GetMapping("/history/private/page")
+  public ResponseEntity<?> getPrivateHistoryPage(
+      @RequestParam String user1,
+      @RequestParam String user2,
+      @RequestParam(required = false) String before,
+      @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "50") int limit) {
+    try {
+      return ResponseEntity.ok(chatHistoryService.getPrivateHistoryPage(user1, user2, before, after, limit));
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Erro ao paginar mensagens privadas entre {} e {}: {}", user1, user2, e.getMessage());
+      return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+  }
+
+  /**
+   * Endpoint para exportar o histórico como NDJSON (um JSON por linha), em
+   * streaming. channel: all (padrão), public ou private (exige user1 e user2).
+   */
+  @GetMapping("/history/export")
+  public ResponseEntity<?> exportHistory(
+      @RequestParam(defaultValue = "all") String channel,
+      @RequestParam(required = false) String user1,
+      @RequestParam(required = false) String user2) {
+    StreamingResponseBody body;
+    switch (channel) {
+      case "all":
+        body = out -> chatHistoryService.exportHistory(out);
+        break;
+      case "public":
+        body = out -> chatHistoryService.exportPublicHistory(out);
+        break;
+      case "private":
+        if (user1 == null || user2 == null) {
+          return ResponseEntity.badRequest()
+              .body(new ErrorResponse("Exportação privada exige user1 e user2"));
+        }
+        body = out -> chatHistoryService.exportPrivateHistory(user1, user2, out);
+        break;
+      default:
+        return ResponseEntity.badRequest().body(new ErrorResponse("Canal inválido: " + channel));
+    }
+
+    LOGGER.info("Exportando histórico (canal: {})", channel);
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(body);
+  }
 }
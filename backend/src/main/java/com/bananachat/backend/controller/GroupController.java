@@ -115,9 +115,10 @@ public class GroupController {
    * Buscar grupos públicos por termo de pesquisa
    */
   @GetMapping("/public/search")
-  public ResponseEntity<?> searchPublicGroups(@RequestParam String query) {
+  public ResponseEntity<?> searchPublicGroups(@RequestParam String query,
+      @RequestParam(defaultValue = "20") int limit) {
     try {
-      List<GroupDto> groups = groupService.searchPublicGroups(query);
+      List<GroupDto> groups = groupService.searchPublicGroups(query, limit);
       return ResponseEntity.ok(groups);
     } catch (Exception e) {
       LOGGER.error("Erro ao buscar grupos com query: {}", query, e);
@@ -216,6 +217,26 @@ public class GroupController {
     }
   }
 
+  /**
+   * Alterar o agrupamento das mensagens do grupo (apenas o proprietário)
+   */
+  @PutMapping("/{id}/batching")
+  public ResponseEntity<?> updateBatchSettings(@PathVariable Long id, @RequestParam String username,
+      @RequestBody BatchSettingsRequest request) {
+    try {
+      GroupDto group = groupService.updateBatchSettings(id, username, request.getWindowMs(),
+          request.getMaxMessages());
+      return ResponseEntity.ok(group);
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Erro ao alterar agrupamento do grupo ID {}: {}", id, e.getMessage());
+      return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    } catch (Exception e) {
+      LOGGER.error("Erro interno ao alterar agrupamento do grupo ID: {}", id, e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body(new ErrorResponse("Erro interno do servidor"));
+    }
+  }
+
   /**
    * Deletar grupo
    */
@@ -311,4 +332,25 @@ public class GroupController {
       this.maxMembers = maxMembers;
     }
   }
-}
\ No newline at end of file
+
+  public static class BatchSettingsRequest {
+    private Integer windowMs;
+    private Integer maxMessages;
+
+    public Integer getWindowMs() {
+      return windowMs;
+    }
+
+    public void setWindowMs(Integer windowMs) {
+      this.windowMs = windowMs;
+    }
+
+    public Integer getMaxMessages() {
+      return maxMessages;
+    }
+
+    public void setMaxMessages(Integer maxMessages) {
+      this.maxMessages = maxMessages;
+    }
+  }
+}
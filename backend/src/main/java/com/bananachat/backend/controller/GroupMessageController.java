@@ -8,6 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,9 +19,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.bananachat.backend.controller.UserController.ErrorResponse;
 import com.bananachat.backend.controller.UserController.MessageResponse;
+import com.bananachat.backend.dto.CursorPageDto;
 import com.bananachat.backend.dto.GroupMessageDto;
 import com.bananachat.backend.service.GroupMessageService;
 
@@ -52,6 +55,46 @@ public class GroupMessageController {
     }
   }
 
+  /**
+   * Buscar histórico do grupo paginado por cursor (before/after)
+   */
+  @GetMapping("/page")
+  public ResponseEntity<?> getGroupHistoryPage(@PathVariable Long groupId, @RequestParam String username,
+      @RequestParam(required = false) String before, @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "50") int limit) {
+    try {
+      CursorPageDto<GroupMessageDto> page = groupMessageService.getGroupHistoryPage(groupId, username, before,
+          after, limit);
+      return ResponseEntity.ok(page);
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Erro ao paginar histórico do grupo ID {}: {}", groupId, e.getMessage());
+      return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    } catch (Exception e) {
+      LOGGER.error("Erro interno ao paginar histórico do grupo ID: {}", groupId, e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body(new ErrorResponse("Erro interno do servidor"));
+    }
+  }
+
+  /**
+   * Exportar o histórico do grupo como NDJSON (um JSON por linha), em streaming
+   */
+  @GetMapping("/export")
+  public ResponseEntity<?> exportGroupHistory(@PathVariable Long groupId, @RequestParam String username) {
+    try {
+      // A permissão é verificada antes de a resposta começar a ser escrita
+      groupMessageService.checkReadAccess(groupId, username);
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Erro ao exportar histórico do grupo ID {}: {}", groupId, e.getMessage());
+      return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+
+    StreamingResponseBody body = out -> groupMessageService.exportGroupHistory(groupId, username, out);
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(body);
+  }
+
   /**
    * Buscar mensagens recentes do grupo
    */
@@ -94,13 +137,16 @@ public class GroupMessageController {
   }
 
   /**
-   * Buscar mensagens no grupo por termo de pesquisa
+   * Buscar mensagens no grupo por termo de pesquisa (ordenadas por relevância,
+   * paginadas por page/size)
    */
   @GetMapping("/search")
   public ResponseEntity<?> searchMessagesInGroup(@PathVariable Long groupId, @RequestParam String username,
-      @RequestParam String query) {
+      @RequestParam String query, @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "20") int size) {
     try {
-      List<GroupMessageDto> messages = groupMessageService.searchMessagesInGroup(groupId, username, query);
+      List<GroupMessageDto> messages = groupMessageService.searchMessagesInGroup(groupId, username, query, page,
+          size);
       return ResponseEntity.ok(messages);
     } catch (IllegalArgumentException e) {
       LOGGER.warn("Erro ao buscar mensagens no grupo ID {} com query {}: {}", groupId, query, e.getMessage());
@@ -0,0 +1,158 @@
+package com.bananachat.backend.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bananachat.backend.config.BinaryPayloadCodec;
+import com.bananachat.backend.config.ChannelExecutors;
+import com.bananachat.backend.config.ShardedBrokerRelay;
+import com.bananachat.backend.dto.BrokerShardStatsDto;
+import com.bananachat.backend.dto.ChannelExecutorStatsDto;
+import com.bananachat.backend.dto.DirectoryIndexStatsDto;
+import com.bananachat.backend.dto.GroupBatchingStatsDto;
+import com.bananachat.backend.dto.PayloadCodecStatsDto;
+import com.bananachat.backend.dto.PipelineStageStatsDto;
+import com.bananachat.backend.dto.RecentCacheStatsDto;
+import com.bananachat.backend.dto.SearchIndexStatsDto;
+import com.bananachat.backend.dto.UserCacheStatsDto;
+import com.bananachat.backend.dto.WriteBehindStatsDto;
+import com.bananachat.backend.service.DirectorySearchIndex;
+import com.bananachat.backend.service.GroupMessageBatcher;
+import com.bananachat.backend.service.MessagePipelineMetrics;
+import com.bananachat.backend.service.MessageSearchIndex;
+import com.bananachat.backend.service.MessageWriteBehindService;
+import com.bananachat.backend.service.RecentMessageCache;
+import com.bananachat.backend.service.UserIdentityCache;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "*") // Permite CORS para desenvolvimento
+public class MetricsController {
+
+  @Autowired
+  private MessageWriteBehindService messageWriteBehindService;
+
+  @Autowired
+  private UserIdentityCache userIdentityCache;
+
+  @Autowired
+  private RecentMessageCache recentMessageCache;
+
+  @Autowired
+  private MessageSearchIndex messageSearchIndex;
+
+  @Autowired
+  private DirectorySearchIndex directorySearchIndex;
+
+  @Autowired
+  private ChannelExecutors channelExecutors;
+
+  @Autowired
+  private GroupMessageBatcher groupMessageBatcher;
+
+  @Autowired
+  private BinaryPayloadCodec binaryPayloadCodec;
+
+  @Autowired
+  private MessagePipelineMetrics pipelineMetrics;
+
+  // Só existe com chat.broker.mode=sharded
+  @Autowired(required = false)
+  private ShardedBrokerRelay shardedBrokerRelay;
+
+  /**
+   * Endpoint para acompanhar a fila de persistência (profundidade e latência de
+   * flush)
+   */
+  @GetMapping("/persistence")
+  public ResponseEntity<WriteBehindStatsDto> getPersistenceStats() {
+    return ResponseEntity.ok(messageWriteBehindService.getStats());
+  }
+
+  /**
+   * Endpoint para acompanhar o cache de usuários (hit rate e evictions)
+   */
+  @GetMapping("/user-cache")
+  public ResponseEntity<UserCacheStatsDto> getUserCacheStats() {
+    return ResponseEntity.ok(userIdentityCache.getStats());
+  }
+
+  /**
+   * Endpoint para acompanhar o cache de mensagens recentes (canais, memória e
+   * hit rate)
+   */
+  @GetMapping("/recent-cache")
+  public ResponseEntity<RecentCacheStatsDto> getRecentCacheStats() {
+    return ResponseEntity.ok(recentMessageCache.getStats());
+  }
+
+  /**
+   * Endpoint para acompanhar o índice de busca de mensagens (documentos,
+   * latência e buscas que caíram no banco)
+   */
+  @GetMapping("/search-index")
+  public ResponseEntity<SearchIndexStatsDto> getSearchIndexStats() {
+    return ResponseEntity.ok(messageSearchIndex.getStats());
+  }
+
+  /**
+   * Endpoint para acompanhar o índice de busca de usuários e grupos (entradas,
+   * latência e buscas que caíram no banco)
+   */
+  @GetMapping("/directory-index")
+  public ResponseEntity<DirectoryIndexStatsDto> getDirectoryIndexStats() {
+    return ResponseEntity.ok(directorySearchIndex.getStats());
+  }
+
+  /**
+   * Endpoint para acompanhar os canais STOMP de entrada e saída (fila, threads
+   * ativas, rejeições e latência das tarefas)
+   */
+  @GetMapping("/channels")
+  public ResponseEntity<List<ChannelExecutorStatsDto>> getChannelStats() {
+    return ResponseEntity.ok(channelExecutors.getStats());
+  }
+
+  /**
+   * Endpoint para acompanhar o agrupamento de mensagens de grupo (lotes,
+   * tamanho médio e mensagens aguardando a janela)
+   */
+  @GetMapping("/group-batching")
+  public ResponseEntity<GroupBatchingStatsDto> getGroupBatchingStats() {
+    return ResponseEntity.ok(groupMessageBatcher.getStats());
+  }
+
+  /**
+   * Endpoint para acompanhar o payload binário (sessões em CBOR, bytes
+   * economizados em relação ao JSON e custo da conversão)
+   */
+  @GetMapping("/payload-codec")
+  public ResponseEntity<PayloadCodecStatsDto> getPayloadCodecStats() {
+    return ResponseEntity.ok(binaryPayloadCodec.getStats());
+  }
+
+  /**
+   * Endpoint para acompanhar o tempo de cada etapa do pipeline de mensagens
+   * (decode, validate, persist, broadcast) por tipo de destino, com p50, p95 e
+   * p99 dos últimos minutos
+   */
+  @GetMapping("/pipeline")
+  public ResponseEntity<List<PipelineStageStatsDto>> getPipelineStats() {
+    return ResponseEntity.ok(pipelineMetrics.getStats());
+  }
+
+  /**
+   * Endpoint para acompanhar os shards de broker (disponibilidade, sessões,
+   * assinaturas e mensagens desviadas por falha). Vazio fora do modo sharded.
+   */
+  @GetMapping("/brokers")
+  public ResponseEntity<List<BrokerShardStatsDto>> getBrokerStats() {
+    return ResponseEntity.ok(shardedBrokerRelay != null ? shardedBrokerRelay.getStats() : List.of());
+  }
+}
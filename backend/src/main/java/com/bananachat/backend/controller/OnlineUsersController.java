@@ -9,23 +9,40 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.bananachat.backend.dto.PresenceSnapshotDto;
 import com.bananachat.backend.service.OnlineUsersService;
 
 @RestController
 @RequestMapping("/api/users")
-@CrossOrigin(origins = "*") // Permite CORS para desenvolvimento
+@CrossOrigin(origins = "*", exposedHeaders = "ETag") // Permite CORS para desenvolvimento
 public class OnlineUsersController {
 
+    // A versão recomeça do zero a cada subida; o prefixo evita 304 com ETag antigo
+    private static final String ETAG_PREFIX = Long.toString(System.currentTimeMillis(), 36) + "-";
+
     @Autowired
     private OnlineUsersService onlineUsersService;
 
     /**
-     * Endpoint para buscar todos os usuários online
+     * Endpoint para buscar todos os usuários online. Prefira /presence com
+     * /topic/presence; o ETag (versão) evita reenviar a lista sem mudanças
      */
     @GetMapping("/online")
     public ResponseEntity<Set<String>> getOnlineUsers() {
-        Set<String> onlineUsers = onlineUsersService.getOnlineUsers();
-        return ResponseEntity.ok(onlineUsers);
+        PresenceSnapshotDto snapshot = onlineUsersService.getSnapshot();
+        // Com If-None-Match igual ao ETag o Spring responde 304 sem corpo
+        return ResponseEntity.ok().eTag(etag(snapshot)).body(snapshot.getUsers());
+    }
+
+    /**
+     * Endpoint para buscar os usuários online com a versão da lista. O cliente
+     * assina /topic/presence, aplica os deltas com versão maior e só volta aqui
+     * se encontrar um salto de versão
+     */
+    @GetMapping("/presence")
+    public ResponseEntity<PresenceSnapshotDto> getPresence() {
+        PresenceSnapshotDto snapshot = onlineUsersService.getSnapshot();
+        return ResponseEntity.ok().eTag(etag(snapshot)).body(snapshot);
     }
 
     /**
@@ -36,4 +53,8 @@ public class OnlineUsersController {
         int count = onlineUsersService.getOnlineUsersCount();
         return ResponseEntity.ok(count);
     }
-}
\ No newline at end of file
+
+    private static String etag(PresenceSnapshotDto snapshot) {
+        return "\"" + ETAG_PREFIX + snapshot.getVersion() + "\"";
+    }
+}
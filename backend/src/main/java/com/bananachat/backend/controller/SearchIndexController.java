@@ -0,0 +1,37 @@
+package com.bananachat.backend.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bananachat.backend.controller.UserController.MessageResponse;
+import com.bananachat.backend.service.MessageSearchIndex;
+
+@RestController
+@RequestMapping("/api/admin/search-index")
+@CrossOrigin(origins = "*") // Permite CORS para desenvolvimento
+public class SearchIndexController {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SearchIndexController.class);
+
+  @Autowired
+  private MessageSearchIndex messageSearchIndex;
+
+  /**
+   * Reconstrói o índice de busca a partir do banco, em segundo plano. O
+   * andamento pode ser acompanhado em /api/metrics/search-index.
+   */
+  @PostMapping("/rebuild")
+  public ResponseEntity<MessageResponse> rebuild() {
+    LOGGER.info("Reconstrução do índice de busca solicitada");
+    messageSearchIndex.rebuildInBackground();
+    return ResponseEntity.status(HttpStatus.ACCEPTED)
+        .body(new MessageResponse("Reconstrução do índice iniciada"));
+  }
+}
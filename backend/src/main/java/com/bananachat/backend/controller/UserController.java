@@ -111,9 +111,10 @@ public class UserController {
    * Buscar usuários por termo de pesquisa
    */
   @GetMapping("/search")
-  public ResponseEntity<?> searchUsers(@RequestParam String query) {
+  public ResponseEntity<?> searchUsers(@RequestParam String query,
+      @RequestParam(defaultValue = "20") int limit) {
     try {
-      List<UserDto> users = userService.searchUsers(query);
+      List<UserDto> users = userService.searchUsers(query, limit);
       return ResponseEntity.ok(users);
     } catch (Exception e) {
       LOGGER.error("Erro ao buscar usuários com query: {}", query, e);
@@ -0,0 +1,73 @@
+package com.bananachat.backend.dto;
+
+public class BrokerShardStatsDto {
+  private String endpoint;
+  private boolean available;
+  private long sessions;
+  private long subscriptions;
+  private long routedMessages;
+  private long failoverMessages;
+
+  // Construtores
+  public BrokerShardStatsDto() {
+  }
+
+  public BrokerShardStatsDto(String endpoint, boolean available, long sessions, long subscriptions,
+      long routedMessages, long failoverMessages) {
+    this.endpoint = endpoint;
+    this.available = available;
+    this.sessions = sessions;
+    this.subscriptions = subscriptions;
+    this.routedMessages = routedMessages;
+    this.failoverMessages = failoverMessages;
+  }
+
+  // Getters e Setters
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  public void setEndpoint(String endpoint) {
+    this.endpoint = endpoint;
+  }
+
+  public boolean isAvailable() {
+    return available;
+  }
+
+  public void setAvailable(boolean available) {
+    this.available = available;
+  }
+
+  public long getSessions() {
+    return sessions;
+  }
+
+  public void setSessions(long sessions) {
+    this.sessions = sessions;
+  }
+
+  public long getSubscriptions() {
+    return subscriptions;
+  }
+
+  public void setSubscriptions(long subscriptions) {
+    this.subscriptions = subscriptions;
+  }
+
+  public long getRoutedMessages() {
+    return routedMessages;
+  }
+
+  public void setRoutedMessages(long routedMessages) {
+    this.routedMessages = routedMessages;
+  }
+
+  public long getFailoverMessages() {
+    return failoverMessages;
+  }
+
+  public void setFailoverMessages(long failoverMessages) {
+    this.failoverMessages = failoverMessages;
+  }
+}
@@ -0,0 +1,144 @@
+package com.bananachat.backend.dto;
+
+public class ChannelExecutorStatsDto {
+  private String channel;
+  private String mode;
+  private int poolSize;
+  private int maxPoolSize;
+  private int activeTasks;
+  private int queueDepth;
+  private int queueCapacity;
+  private long submittedTasks;
+  private long completedTasks;
+  private long rejectedTasks;
+  private double averageWaitMicros;
+  private double maxWaitMicros;
+  private double averageRunMicros;
+
+  // Construtores
+  public ChannelExecutorStatsDto() {
+  }
+
+  public ChannelExecutorStatsDto(String channel, String mode, int poolSize, int maxPoolSize, int activeTasks,
+      int queueDepth, int queueCapacity, long submittedTasks, long completedTasks, long rejectedTasks,
+      double averageWaitMicros, double maxWaitMicros, double averageRunMicros) {
+    this.channel = channel;
+    this.mode = mode;
+    this.poolSize = poolSize;
+    this.maxPoolSize = maxPoolSize;
+    this.activeTasks = activeTasks;
+    this.queueDepth = queueDepth;
+    this.queueCapacity = queueCapacity;
+    this.submittedTasks = submittedTasks;
+    this.completedTasks = completedTasks;
+    this.rejectedTasks = rejectedTasks;
+    this.averageWaitMicros = averageWaitMicros;
+    this.maxWaitMicros = maxWaitMicros;
+    this.averageRunMicros = averageRunMicros;
+  }
+
+  // Getters e Setters
+  public String getChannel() {
+    return channel;
+  }
+
+  public void setChannel(String channel) {
+    this.channel = channel;
+  }
+
+  public String getMode() {
+    return mode;
+  }
+
+  public void setMode(String mode) {
+    this.mode = mode;
+  }
+
+  public int getPoolSize() {
+    return poolSize;
+  }
+
+  public void setPoolSize(int poolSize) {
+    this.poolSize = poolSize;
+  }
+
+  public int getMaxPoolSize() {
+    return maxPoolSize;
+  }
+
+  public void setMaxPoolSize(int maxPoolSize) {
+    this.maxPoolSize = maxPoolSize;
+  }
+
+  public int getActiveTasks() {
+    return activeTasks;
+  }
+
+  public void setActiveTasks(int activeTasks) {
+    this.activeTasks = activeTasks;
+  }
+
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  public void setQueueDepth(int queueDepth) {
+    this.queueDepth = queueDepth;
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  public long getSubmittedTasks() {
+    return submittedTasks;
+  }
+
+  public void setSubmittedTasks(long submittedTasks) {
+    this.submittedTasks = submittedTasks;
+  }
+
+  public long getCompletedTasks() {
+    return completedTasks;
+  }
+
+  public void setCompletedTasks(long completedTasks) {
+    this.completedTasks = completedTasks;
+  }
+
+  public long getRejectedTasks() {
+    return rejectedTasks;
+  }
+
+  public void setRejectedTasks(long rejectedTasks) {
+    this.rejectedTasks = rejectedTasks;
+  }
+
+  public double getAverageWaitMicros() {
+    return averageWaitMicros;
+  }
+
+  public void setAverageWaitMicros(double averageWaitMicros) {
+    this.averageWaitMicros = averageWaitMicros;
+  }
+
+  public double getMaxWaitMicros() {
+    return maxWaitMicros;
+  }
+
+  public void setMaxWaitMicros(double maxWaitMicros) {
+    this.maxWaitMicros = maxWaitMicros;
+  }
+
+  public double getAverageRunMicros() {
+    return averageRunMicros;
+  }
+
+  public void setAverageRunMicros(double averageRunMicros) {
+    this.averageRunMicros = averageRunMicros;
+  }
+}
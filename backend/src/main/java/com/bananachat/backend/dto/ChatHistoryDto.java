@@ -3,6 +3,7 @@ package com.bananachat.backend.dto;
 import java.time.LocalDateTime;
 
 public class ChatHistoryDto {
+  private Long id;
   private String sender;
   private String recipient;
   private String content;
@@ -28,7 +29,21 @@ public class ChatHistoryDto {
     this.timestamp = timestamp;
   }
 
+  public ChatHistoryDto(Long id, String sender, String recipient, String content, String type,
+      LocalDateTime timestamp) {
+    this(sender, recipient, content, type, timestamp);
+    this.id = id;
+  }
+
   // Getters e Setters
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
   public String getSender() {
     return sender;
   }
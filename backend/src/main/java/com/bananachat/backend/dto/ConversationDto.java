@@ -0,0 +1,44 @@
+package com.bananachat.backend.dto;
+
+import java.time.LocalDateTime;
+
+public class ConversationDto {
+  private String withUser;
+  private LocalDateTime lastMessageAt;
+  private long messageCount;
+
+  // Construtores
+  public ConversationDto() {
+  }
+
+  public ConversationDto(String withUser, LocalDateTime lastMessageAt, long messageCount) {
+    this.withUser = withUser;
+    this.lastMessageAt = lastMessageAt;
+    this.messageCount = messageCount;
+  }
+
+  // Getters e Setters
+  public String getWithUser() {
+    return withUser;
+  }
+
+  public void setWithUser(String withUser) {
+    this.withUser = withUser;
+  }
+
+  public LocalDateTime getLastMessageAt() {
+    return lastMessageAt;
+  }
+
+  public void setLastMessageAt(LocalDateTime lastMessageAt) {
+    this.lastMessageAt = lastMessageAt;
+  }
+
+  public long getMessageCount() {
+    return messageCount;
+  }
+
+  public void setMessageCount(long messageCount) {
+    this.messageCount = messageCount;
+  }
+}
@@ -0,0 +1,60 @@
+package com.bananachat.backend.dto;
+
+import java.util.List;
+
+/**
+ * Página de mensagens paginada por cursor. As mensagens vêm em ordem
+ * cronológica; beforeCursor busca as anteriores à primeira e afterCursor as
+ * posteriores à última. hasMore indica se há mais mensagens na direção
+ * pedida.
+ */
+public class CursorPageDto<T> {
+  private List<T> items;
+  private boolean hasMore;
+  private String beforeCursor;
+  private String afterCursor;
+
+  // Construtores
+  public CursorPageDto() {
+  }
+
+  public CursorPageDto(List<T> items, boolean hasMore, String beforeCursor, String afterCursor) {
+    this.items = items;
+    this.hasMore = hasMore;
+    this.beforeCursor = beforeCursor;
+    this.afterCursor = afterCursor;
+  }
+
+  // Getters e Setters
+  public List<T> getItems() {
+    return items;
+  }
+
+  public void setItems(List<T> items) {
+    this.items = items;
+  }
+
+  public boolean isHasMore() {
+    return hasMore;
+  }
+
+  public void setHasMore(boolean hasMore) {
+    this.hasMore = hasMore;
+  }
+
+  public String getBeforeCursor() {
+    return beforeCursor;
+  }
+
+  public void setBeforeCursor(String beforeCursor) {
+    this.beforeCursor = beforeCursor;
+  }
+
+  public String getAfterCursor() {
+    return afterCursor;
+  }
+
+  public void setAfterCursor(String afterCursor) {
+    this.afterCursor = afterCursor;
+  }
+}
@@ -0,0 +1,124 @@
+package com.bananachat.backend.dto;
+
+public class DirectoryIndexStatsDto {
+  private boolean enabled;
+  private boolean ready;
+  private long users;
+  private long groups;
+  private long trigrams;
+  private long searches;
+  private long fallbackSearches;
+  private long updates;
+  private long rebuilds;
+  private long lastRebuildMillis;
+  private double averageSearchMicros;
+
+  // Construtores
+  public DirectoryIndexStatsDto() {
+  }
+
+  public DirectoryIndexStatsDto(boolean enabled, boolean ready, long users, long groups, long trigrams,
+      long searches, long fallbackSearches, long updates, long rebuilds, long lastRebuildMillis,
+      double averageSearchMicros) {
+    this.enabled = enabled;
+    this.ready = ready;
+    this.users = users;
+    this.groups = groups;
+    this.trigrams = trigrams;
+    this.searches = searches;
+    this.fallbackSearches = fallbackSearches;
+    this.updates = updates;
+    this.rebuilds = rebuilds;
+    this.lastRebuildMillis = lastRebuildMillis;
+    this.averageSearchMicros = averageSearchMicros;
+  }
+
+  // Getters e Setters
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  public void setReady(boolean ready) {
+    this.ready = ready;
+  }
+
+  public long getUsers() {
+    return users;
+  }
+
+  public void setUsers(long users) {
+    this.users = users;
+  }
+
+  public long getGroups() {
+    return groups;
+  }
+
+  public void setGroups(long groups) {
+    this.groups = groups;
+  }
+
+  public long getTrigrams() {
+    return trigrams;
+  }
+
+  public void setTrigrams(long trigrams) {
+    this.trigrams = trigrams;
+  }
+
+  public long getSearches() {
+    return searches;
+  }
+
+  public void setSearches(long searches) {
+    this.searches = searches;
+  }
+
+  public long getFallbackSearches() {
+    return fallbackSearches;
+  }
+
+  public void setFallbackSearches(long fallbackSearches) {
+    this.fallbackSearches = fallbackSearches;
+  }
+
+  public long getUpdates() {
+    return updates;
+  }
+
+  public void setUpdates(long updates) {
+    this.updates = updates;
+  }
+
+  public long getRebuilds() {
+    return rebuilds;
+  }
+
+  public void setRebuilds(long rebuilds) {
+    this.rebuilds = rebuilds;
+  }
+
+  public long getLastRebuildMillis() {
+    return lastRebuildMillis;
+  }
+
+  public void setLastRebuildMillis(long lastRebuildMillis) {
+    this.lastRebuildMillis = lastRebuildMillis;
+  }
+
+  public double getAverageSearchMicros() {
+    return averageSearchMicros;
+  }
+
+  public void setAverageSearchMicros(double averageSearchMicros) {
+    this.averageSearchMicros = averageSearchMicros;
+  }
+}
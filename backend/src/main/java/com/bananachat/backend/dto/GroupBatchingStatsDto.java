@@ -0,0 +1,104 @@
+package com.bananachat.backend.dto;
+
+public class GroupBatchingStatsDto {
+  private boolean enabled;
+  private int defaultWindowMs;
+  private long batchingGroups;
+  private long pendingMessages;
+  private long directMessages;
+  private long batchedMessages;
+  private long batchFrames;
+  private double averageBatchSize;
+  private long maxBatchSize;
+
+  // Construtores
+  public GroupBatchingStatsDto() {
+  }
+
+  public GroupBatchingStatsDto(boolean enabled, int defaultWindowMs, long batchingGroups,
+      long pendingMessages, long directMessages, long batchedMessages, long batchFrames,
+      double averageBatchSize, long maxBatchSize) {
+    this.enabled = enabled;
+    this.defaultWindowMs = defaultWindowMs;
+    this.batchingGroups = batchingGroups;
+    this.pendingMessages = pendingMessages;
+    this.directMessages = directMessages;
+    this.batchedMessages = batchedMessages;
+    this.batchFrames = batchFrames;
+    this.averageBatchSize = averageBatchSize;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  // Getters e Setters
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getDefaultWindowMs() {
+    return defaultWindowMs;
+  }
+
+  public void setDefaultWindowMs(int defaultWindowMs) {
+    this.defaultWindowMs = defaultWindowMs;
+  }
+
+  public long getBatchingGroups() {
+    return batchingGroups;
+  }
+
+  public void setBatchingGroups(long batchingGroups) {
+    this.batchingGroups = batchingGroups;
+  }
+
+  public long getPendingMessages() {
+    return pendingMessages;
+  }
+
+  public void setPendingMessages(long pendingMessages) {
+    this.pendingMessages = pendingMessages;
+  }
+
+  public long getDirectMessages() {
+    return directMessages;
+  }
+
+  public void setDirectMessages(long directMessages) {
+    this.directMessages = directMessages;
+  }
+
+  public long getBatchedMessages() {
+    return batchedMessages;
+  }
+
+  public void setBatchedMessages(long batchedMessages) {
+    this.batchedMessages = batchedMessages;
+  }
+
+  public long getBatchFrames() {
+    return batchFrames;
+  }
+
+  public void setBatchFrames(long batchFrames) {
+    this.batchFrames = batchFrames;
+  }
+
+  public double getAverageBatchSize() {
+    return averageBatchSize;
+  }
+
+  public void setAverageBatchSize(double averageBatchSize) {
+    this.averageBatchSize = averageBatchSize;
+  }
+
+  public long getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public void setMaxBatchSize(long maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import com.bananachat.backend.entity.Group;
+import com.bananachat.backend.entity.User;
 
 public class GroupDto {
   private Long id;
@@ -13,6 +14,8 @@ public class GroupDto {
   private String type;
   private Integer maxMembers;
   private Integer memberCount;
+  private Integer batchWindowMs;
+  private Integer batchMaxMessages;
   private Boolean isActive;
   private LocalDateTime createdAt;
   private LocalDateTime updatedAt;
@@ -25,25 +28,27 @@ public class GroupDto {
   public GroupDto() {
   }
 
-  public GroupDto(Group group) {
+  public GroupDto(Group group, List<User> members) {
     this.id = group.getId();
     this.name = group.getName();
     this.description = group.getDescription();
     this.type = group.getType().name();
     this.maxMembers = group.getMaxMembers();
     this.memberCount = group.getMemberCount();
+    this.batchWindowMs = group.getBatchWindowMs();
+    this.batchMaxMessages = group.getBatchMaxMessages();
     this.isActive = group.getIsActive();
     this.createdAt = group.getCreatedAt();
     this.updatedAt = group.getUpdatedAt();
     this.owner = new UserDto(group.getOwner());
-    this.members = group.getMembers().stream()
+    this.members = members.stream()
         .map(UserDto::new)
         .collect(Collectors.toList());
   }
 
-  public GroupDto(Group group, Long currentUserId) {
-    this(group);
-    this.isUserMember = group.getMembers().stream()
+  public GroupDto(Group group, List<User> members, Long currentUserId) {
+    this(group, members);
+    this.isUserMember = members.stream()
         .anyMatch(member -> member.getId().equals(currentUserId));
     this.isUserOwner = group.getOwner().getId().equals(currentUserId);
   }
@@ -97,6 +102,22 @@ public class GroupDto {
     this.memberCount = memberCount;
   }
 
+  public Integer getBatchWindowMs() {
+    return batchWindowMs;
+  }
+
+  public void setBatchWindowMs(Integer batchWindowMs) {
+    this.batchWindowMs = batchWindowMs;
+  }
+
+  public Integer getBatchMaxMessages() {
+    return batchMaxMessages;
+  }
+
+  public void setBatchMaxMessages(Integer batchMaxMessages) {
+    this.batchMaxMessages = batchMaxMessages;
+  }
+
   public Boolean getIsActive() {
     return isActive;
   }
@@ -31,6 +31,19 @@ public class GroupMessageDto {
     this.groupName = message.getGroup().getName();
   }
 
+  // Remetente e nome do grupo vindos de fora, sem inicializar as associações
+  public GroupMessageDto(GroupMessage message, UserDto sender, String groupName) {
+    this.id = message.getId();
+    this.content = message.getContent();
+    this.type = message.getType().name();
+    this.timestamp = message.getTimestamp();
+    this.isEdited = message.getIsEdited();
+    this.editedAt = message.getEditedAt();
+    this.sender = sender;
+    this.groupId = message.getGroup().getId();
+    this.groupName = groupName;
+  }
+
   // Getters e Setters
   public Long getId() {
     return id;
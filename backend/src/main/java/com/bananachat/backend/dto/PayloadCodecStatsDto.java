@@ -0,0 +1,93 @@
+package com.bananachat.backend.dto;
+
+public class PayloadCodecStatsDto {
+  private boolean enabled;
+  private int binarySessions;
+  private long binaryFrames;
+  private long transcodedFrames;
+  private long failedFrames;
+  private long jsonBytes;
+  private long binaryBytes;
+  private double averageTranscodeMicros;
+
+  // Construtores
+  public PayloadCodecStatsDto() {
+  }
+
+  public PayloadCodecStatsDto(boolean enabled, int binarySessions, long binaryFrames, long transcodedFrames,
+      long failedFrames, long jsonBytes, long binaryBytes, double averageTranscodeMicros) {
+    this.enabled = enabled;
+    this.binarySessions = binarySessions;
+    this.binaryFrames = binaryFrames;
+    this.transcodedFrames = transcodedFrames;
+    this.failedFrames = failedFrames;
+    this.jsonBytes = jsonBytes;
+    this.binaryBytes = binaryBytes;
+    this.averageTranscodeMicros = averageTranscodeMicros;
+  }
+
+  // Getters e Setters
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getBinarySessions() {
+    return binarySessions;
+  }
+
+  public void setBinarySessions(int binarySessions) {
+    this.binarySessions = binarySessions;
+  }
+
+  public long getBinaryFrames() {
+    return binaryFrames;
+  }
+
+  public void setBinaryFrames(long binaryFrames) {
+    this.binaryFrames = binaryFrames;
+  }
+
+  public long getTranscodedFrames() {
+    return transcodedFrames;
+  }
+
+  public void setTranscodedFrames(long transcodedFrames) {
+    this.transcodedFrames = transcodedFrames;
+  }
+
+  public long getFailedFrames() {
+    return failedFrames;
+  }
+
+  public void setFailedFrames(long failedFrames) {
+    this.failedFrames = failedFrames;
+  }
+
+  public long getJsonBytes() {
+    return jsonBytes;
+  }
+
+  public void setJsonBytes(long jsonBytes) {
+    this.jsonBytes = jsonBytes;
+  }
+
+  public long getBinaryBytes() {
+    return binaryBytes;
+  }
+
+  public void setBinaryBytes(long binaryBytes) {
+    this.binaryBytes = binaryBytes;
+  }
+
+  public double getAverageTranscodeMicros() {
+    return averageTranscodeMicros;
+  }
+
+  public void setAverageTranscodeMicros(double averageTranscodeMicros) {
+    this.averageTranscodeMicros = averageTranscodeMicros;
+  }
+}
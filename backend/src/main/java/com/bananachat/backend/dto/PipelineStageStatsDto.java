@@ -0,0 +1,93 @@
+package com.bananachat.backend.dto;
+
+public class PipelineStageStatsDto {
+  private String stage;
+  private String destination;
+  private long count;
+  private double meanMicros;
+  private double p50Micros;
+  private double p95Micros;
+  private double p99Micros;
+  private double maxMicros;
+
+  // Construtores
+  public PipelineStageStatsDto() {
+  }
+
+  public PipelineStageStatsDto(String stage, String destination, long count, double meanMicros,
+      double p50Micros, double p95Micros, double p99Micros, double maxMicros) {
+    this.stage = stage;
+    this.destination = destination;
+    this.count = count;
+    this.meanMicros = meanMicros;
+    this.p50Micros = p50Micros;
+    this.p95Micros = p95Micros;
+    this.p99Micros = p99Micros;
+    this.maxMicros = maxMicros;
+  }
+
+  // Getters e Setters
+  public String getStage() {
+    return stage;
+  }
+
+  public void setStage(String stage) {
+    this.stage = stage;
+  }
+
+  public String getDestination() {
+    return destination;
+  }
+
+  public void setDestination(String destination) {
+    this.destination = destination;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public void setCount(long count) {
+    this.count = count;
+  }
+
+  public double getMeanMicros() {
+    return meanMicros;
+  }
+
+  public void setMeanMicros(double meanMicros) {
+    this.meanMicros = meanMicros;
+  }
+
+  public double getP50Micros() {
+    return p50Micros;
+  }
+
+  public void setP50Micros(double p50Micros) {
+    this.p50Micros = p50Micros;
+  }
+
+  public double getP95Micros() {
+    return p95Micros;
+  }
+
+  public void setP95Micros(double p95Micros) {
+    this.p95Micros = p95Micros;
+  }
+
+  public double getP99Micros() {
+    return p99Micros;
+  }
+
+  public void setP99Micros(double p99Micros) {
+    this.p99Micros = p99Micros;
+  }
+
+  public double getMaxMicros() {
+    return maxMicros;
+  }
+
+  public void setMaxMicros(double maxMicros) {
+    this.maxMicros = maxMicros;
+  }
+}
@@ -0,0 +1,47 @@
+package com.bananachat.backend.dto;
+
+/**
+ * Mudança de presença publicada em /topic/presence: o usuário entrou (online)
+ * ou saiu (offline), com a versão da lista depois da mudança. Cada mudança
+ * incrementa a versão em 1, então um salto indica mudanças perdidas
+ */
+public class PresenceDeltaDto {
+  private String username;
+  private boolean online;
+  private long version;
+
+  // Construtores
+  public PresenceDeltaDto() {
+  }
+
+  public PresenceDeltaDto(String username, boolean online, long version) {
+    this.username = username;
+    this.online = online;
+    this.version = version;
+  }
+
+  // Getters e Setters
+  public String getUsername() {
+    return username;
+  }
+
+  public void setUsername(String username) {
+    this.username = username;
+  }
+
+  public boolean isOnline() {
+    return online;
+  }
+
+  public void setOnline(boolean online) {
+    this.online = online;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+}
@@ -0,0 +1,38 @@
+package com.bananachat.backend.dto;
+
+import java.util.Set;
+
+/**
+ * Lista de usuários online numa versão; os deltas de /topic/presence com
+ * versão maior se aplicam sobre ela
+ */
+public class PresenceSnapshotDto {
+  private long version;
+  private Set<String> users;
+
+  // Construtores
+  public PresenceSnapshotDto() {
+  }
+
+  public PresenceSnapshotDto(long version, Set<String> users) {
+    this.version = version;
+    this.users = users;
+  }
+
+  // Getters e Setters
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public Set<String> getUsers() {
+    return users;
+  }
+
+  public void setUsers(Set<String> users) {
+    this.users = users;
+  }
+}
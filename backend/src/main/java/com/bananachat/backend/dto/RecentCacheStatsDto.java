@@ -0,0 +1,103 @@
+package com.bananachat.backend.dto;
+
+public class RecentCacheStatsDto {
+  private boolean enabled;
+  private long channels;
+  private int messagesPerChannel;
+  private long weightBytes;
+  private long maxWeightBytes;
+  private long hits;
+  private long misses;
+  private long bypassed;
+  private long evictions;
+
+  // Construtores
+  public RecentCacheStatsDto() {
+  }
+
+  public RecentCacheStatsDto(boolean enabled, long channels, int messagesPerChannel, long weightBytes,
+      long maxWeightBytes, long hits, long misses, long bypassed, long evictions) {
+    this.enabled = enabled;
+    this.channels = channels;
+    this.messagesPerChannel = messagesPerChannel;
+    this.weightBytes = weightBytes;
+    this.maxWeightBytes = maxWeightBytes;
+    this.hits = hits;
+    this.misses = misses;
+    this.bypassed = bypassed;
+    this.evictions = evictions;
+  }
+
+  // Getters e Setters
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public long getChannels() {
+    return channels;
+  }
+
+  public void setChannels(long channels) {
+    this.channels = channels;
+  }
+
+  public int getMessagesPerChannel() {
+    return messagesPerChannel;
+  }
+
+  public void setMessagesPerChannel(int messagesPerChannel) {
+    this.messagesPerChannel = messagesPerChannel;
+  }
+
+  public long getWeightBytes() {
+    return weightBytes;
+  }
+
+  public void setWeightBytes(long weightBytes) {
+    this.weightBytes = weightBytes;
+  }
+
+  public long getMaxWeightBytes() {
+    return maxWeightBytes;
+  }
+
+  public void setMaxWeightBytes(long maxWeightBytes) {
+    this.maxWeightBytes = maxWeightBytes;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public void setHits(long hits) {
+    this.hits = hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  public void setMisses(long misses) {
+    this.misses = misses;
+  }
+
+  public long getBypassed() {
+    return bypassed;
+  }
+
+  public void setBypassed(long bypassed) {
+    this.bypassed = bypassed;
+  }
+
+  public long getEvictions() {
+    return evictions;
+  }
+
+  public void setEvictions(long evictions) {
+    this.evictions = evictions;
+  }
+}
@@ -0,0 +1,114 @@
+package com.bananachat.backend.dto;
+
+public class SearchIndexStatsDto {
+  private boolean enabled;
+  private boolean ready;
+  private String directory;
+  private long documents;
+  private long searches;
+  private long fallbackSearches;
+  private long updates;
+  private long rebuilds;
+  private long lastRebuildMillis;
+  private double averageSearchMicros;
+
+  // Construtores
+  public SearchIndexStatsDto() {
+  }
+
+  public SearchIndexStatsDto(boolean enabled, boolean ready, String directory, long documents, long searches,
+      long fallbackSearches, long updates, long rebuilds, long lastRebuildMillis,
+      double averageSearchMicros) {
+    this.enabled = enabled;
+    this.ready = ready;
+    this.directory = directory;
+    this.documents = documents;
+    this.searches = searches;
+    this.fallbackSearches = fallbackSearches;
+    this.updates = updates;
+    this.rebuilds = rebuilds;
+    this.lastRebuildMillis = lastRebuildMillis;
+    this.averageSearchMicros = averageSearchMicros;
+  }
+
+  // Getters e Setters
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  public void setReady(boolean ready) {
+    this.ready = ready;
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  public long getDocuments() {
+    return documents;
+  }
+
+  public void setDocuments(long documents) {
+    this.documents = documents;
+  }
+
+  public long getSearches() {
+    return searches;
+  }
+
+  public void setSearches(long searches) {
+    this.searches = searches;
+  }
+
+  public long getFallbackSearches() {
+    return fallbackSearches;
+  }
+
+  public void setFallbackSearches(long fallbackSearches) {
+    this.fallbackSearches = fallbackSearches;
+  }
+
+  public long getUpdates() {
+    return updates;
+  }
+
+  public void setUpdates(long updates) {
+    this.updates = updates;
+  }
+
+  public long getRebuilds() {
+    return rebuilds;
+  }
+
+  public void setRebuilds(long rebuilds) {
+    this.rebuilds = rebuilds;
+  }
+
+  public long getLastRebuildMillis() {
+    return lastRebuildMillis;
+  }
+
+  public void setLastRebuildMillis(long lastRebuildMillis) {
+    this.lastRebuildMillis = lastRebuildMillis;
+  }
+
+  public double getAverageSearchMicros() {
+    return averageSearchMicros;
+  }
+
+  public void setAverageSearchMicros(double averageSearchMicros) {
+    this.averageSearchMicros = averageSearchMicros;
+  }
+}
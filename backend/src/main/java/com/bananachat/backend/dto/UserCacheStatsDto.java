@@ -0,0 +1,93 @@
+package com.bananachat.backend.dto;
+
+public class UserCacheStatsDto {
+  private long size;
+  private long maximumSize;
+  private long hits;
+  private long misses;
+  private double hitRate;
+  private long evictions;
+  private long loads;
+  private long notFound;
+
+  // Construtores
+  public UserCacheStatsDto() {
+  }
+
+  public UserCacheStatsDto(long size, long maximumSize, long hits, long misses, double hitRate, long evictions,
+      long loads, long notFound) {
+    this.size = size;
+    this.maximumSize = maximumSize;
+    this.hits = hits;
+    this.misses = misses;
+    this.hitRate = hitRate;
+    this.evictions = evictions;
+    this.loads = loads;
+    this.notFound = notFound;
+  }
+
+  // Getters e Setters
+  public long getSize() {
+    return size;
+  }
+
+  public void setSize(long size) {
+    this.size = size;
+  }
+
+  public long getMaximumSize() {
+    return maximumSize;
+  }
+
+  public void setMaximumSize(long maximumSize) {
+    this.maximumSize = maximumSize;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public void setHits(long hits) {
+    this.hits = hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  public void setMisses(long misses) {
+    this.misses = misses;
+  }
+
+  public double getHitRate() {
+    return hitRate;
+  }
+
+  public void setHitRate(double hitRate) {
+    this.hitRate = hitRate;
+  }
+
+  public long getEvictions() {
+    return evictions;
+  }
+
+  public void setEvictions(long evictions) {
+    this.evictions = evictions;
+  }
+
+  public long getLoads() {
+    return loads;
+  }
+
+  public void setLoads(long loads) {
+    this.loads = loads;
+  }
+
+  public long getNotFound() {
+    return notFound;
+  }
+
+  public void setNotFound(long notFound) {
+    this.notFound = notFound;
+  }
+}
@@ -3,6 +3,7 @@ package com.bananachat.backend.dto;
 import java.time.LocalDateTime;
 
 import com.bananachat.backend.entity.User;
+import com.bananachat.backend.model.UserIdentity;
 
 public class UserDto {
   private Long id;
@@ -27,6 +28,13 @@ public class UserDto {
     this.createdAt = user.getCreatedAt();
   }
 
+  // Só id, username e nome de exibição, do cache de identidades
+  public UserDto(UserIdentity identity) {
+    this.id = identity.getId();
+    this.username = identity.getUsername();
+    this.displayName = identity.getDisplayName();
+  }
+
   // Getters e Setters
   public Long getId() {
     return id;
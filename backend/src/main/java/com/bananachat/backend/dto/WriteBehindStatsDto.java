@@ -0,0 +1,124 @@
+package com.bananachat.backend.dto;
+
+public class WriteBehindStatsDto {
+  private boolean enabled;
+  private int queueDepth;
+  private int queueCapacity;
+  private long enqueued;
+  private long persisted;
+  private long failed;
+  private long callerRuns;
+  private long flushes;
+  private double lastFlushMillis;
+  private double avgFlushMillis;
+  private double maxFlushMillis;
+
+  // Construtores
+  public WriteBehindStatsDto() {
+  }
+
+  public WriteBehindStatsDto(boolean enabled, int queueDepth, int queueCapacity, long enqueued, long persisted,
+      long failed, long callerRuns, long flushes, double lastFlushMillis, double avgFlushMillis,
+      double maxFlushMillis) {
+    this.enabled = enabled;
+    this.queueDepth = queueDepth;
+    this.queueCapacity = queueCapacity;
+    this.enqueued = enqueued;
+    this.persisted = persisted;
+    this.failed = failed;
+    this.callerRuns = callerRuns;
+    this.flushes = flushes;
+    this.lastFlushMillis = lastFlushMillis;
+    this.avgFlushMillis = avgFlushMillis;
+    this.maxFlushMillis = maxFlushMillis;
+  }
+
+  // Getters e Setters
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  public void setQueueDepth(int queueDepth) {
+    this.queueDepth = queueDepth;
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  public long getEnqueued() {
+    return enqueued;
+  }
+
+  public void setEnqueued(long enqueued) {
+    this.enqueued = enqueued;
+  }
+
+  public long getPersisted() {
+    return persisted;
+  }
+
+  public void setPersisted(long persisted) {
+    this.persisted = persisted;
+  }
+
+  public long getFailed() {
+    return failed;
+  }
+
+  public void setFailed(long failed) {
+    this.failed = failed;
+  }
+
+  public long getCallerRuns() {
+    return callerRuns;
+  }
+
+  public void setCallerRuns(long callerRuns) {
+    this.callerRuns = callerRuns;
+  }
+
+  public long getFlushes() {
+    return flushes;
+  }
+
+  public void setFlushes(long flushes) {
+    this.flushes = flushes;
+  }
+
+  public double getLastFlushMillis() {
+    return lastFlushMillis;
+  }
+
+  public void setLastFlushMillis(double lastFlushMillis) {
+    this.lastFlushMillis = lastFlushMillis;
+  }
+
+  public double getAvgFlushMillis() {
+    return avgFlushMillis;
+  }
+
+  public void setAvgFlushMillis(double avgFlushMillis) {
+    this.avgFlushMillis = avgFlushMillis;
+  }
+
+  public double getMaxFlushMillis() {
+    return maxFlushMillis;
+  }
+
+  public void setMaxFlushMillis(double maxFlushMillis) {
+    this.maxFlushMillis = maxFlushMillis;
+  }
+}
@@ -9,14 +9,30 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "chat_history")
+@Table(name = "chat_history", indexes = {
+    // Feed geral e paginação por cursor em (timestamp, id)
+    @Index(name = "idx_chat_history_timestamp", columnList = "timestamp, id"),
+    // Chat público (recipient IS NULL) e mensagens recebidas por um usuário
+    @Index(name = "idx_chat_history_recipient_timestamp", columnList = "recipient, timestamp, id"),
+    // Conversa privada: cada sentido do par é uma faixa do índice
+    @Index(name = "idx_chat_history_sender_recipient", columnList = "sender, recipient, timestamp, id"),
+    @Index(name = "idx_chat_history_type_timestamp", columnList = "type, timestamp"),
+    // Conversa privada nos dois sentidos como uma única faixa do índice
+    @Index(name = "idx_chat_history_conversation", columnList = "conversation_key, timestamp, id")
+})
 public class ChatHistory {
 
+  /** Separador do par de usuários na chave da conversa (não aparece em usernames) */
+  public static final char CONVERSATION_KEY_SEPARATOR = '\u001F';
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_history_seq")
+  @SequenceGenerator(name = "chat_history_seq", sequenceName = "chat_history_seq", allocationSize = 50)
   private Long id;
 
   @Column(nullable = false)
@@ -25,6 +41,10 @@ public class ChatHistory {
   @Column(length = 1000)
   private String recipient; // Para mensagens privadas
 
+  // Par de usuários ordenado, preenchido apenas em mensagens privadas
+  @Column(name = "conversation_key", length = 1300)
+  private String conversationKey;
+
   @Column(nullable = false, length = 1000)
   private String content;
 
@@ -59,6 +79,21 @@ public class ChatHistory {
     this.recipient = recipient;
     this.content = content;
     this.type = type;
+    updateConversationKey();
+  }
+
+  /**
+   * Chave normalizada da conversa privada entre dois usuários; a ordem dos
+   * argumentos não importa
+   */
+  public static String conversationKey(String user1, String user2) {
+    return user1.compareTo(user2) <= 0
+        ? user1 + CONVERSATION_KEY_SEPARATOR + user2
+        : user2 + CONVERSATION_KEY_SEPARATOR + user1;
+  }
+
+  private void updateConversationKey() {
+    this.conversationKey = sender != null && recipient != null ? conversationKey(sender, recipient) : null;
   }
 
   // Getters e Setters
@@ -76,6 +111,7 @@ public class ChatHistory {
 
   public void setSender(String sender) {
     this.sender = sender;
+    updateConversationKey();
   }
 
   public String getContent() {
@@ -108,5 +144,10 @@ public class ChatHistory {
 
   public void setRecipient(String recipient) {
     this.recipient = recipient;
+    updateConversationKey();
+  }
+
+  public String getConversationKey() {
+    return conversationKey;
   }
 }
@@ -2,6 +2,7 @@ package com.bananachat.backend.entity;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 import jakarta.persistence.Column;
@@ -12,9 +13,9 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
@@ -22,7 +23,8 @@ import jakarta.persistence.Table;
 public class Group {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "groups_seq")
+  @SequenceGenerator(name = "groups_seq", sequenceName = "groups_seq", allocationSize = 50)
   private Long id;
 
   @Column(nullable = false, length = 100)
@@ -41,6 +43,18 @@ public class Group {
   @Column(nullable = false)
   private Boolean isActive = true;
 
+  // Mantido por UPDATEs atômicos em GroupRepository, nunca pelo flush da entidade
+  @Column(name = "member_count", updatable = false)
+  private Integer memberCount = 0;
+
+  // Agrupamento das mensagens enviadas ao tópico do grupo; null usa o padrão
+  // de chat.group-batching.*
+  @Column(name = "batch_window_ms")
+  private Integer batchWindowMs;
+
+  @Column(name = "batch_max_messages")
+  private Integer batchMaxMessages;
+
   @Column(nullable = false)
   private LocalDateTime createdAt;
 
@@ -52,9 +66,6 @@ public class Group {
   @JoinColumn(name = "owner_id", nullable = false)
   private User owner;
 
-  @ManyToMany(mappedBy = "groups")
-  private Set<User> members = new HashSet<>();
-
   @OneToMany(mappedBy = "group")
   private Set<GroupMessage> messages = new HashSet<>();
 
@@ -74,8 +85,8 @@ public class Group {
     this();
     this.name = name;
     this.owner = owner;
-    // Adiciona o dono como membro automaticamente
-    this.members.add(owner);
+    // O dono entra como primeiro membro
+    this.memberCount = 1;
   }
 
   public Group(String name, String description, User owner, GroupType type) {
@@ -84,8 +95,8 @@ public class Group {
     this.description = description;
     this.owner = owner;
     this.type = type;
-    // Adiciona o dono como membro automaticamente
-    this.members.add(owner);
+    // O dono entra como primeiro membro
+    this.memberCount = 1;
   }
 
   // Getters e Setters
@@ -167,53 +178,51 @@ public class Group {
     this.updatedAt = LocalDateTime.now();
   }
 
-  public Set<User> getMembers() {
-    return members;
+  public int getMemberCount() {
+    return memberCount != null ? memberCount : 0;
   }
 
-  public void setMembers(Set<User> members) {
-    this.members = members;
+  public void setMemberCount(Integer memberCount) {
+    this.memberCount = memberCount;
   }
 
-  public Set<GroupMessage> getMessages() {
-    return messages;
+  public Integer getBatchWindowMs() {
+    return batchWindowMs;
   }
 
-  public void setMessages(Set<GroupMessage> messages) {
-    this.messages = messages;
+  public void setBatchWindowMs(Integer batchWindowMs) {
+    this.batchWindowMs = batchWindowMs;
+    this.updatedAt = LocalDateTime.now();
   }
 
-  // Métodos utilitários
-  public void addMember(User user) {
-    if (this.members.size() < this.maxMembers) {
-      this.members.add(user);
-      user.getGroups().add(this);
-      this.updatedAt = LocalDateTime.now();
-    } else {
-      throw new IllegalStateException("Grupo está lotado. Máximo de " + this.maxMembers + " membros.");
-    }
-  }
-
-  public void removeMember(User user) {
-    this.members.remove(user);
-    user.getGroups().remove(this);
+  public Integer getBatchMaxMessages() {
+    return batchMaxMessages;
+  }
+
+  public void setBatchMaxMessages(Integer batchMaxMessages) {
+    this.batchMaxMessages = batchMaxMessages;
     this.updatedAt = LocalDateTime.now();
   }
 
-  public boolean isMember(User user) {
-    return this.members.contains(user);
+  public Set<GroupMessage> getMessages() {
+    return messages;
   }
 
+  public void setMessages(Set<GroupMessage> messages) {
+    this.messages = messages;
+  }
+
+  // Métodos utilitários
   public boolean isOwner(User user) {
-    return this.owner.equals(user);
+    return user != null && isOwner(user.getId());
   }
 
-  public boolean canJoin() {
-    return this.isActive && this.members.size() < this.maxMembers;
+  public boolean isOwner(Long userId) {
+    return this.owner != null && this.owner.getId().equals(userId);
   }
 
-  public int getMemberCount() {
-    return this.members.size();
+  public boolean canJoin() {
+    return this.isActive && getMemberCount() < this.maxMembers;
   }
 
   @Override
@@ -223,12 +232,13 @@ public class Group {
     if (!(o instanceof Group))
       return false;
     Group group = (Group) o;
-    return id != null && id.equals(group.id);
+    return getId() != null && getId().equals(group.getId());
   }
 
   @Override
   public int hashCode() {
-    return getClass().hashCode();
+    // O id vem da sequence já no persist(), antes de o grupo entrar em coleções
+    return Objects.hashCode(getId());
   }
 
   @Override
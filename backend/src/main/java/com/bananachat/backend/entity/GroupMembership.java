@@ -0,0 +1,108 @@
+package com.bananachat.backend.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.Table;
+
+/**
+ * Participação de um usuário em um grupo.
+ *
+ * Substitui o @ManyToMany entre User e Group: entradas e saídas são um INSERT
+ * ou DELETE direto na tabela user_groups, sem carregar a coleção de membros.
+ * O total fica desnormalizado em groups.member_count.
+ */
+@Entity
+@Table(name = "user_groups")
+public class GroupMembership {
+
+  @EmbeddedId
+  private GroupMembershipId id;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @MapsId("groupId")
+  @JoinColumn(name = "group_id")
+  private Group group;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @MapsId("userId")
+  @JoinColumn(name = "user_id")
+  private User user;
+
+  @Column(name = "joined_at")
+  private LocalDateTime joinedAt;
+
+  // Construtores
+  public GroupMembership() {
+  }
+
+  public GroupMembership(Group group, User user) {
+    this.id = new GroupMembershipId(group.getId(), user.getId());
+    this.group = group;
+    this.user = user;
+    this.joinedAt = LocalDateTime.now();
+  }
+
+  // Getters e Setters
+  public GroupMembershipId getId() {
+    return id;
+  }
+
+  public void setId(GroupMembershipId id) {
+    this.id = id;
+  }
+
+  public Group getGroup() {
+    return group;
+  }
+
+  public void setGroup(Group group) {
+    this.group = group;
+  }
+
+  public User getUser() {
+    return user;
+  }
+
+  public void setUser(User user) {
+    this.user = user;
+  }
+
+  public LocalDateTime getJoinedAt() {
+    return joinedAt;
+  }
+
+  public void setJoinedAt(LocalDateTime joinedAt) {
+    this.joinedAt = joinedAt;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o)
+      return true;
+    if (!(o instanceof GroupMembership))
+      return false;
+    GroupMembership that = (GroupMembership) o;
+    return id != null && id.equals(that.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    return id != null ? id.hashCode() : 0;
+  }
+
+  @Override
+  public String toString() {
+    return "GroupMembership{" +
+        "groupId=" + (id != null ? id.getGroupId() : null) +
+        ", userId=" + (id != null ? id.getUserId() : null) +
+        ", joinedAt=" + joinedAt +
+        '}';
+  }
+}
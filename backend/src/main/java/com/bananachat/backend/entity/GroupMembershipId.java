@@ -0,0 +1,61 @@
+package com.bananachat.backend.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Chave composta da participação (grupo, usuário)
+ */
+@Embeddable
+public class GroupMembershipId implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  @Column(name = "group_id", nullable = false)
+  private Long groupId;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  public GroupMembershipId() {
+  }
+
+  public GroupMembershipId(Long groupId, Long userId) {
+    this.groupId = groupId;
+    this.userId = userId;
+  }
+
+  public Long getGroupId() {
+    return groupId;
+  }
+
+  public void setGroupId(Long groupId) {
+    this.groupId = groupId;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public void setUserId(Long userId) {
+    this.userId = userId;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o)
+      return true;
+    if (!(o instanceof GroupMembershipId))
+      return false;
+    GroupMembershipId that = (GroupMembershipId) o;
+    return Objects.equals(groupId, that.groupId) && Objects.equals(userId, that.userId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(groupId, userId);
+  }
+}
@@ -9,16 +9,23 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "group_messages")
+@Table(name = "group_messages", indexes = {
+    // Histórico do grupo e paginação por cursor em (timestamp, id)
+    @Index(name = "idx_group_messages_group_timestamp", columnList = "group_id, timestamp, id"),
+    @Index(name = "idx_group_messages_sender", columnList = "sender_id")
+})
 public class GroupMessage {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "group_messages_seq")
+  @SequenceGenerator(name = "group_messages_seq", sequenceName = "group_messages_seq", allocationSize = 50)
   private Long id;
 
   @Column(nullable = false, length = 2000)
@@ -144,6 +151,10 @@ public class GroupMessage {
     return this.sender.equals(user) && this.type == MessageType.CHAT;
   }
 
+  public boolean canBeEditedBy(Long userId) {
+    return this.sender != null && this.sender.getId().equals(userId) && this.type == MessageType.CHAT;
+  }
+
   public boolean isSystemMessage() {
     return this.type != MessageType.CHAT;
   }
@@ -2,6 +2,7 @@ package com.bananachat.backend.entity;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 import jakarta.persistence.Column;
@@ -9,10 +10,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.JoinColumn;
-import jakarta.persistence.JoinTable;
-import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
@@ -20,7 +19,8 @@ import jakarta.persistence.Table;
 public class User {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+  @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
   private Long id;
 
   @Column(nullable = false, unique = true, length = 50)
@@ -48,10 +48,6 @@ public class User {
   private LocalDateTime lastSeen;
 
   // Relacionamentos
-  @ManyToMany
-  @JoinTable(name = "user_groups", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "group_id"))
-  private Set<Group> groups = new HashSet<>();
-
   @OneToMany(mappedBy = "owner")
   private Set<Group> ownedGroups = new HashSet<>();
 
@@ -158,14 +154,6 @@ public class User {
     this.lastSeen = lastSeen;
   }
 
-  public Set<Group> getGroups() {
-    return groups;
-  }
-
-  public void setGroups(Set<Group> groups) {
-    this.groups = groups;
-  }
-
   public Set<Group> getOwnedGroups() {
     return ownedGroups;
   }
@@ -174,17 +162,6 @@ public class User {
     this.ownedGroups = ownedGroups;
   }
 
-  // Métodos utilitários
-  public void addGroup(Group group) {
-    this.groups.add(group);
-    group.getMembers().add(this);
-  }
-
-  public void removeGroup(Group group) {
-    this.groups.remove(group);
-    group.getMembers().remove(this);
-  }
-
   @Override
   public boolean equals(Object o) {
     if (this == o)
@@ -192,12 +169,13 @@ public class User {
     if (!(o instanceof User))
       return false;
     User user = (User) o;
-    return id != null && id.equals(user.id);
+    // username é a chave natural (única e imutável); getters funcionam com proxies
+    return getUsername() != null && getUsername().equals(user.getUsername());
   }
 
   @Override
   public int hashCode() {
-    return getClass().hashCode();
+    return Objects.hashCode(getUsername());
   }
 
   @Override
@@ -0,0 +1,64 @@
+package com.bananachat.backend.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição de uma mensagem na ordem (timestamp, id), usada na paginação por
+ * cursor. O cliente recebe o cursor como uma string opaca (Base64 URL-safe) e
+ * apenas o devolve em before/after.
+ */
+public final class MessageCursor {
+
+  /**
+   * Posição depois de qualquer mensagem; "antes de LATEST" é a página mais
+   * recente
+   */
+  public static final MessageCursor LATEST = new MessageCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+      Long.MAX_VALUE);
+
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final LocalDateTime timestamp;
+  private final long id;
+
+  public MessageCursor(LocalDateTime timestamp, long id) {
+    this.timestamp = timestamp;
+    this.id = id;
+  }
+
+  public LocalDateTime getTimestamp() {
+    return timestamp;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String encode() {
+    return ENCODER.encodeToString((timestamp + "|" + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodifica um cursor recebido do cliente
+   *
+   * @throws IllegalArgumentException se o cursor for inválido
+   */
+  public static MessageCursor decode(String cursor) {
+    try {
+      String value = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+      int separator = value.lastIndexOf('|');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Cursor inválido: " + cursor);
+      }
+      return new MessageCursor(LocalDateTime.parse(value.substring(0, separator)),
+          Long.parseLong(value.substring(separator + 1)));
+    } catch (DateTimeParseException | IllegalArgumentException e) {
+      // NumberFormatException também é uma IllegalArgumentException
+      throw new IllegalArgumentException("Cursor inválido: " + cursor);
+    }
+  }
+}
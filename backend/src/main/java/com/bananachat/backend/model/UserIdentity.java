@@ -0,0 +1,58 @@
+package com.bananachat.backend.model;
+
+import java.util.Objects;
+
+/**
+ * Identidade imutável de um usuário (id, username e nome de exibição), usada
+ * pelo cache de usuários no lugar da entidade completa.
+ */
+public final class UserIdentity {
+
+  private final Long id;
+  private final String username;
+  private final String displayName;
+
+  public UserIdentity(Long id, String username, String displayName) {
+    this.id = id;
+    this.username = username;
+    this.displayName = displayName;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public String getDisplayName() {
+    return displayName;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o)
+      return true;
+    if (!(o instanceof UserIdentity))
+      return false;
+    UserIdentity that = (UserIdentity) o;
+    return Objects.equals(id, that.id)
+        && Objects.equals(username, that.username)
+        && Objects.equals(displayName, that.displayName);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, username, displayName);
+  }
+
+  @Override
+  public String toString() {
+    return "UserIdentity{" +
+        "id=" + id +
+        ", username='" + username + '\'' +
+        ", displayName='" + displayName + '\'' +
+        '}';
+  }
+}
@@ -1,15 +1,23 @@
 package com.bananachat.backend.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.bananachat.backend.dto.ConversationDto;
 import com.bananachat.backend.entity.ChatHistory;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface ChatHistoryRepository extends JpaRepository<ChatHistory, Long> {
 
@@ -30,19 +38,94 @@ public interface ChatHistoryRepository extends JpaRepository<ChatHistory, Long>
    */
   List<ChatHistory> findByTypeOrderByTimestampAsc(ChatHistory.MessageType type);
 
+  // Conversas privadas: filtradas pela chave normalizada do par de usuários
+  // (ChatHistory.conversationKey), que cobre os dois sentidos em uma única
+  // faixa do índice (conversation_key, timestamp, id)
+
+  /**
+   * Busca mensagens privadas de uma conversa
+   */
+  @Query("SELECT c FROM ChatHistory c WHERE c.conversationKey = :key ORDER BY c.timestamp ASC, c.id ASC")
+  List<ChatHistory> findConversationMessages(@Param("key") String conversationKey);
+
+  /**
+   * Busca as mensagens mais recentes de uma conversa privada
+   */
+  @Query("SELECT c FROM ChatHistory c WHERE c.conversationKey = :key ORDER BY c.timestamp DESC, c.id DESC")
+  List<ChatHistory> findRecentConversationMessages(@Param("key") String conversationKey, Pageable pageable);
+
+  /**
+   * Conversas privadas em que o usuário enviou mensagens, por destinatário
+   */
+  @Query("SELECT new com.bananachat.backend.dto.ConversationDto(c.recipient, MAX(c.timestamp), COUNT(c)) " +
+      "FROM ChatHistory c WHERE c.sender = :username AND c.recipient IS NOT NULL GROUP BY c.recipient")
+  List<ConversationDto> findSentConversations(@Param("username") String username);
+
+  /**
+   * Conversas privadas em que o usuário recebeu mensagens, por remetente
+   * (mensagens para si mesmo já entram em findSentConversations)
+   */
+  @Query("SELECT new com.bananachat.backend.dto.ConversationDto(c.sender, MAX(c.timestamp), COUNT(c)) " +
+      "FROM ChatHistory c WHERE c.recipient = :username AND c.sender <> :username GROUP BY c.sender")
+  List<ConversationDto> findReceivedConversations(@Param("username") String username);
+
   /**
-   * Busca mensagens privadas entre dois usuários
+   * Busca as mensagens públicas mais recentes
    */
-  @Query("SELECT c FROM ChatHistory c WHERE " +
-      "((c.sender = :user1 AND c.recipient = :user2) OR " +
-      " (c.sender = :user2 AND c.recipient = :user1)) " +
-      "AND c.recipient IS NOT NULL " +
-      "ORDER BY c.timestamp ASC")
-  List<ChatHistory> findPrivateMessagesBetweenUsers(String user1, String user2);
+  @Query("SELECT c FROM ChatHistory c WHERE c.recipient IS NULL ORDER BY c.timestamp DESC")
+  List<ChatHistory> findRecentPublicMessages(Pageable pageable);
 
   /**
    * Busca mensagens públicas (sem recipient)
    */
   @Query("SELECT c FROM ChatHistory c WHERE c.recipient IS NULL ORDER BY c.timestamp ASC")
   List<ChatHistory> findPublicMessagesOrderByTimestampAsc();
+
+  // Paginação por cursor em (timestamp, id): "before" em ordem decrescente,
+  // "after" em ordem crescente. O limite redundante em timestamp (<= / >=)
+  // permite que o banco percorra o índice como faixa a partir do cursor.
+
+  @Query("SELECT c FROM ChatHistory c WHERE c.timestamp <= :ts AND (c.timestamp < :ts OR (c.timestamp = :ts AND c.id < :id)) " +
+      "ORDER BY c.timestamp DESC, c.id DESC")
+  List<ChatHistory> findPageBefore(@Param("ts") LocalDateTime ts, @Param("id") long id, Pageable pageable);
+
+  @Query("SELECT c FROM ChatHistory c WHERE c.timestamp >= :ts AND (c.timestamp > :ts OR (c.timestamp = :ts AND c.id > :id)) " +
+      "ORDER BY c.timestamp ASC, c.id ASC")
+  List<ChatHistory> findPageAfter(@Param("ts") LocalDateTime ts, @Param("id") long id, Pageable pageable);
+
+  @Query("SELECT c FROM ChatHistory c WHERE c.recipient IS NULL AND c.timestamp <= :ts " +
+      "AND (c.timestamp < :ts OR (c.timestamp = :ts AND c.id < :id)) " +
+      "ORDER BY c.timestamp DESC, c.id DESC")
+  List<ChatHistory> findPublicPageBefore(@Param("ts") LocalDateTime ts, @Param("id") long id, Pageable pageable);
+
+  @Query("SELECT c FROM ChatHistory c WHERE c.recipient IS NULL AND c.timestamp >= :ts " +
+      "AND (c.timestamp > :ts OR (c.timestamp = :ts AND c.id > :id)) " +
+      "ORDER BY c.timestamp ASC, c.id ASC")
+  List<ChatHistory> findPublicPageAfter(@Param("ts") LocalDateTime ts, @Param("id") long id, Pageable pageable);
+
+  @Query("SELECT c FROM ChatHistory c WHERE c.conversationKey = :key AND c.timestamp <= :ts " +
+      "AND (c.timestamp < :ts OR (c.timestamp = :ts AND c.id < :id)) " +
+      "ORDER BY c.timestamp DESC, c.id DESC")
+  List<ChatHistory> findConversationPageBefore(@Param("key") String conversationKey,
+      @Param("ts") LocalDateTime ts, @Param("id") long id, Pageable pageable);
+
+  @Query("SELECT c FROM ChatHistory c WHERE c.conversationKey = :key AND c.timestamp >= :ts " +
+      "AND (c.timestamp > :ts OR (c.timestamp = :ts AND c.id > :id)) " +
+      "ORDER BY c.timestamp ASC, c.id ASC")
+  List<ChatHistory> findConversationPageAfter(@Param("key") String conversationKey,
+      @Param("ts") LocalDateTime ts, @Param("id") long id, Pageable pageable);
+
+  // Exportação: lidas como Stream com fetch size, para não materializar a
+  // tabela inteira em memória
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT c FROM ChatHistory c ORDER BY c.timestamp ASC, c.id ASC")
+  Stream<ChatHistory> streamAll();
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT c FROM ChatHistory c WHERE c.recipient IS NULL ORDER BY c.timestamp ASC, c.id ASC")
+  Stream<ChatHistory> streamPublic();
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT c FROM ChatHistory c WHERE c.conversationKey = :key ORDER BY c.timestamp ASC, c.id ASC")
+  Stream<ChatHistory> streamConversation(@Param("key") String conversationKey);
 }
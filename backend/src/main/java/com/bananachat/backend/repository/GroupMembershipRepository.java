@@ -0,0 +1,37 @@
+package com.bananachat.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.bananachat.backend.entity.GroupMembership;
+import com.bananachat.backend.entity.GroupMembershipId;
+
+@Repository
+public interface GroupMembershipRepository extends JpaRepository<GroupMembership, GroupMembershipId> {
+
+  @Query("SELECT CASE WHEN COUNT(m) > 0 THEN true ELSE false END FROM GroupMembership m WHERE m.id.groupId = :groupId AND m.id.userId = :userId")
+  boolean existsMembership(@Param("groupId") Long groupId, @Param("userId") Long userId);
+
+  // INSERT direto: save() de uma entidade com id atribuído faria um SELECT antes
+  @Modifying(flushAutomatically = true)
+  @Query(value = "INSERT INTO user_groups (group_id, user_id, joined_at) VALUES (:groupId, :userId, :joinedAt)", nativeQuery = true)
+  int insertMembership(@Param("groupId") Long groupId, @Param("userId") Long userId,
+      @Param("joinedAt") LocalDateTime joinedAt);
+
+  @Modifying
+  @Query("DELETE FROM GroupMembership m WHERE m.id.groupId = :groupId AND m.id.userId = :userId")
+  int deleteMembership(@Param("groupId") Long groupId, @Param("userId") Long userId);
+
+  @Query("SELECT m.id.userId FROM GroupMembership m WHERE m.id.groupId = :groupId")
+  List<Long> findUserIdsByGroupId(@Param("groupId") Long groupId);
+
+  @Query("SELECT m FROM GroupMembership m JOIN FETCH m.user WHERE m.id.groupId IN :groupIds ORDER BY m.joinedAt")
+  List<GroupMembership> findWithUsersByGroupIds(@Param("groupIds") Collection<Long> groupIds);
+}
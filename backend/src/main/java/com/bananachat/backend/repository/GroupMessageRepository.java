@@ -1,17 +1,23 @@
 package com.bananachat.backend.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.bananachat.backend.entity.Group;
 import com.bananachat.backend.entity.GroupMessage;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface GroupMessageRepository extends JpaRepository<GroupMessage, Long> {
 
@@ -32,4 +38,37 @@ public interface GroupMessageRepository extends JpaRepository<GroupMessage, Long
   List<GroupMessage> searchMessagesInGroup(@Param("group") Group group, @Param("query") String query);
 
   void deleteByGroup(Group group);
-}
\ No newline at end of file
+
+  // O limite redundante em timestamp faz o banco usar o índice
+  // (group_id, timestamp, id) como faixa a partir do cursor
+  @Query("SELECT gm FROM GroupMessage gm WHERE gm.group.id = :groupId AND gm.timestamp <= :ts " +
+      "AND (gm.timestamp < :ts OR (gm.timestamp = :ts AND gm.id < :id)) " +
+      "ORDER BY gm.timestamp DESC, gm.id DESC")
+  List<GroupMessage> findPageBefore(@Param("groupId") Long groupId, @Param("ts") LocalDateTime ts,
+      @Param("id") long id, Pageable pageable);
+
+  @Query("SELECT gm FROM GroupMessage gm WHERE gm.group.id = :groupId AND gm.timestamp >= :ts " +
+      "AND (gm.timestamp > :ts OR (gm.timestamp = :ts AND gm.id > :id)) " +
+      "ORDER BY gm.timestamp ASC, gm.id ASC")
+  List<GroupMessage> findPageAfter(@Param("groupId") Long groupId, @Param("ts") LocalDateTime ts,
+      @Param("id") long id, Pageable pageable);
+
+  // Exportação em Stream; remetente e grupo vêm no mesmo SELECT
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT gm FROM GroupMessage gm JOIN FETCH gm.sender JOIN FETCH gm.group " +
+      "WHERE gm.group.id = :groupId ORDER BY gm.timestamp ASC, gm.id ASC")
+  Stream<GroupMessage> streamByGroupId(@Param("groupId") Long groupId);
+
+  // Reconstrução do índice de busca: só as colunas indexadas (id, grupo,
+  // conteúdo, timestamp), sem carregar entidades
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT gm.id, gm.group.id, gm.content, gm.timestamp FROM GroupMessage gm")
+  Stream<Object[]> streamSearchDocuments();
+
+  // Resultados do índice de busca; o filtro de grupo impede que um ID de outro
+  // grupo devolva a mensagem a quem não é membro
+  @Query("SELECT gm FROM GroupMessage gm JOIN FETCH gm.sender JOIN FETCH gm.group " +
+      "WHERE gm.id IN :ids AND gm.group.id = :groupId")
+  List<GroupMessage> findAllWithSenderByIdInAndGroupId(@Param("ids") Collection<Long> ids,
+      @Param("groupId") Long groupId);
+}
@@ -1,16 +1,23 @@
 package com.bananachat.backend.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.bananachat.backend.entity.Group;
 import com.bananachat.backend.entity.User;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface GroupRepository extends JpaRepository<Group, Long> {
 
@@ -21,19 +28,37 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
   @Query("SELECT g FROM Group g WHERE g.isActive = true AND g.type = 'PUBLIC' ORDER BY g.name")
   List<Group> findPublicGroups();
 
-  @Query("SELECT g FROM Group g JOIN g.members m WHERE m = :user AND g.isActive = true ORDER BY g.name")
-  List<Group> findUserGroups(@Param("user") User user);
+  @Query("SELECT g FROM GroupMembership m JOIN m.group g WHERE m.id.userId = :userId AND g.isActive = true ORDER BY g.name")
+  List<Group> findUserGroups(@Param("userId") Long userId);
 
   @Query("SELECT g FROM Group g WHERE g.name LIKE %:query% AND g.isActive = true AND g.type = 'PUBLIC' ORDER BY g.name")
   List<Group> searchPublicGroups(@Param("query") String query);
 
+  // Carga do DirectorySearchIndex: linhas (id, nome) dos grupos públicos ativos
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT g.id, g.name FROM Group g WHERE g.isActive = true AND g.type = 'PUBLIC'")
+  Stream<Object[]> streamPublicDirectoryEntries();
+
   Optional<Group> findByIdAndIsActiveTrue(Long id);
 
-  @Query("SELECT COUNT(m) FROM Group g JOIN g.members m WHERE g.id = :groupId")
-  int countGroupMembers(@Param("groupId") Long groupId);
+  @Query("SELECT g.memberCount FROM Group g WHERE g.id = :groupId")
+  Optional<Integer> findMemberCountById(@Param("groupId") Long groupId);
+
+  // Reserva uma vaga de forma atômica: 0 linhas afetadas = grupo lotado ou inativo
+  @Modifying
+  @Query("UPDATE Group g SET g.memberCount = g.memberCount + 1, g.updatedAt = :now WHERE g.id = :groupId AND g.isActive = true AND g.memberCount < g.maxMembers")
+  int incrementMemberCount(@Param("groupId") Long groupId, @Param("now") LocalDateTime now);
+
+  @Modifying
+  @Query("UPDATE Group g SET g.memberCount = g.memberCount - 1, g.updatedAt = :now WHERE g.id = :groupId AND g.memberCount > 0")
+  int decrementMemberCount(@Param("groupId") Long groupId, @Param("now") LocalDateTime now);
+
+  @Query("SELECT g.isActive FROM Group g WHERE g.id = :groupId")
+  Optional<Boolean> findActiveFlagById(@Param("groupId") Long groupId);
 
-  @Query("SELECT CASE WHEN COUNT(m) > 0 THEN true ELSE false END FROM Group g JOIN g.members m WHERE g.id = :groupId AND m.id = :userId")
-  boolean isUserMemberOfGroup(@Param("groupId") Long groupId, @Param("userId") Long userId);
+  // [janela em ms, máximo de mensagens]; vazio se o grupo não existe
+  @Query("SELECT g.batchWindowMs, g.batchMaxMessages FROM Group g WHERE g.id = :groupId")
+  List<Object[]> findBatchSettingsById(@Param("groupId") Long groupId);
 
   boolean existsByName(String name);
 }
\ No newline at end of file
@@ -1,19 +1,38 @@
 package com.bananachat.backend.repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.bananachat.backend.entity.User;
+import com.bananachat.backend.model.UserIdentity;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
   Optional<User> findByUsername(String username);
 
+  @Query("SELECT new com.bananachat.backend.model.UserIdentity(u.id, u.username, u.displayName) " +
+      "FROM User u WHERE u.username = :username")
+  Optional<UserIdentity> findIdentityByUsername(@Param("username") String username);
+
+  @Modifying
+  @Query("UPDATE User u SET u.isOnline = :isOnline, u.updatedAt = :now, " +
+      "u.lastSeen = CASE WHEN :isOnline = true THEN :now ELSE u.lastSeen END " +
+      "WHERE u.username = :username")
+  int updateOnlineStatus(@Param("username") String username, @Param("isOnline") boolean isOnline,
+      @Param("now") LocalDateTime now);
+
   Optional<User> findByEmail(String email);
 
   boolean existsByUsername(String username);
@@ -28,4 +47,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
   @Query("SELECT u FROM User u WHERE u.username LIKE %:query% OR u.displayName LIKE %:query% ORDER BY u.username")
   java.util.List<User> searchUsers(@Param("query") String query);
-}
\ No newline at end of file
+
+  // Carga do DirectorySearchIndex: linhas (id, username, displayName), sem
+  // carregar entidades
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT u.id, u.username, u.displayName FROM User u")
+  Stream<Object[]> streamDirectoryEntries();
+}
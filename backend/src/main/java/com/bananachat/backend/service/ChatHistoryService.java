@@ -1,7 +1,13 @@
 package com.bananachat.backend.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,11 +15,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.bananachat.backend.dto.ChatHistoryDto;
+import com.bananachat.backend.dto.ConversationDto;
+import com.bananachat.backend.dto.CursorPageDto;
 import com.bananachat.backend.entity.ChatHistory;
 import com.bananachat.backend.model.ChatMessage;
+import com.bananachat.backend.model.MessageCursor;
 import com.bananachat.backend.repository.ChatHistoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @Service
 public class ChatHistoryService {
@@ -23,39 +37,76 @@ public class ChatHistoryService {
   @Autowired
   private ChatHistoryRepository chatHistoryRepository;
 
+  @Autowired
+  private RecentMessageCache recentMessageCache;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private ChatMetrics chatMetrics;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
   /**
    * Salva uma mensagem no histórico
    */
   public void saveMessage(ChatMessage chatMessage) {
     try {
-      ChatHistory.MessageType historyType = convertMessageType(chatMessage.getType());
-      ChatHistory chatHistory = new ChatHistory(
-          chatMessage.getSender(),
-          chatMessage.getRecipient(),
-          chatMessage.getContent(),
-          historyType);
-
-      // Define o timestamp da mensagem se disponível
-      if (chatMessage.getTimestamp() != null) {
-        chatHistory.setTimestamp(chatMessage.getTimestamp());
-      }
-
-      ChatHistory savedMessage = chatHistoryRepository.save(chatHistory);
-
-      // Log detalhado para debug
-      if (chatMessage.getRecipient() != null) {
-        LOGGER.info("Mensagem PRIVADA salva no histórico: {} -> {}: {} (ID: {})",
-            chatMessage.getSender(), chatMessage.getRecipient(),
-            chatMessage.getContent(), savedMessage.getId());
-      } else {
-        LOGGER.info("Mensagem PÚBLICA salva no histórico: {}: {} (ID: {})",
-            chatMessage.getSender(), chatMessage.getContent(), savedMessage.getId());
-      }
+      persistMessage(chatMessage);
     } catch (Exception e) {
       LOGGER.error("Erro ao salvar mensagem no histórico: ", e);
     }
   }
 
+  /**
+   * Salva uma mensagem no histórico. Diferente de saveMessage, propaga a
+   * exceção, para que o write-behind conte a falha
+   */
+  public ChatHistory persistMessage(ChatMessage chatMessage) {
+    long startNanos = System.nanoTime();
+    ChatHistory savedMessage = chatHistoryRepository.save(toEntity(chatMessage));
+    chatMetrics.recordSave(ChatMetrics.Store.CHAT_HISTORY, false, startNanos);
+    recentMessageCache.chatMessageSaved(convertToDto(savedMessage));
+
+    // Log detalhado para debug (inclui o conteúdo, por isso fora do nível info)
+    if (chatMessage.getRecipient() != null) {
+      LOGGER.debug("Mensagem PRIVADA salva no histórico: {} -> {}: {} (ID: {})",
+          chatMessage.getSender(), chatMessage.getRecipient(),
+          chatMessage.getContent(), savedMessage.getId());
+    } else {
+      LOGGER.debug("Mensagem PÚBLICA salva no histórico: {}: {} (ID: {})",
+          chatMessage.getSender(), chatMessage.getContent(), savedMessage.getId());
+    }
+    return savedMessage;
+  }
+
+  /**
+   * Salva várias mensagens em uma única transação, usando inserts em lote do
+   * JDBC. Diferente de saveMessage, propaga a exceção para que o chamador possa
+   * tratar o lote que falhou.
+   */
+  @Transactional
+  public int saveAll(List<ChatMessage> chatMessages) {
+    if (chatMessages.isEmpty()) {
+      return 0;
+    }
+
+    long startNanos = System.nanoTime();
+    List<ChatHistory> entities = chatMessages.stream()
+        .map(this::toEntity)
+        .collect(Collectors.toList());
+
+    chatHistoryRepository.saveAll(entities);
+    chatMetrics.recordSave(ChatMetrics.Store.CHAT_HISTORY, true, startNanos);
+    TransactionHooks.afterCommit(() -> entities.forEach(
+        entity -> recentMessageCache.chatMessageSaved(convertToDto(entity))));
+
+    LOGGER.debug("Lote de {} mensagens salvo no histórico", entities.size());
+    return entities.size();
+  }
+
   /**
    * Busca o histórico completo de mensagens
    */
@@ -72,27 +123,162 @@ public class ChatHistoryService {
   }
 
   /**
-   * Busca as mensagens mais recentes com paginação
+   * Busca as mensagens mais recentes com paginação. A primeira página vem do
+   * cache de mensagens recentes.
    */
   public List<ChatHistoryDto> getRecentMessages(int page, int size) {
     try {
-      Pageable pageable = PageRequest.of(page, size);
-      return chatHistoryRepository.findRecentMessages(pageable)
-          .getContent()
-          .stream()
-          .map(this::convertToDto)
-          .collect(Collectors.toList());
+      if (page == 0) {
+        return recentMessageCache.getAllMessages(size, limit -> findRecentMessages(0, limit));
+      }
+      return findRecentMessages(page, size);
     } catch (Exception e) {
       LOGGER.error("Erro ao buscar mensagens recentes: ", e);
       return List.of();
     }
   }
 
+  /**
+   * Busca as mensagens públicas mais recentes (mais novas primeiro)
+   */
+  public List<ChatHistoryDto> getRecentPublicMessages(int limit) {
+    try {
+      return recentMessageCache.getPublicMessages(limit,
+          n -> toDtos(chatHistoryRepository.findRecentPublicMessages(PageRequest.of(0, n))));
+    } catch (Exception e) {
+      LOGGER.error("Erro ao buscar mensagens públicas recentes: ", e);
+      return List.of();
+    }
+  }
+
+  /**
+   * Busca as mensagens privadas mais recentes entre dois usuários (mais novas
+   * primeiro)
+   */
+  public List<ChatHistoryDto> getRecentPrivateMessages(String user1, String user2, int limit) {
+    try {
+      return recentMessageCache.getPrivateMessages(user1, user2, limit,
+          n -> toDtos(chatHistoryRepository.findRecentConversationMessages(
+              ChatHistory.conversationKey(user1, user2), PageRequest.of(0, n))));
+    } catch (Exception e) {
+      LOGGER.error("Erro ao buscar mensagens privadas recentes entre {} e {}: ", user1, user2, e);
+      return List.of();
+    }
+  }
+
+  /**
+   * Página do histórico completo por cursor (before/after)
+   */
+  public CursorPageDto<ChatHistoryDto> getHistoryPage(String before, String after, int limit) {
+    MessageCursor cursor = KeysetPages.start(before, after);
+    boolean forward = after != null && !after.isBlank();
+    List<ChatHistory> rows = forward
+        ? chatHistoryRepository.findPageAfter(cursor.getTimestamp(), cursor.getId(), KeysetPages.probe(limit))
+        : chatHistoryRepository.findPageBefore(cursor.getTimestamp(), cursor.getId(), KeysetPages.probe(limit));
+    return toPage(rows, limit, !forward);
+  }
+
+  /**
+   * Página do histórico público por cursor (before/after)
+   */
+  public CursorPageDto<ChatHistoryDto> getPublicHistoryPage(String before, String after, int limit) {
+    MessageCursor cursor = KeysetPages.start(before, after);
+    boolean forward = after != null && !after.isBlank();
+    List<ChatHistory> rows = forward
+        ? chatHistoryRepository.findPublicPageAfter(cursor.getTimestamp(), cursor.getId(), KeysetPages.probe(limit))
+        : chatHistoryRepository.findPublicPageBefore(cursor.getTimestamp(), cursor.getId(),
+            KeysetPages.probe(limit));
+    return toPage(rows, limit, !forward);
+  }
+
+  /**
+   * Página da conversa privada entre dois usuários por cursor (before/after)
+   */
+  public CursorPageDto<ChatHistoryDto> getPrivateHistoryPage(String user1, String user2, String before,
+      String after, int limit) {
+    MessageCursor cursor = KeysetPages.start(before, after);
+    boolean forward = after != null && !after.isBlank();
+    String key = ChatHistory.conversationKey(user1, user2);
+    List<ChatHistory> rows = forward
+        ? chatHistoryRepository.findConversationPageAfter(key, cursor.getTimestamp(), cursor.getId(),
+            KeysetPages.probe(limit))
+        : chatHistoryRepository.findConversationPageBefore(key, cursor.getTimestamp(), cursor.getId(),
+            KeysetPages.probe(limit));
+    return toPage(rows, limit, !forward);
+  }
+
+  /**
+   * Exporta o histórico completo como NDJSON, em ordem cronológica
+   */
+  @Transactional(readOnly = true)
+  public long exportHistory(OutputStream out) throws IOException {
+    return export(chatHistoryRepository.streamAll(), out);
+  }
+
+  /**
+   * Exporta o histórico público como NDJSON, em ordem cronológica
+   */
+  @Transactional(readOnly = true)
+  public long exportPublicHistory(OutputStream out) throws IOException {
+    return export(chatHistoryRepository.streamPublic(), out);
+  }
+
+  /**
+   * Exporta a conversa privada entre dois usuários como NDJSON, em ordem
+   * cronológica
+   */
+  @Transactional(readOnly = true)
+  public long exportPrivateHistory(String user1, String user2, OutputStream out) throws IOException {
+    return export(chatHistoryRepository.streamConversation(ChatHistory.conversationKey(user1, user2)), out);
+  }
+
+  private long export(Stream<ChatHistory> rows, OutputStream out) throws IOException {
+    long count = NdjsonExport.write(rows, out, objectMapper, ChatHistoryDto.class, this::convertToDto,
+        entityManager);
+    LOGGER.info("Exportação do histórico concluída: {} mensagens", count);
+    return count;
+  }
+
+  private CursorPageDto<ChatHistoryDto> toPage(List<ChatHistory> rows, int limit, boolean descending) {
+    return KeysetPages.toPage(rows, limit, descending, this::convertToDto,
+        row -> new MessageCursor(row.getTimestamp(), row.getId()));
+  }
+
+  private List<ChatHistoryDto> findRecentMessages(int page, int size) {
+    Pageable pageable = PageRequest.of(page, size);
+    return toDtos(chatHistoryRepository.findRecentMessages(pageable).getContent());
+  }
+
+  private List<ChatHistoryDto> toDtos(List<ChatHistory> history) {
+    return history.stream()
+        .map(this::convertToDto)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Converte ChatMessage para a entidade ChatHistory
+   */
+  private ChatHistory toEntity(ChatMessage chatMessage) {
+    ChatHistory.MessageType historyType = convertMessageType(chatMessage.getType());
+    ChatHistory chatHistory = new ChatHistory(
+        chatMessage.getSender(),
+        chatMessage.getRecipient(),
+        chatMessage.getContent(),
+        historyType);
+
+    // Define o timestamp da mensagem se disponível
+    if (chatMessage.getTimestamp() != null) {
+      chatHistory.setTimestamp(chatMessage.getTimestamp());
+    }
+    return chatHistory;
+  }
+
   /**
    * Converte ChatHistory para ChatHistoryDto
    */
-  private ChatHistoryDto convertToDto(ChatHistory chatHistory) {
+  ChatHistoryDto convertToDto(ChatHistory chatHistory) {
     return new ChatHistoryDto(
+        chatHistory.getId(),
         chatHistory.getSender(),
         chatHistory.getRecipient(),
         chatHistory.getContent(),
@@ -116,6 +302,26 @@ public class ChatHistoryService {
     }
   }
 
+  /**
+   * Lista as conversas privadas do usuário, da mais recente para a mais antiga.
+   * Cada sentido é agregado pelo seu índice (mensagens enviadas e recebidas) e
+   * os dois resultados são combinados por interlocutor.
+   */
+  public List<ConversationDto> getConversations(String username) {
+    Map<String, ConversationDto> byUser = new HashMap<>();
+    Stream.concat(
+        chatHistoryRepository.findSentConversations(username).stream(),
+        chatHistoryRepository.findReceivedConversations(username).stream())
+        .forEach(conversation -> byUser.merge(conversation.getWithUser(), conversation,
+            (a, b) -> new ConversationDto(a.getWithUser(),
+                a.getLastMessageAt().isAfter(b.getLastMessageAt()) ? a.getLastMessageAt() : b.getLastMessageAt(),
+                a.getMessageCount() + b.getMessageCount())));
+
+    return byUser.values().stream()
+        .sorted(Comparator.comparing(ConversationDto::getLastMessageAt).reversed())
+        .collect(Collectors.toList());
+  }
+
   /**
    * Busca mensagens privadas entre dois usuários
    */
@@ -123,7 +329,8 @@ public class ChatHistoryService {
     try {
       LOGGER.info("Buscando mensagens privadas entre: {} <-> {}", user1, user2);
 
-      List<ChatHistory> privateMessages = chatHistoryRepository.findPrivateMessagesBetweenUsers(user1, user2);
+      List<ChatHistory> privateMessages = chatHistoryRepository.findConversationMessages(
+          ChatHistory.conversationKey(user1, user2));
 
       LOGGER.info("Encontradas {} mensagens privadas entre {} e {}",
           privateMessages.size(), user1, user2);
@@ -0,0 +1,159 @@
+package com.bananachat.backend.service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bananachat.backend.service.MessagePipelineMetrics.Destination;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Métricas de domínio do chat, exportadas em /actuator/prometheus:
+ * chat.messages (mensagens enviadas por tipo de destino), chat.persistence.save
+ * (latência dos saves de ChatHistoryService e GroupMessageService) e
+ * chat.groups.hot.messages (mensagens por segundo dos grupos mais movimentados).
+ *
+ * Os grupos não viram tag de chat.messages, para não criar uma série por
+ * grupo: o total de grupos fica em destination=group e só os top-N da última
+ * janela aparecem com o ID.
+ */
+@Component
+public class ChatMetrics {
+
+  public enum Store {
+    CHAT_HISTORY,
+    GROUP_MESSAGE
+  }
+
+  // Grupos com série própria em chat.groups.hot.messages
+  @Value("${chat.metrics.hot-groups:10}")
+  private int hotGroups;
+
+  @Value("${chat.metrics.hot-groups-window-seconds:60}")
+  private long windowSeconds;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private Counter[] messages;
+
+  // [store][single, batch]
+  private Timer[][] saves;
+
+  // Mensagens por grupo na janela atual; trocado a cada janela
+  private final AtomicReference<Map<Long, LongAdder>> groupMessages =
+      new AtomicReference<>(new ConcurrentHashMap<>());
+
+  private MultiGauge hotGroupsGauge;
+
+  private ScheduledExecutorService refresher;
+
+  @PostConstruct
+  public void init() {
+    messages = new Counter[Destination.values().length];
+    for (Destination destination : Destination.values()) {
+      messages[destination.ordinal()] = Counter.builder("chat.messages")
+          .description("Mensagens enviadas pelos clientes via STOMP")
+          .tag("destination", tagValue(destination))
+          .register(meterRegistry);
+    }
+
+    saves = new Timer[Store.values().length][2];
+    for (Store store : Store.values()) {
+      saves[store.ordinal()][0] = saveTimer(store, "single");
+      saves[store.ordinal()][1] = saveTimer(store, "batch");
+    }
+
+    hotGroupsGauge = MultiGauge.builder("chat.groups.hot.messages")
+        .description("Mensagens por segundo dos grupos mais movimentados na última janela")
+        .baseUnit("messages/s")
+        .register(meterRegistry);
+
+    refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "chat-metrics-hot-groups");
+      thread.setDaemon(true);
+      return thread;
+    });
+    refresher.scheduleAtFixedRate(this::refreshHotGroups, windowSeconds, windowSeconds, TimeUnit.SECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    refresher.shutdownNow();
+  }
+
+  /**
+   * Conta uma mensagem pública ou privada enviada
+   */
+  public void messageSent(Destination destination) {
+    messages[destination.ordinal()].increment();
+  }
+
+  /**
+   * Conta uma mensagem de grupo, no total e na janela do grupo
+   */
+  public void groupMessageSent(Long groupId) {
+    messages[Destination.GROUP.ordinal()].increment();
+    groupMessages.get().computeIfAbsent(groupId, id -> new LongAdder()).increment();
+  }
+
+  /**
+   * Registra a duração de um save desde startNanos até o commit da transação
+   * atual, incluindo o flush dos INSERTs; fora de transação, até agora. Saves
+   * de transações desfeitas não entram
+   */
+  public void recordSave(Store store, boolean batch, long startNanos) {
+    Timer timer = saves[store.ordinal()][batch ? 1 : 0];
+    TransactionHooks.afterCommit(() -> timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS));
+  }
+
+  /**
+   * Fecha a janela atual: publica a taxa dos top-N grupos e remove as séries
+   * dos grupos que saíram do ranking
+   */
+  public void refreshHotGroups() {
+    Map<Long, LongAdder> window = groupMessages.getAndSet(new ConcurrentHashMap<>());
+    List<MultiGauge.Row<?>> rows = window.entrySet().stream()
+        .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+        .sorted(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder()))
+        .limit(hotGroups)
+        .<MultiGauge.Row<?>>map(entry -> MultiGauge.Row.of(Tags.of("group", entry.getKey().toString()),
+            entry.getValue() / (double) windowSeconds))
+        .toList();
+    hotGroupsGauge.register(rows, true);
+  }
+
+  private Timer saveTimer(Store store, String mode) {
+    return Timer.builder("chat.persistence.save")
+        .description("Tempo para gravar mensagens no banco")
+        .tag("store", tagValue(store))
+        .tag("mode", mode)
+        .publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofNanos(10_000))
+        .maximumExpectedValue(Duration.ofSeconds(10))
+        .register(meterRegistry);
+  }
+
+  private static String tagValue(Enum<?> value) {
+    return value.name().toLowerCase(Locale.ROOT);
+  }
+}
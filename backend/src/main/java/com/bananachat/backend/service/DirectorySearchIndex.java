@@ -0,0 +1,251 @@
+package com.bananachat.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bananachat.backend.dto.DirectoryIndexStatsDto;
+import com.bananachat.backend.repository.GroupRepository;
+import com.bananachat.backend.repository.UserRepository;
+
+/**
+ * Índice em memória para as sugestões de busca de usuários (username e nome de
+ * exibição) e de grupos públicos ativos (nome), no lugar das consultas LIKE
+ * '%termo%' que percorrem as tabelas inteiras a cada tecla.
+ *
+ * O índice é carregado do banco em segundo plano na subida e depois mantido
+ * pelo UserService e pelo GroupService, depois de cada commit. Enquanto a
+ * carga não termina, as buscas retornam vazio e o chamador usa a consulta do
+ * banco. Alterações que chegam durante uma carga são aplicadas também ao
+ * índice novo antes de ele substituir o atual.
+ */
+@Component
+public class DirectorySearchIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DirectorySearchIndex.class);
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private GroupRepository groupRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Value("${chat.directory-search.enabled:true}")
+  private boolean enabled;
+
+  private volatile Indexes current = new Indexes();
+
+  private volatile boolean ready;
+
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+
+  // Alterações recebidas durante uma carga; null fora dela
+  private final ReentrantLock updateLock = new ReentrantLock();
+  private List<Consumer<Indexes>> pending;
+
+  // Estatísticas
+  private final AtomicLong searches = new AtomicLong();
+  private final AtomicLong fallbackSearches = new AtomicLong();
+  private final AtomicLong totalSearchNanos = new AtomicLong();
+  private final AtomicLong updates = new AtomicLong();
+  private final AtomicLong rebuilds = new AtomicLong();
+  private volatile long lastRebuildMillis;
+
+  /**
+   * Carrega o índice em segundo plano na subida
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildInBackground() {
+    if (!enabled) {
+      LOGGER.info("Índice de busca de usuários e grupos desabilitado");
+      return;
+    }
+    Thread thread = new Thread(this::rebuild, "chat-directory-rebuild");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Indexa (ou reindexa) um usuário
+   */
+  public void userSaved(Long id, String username, String displayName) {
+    apply(indexes -> indexes.users.put(id, username, displayName));
+  }
+
+  /**
+   * Indexa um grupo, se ele for público e ativo, ou o remove do índice
+   */
+  public void groupSaved(Long id, String name, boolean publicAndActive) {
+    apply(indexes -> {
+      if (publicAndActive) {
+        indexes.groups.put(id, name);
+      } else {
+        indexes.groups.remove(id);
+      }
+    });
+  }
+
+  public void groupRemoved(Long id) {
+    apply(indexes -> indexes.groups.remove(id));
+  }
+
+  /**
+   * IDs dos usuários que casam com o termo, em ordem de relevância. Vazio
+   * quando o índice ainda não pode responder.
+   */
+  public Optional<List<Long>> searchUsers(String query, int limit) {
+    return search(current.users, query, limit);
+  }
+
+  /**
+   * IDs dos grupos públicos que casam com o termo, em ordem de relevância.
+   * Vazio quando o índice ainda não pode responder.
+   */
+  public Optional<List<Long>> searchGroups(String query, int limit) {
+    return search(current.groups, query, limit);
+  }
+
+  /**
+   * Carrega um índice novo a partir do banco e troca o atual por ele. Durante
+   * a carga o índice anterior, se houver, continua respondendo.
+   */
+  public void rebuild() {
+    if (!enabled) {
+      return;
+    }
+
+    rebuildLock.lock();
+    try {
+      rebuildLocked();
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  private void rebuildLocked() {
+    long start = System.currentTimeMillis();
+    updateLock.lock();
+    try {
+      pending = new ArrayList<>();
+    } finally {
+      updateLock.unlock();
+    }
+
+    try {
+      Indexes loaded = new Indexes();
+      TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+      readOnly.setReadOnly(true);
+      readOnly.executeWithoutResult(status -> {
+        try (Stream<Object[]> rows = userRepository.streamDirectoryEntries()) {
+          rows.forEach(row -> loaded.users.put((Long) row[0], (String) row[1], (String) row[2]));
+        }
+        try (Stream<Object[]> rows = groupRepository.streamPublicDirectoryEntries()) {
+          rows.forEach(row -> loaded.groups.put((Long) row[0], (String) row[1]));
+        }
+      });
+
+      updateLock.lock();
+      try {
+        pending.forEach(update -> update.accept(loaded));
+        pending = null;
+        current = loaded;
+      } finally {
+        updateLock.unlock();
+      }
+
+      ready = true;
+      rebuilds.incrementAndGet();
+      lastRebuildMillis = System.currentTimeMillis() - start;
+      LOGGER.info("Índice de busca de usuários e grupos carregado: {} usuários, {} grupos em {}ms",
+          loaded.users.size(), loaded.groups.size(), lastRebuildMillis);
+    } catch (Exception e) {
+      updateLock.lock();
+      try {
+        pending = null;
+      } finally {
+        updateLock.unlock();
+      }
+      LOGGER.error("Erro ao carregar o índice de busca de usuários e grupos: ", e);
+    }
+  }
+
+  public boolean isReady() {
+    return enabled && ready;
+  }
+
+  /**
+   * Retorna as estatísticas do índice
+   */
+  public DirectoryIndexStatsDto getStats() {
+    Indexes indexes = current;
+    long searchCount = searches.get();
+    return new DirectoryIndexStatsDto(
+        enabled,
+        isReady(),
+        indexes.users.size(),
+        indexes.groups.size(),
+        indexes.users.trigramCount() + indexes.groups.trigramCount(),
+        searchCount,
+        fallbackSearches.get(),
+        updates.get(),
+        rebuilds.get(),
+        lastRebuildMillis,
+        searchCount > 0 ? totalSearchNanos.get() / 1000.0 / searchCount : 0);
+  }
+
+  private Optional<List<Long>> search(NgramIndex index, String query, int limit) {
+    if (!isReady()) {
+      fallbackSearches.incrementAndGet();
+      return Optional.empty();
+    }
+
+    long start = System.nanoTime();
+    try {
+      return Optional.of(index.search(query, limit));
+    } finally {
+      searches.incrementAndGet();
+      totalSearchNanos.addAndGet(System.nanoTime() - start);
+    }
+  }
+
+  private void apply(Consumer<Indexes> update) {
+    if (!enabled) {
+      return;
+    }
+    updateLock.lock();
+    try {
+      update.accept(current);
+      if (pending != null) {
+        pending.add(update);
+      }
+    } finally {
+      updateLock.unlock();
+    }
+    updates.incrementAndGet();
+  }
+
+  /**
+   * Índices de usuários e de grupos, trocados juntos a cada carga
+   */
+  private static final class Indexes {
+    final NgramIndex users = new NgramIndex();
+    final NgramIndex groups = new NgramIndex();
+  }
+}
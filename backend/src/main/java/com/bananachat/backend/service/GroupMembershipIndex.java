@@ -0,0 +1,184 @@
+package com.bananachat.backend.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.bananachat.backend.model.UserIdentity;
+import com.bananachat.backend.repository.GroupMembershipRepository;
+import com.bananachat.backend.repository.GroupRepository;
+
+/**
+ * Índice em memória de participação em grupos (groupId -> IDs dos membros +
+ * flag de ativo), usado para autorizar mensagens de grupo sem consultar o
+ * banco. O username é resolvido pelo UserIdentityCache.
+ *
+ * Cada grupo é carregado na primeira consulta e depois mantido pelo
+ * GroupService. IDs que não existem no banco não ficam no índice, para que
+ * IDs arbitrários enviados pelos clientes não o façam crescer; só grupos
+ * desativados ficam marcados como inativos. Os membros ficam em um long[] ordenado e imutável, trocado
+ * inteiro a cada alteração, então as leituras não usam lock.
+ */
+@Component
+public class GroupMembershipIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GroupMembershipIndex.class);
+
+  @Autowired
+  private GroupRepository groupRepository;
+
+  @Autowired
+  private GroupMembershipRepository groupMembershipRepository;
+
+  @Autowired
+  private UserIdentityCache userIdentityCache;
+
+  private final ConcurrentHashMap<Long, Entry> groups = new ConcurrentHashMap<>();
+
+  private final AtomicLong groupLoads = new AtomicLong();
+
+  /**
+   * Verifica se o grupo existe e está ativo
+   */
+  public boolean isActive(Long groupId) {
+    return groupId != null && entry(groupId).active;
+  }
+
+  /**
+   * Verifica se o usuário é membro de um grupo ativo
+   */
+  public boolean isMember(Long groupId, Long userId) {
+    if (groupId == null || userId == null) {
+      return false;
+    }
+    Entry entry = entry(groupId);
+    return entry.active && Arrays.binarySearch(entry.memberIds, userId) >= 0;
+  }
+
+  /**
+   * Verifica se o usuário (por username) é membro de um grupo ativo
+   */
+  public boolean isMember(Long groupId, String username) {
+    return resolveUserId(username)
+        .map(userId -> isMember(groupId, userId))
+        .orElse(false);
+  }
+
+  /**
+   * Resolve o ID do usuário a partir do username
+   */
+  public Optional<Long> resolveUserId(String username) {
+    return userIdentityCache.get(username).map(UserIdentity::getId);
+  }
+
+  /**
+   * Registra um grupo recém-criado, com o dono como único membro
+   */
+  public void groupCreated(Long groupId, Long ownerId) {
+    TransactionHooks.afterCommit(() -> groups.put(groupId, new Entry(true, new long[] { ownerId })));
+  }
+
+  public void memberAdded(Long groupId, Long userId) {
+    TransactionHooks.afterCommit(() -> groups.computeIfPresent(groupId, (id, entry) -> entry.withMember(userId)));
+  }
+
+  public void memberRemoved(Long groupId, Long userId) {
+    TransactionHooks.afterCommit(() -> groups.computeIfPresent(groupId, (id, entry) -> entry.withoutMember(userId)));
+  }
+
+  public void groupDeactivated(Long groupId) {
+    TransactionHooks.afterCommit(() -> groups.put(groupId, Entry.INACTIVE));
+  }
+
+  /**
+   * Descarta o grupo do índice; ele é recarregado na próxima consulta
+   */
+  public void invalidate(Long groupId) {
+    groups.remove(groupId);
+  }
+
+  public int getIndexedGroups() {
+    return groups.size();
+  }
+
+  public long getGroupLoads() {
+    return groupLoads.get();
+  }
+
+  private Entry entry(Long groupId) {
+    Entry entry = groups.get(groupId);
+    if (entry != null) {
+      return entry;
+    }
+    // O load acontece sob o lock do bin: alterações concorrentes do mesmo grupo
+    // esperam e são aplicadas sobre o estado carregado
+    entry = groups.computeIfAbsent(groupId, this::load);
+    return entry != null ? entry : Entry.INACTIVE;
+  }
+
+  // null para grupo inexistente: o computeIfAbsent não guarda nada
+  private Entry load(Long groupId) {
+    groupLoads.incrementAndGet();
+
+    Optional<Boolean> activeFlag = groupRepository.findActiveFlagById(groupId);
+    if (activeFlag.isEmpty()) {
+      LOGGER.debug("Grupo ID {} inexistente, não indexado", groupId);
+      return null;
+    }
+    if (!activeFlag.get()) {
+      LOGGER.debug("Grupo ID {} indexado como inativo", groupId);
+      return Entry.INACTIVE;
+    }
+
+    List<Long> memberIds = groupMembershipRepository.findUserIdsByGroupId(groupId);
+    long[] sorted = memberIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    LOGGER.debug("Grupo ID {} indexado com {} membros", groupId, sorted.length);
+    return new Entry(true, sorted);
+  }
+
+  /**
+   * Estado imutável de um grupo no índice
+   */
+  private static final class Entry {
+    static final Entry INACTIVE = new Entry(false, new long[0]);
+
+    final boolean active;
+    final long[] memberIds;
+
+    Entry(boolean active, long[] memberIds) {
+      this.active = active;
+      this.memberIds = memberIds;
+    }
+
+    Entry withMember(long userId) {
+      int pos = Arrays.binarySearch(memberIds, userId);
+      if (pos >= 0) {
+        return this;
+      }
+      int insertAt = -pos - 1;
+      long[] updated = new long[memberIds.length + 1];
+      System.arraycopy(memberIds, 0, updated, 0, insertAt);
+      updated[insertAt] = userId;
+      System.arraycopy(memberIds, insertAt, updated, insertAt + 1, memberIds.length - insertAt);
+      return new Entry(active, updated);
+    }
+
+    Entry withoutMember(long userId) {
+      int pos = Arrays.binarySearch(memberIds, userId);
+      if (pos < 0) {
+        return this;
+      }
+      long[] updated = new long[memberIds.length - 1];
+      System.arraycopy(memberIds, 0, updated, 0, pos);
+      System.arraycopy(memberIds, pos + 1, updated, pos, memberIds.length - pos - 1);
+      return new Entry(active, updated);
+    }
+  }
+}
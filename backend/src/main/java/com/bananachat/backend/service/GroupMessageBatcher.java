@@ -0,0 +1,281 @@
+package com.bananachat.backend.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bananachat.backend.dto.GroupBatchingStatsDto;
+import com.bananachat.backend.model.GroupChatMessage;
+import com.bananachat.backend.repository.GroupRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Publica as mensagens no tópico de cada grupo (/topic/group.{id}). Em grupos
+ * com agrupamento ligado, as mensagens que chegam dentro da janela (ou até o
+ * máximo por lote) saem juntas num único frame com um array em ordem de
+ * chegada, em vez de um frame por mensagem para cada assinante.
+ *
+ * A janela e o máximo vêm do grupo (batch_window_ms, batch_max_messages) ou,
+ * se o grupo não define, de chat.group-batching.*. Janela 0 publica cada
+ * mensagem sozinha, como objeto.
+ *
+ * A configuração fica num cache limitado que expira em
+ * chat.group-batching.settings-ttl-seconds: a alteração vale na hora no nó
+ * que a recebeu e, nos demais, quando a entrada expira. O lote em formação de
+ * um grupo só existe entre a primeira mensagem e o envio.
+ */
+@Component
+public class GroupMessageBatcher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GroupMessageBatcher.class);
+
+  static final int MAX_WINDOW_MS = 1000;
+  static final int MAX_BATCH_MESSAGES = 500;
+
+  @Autowired
+  private MessageFanout messageFanout;
+
+  @Autowired
+  private GroupRepository groupRepository;
+
+  @Value("${chat.group-batching.enabled:true}")
+  private boolean enabled;
+
+  @Value("${chat.group-batching.window-ms:0}")
+  private int defaultWindowMs;
+
+  @Value("${chat.group-batching.max-messages:50}")
+  private int defaultMaxMessages;
+
+  @Value("${chat.group-batching.settings-cache-size:10000}")
+  private long settingsCacheSize;
+
+  @Value("${chat.group-batching.settings-ttl-seconds:30}")
+  private long settingsTtlSeconds;
+
+  private ScheduledThreadPoolExecutor scheduler;
+
+  // Configuração de cada grupo, carregada na primeira mensagem
+  private Cache<Long, Settings> settings;
+
+  // Lotes em formação; cada um sai do mapa quando é enviado
+  private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+  // Estatísticas
+  private final AtomicLong directMessages = new AtomicLong();
+  // Mensagens já enviadas em lotes
+  private final AtomicLong batchedMessages = new AtomicLong();
+  private final AtomicLong batchFrames = new AtomicLong();
+  private final LongAccumulator maxBatchSize = new LongAccumulator(Math::max, 0);
+
+  @PostConstruct
+  public void start() {
+    scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+      thread.setName("chat-group-batcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.setRemoveOnCancelPolicy(true);
+
+    settings = Caffeine.newBuilder()
+        .maximumSize(settingsCacheSize)
+        .expireAfterWrite(Duration.ofSeconds(settingsTtlSeconds))
+        .build();
+  }
+
+  /**
+   * Envia os lotes pendentes antes de encerrar
+   */
+  @PreDestroy
+  public void stop() {
+    pending.forEach(this::flush);
+    scheduler.shutdownNow();
+  }
+
+  /**
+   * Publica a mensagem no tópico do grupo, agrupada ou não conforme o grupo
+   */
+  public void publish(GroupChatMessage message) {
+    Long groupId = message.getGroupId();
+    Settings groupSettings = enabled ? settings.get(groupId, this::load) : Settings.DISABLED;
+    if (groupSettings.windowMs <= 0) {
+      directMessages.incrementAndGet();
+      messageFanout.send(message, topic(groupId));
+      return;
+    }
+
+    while (true) {
+      Pending batch = pending.computeIfAbsent(groupId, id -> new Pending());
+      batch.lock.lock();
+      try {
+        if (batch.sent) {
+          // Enviado entre o computeIfAbsent e o lock: usa o próximo lote
+          continue;
+        }
+        batch.messages.add(message);
+        if (batch.messages.size() >= groupSettings.maxMessages) {
+          flushLocked(groupId, batch);
+        } else if (batch.timer == null) {
+          batch.timer = scheduler.schedule(() -> flush(groupId, batch), groupSettings.windowMs,
+              TimeUnit.MILLISECONDS);
+        }
+        return;
+      } finally {
+        batch.lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Atualiza a configuração do grupo, depois do commit da alteração
+   */
+  public void settingsChanged(Long groupId, Integer windowMs, Integer maxMessages) {
+    settings.put(groupId, resolve(windowMs, maxMessages));
+    // Mensagens já na fila saem com a configuração anterior
+    Pending batch = pending.get(groupId);
+    if (batch != null) {
+      flush(groupId, batch);
+    }
+  }
+
+  /**
+   * Esquece o grupo (removido), enviando o que estiver pendente
+   */
+  public void groupRemoved(Long groupId) {
+    settings.invalidate(groupId);
+    Pending batch = pending.remove(groupId);
+    if (batch != null) {
+      flush(groupId, batch);
+    }
+  }
+
+  /**
+   * Valida a janela (0 a 1000ms) e o máximo de mensagens por lote (1 a 500);
+   * null mantém o padrão da aplicação
+   */
+  static void validate(Integer windowMs, Integer maxMessages) {
+    if (windowMs != null && (windowMs < 0 || windowMs > MAX_WINDOW_MS)) {
+      throw new IllegalArgumentException("Janela de agrupamento deve ficar entre 0 e " + MAX_WINDOW_MS + "ms");
+    }
+    if (maxMessages != null && (maxMessages < 1 || maxMessages > MAX_BATCH_MESSAGES)) {
+      throw new IllegalArgumentException("Máximo de mensagens por lote deve ficar entre 1 e " + MAX_BATCH_MESSAGES);
+    }
+  }
+
+  /**
+   * Retorna as estatísticas do agrupamento
+   */
+  public GroupBatchingStatsDto getStats() {
+    long frames = batchFrames.get();
+    long batched = batchedMessages.get();
+    int pendingMessages = 0;
+    for (Pending batch : pending.values()) {
+      pendingMessages += batch.messages.size();
+    }
+    return new GroupBatchingStatsDto(
+        enabled,
+        defaultWindowMs,
+        settings.asMap().values().stream().filter(groupSettings -> groupSettings.windowMs > 0).count(),
+        pendingMessages,
+        directMessages.get(),
+        batched,
+        frames,
+        frames > 0 ? (double) batched / frames : 0,
+        maxBatchSize.get());
+  }
+
+  private void flush(Long groupId, Pending batch) {
+    batch.lock.lock();
+    try {
+      flushLocked(groupId, batch);
+    } finally {
+      batch.lock.unlock();
+    }
+  }
+
+  // Envia sob o lock do grupo, para os lotes chegarem ao broker em ordem, e
+  // tira o lote do mapa: a próxima mensagem do grupo começa outro
+  private void flushLocked(Long groupId, Pending batch) {
+    if (batch.timer != null) {
+      batch.timer.cancel(false);
+      batch.timer = null;
+    }
+    batch.sent = true;
+    pending.remove(groupId, batch);
+    if (batch.messages.isEmpty()) {
+      return;
+    }
+
+    List<GroupChatMessage> messages = batch.messages;
+    batch.messages = new ArrayList<>();
+    try {
+      messageFanout.sendBatch(messages, topic(groupId));
+      batchFrames.incrementAndGet();
+      batchedMessages.addAndGet(messages.size());
+      maxBatchSize.accumulate(messages.size());
+    } catch (Exception e) {
+      LOGGER.error("Erro ao enviar lote de {} mensagens do grupo {}: ", messages.size(), groupId, e);
+    }
+  }
+
+  private Settings load(Long groupId) {
+    List<Object[]> rows = groupRepository.findBatchSettingsById(groupId);
+    if (rows.isEmpty()) {
+      return resolve(null, null);
+    }
+    return resolve((Integer) rows.get(0)[0], (Integer) rows.get(0)[1]);
+  }
+
+  private Settings resolve(Integer windowMs, Integer maxMessages) {
+    return new Settings(
+        windowMs != null ? windowMs : defaultWindowMs,
+        maxMessages != null ? maxMessages : defaultMaxMessages);
+  }
+
+  private static String topic(Long groupId) {
+    return "/topic/group." + groupId;
+  }
+
+  private static final class Settings {
+    static final Settings DISABLED = new Settings(0, 1);
+
+    final int windowMs;
+    final int maxMessages;
+
+    Settings(int windowMs, int maxMessages) {
+      this.windowMs = windowMs;
+      this.maxMessages = Math.max(1, maxMessages);
+    }
+  }
+
+  /**
+   * Lote em formação de um grupo
+   */
+  private static final class Pending {
+    final ReentrantLock lock = new ReentrantLock();
+    List<GroupChatMessage> messages = new ArrayList<>();
+    ScheduledFuture<?> timer;
+    // Já enviado e fora do mapa; não recebe mais mensagens
+    boolean sent;
+  }
+}
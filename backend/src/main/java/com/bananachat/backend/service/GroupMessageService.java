@@ -1,7 +1,14 @@
 package com.bananachat.backend.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,13 +18,21 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.bananachat.backend.dto.CursorPageDto;
 import com.bananachat.backend.dto.GroupMessageDto;
+import com.bananachat.backend.dto.UserDto;
 import com.bananachat.backend.entity.Group;
 import com.bananachat.backend.entity.GroupMessage;
 import com.bananachat.backend.entity.User;
+import com.bananachat.backend.model.GroupChatMessage;
+import com.bananachat.backend.model.MessageCursor;
 import com.bananachat.backend.repository.GroupMessageRepository;
 import com.bananachat.backend.repository.GroupRepository;
 import com.bananachat.backend.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @Service
 @Transactional
@@ -25,6 +40,8 @@ public class GroupMessageService {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(GroupMessageService.class);
 
+  private static final int MAX_SEARCH_RESULTS = 100;
+
   @Autowired
   private GroupMessageRepository groupMessageRepository;
 
@@ -34,33 +51,128 @@ public class GroupMessageService {
   @Autowired
   private UserRepository userRepository;
 
+  @Autowired
+  private GroupMembershipIndex membershipIndex;
+
+  @Autowired
+  private RecentMessageCache recentMessageCache;
+
+  @Autowired
+  private MessageSearchIndex searchIndex;
+
+  @Autowired
+  private UserIdentityCache userIdentityCache;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private ChatMetrics chatMetrics;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
   /**
    * Salva uma mensagem do grupo
    */
   public GroupMessageDto saveMessage(String content, String senderUsername, Long groupId,
       GroupMessage.MessageType type) {
-    LOGGER.info("Salvando mensagem do grupo ID: {} pelo usuário: {}", groupId, senderUsername);
+    return new GroupMessageDto(persistMessage(content, senderUsername, groupId, type));
+  }
 
-    // Buscar o grupo
-    Group group = groupRepository.findByIdAndIsActiveTrue(groupId)
-        .orElseThrow(() -> new IllegalArgumentException("Grupo não encontrado: " + groupId));
+  /**
+   * Salva uma mensagem do grupo sem montar o DTO de resposta.
+   * Grupo, remetente e participação são verificados pelo GroupMembershipIndex
+   * e as associações usam referências, então o caso comum executa apenas o
+   * INSERT.
+   */
+  public GroupMessage persistMessage(String content, String senderUsername, Long groupId,
+      GroupMessage.MessageType type) {
+    LOGGER.debug("Salvando mensagem do grupo ID: {} pelo usuário: {}", groupId, senderUsername);
 
-    // Buscar o usuário
-    User sender = userRepository.findByUsername(senderUsername)
+    long startNanos = System.nanoTime();
+    GroupMessage message = newMessage(content, senderUsername, groupId, type);
+    GroupMessage savedMessage = groupMessageRepository.save(message);
+    chatMetrics.recordSave(ChatMetrics.Store.GROUP_MESSAGE, false, startNanos);
+    cacheAfterCommit(savedMessage, senderUsername);
+
+    LOGGER.debug("Mensagem salva com sucesso no grupo ID: {} (ID: {})", groupId, savedMessage.getId());
+    return savedMessage;
+  }
+
+  /**
+   * Salva um lote de mensagens de grupo em uma única transação, usando o batch
+   * do JDBC. Qualquer mensagem inválida faz o lote inteiro falhar.
+   */
+  public int saveAll(List<GroupChatMessage> groupMessages) {
+    if (groupMessages.isEmpty()) {
+      return 0;
+    }
+
+    long startNanos = System.nanoTime();
+    List<GroupMessage> entities = new ArrayList<>(groupMessages.size());
+    for (GroupChatMessage groupMessage : groupMessages) {
+      GroupMessage message = newMessage(groupMessage.getContent(), groupMessage.getSender(),
+          groupMessage.getGroupId(), GroupMessage.MessageType.valueOf(groupMessage.getType().name()));
+      if (groupMessage.getTimestamp() != null) {
+        message.setTimestamp(groupMessage.getTimestamp());
+      }
+      entities.add(message);
+    }
+
+    groupMessageRepository.saveAll(entities);
+    chatMetrics.recordSave(ChatMetrics.Store.GROUP_MESSAGE, true, startNanos);
+    for (int i = 0; i < entities.size(); i++) {
+      cacheAfterCommit(entities.get(i), groupMessages.get(i).getSender());
+    }
+
+    LOGGER.debug("Lote de {} mensagens de grupo salvo", entities.size());
+    return entities.size();
+  }
+
+  /**
+   * Valida remetente e grupo pelo índice em memória e cria a mensagem com
+   * referências (sem SELECT) para o grupo e o remetente
+   */
+  private GroupMessage newMessage(String content, String senderUsername, Long groupId,
+      GroupMessage.MessageType type) {
+    if (!membershipIndex.isActive(groupId)) {
+      throw new IllegalArgumentException("Grupo não encontrado: " + groupId);
+    }
+
+    Long senderId = membershipIndex.resolveUserId(senderUsername)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + senderUsername));
 
     // Verificar se o usuário é membro do grupo (exceto para mensagens do sistema)
-    if (type == GroupMessage.MessageType.CHAT && !group.isMember(sender)) {
+    if (type == GroupMessage.MessageType.CHAT && !membershipIndex.isMember(groupId, senderId)) {
       throw new IllegalArgumentException("Usuário não é membro do grupo");
     }
 
-    // Criar a mensagem
-    GroupMessage message = new GroupMessage(content, sender, group, type);
-    GroupMessage savedMessage = groupMessageRepository.save(message);
+    return new GroupMessage(content, userRepository.getReferenceById(senderId),
+        groupRepository.getReferenceById(groupId), type);
+  }
 
-    LOGGER.info("Mensagem salva com sucesso no grupo: {} (ID: {})", group.getName(), savedMessage.getId());
+  /**
+   * Acrescenta a mensagem ao cache de recentes e ao índice de busca depois do
+   * commit. Remetente e grupo da mensagem são referências: o DTO usa a
+   * identidade do UserIdentityCache e o nome do grupo já em cache, sem
+   * SELECT. Sem um dos dois o canal é descartado e recarregado na leitura.
+   */
+  private void cacheAfterCommit(GroupMessage message, String senderUsername) {
+    Long groupId = message.getGroup().getId();
+    String groupName = recentMessageCache.getCachedGroupName(groupId);
+    GroupMessageDto dto = groupName == null ? null : userIdentityCache.get(senderUsername)
+        .map(sender -> new GroupMessageDto(message, new UserDto(sender), groupName))
+        .orElse(null);
+    cacheAfterCommit(message, dto);
+  }
 
-    return new GroupMessageDto(savedMessage);
+  private void cacheAfterCommit(GroupMessage message, GroupMessageDto dto) {
+    Long groupId = message.getGroup().getId();
+    TransactionHooks.afterCommit(() -> {
+      recentMessageCache.groupMessageSaved(groupId, dto);
+      searchIndex.indexGroupMessage(message.getId(), groupId, message.getContent(), message.getTimestamp());
+    });
   }
 
   /**
@@ -75,10 +187,10 @@ public class GroupMessageService {
         .orElseThrow(() -> new IllegalArgumentException("Grupo não encontrado: " + groupId));
 
     // Verificar se o usuário é membro do grupo
-    User user = userRepository.findByUsername(username)
+    Long userId = membershipIndex.resolveUserId(username)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
 
-    if (!group.isMember(user)) {
+    if (!membershipIndex.isMember(groupId, userId)) {
       throw new IllegalArgumentException("Usuário não é membro do grupo");
     }
 
@@ -89,6 +201,71 @@ public class GroupMessageService {
         .toList();
   }
 
+  /**
+   * Página do histórico do grupo por cursor (before/after)
+   */
+  @Transactional(readOnly = true)
+  public CursorPageDto<GroupMessageDto> getGroupHistoryPage(Long groupId, String username, String before,
+      String after, int limit) {
+    LOGGER.debug("Buscando página do grupo ID: {} para usuário: {} (before: {}, after: {})",
+        groupId, username, before, after);
+
+    // Verificar se o grupo existe
+    if (!membershipIndex.isActive(groupId)) {
+      throw new IllegalArgumentException("Grupo não encontrado: " + groupId);
+    }
+
+    // Verificar se o usuário é membro do grupo
+    Long userId = membershipIndex.resolveUserId(username)
+        .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
+
+    if (!membershipIndex.isMember(groupId, userId)) {
+      throw new IllegalArgumentException("Usuário não é membro do grupo");
+    }
+
+    MessageCursor cursor = KeysetPages.start(before, after);
+    boolean forward = after != null && !after.isBlank();
+    List<GroupMessage> rows = forward
+        ? groupMessageRepository.findPageAfter(groupId, cursor.getTimestamp(), cursor.getId(),
+            KeysetPages.probe(limit))
+        : groupMessageRepository.findPageBefore(groupId, cursor.getTimestamp(), cursor.getId(),
+            KeysetPages.probe(limit));
+
+    return KeysetPages.toPage(rows, limit, !forward, GroupMessageDto::new,
+        row -> new MessageCursor(row.getTimestamp(), row.getId()));
+  }
+
+  /**
+   * Verifica se o usuário pode ler o histórico do grupo. Separado da
+   * exportação para que o erro seja devolvido antes de a resposta começar.
+   */
+  @Transactional(readOnly = true)
+  public void checkReadAccess(Long groupId, String username) {
+    if (!membershipIndex.isActive(groupId)) {
+      throw new IllegalArgumentException("Grupo não encontrado: " + groupId);
+    }
+
+    Long userId = membershipIndex.resolveUserId(username)
+        .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
+
+    if (!membershipIndex.isMember(groupId, userId)) {
+      throw new IllegalArgumentException("Usuário não é membro do grupo");
+    }
+  }
+
+  /**
+   * Exporta o histórico do grupo como NDJSON, em ordem cronológica
+   */
+  @Transactional(readOnly = true)
+  public long exportGroupHistory(Long groupId, String username, OutputStream out) throws IOException {
+    checkReadAccess(groupId, username);
+
+    long count = NdjsonExport.write(groupMessageRepository.streamByGroupId(groupId), out, objectMapper,
+        GroupMessageDto.class, GroupMessageDto::new, entityManager);
+    LOGGER.info("Exportação do grupo ID {} concluída: {} mensagens", groupId, count);
+    return count;
+  }
+
   /**
    * Busca mensagens recentes do grupo
    */
@@ -97,23 +274,28 @@ public class GroupMessageService {
     LOGGER.info("Buscando {} mensagens recentes do grupo ID: {} para usuário: {}", limit, groupId, username);
 
     // Verificar se o grupo existe
-    Group group = groupRepository.findByIdAndIsActiveTrue(groupId)
-        .orElseThrow(() -> new IllegalArgumentException("Grupo não encontrado: " + groupId));
+    if (!membershipIndex.isActive(groupId)) {
+      throw new IllegalArgumentException("Grupo não encontrado: " + groupId);
+    }
 
     // Verificar se o usuário é membro do grupo
-    User user = userRepository.findByUsername(username)
+    Long userId = membershipIndex.resolveUserId(username)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
 
-    if (!group.isMember(user)) {
+    if (!membershipIndex.isMember(groupId, userId)) {
       throw new IllegalArgumentException("Usuário não é membro do grupo");
     }
 
-    // Buscar mensagens recentes
-    Pageable pageable = PageRequest.of(0, limit);
-    return groupMessageRepository.findByGroupOrderByTimestampDesc(group, pageable)
-        .stream()
-        .map(GroupMessageDto::new)
-        .toList();
+    // Buscar mensagens recentes (do cache, ou do banco em caso de miss). O miss
+    // é a primeira página do cursor, servida pelo índice (group_id, timestamp, id)
+    return recentMessageCache.getGroupMessages(groupId, limit, n -> {
+      Pageable pageable = PageRequest.of(0, n);
+      return groupMessageRepository.findPageBefore(groupId, MessageCursor.LATEST.getTimestamp(),
+          MessageCursor.LATEST.getId(), pageable)
+          .stream()
+          .map(GroupMessageDto::new)
+          .toList();
+    });
   }
 
   /**
@@ -128,10 +310,10 @@ public class GroupMessageService {
         .orElseThrow(() -> new IllegalArgumentException("Grupo não encontrado: " + groupId));
 
     // Verificar se o usuário é membro do grupo
-    User user = userRepository.findByUsername(username)
+    Long userId = membershipIndex.resolveUserId(username)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
 
-    if (!group.isMember(user)) {
+    if (!membershipIndex.isMember(groupId, userId)) {
       throw new IllegalArgumentException("Usuário não é membro do grupo");
     }
 
@@ -153,17 +335,22 @@ public class GroupMessageService {
         .orElseThrow(() -> new IllegalArgumentException("Mensagem não encontrada: " + messageId));
 
     // Buscar o usuário editor
-    User editor = userRepository.findByUsername(editorUsername)
+    Long editorId = membershipIndex.resolveUserId(editorUsername)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + editorUsername));
 
     // Verificar se o usuário pode editar a mensagem
-    if (!message.canBeEditedBy(editor)) {
+    if (!message.canBeEditedBy(editorId)) {
       throw new IllegalArgumentException("Usuário não pode editar esta mensagem");
     }
 
     // Editar a mensagem
     message.setContent(newContent);
     GroupMessage updatedMessage = groupMessageRepository.save(message);
+    Long groupId = updatedMessage.getGroup().getId();
+    TransactionHooks.afterCommit(() -> {
+      recentMessageCache.invalidateGroup(groupId);
+      searchIndex.indexGroupMessage(messageId, groupId, newContent, updatedMessage.getTimestamp());
+    });
 
     LOGGER.info("Mensagem editada com sucesso: {}", messageId);
 
@@ -171,10 +358,13 @@ public class GroupMessageService {
   }
 
   /**
-   * Busca mensagens no grupo por termo de pesquisa
+   * Busca mensagens no grupo por termo de pesquisa, da mais relevante para a
+   * menos relevante. Usa o índice full-text; enquanto ele não está pronto, cai
+   * na consulta LIKE do banco (mais recentes primeiro).
    */
   @Transactional(readOnly = true)
-  public List<GroupMessageDto> searchMessagesInGroup(Long groupId, String username, String query) {
+  public List<GroupMessageDto> searchMessagesInGroup(Long groupId, String username, String query, int page,
+      int size) {
     LOGGER.info("Buscando mensagens no grupo ID: {} com termo: {} para usuário: {}", groupId, query, username);
 
     // Verificar se o grupo existe
@@ -182,16 +372,36 @@ public class GroupMessageService {
         .orElseThrow(() -> new IllegalArgumentException("Grupo não encontrado: " + groupId));
 
     // Verificar se o usuário é membro do grupo
-    User user = userRepository.findByUsername(username)
+    Long userId = membershipIndex.resolveUserId(username)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
 
-    if (!group.isMember(user)) {
+    if (!membershipIndex.isMember(groupId, userId)) {
       throw new IllegalArgumentException("Usuário não é membro do grupo");
     }
 
-    // Buscar mensagens com o termo de pesquisa
-    return groupMessageRepository.searchMessagesInGroup(group, query)
-        .stream()
+    int safePage = Math.max(page, 0);
+    int safeSize = Math.min(Math.max(size, 1), MAX_SEARCH_RESULTS);
+
+    Optional<List<Long>> ranked = searchIndex.search(groupId, query, safePage, safeSize);
+    if (ranked.isEmpty()) {
+      // Buscar mensagens com o termo de pesquisa
+      return groupMessageRepository.searchMessagesInGroup(group, query)
+          .stream()
+          .skip((long) safePage * safeSize)
+          .limit(safeSize)
+          .map(GroupMessageDto::new)
+          .toList();
+    }
+
+    // Carrega as mensagens encontradas mantendo a ordem de relevância; IDs já
+    // removidos do banco ou de outro grupo são ignorados
+    List<Long> ids = ranked.get();
+    Map<Long, GroupMessage> byId = new HashMap<>();
+    groupMessageRepository.findAllWithSenderByIdInAndGroupId(ids, groupId)
+        .forEach(message -> byId.put(message.getId(), message));
+    return ids.stream()
+        .map(byId::get)
+        .filter(Objects::nonNull)
         .map(GroupMessageDto::new)
         .toList();
   }
@@ -218,12 +428,12 @@ public class GroupMessageService {
         .orElseThrow(() -> new IllegalArgumentException("Mensagem não encontrada: " + messageId));
 
     // Buscar o usuário que está deletando
-    User deleter = userRepository.findByUsername(deleterUsername)
+    Long deleterId = membershipIndex.resolveUserId(deleterUsername)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + deleterUsername));
 
     // Verificar se o usuário pode deletar a mensagem
-    boolean canDelete = message.getSender().equals(deleter) ||
-        message.getGroup().isOwner(deleter);
+    boolean canDelete = message.getSender().getId().equals(deleterId) ||
+        message.getGroup().isOwner(deleterId);
 
     if (!canDelete) {
       throw new IllegalArgumentException("Usuário não pode deletar esta mensagem");
@@ -231,6 +441,11 @@ public class GroupMessageService {
 
     // Deletar a mensagem
     groupMessageRepository.delete(message);
+    Long groupId = message.getGroup().getId();
+    TransactionHooks.afterCommit(() -> {
+      recentMessageCache.invalidateGroup(groupId);
+      searchIndex.deleteGroupMessage(messageId);
+    });
 
     LOGGER.info("Mensagem deletada com sucesso: {}", messageId);
   }
@@ -250,8 +465,9 @@ public class GroupMessageService {
     // grupo
     User sender;
     if (username != null) {
-      sender = userRepository.findByUsername(username)
+      Long senderId = membershipIndex.resolveUserId(username)
           .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
+      sender = userRepository.getReferenceById(senderId);
     } else {
       sender = group.getOwner();
     }
@@ -259,6 +475,9 @@ public class GroupMessageService {
     // Criar a mensagem do sistema
     GroupMessage message = new GroupMessage(content, sender, group, type);
     GroupMessage savedMessage = groupMessageRepository.save(message);
+    // Aqui grupo e remetente já estão carregados
+    cacheAfterCommit(savedMessage,
+        recentMessageCache.isGroupCached(groupId) ? new GroupMessageDto(savedMessage) : null);
 
     LOGGER.info("Mensagem de sistema salva no grupo: {} (ID: {})", group.getName(), savedMessage.getId());
 
@@ -1,20 +1,26 @@
 package com.bananachat.backend.service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.bananachat.backend.dto.CreateGroupRequest;
 import com.bananachat.backend.dto.GroupDto;
 import com.bananachat.backend.entity.Group;
+import com.bananachat.backend.entity.GroupMembership;
 import com.bananachat.backend.entity.User;
+import com.bananachat.backend.model.UserIdentity;
+import com.bananachat.backend.repository.GroupMembershipRepository;
 import com.bananachat.backend.repository.GroupRepository;
 import com.bananachat.backend.repository.UserRepository;
 
@@ -24,14 +30,35 @@ public class GroupService {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(GroupService.class);
 
+  /** Limite de sugestões por busca */
+  static final int MAX_SEARCH_RESULTS = 50;
+
   @Autowired
   private GroupRepository groupRepository;
 
+  @Autowired
+  private GroupMembershipRepository groupMembershipRepository;
+
   @Autowired
   private UserRepository userRepository;
 
   @Autowired
-  private SimpMessagingTemplate messagingTemplate;
+  private MessageFanout messageFanout;
+
+  @Autowired
+  private GroupMembershipIndex membershipIndex;
+
+  @Autowired
+  private UserIdentityCache userIdentityCache;
+
+  @Autowired
+  private RecentMessageCache recentMessageCache;
+
+  @Autowired
+  private DirectorySearchIndex directorySearchIndex;
+
+  @Autowired
+  private GroupMessageBatcher groupMessageBatcher;
 
   /**
    * Cria um novo grupo
@@ -45,8 +72,9 @@ public class GroupService {
     }
 
     // Buscar o usuário proprietário
-    User owner = userRepository.findByUsername(ownerUsername)
+    UserIdentity ownerIdentity = userIdentityCache.get(ownerUsername)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + ownerUsername));
+    User owner = userRepository.getReferenceById(ownerIdentity.getId());
 
     // Criar o grupo
     Group group = new Group(
@@ -62,19 +90,17 @@ public class GroupService {
     Group savedGroup = groupRepository.save(group);
 
     // Adicionar o owner como membro do grupo explicitamente
-    savedGroup.getMembers().add(owner);
-    owner.getGroups().add(savedGroup);
-    groupRepository.save(savedGroup);
-    userRepository.save(owner);
+    groupMembershipRepository.insertMembership(savedGroup.getId(), ownerIdentity.getId(), LocalDateTime.now());
+    membershipIndex.groupCreated(savedGroup.getId(), ownerIdentity.getId());
+    indexAfterCommit(savedGroup);
 
     LOGGER.info("Grupo criado com sucesso: {} (ID: {})", savedGroup.getName(), savedGroup.getId());
 
-    GroupDto groupDto = new GroupDto(savedGroup, owner.getId());
+    GroupDto groupDto = toDto(savedGroup, ownerIdentity.getId());
 
     // Notificar todos os usuários sobre o novo grupo via WebSocket
     try {
-      messagingTemplate.convertAndSend("/topic/groups.update",
-          Map.of("action", "GROUP_CREATED", "group", groupDto));
+      messageFanout.send(Map.of("action", "GROUP_CREATED", "group", groupDto), "/topic/groups.update");
       LOGGER.info("Notificação de novo grupo enviada via WebSocket: {}", savedGroup.getName());
     } catch (Exception e) {
       LOGGER.error("Erro ao enviar notificação de novo grupo via WebSocket: ", e);
@@ -88,10 +114,7 @@ public class GroupService {
    */
   @Transactional(readOnly = true)
   public List<GroupDto> getPublicGroups() {
-    return groupRepository.findPublicGroups()
-        .stream()
-        .map(GroupDto::new)
-        .toList();
+    return toDtos(groupRepository.findPublicGroups(), null);
   }
 
   /**
@@ -99,13 +122,10 @@ public class GroupService {
    */
   @Transactional(readOnly = true)
   public List<GroupDto> getUserGroups(String username) {
-    User user = userRepository.findByUsername(username)
+    UserIdentity user = userIdentityCache.get(username)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
 
-    return groupRepository.findUserGroups(user)
-        .stream()
-        .map(group -> new GroupDto(group, user.getId()))
-        .toList();
+    return toDtos(groupRepository.findUserGroups(user.getId()), user.getId());
   }
 
   /**
@@ -113,11 +133,11 @@ public class GroupService {
    */
   @Transactional(readOnly = true)
   public Optional<GroupDto> findById(Long groupId, String username) {
-    User user = userRepository.findByUsername(username)
+    UserIdentity user = userIdentityCache.get(username)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
 
     return groupRepository.findByIdAndIsActiveTrue(groupId)
-        .map(group -> new GroupDto(group, user.getId()));
+        .map(group -> toDto(group, user.getId()));
   }
 
   /**
@@ -137,31 +157,32 @@ public class GroupService {
     Group group = groupRepository.findByIdAndIsActiveTrue(groupId)
         .orElseThrow(() -> new IllegalArgumentException("Grupo não encontrado: " + groupId));
 
-    User user = userRepository.findByUsername(username)
+    UserIdentity user = userIdentityCache.get(username)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
 
-    // Verificar se o grupo pode aceitar mais membros
-    if (!group.canJoin()) {
-      throw new IllegalStateException("Grupo não pode aceitar mais membros ou está inativo");
-    }
-
     // Verificar se o usuário já é membro
-    if (group.isMember(user)) {
+    if (groupMembershipRepository.existsMembership(groupId, user.getId())) {
       throw new IllegalArgumentException("Usuário já é membro do grupo");
     }
 
+    // Reservar a vaga; o UPDATE condicional também cobre entradas concorrentes
+    if (!group.canJoin() || groupRepository.incrementMemberCount(groupId, LocalDateTime.now()) == 0) {
+      throw new IllegalStateException("Grupo não pode aceitar mais membros ou está inativo");
+    }
+
     // Adicionar o usuário ao grupo
-    group.addMember(user);
-    Group savedGroup = groupRepository.save(group);
+    groupMembershipRepository.insertMembership(groupId, user.getId(), LocalDateTime.now());
+    group.setMemberCount(group.getMemberCount() + 1);
+    membershipIndex.memberAdded(groupId, user.getId());
 
     LOGGER.info("Usuário {} adicionado ao grupo {} com sucesso", username, group.getName());
 
-    GroupDto groupDto = new GroupDto(savedGroup, user.getId());
+    GroupDto groupDto = toDto(group, user.getId());
 
     // Notificar todos os usuários sobre a mudança no grupo via WebSocket
     try {
-      messagingTemplate.convertAndSend("/topic/groups.update",
-          Map.of("action", "MEMBER_ADDED", "group", groupDto, "username", username));
+      messageFanout.send(Map.of("action", "MEMBER_ADDED", "group", groupDto, "username", username),
+          "/topic/groups.update");
       LOGGER.info("Notificação de membro adicionado enviada via WebSocket: {} em {}", username, group.getName());
     } catch (Exception e) {
       LOGGER.error("Erro ao enviar notificação de membro adicionado via WebSocket: ", e);
@@ -179,31 +200,30 @@ public class GroupService {
     Group group = groupRepository.findByIdAndIsActiveTrue(groupId)
         .orElseThrow(() -> new IllegalArgumentException("Grupo não encontrado: " + groupId));
 
-    User user = userRepository.findByUsername(username)
+    UserIdentity user = userIdentityCache.get(username)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
 
-    // Verificar se o usuário é membro do grupo
-    if (!group.isMember(user)) {
-      throw new IllegalArgumentException("Usuário não é membro do grupo");
-    }
-
     // Verificar se é o proprietário tentando sair
-    if (group.isOwner(user)) {
+    if (group.isOwner(user.getId())) {
       throw new IllegalArgumentException("Proprietário não pode sair do grupo. Transfira a propriedade primeiro.");
     }
 
-    // Remover o usuário do grupo
-    group.removeMember(user);
-    Group savedGroup = groupRepository.save(group);
+    // Remover o usuário do grupo (0 linhas = não era membro)
+    if (groupMembershipRepository.deleteMembership(groupId, user.getId()) == 0) {
+      throw new IllegalArgumentException("Usuário não é membro do grupo");
+    }
+    groupRepository.decrementMemberCount(groupId, LocalDateTime.now());
+    group.setMemberCount(group.getMemberCount() - 1);
+    membershipIndex.memberRemoved(groupId, user.getId());
 
     LOGGER.info("Usuário {} removido do grupo {} com sucesso", username, group.getName());
 
-    GroupDto groupDto = new GroupDto(savedGroup, user.getId());
+    GroupDto groupDto = toDto(group, user.getId());
 
     // Notificar todos os usuários sobre a mudança no grupo via WebSocket
     try {
-      messagingTemplate.convertAndSend("/topic/groups.update",
-          Map.of("action", "MEMBER_REMOVED", "group", groupDto, "username", username));
+      messageFanout.send(Map.of("action", "MEMBER_REMOVED", "group", groupDto, "username", username),
+          "/topic/groups.update");
       LOGGER.info("Notificação de membro removido enviada via WebSocket: {} de {}", username, group.getName());
     } catch (Exception e) {
       LOGGER.error("Erro ao enviar notificação de membro removido via WebSocket: ", e);
@@ -217,21 +237,38 @@ public class GroupService {
    */
   @Transactional(readOnly = true)
   public boolean isUserMemberOfGroup(Long groupId, String username) {
-    User user = userRepository.findByUsername(username)
+    Long userId = membershipIndex.resolveUserId(username)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
 
-    return groupRepository.isUserMemberOfGroup(groupId, user.getId());
+    return membershipIndex.isMember(groupId, userId);
   }
 
   /**
-   * Busca grupos públicos por termo de pesquisa
+   * Busca grupos públicos por termo de pesquisa, do mais relevante para o
+   * menos relevante. Usa o DirectorySearchIndex; enquanto ele não está pronto,
+   * cai na consulta LIKE do banco.
    */
   @Transactional(readOnly = true)
-  public List<GroupDto> searchPublicGroups(String query) {
-    return groupRepository.searchPublicGroups(query)
-        .stream()
-        .map(GroupDto::new)
-        .toList();
+  public List<GroupDto> searchPublicGroups(String query, int limit) {
+    int safeLimit = Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS);
+
+    Optional<List<Long>> ranked = directorySearchIndex.searchGroups(query, safeLimit);
+    if (ranked.isEmpty()) {
+      return toDtos(groupRepository.searchPublicGroups(query)
+          .stream()
+          .limit(safeLimit)
+          .toList(), null);
+    }
+
+    // Carrega os grupos encontrados mantendo a ordem de relevância
+    List<Long> ids = ranked.get();
+    Map<Long, Group> byId = new HashMap<>();
+    groupRepository.findAllById(ids).forEach(group -> byId.put(group.getId(), group));
+    return toDtos(ids.stream()
+        .map(byId::get)
+        .filter(Objects::nonNull)
+        .filter(group -> Boolean.TRUE.equals(group.getIsActive()) && group.getType() == Group.GroupType.PUBLIC)
+        .toList(), null);
   }
 
   /**
@@ -243,11 +280,11 @@ public class GroupService {
     Group group = groupRepository.findByIdAndIsActiveTrue(groupId)
         .orElseThrow(() -> new IllegalArgumentException("Grupo não encontrado: " + groupId));
 
-    User user = userRepository.findByUsername(username)
+    UserIdentity user = userIdentityCache.get(username)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
 
     // Verificar se o usuário é o proprietário
-    if (!group.isOwner(user)) {
+    if (!group.isOwner(user.getId())) {
       throw new IllegalArgumentException("Apenas o proprietário pode atualizar o grupo");
     }
 
@@ -273,9 +310,10 @@ public class GroupService {
     }
 
     Group updatedGroup = groupRepository.save(group);
+    indexAfterCommit(updatedGroup);
     LOGGER.info("Grupo atualizado com sucesso: {}", updatedGroup.getName());
 
-    return new GroupDto(updatedGroup, user.getId());
+    return toDto(updatedGroup, user.getId());
   }
 
   /**
@@ -297,9 +335,38 @@ public class GroupService {
     }
 
     Group updatedGroup = groupRepository.save(group);
+    indexAfterCommit(updatedGroup);
     LOGGER.info("Grupo atualizado com sucesso: {}", updatedGroup.getName());
 
-    return new GroupDto(updatedGroup, updatedGroup.getOwner().getId());
+    return toDto(updatedGroup, updatedGroup.getOwner().getId());
+  }
+
+  /**
+   * Define o agrupamento das mensagens do grupo: janela em ms (0 desliga) e
+   * máximo de mensagens por lote. null volta ao padrão da aplicação.
+   */
+  public GroupDto updateBatchSettings(Long groupId, String username, Integer windowMs, Integer maxMessages) {
+    LOGGER.info("Alterando agrupamento do grupo ID: {} pelo usuário: {} (janela: {}ms, lote: {})",
+        groupId, username, windowMs, maxMessages);
+    GroupMessageBatcher.validate(windowMs, maxMessages);
+
+    Group group = groupRepository.findByIdAndIsActiveTrue(groupId)
+        .orElseThrow(() -> new IllegalArgumentException("Grupo não encontrado: " + groupId));
+
+    UserIdentity user = userIdentityCache.get(username)
+        .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
+
+    // Verificar se o usuário é o proprietário
+    if (!group.isOwner(user.getId())) {
+      throw new IllegalArgumentException("Apenas o proprietário pode alterar o agrupamento do grupo");
+    }
+
+    group.setBatchWindowMs(windowMs);
+    group.setBatchMaxMessages(maxMessages);
+    Group updatedGroup = groupRepository.save(group);
+    TransactionHooks.afterCommit(() -> groupMessageBatcher.settingsChanged(groupId, windowMs, maxMessages));
+
+    return toDto(updatedGroup, user.getId());
   }
 
   /**
@@ -311,17 +378,23 @@ public class GroupService {
     Group group = groupRepository.findByIdAndIsActiveTrue(groupId)
         .orElseThrow(() -> new IllegalArgumentException("Grupo não encontrado: " + groupId));
 
-    User user = userRepository.findByUsername(username)
+    UserIdentity user = userIdentityCache.get(username)
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + username));
 
     // Verificar se o usuário é o proprietário
-    if (!group.isOwner(user)) {
+    if (!group.isOwner(user.getId())) {
       throw new IllegalArgumentException("Apenas o proprietário pode deletar o grupo");
     }
 
     // Marcar como inativo
     group.setIsActive(false);
     groupRepository.save(group);
+    membershipIndex.groupDeactivated(groupId);
+    TransactionHooks.afterCommit(() -> {
+      recentMessageCache.invalidateGroup(groupId);
+      directorySearchIndex.groupRemoved(groupId);
+      groupMessageBatcher.groupRemoved(groupId);
+    });
 
     LOGGER.info("Grupo desativado com sucesso: {}", group.getName());
   }
@@ -338,6 +411,12 @@ public class GroupService {
     // Marcar como inativo
     group.setIsActive(false);
     groupRepository.save(group);
+    membershipIndex.groupDeactivated(groupId);
+    TransactionHooks.afterCommit(() -> {
+      recentMessageCache.invalidateGroup(groupId);
+      directorySearchIndex.groupRemoved(groupId);
+      groupMessageBatcher.groupRemoved(groupId);
+    });
 
     LOGGER.info("Grupo desativado com sucesso: {}", group.getName());
   }
@@ -347,6 +426,49 @@ public class GroupService {
    */
   @Transactional(readOnly = true)
   public int countGroupMembers(Long groupId) {
-    return groupRepository.countGroupMembers(groupId);
+    return groupRepository.findMemberCountById(groupId).orElse(0);
+  }
+
+  private GroupDto toDto(Group group, Long currentUserId) {
+    return toDtos(List.of(group), currentUserId).get(0);
+  }
+
+  /**
+   * Atualiza o índice de busca de grupos depois do commit
+   */
+  private void indexAfterCommit(Group group) {
+    Long id = group.getId();
+    String name = group.getName();
+    boolean publicAndActive = Boolean.TRUE.equals(group.getIsActive()) && group.getType() == Group.GroupType.PUBLIC;
+    TransactionHooks.afterCommit(() -> {
+      directorySearchIndex.groupSaved(id, name, publicAndActive);
+      // As mensagens em cache levam o nome do grupo, e as novas copiam dele
+      recentMessageCache.invalidateGroup(id);
+    });
+  }
+
+  /**
+   * Monta os DTOs carregando os membros de todos os grupos em uma única consulta
+   */
+  private List<GroupDto> toDtos(List<Group> groups, Long currentUserId) {
+    if (groups.isEmpty()) {
+      return List.of();
+    }
+
+    Map<Long, List<User>> membersByGroup = new HashMap<>();
+    for (GroupMembership membership : groupMembershipRepository
+        .findWithUsersByGroupIds(groups.stream().map(Group::getId).toList())) {
+      membersByGroup.computeIfAbsent(membership.getId().getGroupId(), id -> new ArrayList<>())
+          .add(membership.getUser());
+    }
+
+    return groups.stream()
+        .map(group -> {
+          List<User> members = membersByGroup.getOrDefault(group.getId(), List.of());
+          return currentUserId != null
+              ? new GroupDto(group, members, currentUserId)
+              : new GroupDto(group, members);
+        })
+        .toList();
   }
 }
\ No newline at end of file
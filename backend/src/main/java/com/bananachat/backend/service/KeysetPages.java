@@ -0,0 +1,75 @@
+package com.bananachat.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.bananachat.backend.dto.CursorPageDto;
+import com.bananachat.backend.model.MessageCursor;
+
+/**
+ * Utilitário da paginação por cursor (keyset) em (timestamp, id).
+ *
+ * As consultas buscam limit + 1 linhas a partir do cursor, sem OFFSET, então o
+ * custo não depende da profundidade no histórico; a linha extra só indica se
+ * há mais páginas.
+ */
+final class KeysetPages {
+
+  static final int DEFAULT_LIMIT = 50;
+  static final int MAX_LIMIT = 200;
+
+  private KeysetPages() {
+  }
+
+  /**
+   * Limita o tamanho da página e soma a linha usada para detectar hasMore
+   */
+  static Pageable probe(int limit) {
+    return PageRequest.of(0, clamp(limit) + 1);
+  }
+
+  static int clamp(int limit) {
+    if (limit <= 0) {
+      return DEFAULT_LIMIT;
+    }
+    return Math.min(limit, MAX_LIMIT);
+  }
+
+  /**
+   * Cursor de início: after tem prioridade; sem nenhum dos dois, a página
+   * mais recente
+   */
+  static MessageCursor start(String before, String after) {
+    if (after != null && !after.isBlank()) {
+      return MessageCursor.decode(after);
+    }
+    if (before != null && !before.isBlank()) {
+      return MessageCursor.decode(before);
+    }
+    return MessageCursor.LATEST;
+  }
+
+  /**
+   * Monta a página a partir das linhas na ordem da consulta (decrescente para
+   * before, crescente para after)
+   */
+  static <E, D> CursorPageDto<D> toPage(List<E> rows, int limit, boolean descending, Function<E, D> toDto,
+      Function<E, MessageCursor> cursorOf) {
+    int size = clamp(limit);
+    boolean hasMore = rows.size() > size;
+    List<E> page = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+    if (descending) {
+      Collections.reverse(page);
+    }
+
+    List<D> items = page.stream().map(toDto).toList();
+    String beforeCursor = page.isEmpty() ? null : cursorOf.apply(page.get(0)).encode();
+    String afterCursor = page.isEmpty() ? null : cursorOf.apply(page.get(page.size() - 1)).encode();
+    return new CursorPageDto<>(items, hasMore, beforeCursor, afterCursor);
+  }
+}
@@ -0,0 +1,87 @@
+package com.bananachat.backend.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import com.bananachat.backend.model.ChatMessage;
+import com.bananachat.backend.model.GroupChatMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Envia mensagens STOMP serializando o payload uma vez: o JSON é gerado num
+ * byte[] e o mesmo array segue para cada destino, em vez de um convertAndSend
+ * (e uma serialização) por destino.
+ *
+ * Os tipos mais enviados (ChatMessage, GroupChatMessage e os lotes de
+ * GroupChatMessage) têm o ObjectWriter resolvido na subida; os demais usam o
+ * writer genérico do ObjectMapper da aplicação, com o mesmo JSON do
+ * convertAndSend.
+ */
+@Component
+public class MessageFanout {
+
+  @Autowired
+  private SimpMessagingTemplate messagingTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private Map<Class<?>, ObjectWriter> writers;
+  private ObjectWriter groupBatchWriter;
+  private ObjectWriter genericWriter;
+
+  @PostConstruct
+  public void init() {
+    writers = Map.of(
+        ChatMessage.class, objectMapper.writerFor(ChatMessage.class),
+        GroupChatMessage.class, objectMapper.writerFor(GroupChatMessage.class));
+    groupBatchWriter = objectMapper.writerFor(
+        objectMapper.getTypeFactory().constructCollectionType(List.class, GroupChatMessage.class));
+    genericWriter = objectMapper.writer();
+  }
+
+  /**
+   * Serializa o payload e envia a mesma mensagem para todos os destinos
+   */
+  public void send(Object payload, String... destinations) {
+    ObjectWriter writer = writers.getOrDefault(payload.getClass(), genericWriter);
+    sendSerialized(serialize(writer, payload), destinations);
+  }
+
+  /**
+   * Envia um lote de mensagens de grupo como array JSON
+   */
+  public void sendBatch(List<GroupChatMessage> messages, String... destinations) {
+    sendSerialized(serialize(groupBatchWriter, messages), destinations);
+  }
+
+  private void sendSerialized(byte[] json, String... destinations) {
+    for (String destination : destinations) {
+      // Cabeçalhos próprios por destino; o payload é o mesmo array
+      SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+      accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+      accessor.setLeaveMutable(true);
+      messagingTemplate.send(destination, MessageBuilder.createMessage(json, accessor.getMessageHeaders()));
+    }
+  }
+
+  private static byte[] serialize(ObjectWriter writer, Object payload) {
+    try {
+      return writer.writeValueAsBytes(payload);
+    } catch (JsonProcessingException e) {
+      throw new MessageConversionException("Erro ao serializar " + payload.getClass().getSimpleName(), e);
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.bananachat.backend.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.bananachat.backend.dto.PipelineStageStatsDto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Timers das etapas do pipeline das mensagens recebidas via STOMP, por tipo de
+ * destino:
+ * decode (payload para objeto, no conversor), validate (timestamp e
+ * verificações de remetente e grupo), persist (histórico ou fila do
+ * write-behind) e broadcast (envio ao broker).
+ *
+ * Cada etapa é um timer chat.pipeline.stage com histograma, para agregar entre
+ * instâncias, e percentis locais; os valores ficam em /api/metrics/pipeline e
+ * /actuator/metrics/chat.pipeline.stage.
+ */
+@Component
+public class MessagePipelineMetrics {
+
+  public static final String TIMER_NAME = "chat.pipeline.stage";
+
+  public enum Stage {
+    DECODE,
+    VALIDATE,
+    PERSIST,
+    BROADCAST
+  }
+
+  public enum Destination {
+    PUBLIC,
+    PRIVATE,
+    GROUP
+  }
+
+  private static final double[] PERCENTILES = { 0.5, 0.95, 0.99 };
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  // [etapa][destino], criados na subida para não buscar no registry a cada mensagem
+  private Timer[][] timers;
+
+  @PostConstruct
+  public void init() {
+    timers = new Timer[Stage.values().length][Destination.values().length];
+    for (Stage stage : Stage.values()) {
+      for (Destination destination : Destination.values()) {
+        timers[stage.ordinal()][destination.ordinal()] = Timer.builder(TIMER_NAME)
+            .description("Tempo de cada etapa do processamento de uma mensagem recebida")
+            .tag("stage", tagValue(stage))
+            .tag("destination", tagValue(destination))
+            .publishPercentiles(PERCENTILES)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(1_000))
+            .maximumExpectedValue(Duration.ofSeconds(10))
+            .register(meterRegistry);
+      }
+    }
+  }
+
+  /**
+   * Registra a etapa desde startNanos e retorna o instante atual, que é o
+   * início da etapa seguinte
+   */
+  public long record(Stage stage, Destination destination, long startNanos) {
+    long now = System.nanoTime();
+    timers[stage.ordinal()][destination.ordinal()].record(now - startNanos, TimeUnit.NANOSECONDS);
+    return now;
+  }
+
+  /**
+   * Tipo de destino de um frame SEND dos clientes (/app/...), ou null para os
+   * destinos fora do pipeline de mensagens (entrada e saída de usuários)
+   */
+  public static Destination forAppDestination(String destination) {
+    if (destination == null) {
+      return null;
+    }
+    switch (destination) {
+      case "/app/chat.sendMessage":
+        return Destination.PUBLIC;
+      case "/app/chat.sendPrivateMessage":
+        return Destination.PRIVATE;
+      case "/app/group.sendMessage":
+        return Destination.GROUP;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Retorna contagem, média, percentis e máximo de cada etapa por destino
+   */
+  public List<PipelineStageStatsDto> getStats() {
+    List<PipelineStageStatsDto> stats = new ArrayList<>();
+    for (Stage stage : Stage.values()) {
+      for (Destination destination : Destination.values()) {
+        HistogramSnapshot snapshot = timers[stage.ordinal()][destination.ordinal()].takeSnapshot();
+        stats.add(new PipelineStageStatsDto(
+            tagValue(stage),
+            tagValue(destination),
+            snapshot.count(),
+            snapshot.mean(TimeUnit.MICROSECONDS),
+            percentile(snapshot, 0.5),
+            percentile(snapshot, 0.95),
+            percentile(snapshot, 0.99),
+            snapshot.max(TimeUnit.MICROSECONDS)));
+      }
+    }
+    return stats;
+  }
+
+  private static double percentile(HistogramSnapshot snapshot, double percentile) {
+    for (ValueAtPercentile value : snapshot.percentileValues()) {
+      if (value.percentile() == percentile) {
+        return value.value(TimeUnit.MICROSECONDS);
+      }
+    }
+    return 0;
+  }
+
+  private static String tagValue(Enum<?> value) {
+    return value.name().toLowerCase(Locale.ROOT);
+  }
+}
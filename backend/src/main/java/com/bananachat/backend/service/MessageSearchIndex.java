@@ -0,0 +1,466 @@
+package com.bananachat.backend.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.pt.PortugueseAnalyzer;
+import org.apache.lucene.analysis.pt.PortugueseLightStemFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bananachat.backend.dto.SearchIndexStatsDto;
+import com.bananachat.backend.repository.GroupMessageRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Índice full-text (Lucene) do conteúdo das mensagens de grupo.
+ *
+ * O conteúdo é tokenizado, sem stopwords, com stemming leve de português e
+ * sem acentos, então "ação" encontra "acoes". A busca devolve os IDs das
+ * mensagens ordenados por relevância (BM25) e, no empate, pelas mais recentes;
+ * as mensagens em si continuam vindo do banco.
+ *
+ * O GroupMessageService atualiza o índice depois de cada commit e um thread de
+ * reabertura deixa as alterações visíveis em até chat.search.refresh-ms. Sem
+ * chat.search.directory o índice fica em memória; com ele, em disco. Nos dois
+ * casos é reconstruído na subida: um índice de uma execução anterior pode ter
+ * IDs que o banco (H2 em memória) reutilizou para outras mensagens.
+ * Enquanto o índice não está pronto, search() retorna vazio e o chamador usa a
+ * consulta LIKE do banco.
+ *
+ * Com threads virtuais (spring.threads.virtual.enabled) as gravações no índice
+ * vão para uma thread de plataforma própria: o IndexWriter faz I/O dentro de
+ * blocos synchronized, o que prenderia a thread carregadora.
+ */
+@Component
+public class MessageSearchIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MessageSearchIndex.class);
+
+  static final String FIELD_ID = "id";
+  static final String FIELD_GROUP = "groupId";
+  static final String FIELD_CONTENT = "content";
+  static final String FIELD_TIMESTAMP = "timestamp";
+
+  /** Limite de resultados percorridos na paginação (page * size) */
+  static final int MAX_WINDOW = 1000;
+
+  private static final Sort RELEVANCE_THEN_RECENT = new Sort(SortField.FIELD_SCORE,
+      new SortField(FIELD_TIMESTAMP, SortField.Type.LONG, true));
+
+  @Autowired
+  private GroupMessageRepository groupMessageRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Value("${chat.search.enabled:true}")
+  private boolean enabled;
+
+  @Value("${chat.search.directory:}")
+  private String directoryPath;
+
+  @Value("${chat.search.refresh-ms:250}")
+  private long refreshMs;
+
+  @Value("${chat.search.commit-interval-seconds:30}")
+  private long commitIntervalSeconds;
+
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  private final Analyzer analyzer = newAnalyzer();
+
+  private Directory directory;
+  private IndexWriter writer;
+  private SearcherManager searcherManager;
+  private ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+  private ScheduledExecutorService committer;
+  private ExecutorService indexWriterThread;
+
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+
+  private volatile boolean ready;
+
+  // Estatísticas
+  private final AtomicLong searches = new AtomicLong();
+  private final AtomicLong fallbackSearches = new AtomicLong();
+  private final AtomicLong totalSearchNanos = new AtomicLong();
+  private final AtomicLong updates = new AtomicLong();
+  private final AtomicLong rebuilds = new AtomicLong();
+  private volatile long lastRebuildMillis;
+
+  @PostConstruct
+  public void init() throws IOException {
+    if (!enabled) {
+      LOGGER.info("Índice de busca de mensagens desabilitado");
+      return;
+    }
+
+    directory = directoryPath.isBlank()
+        ? new ByteBuffersDirectory()
+        : FSDirectory.open(Path.of(directoryPath));
+    writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+        .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+    searcherManager = new SearcherManager(writer, null);
+
+    double maxStaleSec = refreshMs / 1000.0;
+    reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager, maxStaleSec, 0);
+    reopenThread.setName("chat-search-refresh");
+    reopenThread.setDaemon(true);
+    reopenThread.start();
+
+    if (!directoryPath.isBlank()) {
+      committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chat-search-commit");
+        thread.setDaemon(true);
+        return thread;
+      });
+      committer.scheduleWithFixedDelay(this::commit, commitIntervalSeconds, commitIntervalSeconds,
+          TimeUnit.SECONDS);
+    }
+
+    if (virtualThreads) {
+      indexWriterThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chat-search-writer");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+
+    // Documentos de uma execução anterior não são confiáveis; search() usa o
+    // banco até o rebuild da subida terminar
+    ready = false;
+
+    LOGGER.info("Índice de busca de mensagens em {} ({} documentos)",
+        directoryPath.isBlank() ? "memória" : directoryPath, writer.getDocStats().numDocs);
+  }
+
+  /**
+   * Reconstrói o índice em segundo plano na subida
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildOnStartup() {
+    if (enabled) {
+      rebuildInBackground();
+    }
+  }
+
+  /**
+   * Dispara rebuild() em uma thread própria
+   */
+  public void rebuildInBackground() {
+    Thread thread = new Thread(this::rebuild, "chat-search-rebuild");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @PreDestroy
+  public void close() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      if (committer != null) {
+        committer.shutdownNow();
+      }
+      if (indexWriterThread != null) {
+        indexWriterThread.shutdown();
+        indexWriterThread.awaitTermination(5, TimeUnit.SECONDS);
+      }
+      reopenThread.close();
+      searcherManager.close();
+      writer.close();
+      directory.close();
+    } catch (IOException e) {
+      LOGGER.error("Erro ao fechar o índice de busca: ", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Indexa (ou reindexa) uma mensagem de grupo
+   */
+  public void indexGroupMessage(Long id, Long groupId, String content, LocalDateTime timestamp) {
+    if (!enabled || id == null) {
+      return;
+    }
+    write(() -> {
+      try {
+        writer.updateDocument(new Term(FIELD_ID, id.toString()), document(id, groupId, content, timestamp));
+        updates.incrementAndGet();
+      } catch (IOException e) {
+        LOGGER.error("Erro ao indexar mensagem ID {}: ", id, e);
+      }
+    });
+  }
+
+  /**
+   * Remove uma mensagem de grupo do índice
+   */
+  public void deleteGroupMessage(Long id) {
+    if (!enabled || id == null) {
+      return;
+    }
+    write(() -> {
+      try {
+        writer.deleteDocuments(new Term(FIELD_ID, id.toString()));
+        updates.incrementAndGet();
+      } catch (IOException e) {
+        LOGGER.error("Erro ao remover mensagem ID {} do índice: ", id, e);
+      }
+    });
+  }
+
+  /**
+   * Busca mensagens do grupo e retorna os IDs em ordem de relevância. Vazio
+   * quando o índice não pode responder (desabilitado, em reconstrução ou com
+   * erro de leitura).
+   */
+  public Optional<List<Long>> search(Long groupId, String text, int page, int size) {
+    if (!enabled || !ready) {
+      fallbackSearches.incrementAndGet();
+      return Optional.empty();
+    }
+
+    long start = System.nanoTime();
+    int from = page * size;
+    if (from >= MAX_WINDOW) {
+      return Optional.of(List.of());
+    }
+
+    IndexSearcher searcher = null;
+    try {
+      searcher = searcherManager.acquire();
+      Query query = new BooleanQuery.Builder()
+          .add(parse(text), BooleanClause.Occur.MUST)
+          .add(new TermQuery(new Term(FIELD_GROUP, groupId.toString())), BooleanClause.Occur.FILTER)
+          .build();
+
+      TopDocs top = searcher.search(query, Math.min(from + size, MAX_WINDOW), RELEVANCE_THEN_RECENT);
+      StoredFields storedFields = searcher.storedFields();
+      Set<String> idField = Set.of(FIELD_ID);
+      List<Long> ids = new ArrayList<>(size);
+      for (int i = from; i < top.scoreDocs.length; i++) {
+        ScoreDoc hit = top.scoreDocs[i];
+        ids.add(Long.valueOf(storedFields.document(hit.doc, idField).get(FIELD_ID)));
+      }
+      return Optional.of(ids);
+    } catch (IOException e) {
+      LOGGER.error("Erro ao buscar no índice do grupo ID {}: ", groupId, e);
+      fallbackSearches.incrementAndGet();
+      return Optional.empty();
+    } finally {
+      release(searcher);
+      searches.incrementAndGet();
+      totalSearchNanos.addAndGet(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Apaga o índice e o reconstrói a partir do banco. Durante a reconstrução as
+   * buscas usam a consulta do banco.
+   */
+  public void rebuild() {
+    if (!enabled) {
+      return;
+    }
+
+    rebuildLock.lock();
+    try {
+      rebuildLocked();
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  private void rebuildLocked() {
+    long start = System.currentTimeMillis();
+    ready = false;
+    LOGGER.info("Reconstruindo índice de busca de mensagens");
+
+    try {
+      writer.deleteAll();
+
+      TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+      readOnly.setReadOnly(true);
+      long count = readOnly.execute(status -> {
+        try (Stream<Object[]> rows = groupMessageRepository.streamSearchDocuments()) {
+          long indexed = 0;
+          Iterator<Object[]> iterator = rows.iterator();
+          while (iterator.hasNext()) {
+            Object[] row = iterator.next();
+            Long id = (Long) row[0];
+            writer.updateDocument(new Term(FIELD_ID, id.toString()),
+                document(id, (Long) row[1], (String) row[2], (LocalDateTime) row[3]));
+            indexed++;
+          }
+          return indexed;
+        } catch (IOException e) {
+          throw new IllegalStateException("Erro ao indexar mensagens", e);
+        }
+      });
+      writer.commit();
+      searcherManager.maybeRefreshBlocking();
+
+      ready = true;
+      rebuilds.incrementAndGet();
+      lastRebuildMillis = System.currentTimeMillis() - start;
+      LOGGER.info("Índice de busca reconstruído: {} mensagens em {}ms", count, lastRebuildMillis);
+    } catch (Exception e) {
+      LOGGER.error("Erro ao reconstruir o índice de busca: ", e);
+    }
+  }
+
+  /**
+   * Torna visíveis as alterações pendentes sem esperar o thread de reabertura
+   */
+  void refresh() throws IOException {
+    searcherManager.maybeRefreshBlocking();
+  }
+
+  public boolean isReady() {
+    return enabled && ready;
+  }
+
+  /**
+   * Retorna as estatísticas do índice
+   */
+  public SearchIndexStatsDto getStats() {
+    long searchCount = searches.get();
+    return new SearchIndexStatsDto(
+        enabled,
+        isReady(),
+        directoryPath.isBlank() ? "memory" : directoryPath,
+        enabled ? writer.getDocStats().numDocs : 0,
+        searchCount,
+        fallbackSearches.get(),
+        updates.get(),
+        rebuilds.get(),
+        lastRebuildMillis,
+        searchCount > 0 ? totalSearchNanos.get() / 1000.0 / searchCount : 0);
+  }
+
+  private Query parse(String text) {
+    SimpleQueryParser parser = new SimpleQueryParser(analyzer, Map.of(FIELD_CONTENT, 1.0f));
+    parser.setDefaultOperator(BooleanClause.Occur.MUST);
+    return parser.parse(text);
+  }
+
+  private void write(Runnable update) {
+    if (indexWriterThread != null) {
+      indexWriterThread.execute(update);
+    } else {
+      update.run();
+    }
+  }
+
+  private void commit() {
+    try {
+      writer.commit();
+    } catch (IOException e) {
+      LOGGER.error("Erro ao gravar o índice de busca: ", e);
+    }
+  }
+
+  private void release(IndexSearcher searcher) {
+    if (searcher == null) {
+      return;
+    }
+    try {
+      searcherManager.release(searcher);
+    } catch (IOException e) {
+      LOGGER.warn("Erro ao liberar searcher do índice: {}", e.getMessage());
+    }
+  }
+
+  private static Document document(Long id, Long groupId, String content, LocalDateTime timestamp) {
+    Document doc = new Document();
+    doc.add(new StringField(FIELD_ID, id.toString(), Field.Store.YES));
+    doc.add(new StringField(FIELD_GROUP, groupId.toString(), Field.Store.NO));
+    doc.add(new TextField(FIELD_CONTENT, content == null ? "" : content, Field.Store.NO));
+    doc.add(new NumericDocValuesField(FIELD_TIMESTAMP,
+        timestamp == null ? 0 : timestamp.toInstant(ZoneOffset.UTC).toEpochMilli()));
+    return doc;
+  }
+
+  /**
+   * Tokenização padrão, minúsculas, stopwords e stemming leve de português e
+   * remoção de acentos. Na normalização (prefixos da busca) só minúsculas e
+   * acentos.
+   */
+  static Analyzer newAnalyzer() {
+    return new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName) {
+        Tokenizer source = new StandardTokenizer();
+        TokenStream result = new LowerCaseFilter(source);
+        result = new StopFilter(result, PortugueseAnalyzer.getDefaultStopSet());
+        result = new PortugueseLightStemFilter(result);
+        result = new ASCIIFoldingFilter(result);
+        return new TokenStreamComponents(source, result);
+      }
+
+      @Override
+      protected TokenStream normalize(String fieldName, TokenStream in) {
+        return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+      }
+    };
+  }
+}
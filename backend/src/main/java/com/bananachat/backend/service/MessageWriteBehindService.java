@@ -0,0 +1,325 @@
+package com.bananachat.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.bananachat.backend.dto.WriteBehindStatsDto;
+import com.bananachat.backend.entity.GroupMessage;
+import com.bananachat.backend.model.ChatMessage;
+import com.bananachat.backend.model.GroupChatMessage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Persistência das mensagens enviadas via STOMP.
+ *
+ * No modo padrão as mensagens são salvas de forma síncrona. Com
+ * chat.persistence.write-behind.enabled=true elas são colocadas em uma fila
+ * limitada e gravadas em lotes por uma thread de escrita, para que o broadcast
+ * não precise esperar o INSERT. Quando a fila está cheia a thread chamadora
+ * espera até offer-timeout-ms e, se ainda não houver espaço, grava a mensagem
+ * ela mesma (backpressure).
+ */
+@Service
+public class MessageWriteBehindService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MessageWriteBehindService.class);
+
+  @Autowired
+  private ChatHistoryService chatHistoryService;
+
+  @Autowired
+  private GroupMessageService groupMessageService;
+
+  @Value("${chat.persistence.write-behind.enabled:false}")
+  private boolean enabled;
+
+  @Value("${chat.persistence.write-behind.queue-capacity:10000}")
+  private int queueCapacity;
+
+  @Value("${chat.persistence.write-behind.batch-size:200}")
+  private int batchSize;
+
+  @Value("${chat.persistence.write-behind.flush-interval-ms:50}")
+  private long flushIntervalMs;
+
+  @Value("${chat.persistence.write-behind.offer-timeout-ms:100}")
+  private long offerTimeoutMs;
+
+  @Value("${chat.persistence.write-behind.shutdown-timeout-ms:10000}")
+  private long shutdownTimeoutMs;
+
+  private BlockingQueue<PendingMessage> queue;
+  private Thread writerThread;
+  private volatile boolean running;
+
+  // Leitura: enqueue verifica running e enfileira; escrita: stop desliga
+  // running. Depois do stop nenhuma mensagem entra na fila sem ser drenada
+  private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+
+  // Estatísticas
+  private final AtomicLong enqueued = new AtomicLong();
+  private final AtomicLong persisted = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong callerRuns = new AtomicLong();
+  private final AtomicLong flushes = new AtomicLong();
+  private final AtomicLong totalFlushNanos = new AtomicLong();
+  private final AtomicLong maxFlushNanos = new AtomicLong();
+  private volatile long lastFlushNanos;
+
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+
+    queue = new ArrayBlockingQueue<>(queueCapacity);
+    running = true;
+    writerThread = new Thread(this::runWriter, "chat-write-behind");
+    writerThread.setDaemon(true);
+    writerThread.start();
+
+    LOGGER.info("Write-behind habilitado (capacidade: {}, lote: {}, intervalo: {}ms)",
+        queueCapacity, batchSize, flushIntervalMs);
+  }
+
+  /**
+   * Para a thread de escrita e grava tudo o que ainda estiver na fila
+   */
+  @PreDestroy
+  public void stop() {
+    if (!enabled) {
+      return;
+    }
+
+    stateLock.writeLock().lock();
+    try {
+      if (!running) {
+        return;
+      }
+      running = false;
+    } finally {
+      stateLock.writeLock().unlock();
+    }
+    writerThread.interrupt();
+    try {
+      writerThread.join(shutdownTimeoutMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    List<PendingMessage> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    LOGGER.info("Encerrando write-behind, gravando {} mensagens pendentes", remaining.size());
+
+    for (int from = 0; from < remaining.size(); from += batchSize) {
+      flush(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+    }
+  }
+
+  /**
+   * Persiste uma mensagem do chat público ou privado
+   */
+  public void persistChatMessage(ChatMessage chatMessage) {
+    if (!enabled) {
+      chatHistoryService.saveMessage(chatMessage);
+      return;
+    }
+    enqueue(PendingMessage.of(chatMessage));
+  }
+
+  /**
+   * Persiste uma mensagem de grupo
+   */
+  public void persistGroupMessage(GroupChatMessage groupMessage, GroupMessage.MessageType type) {
+    if (!enabled) {
+      groupMessageService.persistMessage(groupMessage.getContent(), groupMessage.getSender(),
+          groupMessage.getGroupId(), type);
+      return;
+    }
+    enqueue(PendingMessage.of(groupMessage, type));
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Retorna as estatísticas atuais da fila
+   */
+  public WriteBehindStatsDto getStats() {
+    long flushCount = flushes.get();
+    return new WriteBehindStatsDto(
+        enabled,
+        queue != null ? queue.size() : 0,
+        enabled ? queueCapacity : 0,
+        enqueued.get(),
+        persisted.get(),
+        failed.get(),
+        callerRuns.get(),
+        flushCount,
+        toMillis(lastFlushNanos),
+        flushCount > 0 ? toMillis(totalFlushNanos.get() / flushCount) : 0,
+        toMillis(maxFlushNanos.get()));
+  }
+
+  private void enqueue(PendingMessage pending) {
+    stateLock.readLock().lock();
+    try {
+      if (running) {
+        if (queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+          enqueued.incrementAndGet();
+          return;
+        }
+        LOGGER.warn("Fila de write-behind cheia ({} mensagens), gravando de forma síncrona", queue.size());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      stateLock.readLock().unlock();
+    }
+
+    // Backpressure (ou serviço parado): a thread chamadora grava a mensagem
+    callerRuns.incrementAndGet();
+    try {
+      write(pending);
+      persisted.incrementAndGet();
+    } catch (Exception e) {
+      failed.incrementAndGet();
+      LOGGER.error("Erro ao gravar mensagem de {}: {}", pending.sender(), e.getMessage());
+    }
+  }
+
+  private void runWriter() {
+    List<PendingMessage> batch = new ArrayList<>(batchSize);
+    while (running) {
+      try {
+        PendingMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        flush(batch);
+      } catch (InterruptedException e) {
+        // Interrompida pelo stop(); o restante da fila é gravado lá
+        break;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void flush(List<PendingMessage> batch) {
+    long startNanos = System.nanoTime();
+
+    List<PendingMessage> chatBatch = new ArrayList<>(batch.size());
+    List<PendingMessage> groupBatch = new ArrayList<>();
+    for (PendingMessage pending : batch) {
+      if (pending.chatMessage != null) {
+        chatBatch.add(pending);
+      } else {
+        groupBatch.add(pending);
+      }
+    }
+
+    if (!chatBatch.isEmpty()) {
+      flushBatch(chatBatch, () -> chatHistoryService.saveAll(
+          chatBatch.stream().map(pending -> pending.chatMessage).toList()));
+    }
+    if (!groupBatch.isEmpty()) {
+      flushBatch(groupBatch, () -> groupMessageService.saveAll(
+          groupBatch.stream().map(pending -> pending.groupMessage).toList()));
+    }
+
+    long elapsed = System.nanoTime() - startNanos;
+    lastFlushNanos = elapsed;
+    flushes.incrementAndGet();
+    totalFlushNanos.addAndGet(elapsed);
+    maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+  }
+
+  /**
+   * Grava o lote de uma vez; se falhar, grava mensagem a mensagem para isolar a
+   * que causou o erro
+   */
+  private void flushBatch(List<PendingMessage> batch, Runnable batchWrite) {
+    try {
+      batchWrite.run();
+      persisted.addAndGet(batch.size());
+      return;
+    } catch (Exception e) {
+      LOGGER.warn("Falha ao gravar lote de {} mensagens, gravando individualmente: {}",
+          batch.size(), e.getMessage());
+    }
+
+    for (PendingMessage pending : batch) {
+      try {
+        write(pending);
+        persisted.incrementAndGet();
+      } catch (Exception e) {
+        failed.incrementAndGet();
+        LOGGER.error("Erro ao gravar mensagem pendente de {}: {}", pending.sender(), e.getMessage());
+      }
+    }
+  }
+
+  private void write(PendingMessage pending) {
+    if (pending.chatMessage != null) {
+      chatHistoryService.persistMessage(pending.chatMessage);
+    } else {
+      GroupChatMessage groupMessage = pending.groupMessage;
+      groupMessageService.persistMessage(groupMessage.getContent(), groupMessage.getSender(),
+          groupMessage.getGroupId(), GroupMessage.MessageType.valueOf(groupMessage.getType().name()));
+    }
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  /**
+   * Cópia da mensagem no momento do envio, para que a thread de escrita não
+   * dependa do objeto que segue para o broker
+   */
+  private static final class PendingMessage {
+    private final ChatMessage chatMessage;
+    private final GroupChatMessage groupMessage;
+
+    private PendingMessage(ChatMessage chatMessage, GroupChatMessage groupMessage) {
+      this.chatMessage = chatMessage;
+      this.groupMessage = groupMessage;
+    }
+
+    static PendingMessage of(ChatMessage source) {
+      ChatMessage copy = new ChatMessage(source.getContent(), source.getSender(), source.getRecipient(),
+          source.getType());
+      copy.setTimestamp(source.getTimestamp());
+      return new PendingMessage(copy, null);
+    }
+
+    static PendingMessage of(GroupChatMessage source, GroupMessage.MessageType type) {
+      GroupChatMessage copy = new GroupChatMessage(source.getContent(), source.getSender(), source.getGroupId(),
+          source.getGroupName(), GroupChatMessage.MessageType.valueOf(type.name()));
+      copy.setTimestamp(source.getTimestamp());
+      return new PendingMessage(null, copy);
+    }
+
+    String sender() {
+      return chatMessage != null ? chatMessage.getSender() : groupMessage.getSender();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.bananachat.backend.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Escreve um Stream de entidades como NDJSON (um objeto JSON por linha).
+ *
+ * Cada linha é serializada direto no OutputStream e a entidade sai do
+ * contexto de persistência logo depois, então a memória usada não depende do
+ * tamanho da tabela. Deve ser chamado dentro de uma transação, que mantém o
+ * cursor do banco aberto.
+ */
+final class NdjsonExport {
+
+  /** Linhas entre flushes, alinhado ao fetch size das consultas */
+  static final int FLUSH_EVERY = 500;
+
+  private NdjsonExport() {
+  }
+
+  static <E, D> long write(Stream<E> rows, OutputStream out, ObjectMapper objectMapper, Class<D> dtoType,
+      Function<E, D> toDto, EntityManager entityManager) throws IOException {
+    ObjectWriter writer = objectMapper.writerFor(dtoType);
+    long count = 0;
+
+    try (rows; JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(null);
+
+      Iterator<E> iterator = rows.iterator();
+      while (iterator.hasNext()) {
+        E row = iterator.next();
+        writer.writeValue(generator, toDto.apply(row));
+        generator.writeRaw('\n');
+
+        if (++count % FLUSH_EVERY == 0) {
+          generator.flush();
+          // Descarta as entidades já escritas (inclusive associações carregadas)
+          entityManager.clear();
+        } else {
+          entityManager.detach(row);
+        }
+      }
+      generator.flush();
+    }
+    return count;
+  }
+}
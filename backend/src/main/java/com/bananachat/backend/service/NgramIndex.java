@@ -0,0 +1,344 @@
+package com.bananachat.backend.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice em memória de nomes curtos (username, nome de exibição, nome de
+ * grupo) para sugestões de busca. Cada entrada é um ID com um ou mais nomes,
+ * normalizados em minúsculas e sem acentos.
+ *
+ * A busca devolve os IDs em três etapas, cada uma em ordem alfabética e só
+ * consultada se a anterior não completou o limite:
+ * nome que começa com o termo (o nome exato vem primeiro), palavra do nome
+ * que começa com o termo e, para termos com 3 ou mais caracteres, o termo em
+ * qualquer posição do nome (via trigramas, mais próximos do início primeiro).
+ *
+ * Os prefixos ficam em TreeMaps e os trigramas em listas de slots, em ordem
+ * crescente. Uma entrada alterada ou removida deixa o slot antigo morto nas
+ * listas de trigramas; quando os slots mortos passam dos vivos o índice é
+ * compactado. Leituras e gravações são protegidas por um ReadWriteLock.
+ */
+final class NgramIndex {
+
+  /** Limite de candidatos verificados na etapa de substring */
+  static final int MAX_SUBSTRING_CANDIDATES = 4_000;
+
+  private static final int INITIAL_SLOTS = 1024;
+  private static final int COMPACT_MIN_DEAD = 1024;
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SPACES = Pattern.compile("\\s+");
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private long[] ids = new long[INITIAL_SLOTS];
+  private String[][] names = new String[INITIAL_SLOTS][];
+  private int nextSlot;
+  private int deadSlots;
+
+  private final Map<Long, Integer> slotById = new HashMap<>();
+  private final TreeMap<String, int[]> prefixes = new TreeMap<>();
+  private final TreeMap<String, int[]> words = new TreeMap<>();
+  private final Map<Long, IntList> trigrams = new HashMap<>();
+
+  /**
+   * Indexa (ou reindexa) a entrada com os nomes informados; nomes nulos ou
+   * vazios são ignorados
+   */
+  void put(long id, String... values) {
+    String[] normalized = normalizeAll(values);
+    lock.writeLock().lock();
+    try {
+      Integer existing = slotById.get(id);
+      if (existing != null) {
+        if (Arrays.equals(names[existing], normalized)) {
+          return;
+        }
+        slotById.remove(id);
+        kill(existing);
+      }
+      if (normalized.length > 0) {
+        add(id, normalized);
+      }
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void remove(long id) {
+    lock.writeLock().lock();
+    try {
+      Integer slot = slotById.remove(id);
+      if (slot != null) {
+        kill(slot);
+        compactIfNeeded();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * IDs das entradas que casam com o termo, na ordem de relevância
+   */
+  List<Long> search(String query, int limit) {
+    String term = normalize(query);
+    if (term.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+
+    lock.readLock().lock();
+    try {
+      Set<Long> result = new LinkedHashSet<>();
+      collectPrefix(prefixes, term, result, limit);
+      collectPrefix(words, term, result, limit);
+      if (result.size() < limit && term.length() >= 3) {
+        collectSubstring(term, result, limit);
+      }
+      return new ArrayList<>(result);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return slotById.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int trigramCount() {
+    lock.readLock().lock();
+    try {
+      return trigrams.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Minúsculas, sem acentos e com espaços simples
+   */
+  static String normalize(String value) {
+    if (value == null) {
+      return "";
+    }
+    String folded = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+    return SPACES.matcher(folded.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+  }
+
+  private static String[] normalizeAll(String[] values) {
+    return Arrays.stream(values)
+        .map(NgramIndex::normalize)
+        .filter(name -> !name.isEmpty())
+        .distinct()
+        .toArray(String[]::new);
+  }
+
+  private void collectPrefix(TreeMap<String, int[]> map, String term, Set<Long> result, int limit) {
+    for (Map.Entry<String, int[]> entry : map.tailMap(term, true).entrySet()) {
+      if (result.size() >= limit || !entry.getKey().startsWith(term)) {
+        return;
+      }
+      for (int slot : entry.getValue()) {
+        result.add(ids[slot]);
+        if (result.size() >= limit) {
+          return;
+        }
+      }
+    }
+  }
+
+  private void collectSubstring(String term, Set<Long> result, int limit) {
+    // Parte da lista do trigrama mais raro e confirma o termo em cada candidato
+    IntList rarest = null;
+    for (int i = 0; i + 3 <= term.length(); i++) {
+      IntList postings = trigrams.get(trigram(term, i));
+      if (postings == null) {
+        return;
+      }
+      if (rarest == null || postings.size < rarest.size) {
+        rarest = postings;
+      }
+    }
+
+    List<Match> matches = new ArrayList<>();
+    int checked = 0;
+    for (int i = 0; i < rarest.size && checked < MAX_SUBSTRING_CANDIDATES; i++) {
+      int slot = rarest.values[i];
+      if (names[slot] == null || result.contains(ids[slot])) {
+        continue;
+      }
+      checked++;
+      Match best = null;
+      for (String name : names[slot]) {
+        int position = name.indexOf(term);
+        if (position >= 0 && (best == null || Match.ORDER.compare(new Match(slot, position, name), best) < 0)) {
+          best = new Match(slot, position, name);
+        }
+      }
+      if (best != null) {
+        matches.add(best);
+      }
+    }
+
+    matches.sort(Match.ORDER);
+    for (Match match : matches) {
+      if (result.size() >= limit) {
+        return;
+      }
+      result.add(ids[match.slot]);
+    }
+  }
+
+  private void add(long id, String[] normalized) {
+    if (nextSlot == ids.length) {
+      int capacity = ids.length + (ids.length >> 1);
+      ids = Arrays.copyOf(ids, capacity);
+      names = Arrays.copyOf(names, capacity);
+    }
+
+    int slot = nextSlot++;
+    ids[slot] = id;
+    names[slot] = normalized;
+    slotById.put(id, slot);
+
+    for (String name : normalized) {
+      addSlot(prefixes, name, slot);
+      for (int start : wordStarts(name)) {
+        addSlot(words, name.substring(start), slot);
+      }
+      for (int i = 0; i + 3 <= name.length(); i++) {
+        // O slot novo é sempre o maior, então basta olhar o último da lista
+        IntList postings = trigrams.computeIfAbsent(trigram(name, i), key -> new IntList());
+        if (postings.size == 0 || postings.values[postings.size - 1] != slot) {
+          postings.add(slot);
+        }
+      }
+    }
+  }
+
+  private void kill(int slot) {
+    for (String name : names[slot]) {
+      removeSlot(prefixes, name, slot);
+      for (int start : wordStarts(name)) {
+        removeSlot(words, name.substring(start), slot);
+      }
+    }
+    names[slot] = null;
+    deadSlots++;
+  }
+
+  private void compactIfNeeded() {
+    if (deadSlots < COMPACT_MIN_DEAD || deadSlots <= slotById.size()) {
+      return;
+    }
+
+    long[] liveIds = new long[slotById.size()];
+    String[][] liveNames = new String[slotById.size()][];
+    int count = 0;
+    for (int slot = 0; slot < nextSlot; slot++) {
+      if (names[slot] != null) {
+        liveIds[count] = ids[slot];
+        liveNames[count] = names[slot];
+        count++;
+      }
+    }
+
+    ids = new long[Math.max(INITIAL_SLOTS, count * 2)];
+    names = new String[ids.length][];
+    nextSlot = 0;
+    deadSlots = 0;
+    slotById.clear();
+    prefixes.clear();
+    words.clear();
+    trigrams.clear();
+    for (int i = 0; i < count; i++) {
+      add(liveIds[i], liveNames[i]);
+    }
+  }
+
+  /**
+   * Posições em que começa uma palavra, exceto a primeira (já coberta pelo
+   * prefixo do nome)
+   */
+  private static List<Integer> wordStarts(String name) {
+    List<Integer> starts = new ArrayList<>(2);
+    for (int i = 1; i < name.length(); i++) {
+      if (Character.isLetterOrDigit(name.charAt(i)) && !Character.isLetterOrDigit(name.charAt(i - 1))) {
+        starts.add(i);
+      }
+    }
+    return starts;
+  }
+
+  private static long trigram(String value, int start) {
+    return ((long) value.charAt(start) << 32) | ((long) value.charAt(start + 1) << 16) | value.charAt(start + 2);
+  }
+
+  private static void addSlot(TreeMap<String, int[]> map, String key, int slot) {
+    map.merge(key, new int[] { slot }, (current, added) -> {
+      int[] updated = Arrays.copyOf(current, current.length + 1);
+      updated[current.length] = slot;
+      return updated;
+    });
+  }
+
+  private static void removeSlot(TreeMap<String, int[]> map, String key, int slot) {
+    map.computeIfPresent(key, (k, current) -> {
+      int[] updated = Arrays.stream(current).filter(value -> value != slot).toArray();
+      return updated.length == 0 ? null : updated;
+    });
+  }
+
+  /**
+   * Candidato da etapa de substring: posição do termo no nome e o nome
+   */
+  private static final class Match {
+    static final Comparator<Match> ORDER = Comparator
+        .comparingInt((Match match) -> match.position)
+        .thenComparingInt(match -> match.name.length())
+        .thenComparing(match -> match.name);
+
+    final int slot;
+    final int position;
+    final String name;
+
+    Match(int slot, int position, String name) {
+      this.slot = slot;
+      this.position = position;
+      this.name = name;
+    }
+  }
+
+  /**
+   * Lista crescente de slots de um trigrama
+   */
+  private static final class IntList {
+    int[] values = new int[4];
+    int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+  }
+}
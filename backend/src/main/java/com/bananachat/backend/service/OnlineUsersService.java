@@ -1,55 +1,264 @@
 package com.bananachat.backend.service;
 
+import java.util.ArrayDeque;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.bananachat.backend.dto.PresenceDeltaDto;
+import com.bananachat.backend.dto.PresenceSnapshotDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Presença dos usuários por sessão STOMP. Cada aba (sessão) conta uma
+ * referência: o usuário fica online na primeira sessão e só sai quando a
+ * última fecha ou expira, então abrir ou fechar uma segunda aba não gera
+ * JOIN/LEAVE.
+ *
+ * Sessões sem nenhum frame (nem heartbeat) por chat.presence.session-ttl-seconds
+ * expiram na varredura periódica, cobrindo conexões que caíram sem DISCONNECT.
+ *
+ * Cada entrada ou saída incrementa a versão da lista e vira um delta para o
+ * listener de presença (/topic/presence), entregue na ordem das versões;
+ * getSnapshot devolve a lista com a versão, montada uma vez por versão.
+ */
 @Service
 public class OnlineUsersService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OnlineUsersService.class);
 
-    // Thread-safe set para usuários online
-    private final Set<String> onlineUsers = ConcurrentHashMap.newKeySet();
+    // 0 desliga a expiração por inatividade
+    @Value("${chat.presence.session-ttl-seconds:60}")
+    private long sessionTtlSeconds;
+
+    @Value("${chat.presence.sweep-interval-seconds:15}")
+    private long sweepIntervalSeconds;
+
+    // sessionId -> sessão; o compute do ConcurrentHashMap trava só o bucket da chave
+    private final Map<String, PresenceSession> sessions = new ConcurrentHashMap<>();
+
+    // username -> número de sessões abertas; alterado só dentro do compute da
+    // sessão, então um disconnect concorrente nunca vê a sessão sem a referência
+    private final Map<String, Integer> onlineUsers = new ConcurrentHashMap<>();
+
+    private volatile Consumer<String> expiryListener = username -> { };
+
+    private volatile Consumer<PresenceDeltaDto> presenceListener = delta -> { };
+
+    // Lista versionada; alterada dentro do compute do usuário, então as
+    // mudanças de um mesmo usuário recebem versões na ordem em que acontecem
+    private final Object presenceLock = new Object();
+    private final Set<String> presentUsers = new HashSet<>();
+    private long version;
+
+    // Deltas na ordem das versões, enfileirados sob presenceLock e entregues
+    // ao listener por uma thread de cada vez, fora dos locks dos mapas
+    private final ArrayDeque<PresenceDeltaDto> unpublishedDeltas = new ArrayDeque<>();
+    private final ReentrantLock publishLock = new ReentrantLock();
+
+    // Null quando a versão mudou desde o último getSnapshot
+    private volatile PresenceSnapshotDto snapshot;
+
+    private ScheduledExecutorService sweeper;
+
+    private static final class PresenceSession {
+        final String username;
+        volatile long lastActivityNanos;
+
+        PresenceSession(String username, long lastActivityNanos) {
+            this.username = username;
+            this.lastActivityNanos = lastActivityNanos;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (sessionTtlSeconds <= 0) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-presence-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::expireIdleSessions, sweepIntervalSeconds, sweepIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Define quem é avisado quando um usuário fica offline por expiração
+     */
+    public void onUserExpired(Consumer<String> listener) {
+        this.expiryListener = listener;
+    }
+
+    /**
+     * Define quem recebe os deltas de presença (usuário online/offline e versão)
+     */
+    public void onPresenceChange(Consumer<PresenceDeltaDto> listener) {
+        this.presenceListener = listener;
+    }
+
+    /**
+     * Registra uma sessão do usuário. Retorna true se o usuário acabou de
+     * ficar online (primeira sessão)
+     */
+    public boolean addSession(String username, String sessionId) {
+        if (username == null || username.trim().isEmpty() || sessionId == null) {
+            return false;
+        }
+        // [0] saída do usuário anterior da sessão, [1] entrada deste usuário
+        PresenceDeltaDto[] deltas = new PresenceDeltaDto[2];
+        sessions.compute(sessionId, (id, previous) -> {
+            if (previous != null) {
+                if (previous.username.equals(username)) {
+                    // addUser repetido na mesma sessão
+                    return previous;
+                }
+                deltas[0] = release(previous.username);
+            }
+            deltas[1] = acquire(username);
+            return new PresenceSession(username, System.nanoTime());
+        });
+        publishDeltas();
+        if (deltas[0] != null) {
+            LOGGER.info("Usuário {} ficou offline. Total: {}", deltas[0].getUsername(), onlineUsers.size());
+        }
+        boolean cameOnline = deltas[1] != null;
+        if (cameOnline) {
+            LOGGER.info("Usuário {} ficou online. Total: {}", username, onlineUsers.size());
+        } else {
+            LOGGER.debug("Nova sessão {} do usuário {}", sessionId, username);
+        }
+        return cameOnline;
+    }
+
+    /**
+     * Remove uma sessão. Retorna o usuário se era a última sessão dele (ficou
+     * offline), ou null
+     */
+    public String removeSession(String sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+        PresenceDeltaDto[] delta = new PresenceDeltaDto[1];
+        sessions.computeIfPresent(sessionId, (id, session) -> {
+            delta[0] = release(session.username);
+            return null;
+        });
+        if (delta[0] == null) {
+            return null;
+        }
+        publishDeltas();
+        LOGGER.info("Usuário {} ficou offline. Total: {}", delta[0].getUsername(), onlineUsers.size());
+        return delta[0].getUsername();
+    }
 
     /**
-     * Adiciona um usuário à lista de usuários online
+     * Marca atividade na sessão (qualquer frame recebido, inclusive heartbeat).
+     * Retorna false se a sessão não está registrada
      */
-    public void addUser(String username) {
-        if (username != null && !username.trim().isEmpty()) {
-            onlineUsers.add(username);
-            LOGGER.info("Usuário {} adicionado à lista de usuários online. Total: {}", username, onlineUsers.size());
+    public boolean touch(String sessionId) {
+        PresenceSession session = sessions.get(sessionId);
+        if (session == null) {
+            return false;
         }
+        session.lastActivityNanos = System.nanoTime();
+        return true;
     }
 
     /**
-     * Remove um usuário da lista de usuários online
+     * Remove as sessões inativas há mais que o TTL e avisa o listener de
+     * expiração para cada usuário que ficou offline
      */
-    public void removeUser(String username) {
-        if (username != null) {
-            boolean removed = onlineUsers.remove(username);
-            if (removed) {
-                LOGGER.info("Usuário {} removido da lista de usuários online. Total: {}", username, onlineUsers.size());
+    public void expireIdleSessions() {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(sessionTtlSeconds);
+        long now = System.nanoTime();
+        for (Map.Entry<String, PresenceSession> entry : sessions.entrySet()) {
+            PresenceSession session = entry.getValue();
+            if (now - session.lastActivityNanos < ttlNanos) {
+                continue;
+            }
+            // Remove só se a sessão não foi substituída nem tocada desde a leitura
+            boolean[] expired = new boolean[1];
+            PresenceDeltaDto[] delta = new PresenceDeltaDto[1];
+            sessions.computeIfPresent(entry.getKey(), (sessionId, current) -> {
+                if (current == session && now - current.lastActivityNanos >= ttlNanos) {
+                    expired[0] = true;
+                    delta[0] = release(current.username);
+                    return null;
+                }
+                return current;
+            });
+            if (expired[0]) {
+                LOGGER.debug("Sessão {} de {} expirou por inatividade", entry.getKey(), session.username);
+            }
+            if (delta[0] != null) {
+                publishDeltas();
+                LOGGER.info("Usuário {} ficou offline. Total: {}", session.username, onlineUsers.size());
+                expiryListener.accept(session.username);
             }
         }
     }
 
     /**
-     * Retorna a lista de usuários online
+     * Retorna a lista de usuários online (imutável, compartilhada até a
+     * próxima mudança)
      */
     public Set<String> getOnlineUsers() {
-        return new HashSet<>(onlineUsers); // Retorna uma cópia para evitar modificações externas
+        return getSnapshot().getUsers();
+    }
+
+    /**
+     * Retorna a lista de usuários online com a versão correspondente
+     */
+    public PresenceSnapshotDto getSnapshot() {
+        PresenceSnapshotDto current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (presenceLock) {
+            if (snapshot == null) {
+                snapshot = new PresenceSnapshotDto(version, Set.copyOf(presentUsers));
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Retorna a versão atual da lista de usuários online
+     */
+    public long getVersion() {
+        synchronized (presenceLock) {
+            return version;
+        }
     }
 
     /**
      * Verifica se um usuário está online
      */
     public boolean isUserOnline(String username) {
-        return username != null && onlineUsers.contains(username);
+        return username != null && onlineUsers.containsKey(username);
     }
 
     /**
@@ -58,4 +267,80 @@ public class OnlineUsersService {
     public int getOnlineUsersCount() {
         return onlineUsers.size();
     }
-}
\ No newline at end of file
+
+    /**
+     * Retorna o número de sessões abertas de um usuário
+     */
+    public int getSessionCount(String username) {
+        return username != null ? onlineUsers.getOrDefault(username, 0) : 0;
+    }
+
+    /**
+     * Retorna o número total de sessões com presença registrada
+     */
+    public int getSessionsCount() {
+        return sessions.size();
+    }
+
+    // Soma uma referência; o delta se era a primeira. Chamado dentro do compute da sessão
+    private PresenceDeltaDto acquire(String username) {
+        PresenceDeltaDto[] delta = new PresenceDeltaDto[1];
+        onlineUsers.compute(username, (user, count) -> {
+            if (count == null) {
+                delta[0] = changePresence(user, true);
+                return 1;
+            }
+            return count + 1;
+        });
+        return delta[0];
+    }
+
+    // Solta uma referência; o delta se era a última. Chamado dentro do compute da sessão
+    private PresenceDeltaDto release(String username) {
+        PresenceDeltaDto[] delta = new PresenceDeltaDto[1];
+        onlineUsers.computeIfPresent(username, (user, count) -> {
+            if (count > 1) {
+                return count - 1;
+            }
+            delta[0] = changePresence(user, false);
+            return null;
+        });
+        return delta[0];
+    }
+
+    // Entrega os deltas enfileirados. Quem enfileirou sempre chama depois, e o
+    // lock bloqueante garante que nenhum delta fica para trás na fila
+    private void publishDeltas() {
+        publishLock.lock();
+        try {
+            PresenceDeltaDto delta;
+            while ((delta = nextDelta()) != null) {
+                presenceListener.accept(delta);
+            }
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private PresenceDeltaDto nextDelta() {
+        synchronized (presenceLock) {
+            return unpublishedDeltas.poll();
+        }
+    }
+
+    // Chamado dentro do compute do usuário; o delta entra na fila na ordem da
+    // versão e é publicado depois, fora dele, por publishDeltas
+    private PresenceDeltaDto changePresence(String username, boolean online) {
+        synchronized (presenceLock) {
+            if (online) {
+                presentUsers.add(username);
+            } else {
+                presentUsers.remove(username);
+            }
+            snapshot = null;
+            PresenceDeltaDto delta = new PresenceDeltaDto(username, online, ++version);
+            unpublishedDeltas.add(delta);
+            return delta;
+        }
+    }
+}
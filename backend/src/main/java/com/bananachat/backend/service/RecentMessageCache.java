@@ -0,0 +1,329 @@
+package com.bananachat.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bananachat.backend.dto.ChatHistoryDto;
+import com.bananachat.backend.dto.GroupMessageDto;
+import com.bananachat.backend.dto.RecentCacheStatsDto;
+import com.bananachat.backend.entity.ChatHistory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cache em memória das últimas mensagens de cada canal (grupo, chat público,
+ * conversa privada e o feed geral de /api/chat/history/recent).
+ *
+ * Cada canal é um ring buffer imutável com as N mensagens mais recentes,
+ * substituído inteiro a cada mensagem nova. Um canal só entra no cache quando
+ * é lido; a partir daí os serviços acrescentam as mensagens salvas depois do
+ * commit. Os canais são limitados pela memória estimada total e os menos
+ * usados são descartados primeiro.
+ *
+ * Para não instalar um ring que perdeu uma mensagem commitada durante o load,
+ * cada gravação incrementa um contador de versão do canal; o load só é
+ * instalado se a versão não mudou enquanto ele lia o banco.
+ */
+@Component
+public class RecentMessageCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RecentMessageCache.class);
+
+  public static final String PUBLIC_CHANNEL = "public";
+  public static final String ALL_CHANNEL = "all";
+
+  private static final int VERSION_STRIPES = 1024;
+
+  @Value("${chat.recent-cache.enabled:true}")
+  private boolean enabled;
+
+  @Value("${chat.recent-cache.messages-per-channel:100}")
+  private int capacity;
+
+  @Value("${chat.recent-cache.max-memory-mb:64}")
+  private long maxMemoryMb;
+
+  private Cache<String, Ring> rings;
+
+  private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+  private final AtomicLong bypassed = new AtomicLong();
+
+  @PostConstruct
+  public void init() {
+    rings = Caffeine.newBuilder()
+        .maximumWeight(maxMemoryMb * 1024 * 1024)
+        .weigher((String channel, Ring ring) -> ring.bytes)
+        .recordStats()
+        .build();
+
+    LOGGER.info("Cache de mensagens recentes {} ({} mensagens por canal, até {} MB)",
+        enabled ? "habilitado" : "desabilitado", capacity, maxMemoryMb);
+  }
+
+  public static String groupChannel(Long groupId) {
+    return "group:" + groupId;
+  }
+
+  /**
+   * Canal da conversa privada; a ordem dos usuários não importa
+   */
+  public static String privateChannel(String user1, String user2) {
+    return "private:" + ChatHistory.conversationKey(user1, user2);
+  }
+
+  /**
+   * Mensagens mais recentes do grupo (mais novas primeiro). O loader recebe o
+   * limite e deve devolver as mensagens do banco na mesma ordem.
+   */
+  public List<GroupMessageDto> getGroupMessages(Long groupId, int limit, IntFunction<List<GroupMessageDto>> loader) {
+    return recent(groupChannel(groupId), limit, loader, RecentMessageCache::toItem);
+  }
+
+  /**
+   * Indica se o grupo está em cache, para que o chamador só monte o DTO da
+   * mensagem nova quando ele for de fato usado
+   */
+  public boolean isGroupCached(Long groupId) {
+    return enabled && rings.asMap().containsKey(groupChannel(groupId));
+  }
+
+  /**
+   * Registra uma mensagem de grupo já commitada. Sem o DTO o canal é
+   * descartado, se estiver em cache, e recarregado na próxima leitura.
+   */
+  public void groupMessageSaved(Long groupId, GroupMessageDto message) {
+    saved(groupChannel(groupId), message != null ? toItem(message) : null);
+  }
+
+  /**
+   * Nome do grupo nas mensagens em cache, ou null se o canal não está em cache
+   * ou está vazio. Não conta como acerto nas estatísticas
+   */
+  public String getCachedGroupName(Long groupId) {
+    if (!enabled) {
+      return null;
+    }
+    Ring ring = rings.asMap().get(groupChannel(groupId));
+    if (ring == null || ring.items.length == 0) {
+      return null;
+    }
+    return ((GroupMessageDto) ring.items[ring.items.length - 1].message).getGroupName();
+  }
+
+  public void invalidateGroup(Long groupId) {
+    invalidate(groupChannel(groupId));
+  }
+
+  public List<ChatHistoryDto> getAllMessages(int limit, IntFunction<List<ChatHistoryDto>> loader) {
+    return recent(ALL_CHANNEL, limit, loader, RecentMessageCache::toItem);
+  }
+
+  public List<ChatHistoryDto> getPublicMessages(int limit, IntFunction<List<ChatHistoryDto>> loader) {
+    return recent(PUBLIC_CHANNEL, limit, loader, RecentMessageCache::toItem);
+  }
+
+  public List<ChatHistoryDto> getPrivateMessages(String user1, String user2, int limit,
+      IntFunction<List<ChatHistoryDto>> loader) {
+    return recent(privateChannel(user1, user2), limit, loader, RecentMessageCache::toItem);
+  }
+
+  /**
+   * Registra uma mensagem pública ou privada já commitada
+   */
+  public void chatMessageSaved(ChatHistoryDto message) {
+    Item item = toItem(message);
+    saved(ALL_CHANNEL, item);
+    saved(message.getRecipient() == null
+        ? PUBLIC_CHANNEL
+        : privateChannel(message.getSender(), message.getRecipient()), item);
+  }
+
+  /**
+   * Descarta todos os canais (ex.: alteração de dados de usuário embutidos nas
+   * mensagens)
+   */
+  public void invalidateAll() {
+    for (int i = 0; i < VERSION_STRIPES; i++) {
+      versions.incrementAndGet(i);
+    }
+    rings.invalidateAll();
+  }
+
+  /**
+   * Retorna as estatísticas do cache
+   */
+  public RecentCacheStatsDto getStats() {
+    var stats = rings.stats();
+    long weight = rings.policy().eviction()
+        .map(eviction -> eviction.weightedSize().orElse(0L))
+        .orElse(0L);
+    return new RecentCacheStatsDto(
+        enabled,
+        rings.estimatedSize(),
+        capacity,
+        weight,
+        maxMemoryMb * 1024 * 1024,
+        stats.hitCount(),
+        stats.missCount(),
+        bypassed.get(),
+        stats.evictionCount());
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> List<T> recent(String channel, int limit, IntFunction<List<T>> loader,
+      Function<T, Item> toItem) {
+    if (!enabled || limit <= 0 || limit > capacity) {
+      bypassed.incrementAndGet();
+      return loader.apply(limit);
+    }
+
+    Ring ring = rings.getIfPresent(channel);
+    if (ring != null) {
+      return (List<T>) ring.newest(limit);
+    }
+
+    long version = versions.get(stripe(channel));
+    List<T> loaded = loader.apply(capacity);
+    Ring loadedRing = Ring.of(loaded.stream().map(toItem).toList(), capacity);
+
+    rings.asMap().compute(channel, (key, existing) -> {
+      if (existing != null) {
+        return existing;
+      }
+      // Uma gravação durante o load pode não estar no resultado: não instala
+      return versions.get(stripe(channel)) == version ? loadedRing : null;
+    });
+
+    return loaded.size() > limit ? loaded.subList(0, limit) : loaded;
+  }
+
+  private void saved(String channel, Item item) {
+    if (!enabled) {
+      return;
+    }
+    versions.incrementAndGet(stripe(channel));
+    rings.asMap().computeIfPresent(channel, (key, ring) -> item != null ? ring.append(item, capacity) : null);
+  }
+
+  private void invalidate(String channel) {
+    versions.incrementAndGet(stripe(channel));
+    rings.invalidate(channel);
+  }
+
+  private static int stripe(String channel) {
+    return channel.hashCode() & (VERSION_STRIPES - 1);
+  }
+
+  private static Item toItem(GroupMessageDto message) {
+    int bytes = 160 + stringBytes(message.getContent()) + stringBytes(message.getGroupName());
+    if (message.getSender() != null) {
+      bytes += 120 + stringBytes(message.getSender().getUsername())
+          + stringBytes(message.getSender().getDisplayName())
+          + stringBytes(message.getSender().getEmail());
+    }
+    return new Item(message.getId(), message.getTimestamp(), message, bytes);
+  }
+
+  private static Item toItem(ChatHistoryDto message) {
+    int bytes = 120 + stringBytes(message.getContent()) + stringBytes(message.getSender())
+        + stringBytes(message.getRecipient());
+    return new Item(message.getId(), message.getTimestamp(), message, bytes);
+  }
+
+  private static int stringBytes(String value) {
+    return value == null ? 0 : 40 + value.length() * 2;
+  }
+
+  /**
+   * Mensagem em cache com a chave de ordenação (timestamp, id) e o tamanho
+   * estimado
+   */
+  private static final class Item {
+    static final Comparator<Item> ORDER = Comparator
+        .comparing((Item item) -> item.timestamp, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(item -> item.id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    final Long id;
+    final LocalDateTime timestamp;
+    final Object message;
+    final int bytes;
+
+    Item(Long id, LocalDateTime timestamp, Object message, int bytes) {
+      this.id = id;
+      this.timestamp = timestamp;
+      this.message = message;
+      this.bytes = bytes;
+    }
+  }
+
+  /**
+   * Ring buffer imutável de um canal, em ordem crescente de (timestamp, id)
+   */
+  private static final class Ring {
+    final Item[] items;
+    final int bytes;
+
+    private Ring(Item[] items) {
+      this.items = items;
+      int total = 64 + items.length * 8;
+      for (Item item : items) {
+        total += item.bytes;
+      }
+      this.bytes = total;
+    }
+
+    static Ring of(List<Item> newestFirst, int capacity) {
+      Item[] sorted = newestFirst.toArray(new Item[0]);
+      Arrays.sort(sorted, Item.ORDER);
+      int from = Math.max(0, sorted.length - capacity);
+      return new Ring(Arrays.copyOfRange(sorted, from, sorted.length));
+    }
+
+    Ring append(Item item, int capacity) {
+      for (Item existing : items) {
+        if (existing.id != null && existing.id.equals(item.id)) {
+          return this;
+        }
+      }
+
+      // Normalmente a mensagem nova vai para o fim; gravações em lote podem
+      // chegar levemente fora de ordem
+      int pos = items.length;
+      while (pos > 0 && Item.ORDER.compare(items[pos - 1], item) > 0) {
+        pos--;
+      }
+
+      Item[] updated = new Item[items.length + 1];
+      System.arraycopy(items, 0, updated, 0, pos);
+      updated[pos] = item;
+      System.arraycopy(items, pos, updated, pos + 1, items.length - pos);
+
+      int from = Math.max(0, updated.length - capacity);
+      return new Ring(from > 0 ? Arrays.copyOfRange(updated, from, updated.length) : updated);
+    }
+
+    List<Object> newest(int limit) {
+      int count = Math.min(limit, items.length);
+      List<Object> result = new ArrayList<>(count);
+      for (int i = items.length - 1; i >= items.length - count; i--) {
+        result.add(items[i].message);
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.bananachat.backend.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilitário para aplicar alterações em estruturas em memória somente depois
+ * do commit da transação atual. Fora de uma transação a ação é executada na
+ * hora.
+ */
+final class TransactionHooks {
+
+  private TransactionHooks() {
+  }
+
+  static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+}
@@ -0,0 +1,90 @@
+package com.bananachat.backend.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bananachat.backend.dto.UserCacheStatsDto;
+import com.bananachat.backend.model.UserIdentity;
+import com.bananachat.backend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cache limitado username -> UserIdentity.
+ *
+ * Evita o findByUsername que quase todo serviço fazia no início de cada
+ * operação. Usernames inexistentes não são cacheados. Alterações de usuário
+ * devem chamar invalidate().
+ */
+@Component
+public class UserIdentityCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(UserIdentityCache.class);
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Value("${chat.user-cache.maximum-size:100000}")
+  private long maximumSize;
+
+  @Value("${chat.user-cache.expire-after-access-minutes:60}")
+  private long expireAfterAccessMinutes;
+
+  private Cache<String, UserIdentity> cache;
+
+  @PostConstruct
+  public void init() {
+    cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterAccess(Duration.ofMinutes(expireAfterAccessMinutes))
+        .recordStats()
+        .build();
+
+    LOGGER.info("Cache de usuários inicializado (tamanho máximo: {})", maximumSize);
+  }
+
+  /**
+   * Busca a identidade do usuário, carregando do banco em caso de miss
+   */
+  public Optional<UserIdentity> get(String username) {
+    if (username == null) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(cache.get(username,
+        key -> userRepository.findIdentityByUsername(key).orElse(null)));
+  }
+
+  /**
+   * Remove o usuário do cache
+   */
+  public void invalidate(String username) {
+    if (username != null) {
+      cache.invalidate(username);
+    }
+  }
+
+  /**
+   * Retorna as estatísticas de hit/miss/eviction
+   */
+  public UserCacheStatsDto getStats() {
+    CacheStats stats = cache.stats();
+    return new UserCacheStatsDto(
+        cache.estimatedSize(),
+        maximumSize,
+        stats.hitCount(),
+        stats.missCount(),
+        stats.hitRate(),
+        stats.evictionCount(),
+        stats.loadSuccessCount(),
+        stats.loadFailureCount());
+  }
+}
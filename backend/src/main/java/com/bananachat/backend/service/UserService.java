@@ -1,8 +1,12 @@
 package com.bananachat.backend.service;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -14,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 import com.bananachat.backend.dto.CreateUserRequest;
 import com.bananachat.backend.dto.UserDto;
 import com.bananachat.backend.entity.User;
+import com.bananachat.backend.model.UserIdentity;
 import com.bananachat.backend.repository.UserRepository;
 
 @Service
@@ -22,12 +27,24 @@ public class UserService {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(UserService.class);
 
+  /** Limite de sugestões por busca */
+  static final int MAX_SEARCH_RESULTS = 50;
+
   @Autowired
   private UserRepository userRepository;
 
   @Autowired
   private OnlineUsersService onlineUsersService;
 
+  @Autowired
+  private UserIdentityCache userIdentityCache;
+
+  @Autowired
+  private RecentMessageCache recentMessageCache;
+
+  @Autowired
+  private DirectorySearchIndex directorySearchIndex;
+
   /**
    * Cria um novo usuário
    */
@@ -51,6 +68,8 @@ public class UserService {
         request.getDisplayName() != null ? request.getDisplayName() : request.getUsername());
 
     User savedUser = userRepository.save(user);
+    invalidateIdentity(savedUser.getUsername());
+    indexAfterCommit(savedUser);
     LOGGER.info("Usuário criado com sucesso: {} (ID: {})", savedUser.getUsername(), savedUser.getId());
 
     return new UserDto(savedUser);
@@ -65,6 +84,14 @@ public class UserService {
         .map(UserDto::new);
   }
 
+  /**
+   * Busca a identidade do usuário (id, username, displayName) pelo cache
+   */
+  @Transactional(readOnly = true)
+  public Optional<UserIdentity> findIdentity(String username) {
+    return userIdentityCache.get(username);
+  }
+
   /**
    * Busca usuário por ID
    */
@@ -96,11 +123,9 @@ public class UserService {
   public void setUserOnlineStatus(String username, boolean isOnline) {
     LOGGER.info("Atualizando status online do usuário {}: {}", username, isOnline);
 
-    Optional<User> userOpt = userRepository.findByUsername(username);
-    if (userOpt.isPresent()) {
-      User user = userOpt.get();
-      user.setIsOnline(isOnline);
-      userRepository.save(user);
+    // UPDATE direto, sem carregar a entidade
+    int updated = userRepository.updateOnlineStatus(username, isOnline, LocalDateTime.now());
+    if (updated > 0) {
       LOGGER.info("Status online atualizado para usuário: {}", username);
     } else {
       LOGGER.warn("Usuário não encontrado para atualizar status: {}", username);
@@ -127,12 +152,30 @@ public class UserService {
   }
 
   /**
-   * Busca usuários por termo de pesquisa
+   * Busca usuários por termo de pesquisa (username ou nome de exibição), do
+   * mais relevante para o menos relevante. Usa o DirectorySearchIndex;
+   * enquanto ele não está pronto, cai na consulta LIKE do banco.
    */
   @Transactional(readOnly = true)
-  public List<UserDto> searchUsers(String query) {
-    return userRepository.searchUsers(query)
-        .stream()
+  public List<UserDto> searchUsers(String query, int limit) {
+    int safeLimit = Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS);
+
+    Optional<List<Long>> ranked = directorySearchIndex.searchUsers(query, safeLimit);
+    if (ranked.isEmpty()) {
+      return userRepository.searchUsers(query)
+          .stream()
+          .limit(safeLimit)
+          .map(UserDto::new)
+          .toList();
+    }
+
+    // Carrega os usuários encontrados mantendo a ordem de relevância
+    List<Long> ids = ranked.get();
+    Map<Long, User> byId = new HashMap<>();
+    userRepository.findAllById(ids).forEach(user -> byId.put(user.getId(), user));
+    return ids.stream()
+        .map(byId::get)
+        .filter(Objects::nonNull)
         .map(UserDto::new)
         .toList();
   }
@@ -142,7 +185,7 @@ public class UserService {
    */
   @Transactional(readOnly = true)
   public boolean validateUser(String username) {
-    return userRepository.findByUsername(username).isPresent();
+    return userIdentityCache.get(username).isPresent();
   }
 
   /**
@@ -153,7 +196,7 @@ public class UserService {
     LOGGER.info("Listando todos os usuários do sistema");
 
     List<User> users = userRepository.findAll();
-    List<String> onlineUsernames = new ArrayList<>(onlineUsersService.getOnlineUsers());
+    Set<String> onlineUsernames = onlineUsersService.getOnlineUsers();
 
     return users.stream()
         .map(user -> {
@@ -187,6 +230,10 @@ public class UserService {
     }
 
     User updatedUser = userRepository.save(user);
+    invalidateIdentity(updatedUser.getUsername());
+    indexAfterCommit(updatedUser);
+    // As mensagens em cache carregam os dados do remetente
+    TransactionHooks.afterCommit(recentMessageCache::invalidateAll);
     LOGGER.info("Usuário atualizado com sucesso: {}", updatedUser.getUsername());
 
     return new UserDto(updatedUser);
@@ -204,7 +251,27 @@ public class UserService {
     // Em vez de deletar, podemos marcar como inativo
     user.setIsOnline(false);
     userRepository.save(user);
+    invalidateIdentity(user.getUsername());
 
     LOGGER.info("Usuário removido com sucesso: {}", user.getUsername());
   }
+
+  /**
+   * Atualiza o índice de busca de usuários depois do commit
+   */
+  private void indexAfterCommit(User user) {
+    Long id = user.getId();
+    String username = user.getUsername();
+    String displayName = user.getDisplayName();
+    TransactionHooks.afterCommit(() -> directorySearchIndex.userSaved(id, username, displayName));
+  }
+
+  /**
+   * Invalida a identidade cacheada depois do commit, para que uma leitura
+   * concorrente não recoloque o valor antigo no cache
+   */
+  private void invalidateIdentity(String username) {
+    userIdentityCache.invalidate(username);
+    TransactionHooks.afterCommit(() -> userIdentityCache.invalidate(username));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.bananachat.backend.benchmark;
+
+import com.bananachat.backend.BackendApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara o broker em memória do Spring (chat.broker.mode=simple) com o
+ * ActiveMQ embarcado acessado pelo relay STOMP (chat.broker.mode=embedded),
+ * que tem o mesmo caminho de rede do ActiveMQ externo. Cada modo sobe a
+ * aplicação em uma porta aleatória; os assinantes de /topic/public recebem as
+ * mensagens enviadas por /app/chat.sendMessage, e a latência é medida do envio
+ * até a entrega em cada assinante.
+ *
+ * Executar com: ./mvnw test -Dtest=BrokerModeBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BrokerModeBenchmarkTest {
+
+  private static final String[] MODES = { "simple", "embedded" };
+  private static final int SUBSCRIBERS = 20;
+  private static final int PUBLISHERS = 4;
+  private static final int WARMUP_MESSAGES = 2_000;
+  private static final int MESSAGES = 10_000;
+  // Ritmo da fase de latência; a fase de vazão envia sem pausa
+  private static final int PACED_MESSAGES_PER_SECOND = 500;
+
+  @Test
+  void compareSimpleAndEmbeddedBrokers() throws Exception {
+    List<String> report = new ArrayList<>();
+    for (String mode : MODES) {
+      report.addAll(run(mode));
+    }
+
+    System.out.println("modo        fase        msgs/s   entregas/s   p50 ms   p99 ms   máx ms");
+    report.forEach(System.out::println);
+  }
+
+  private List<String> run(String mode) throws Exception {
+    // Argumentos de linha de comando: têm precedência sobre o application.properties
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class).run(
+        "--server.port=0",
+        "--chat.broker.mode=" + mode,
+        "--chat.broker.embedded.stomp-port=" + freePort(),
+        "--spring.datasource.url=jdbc:h2:mem:brokerbenchmark-" + mode,
+        "--spring.jpa.show-sql=false",
+        // Persistência fora do caminho da mensagem, para medir só o broker
+        "--chat.persistence.write-behind.enabled=true",
+        "--logging.level.root=WARN")) {
+
+      awaitBrokerAvailable(context);
+      String port = context.getEnvironment().getProperty("local.server.port");
+      String url = "ws://localhost:" + port + "/ws-chat-raw";
+
+      MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+      converter.setObjectMapper(context.getBean(ObjectMapper.class));
+      WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+      client.setMessageConverter(converter);
+
+      // Assinantes: cada um registra a latência de cada mensagem recebida
+      Receiver receiver = new Receiver(SUBSCRIBERS * Math.max(WARMUP_MESSAGES, MESSAGES));
+      List<StompSession> sessions = new ArrayList<>();
+      for (int i = 0; i < SUBSCRIBERS; i++) {
+        StompSession session = client.connectAsync(url, new StompSessionHandlerAdapter() {
+        }).get(10, TimeUnit.SECONDS);
+        session.subscribe("/topic/public", receiver);
+        sessions.add(session);
+      }
+      List<StompSession> publishers = new ArrayList<>();
+      for (int i = 0; i < PUBLISHERS; i++) {
+        publishers.add(client.connectAsync(url, new StompSessionHandlerAdapter() {
+        }).get(10, TimeUnit.SECONDS));
+      }
+      sessions.addAll(publishers);
+      // Tempo para as assinaturas chegarem ao broker
+      Thread.sleep(1_000);
+
+      measure(receiver, publishers, WARMUP_MESSAGES, 0, mode + " aquecimento");
+      List<String> lines = new ArrayList<>();
+      lines.add(String.format("%-11s %-10s %s", mode, "ritmo",
+          measure(receiver, publishers, MESSAGES, PACED_MESSAGES_PER_SECOND, mode + " ritmo")));
+      lines.add(String.format("%-11s %-10s %s", mode, "saturação",
+          measure(receiver, publishers, MESSAGES, 0, mode + " saturação")));
+
+      sessions.forEach(StompSession::disconnect);
+      client.stop();
+      return lines;
+    }
+  }
+
+  /**
+   * Envia as mensagens distribuídas entre os publicadores, no ritmo dado (0
+   * para sem pausa), e espera todas as entregas
+   */
+  private String measure(Receiver receiver, List<StompSession> publishers, int messages, int perSecond,
+      String phase) throws InterruptedException {
+    receiver.reset();
+    long start = System.nanoTime();
+    for (int i = 0; i < messages; i++) {
+      if (perSecond > 0) {
+        long due = start + i * 1_000_000_000L / perSecond;
+        while (System.nanoTime() < due) {
+          Thread.onSpinWait();
+        }
+      }
+      send(publishers.get(i % publishers.size()));
+    }
+    assertTrue(receiver.await(messages * SUBSCRIBERS), "Entregas incompletas: " + phase);
+    long elapsed = System.nanoTime() - start;
+
+    long[] latencies = receiver.sortedLatencies();
+    return String.format("%8.0f %12.0f %8.2f %8.2f %8.2f", messages * 1e9 / elapsed,
+        latencies.length * 1e9 / elapsed, percentile(latencies, 50), percentile(latencies, 99),
+        latencies[latencies.length - 1] / 1e6);
+  }
+
+  private void send(StompSession publisher) {
+    // O instante de envio vai no conteúdo para medir a latência na entrega
+    publisher.send("/app/chat.sendMessage", Map.of(
+        "content", Long.toString(System.nanoTime()),
+        "sender", "benchmark",
+        "type", "CHAT"));
+  }
+
+  private static void awaitBrokerAvailable(ConfigurableApplicationContext context) throws InterruptedException {
+    // O relay recusa conexões de clientes até a sessão de sistema conectar no broker
+    // Só o broker do modo configurado é registrado; o outro bean é nulo
+    Collection<AbstractBrokerMessageHandler> brokers = context.getBeansOfType(AbstractBrokerMessageHandler.class)
+        .values();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (!brokers.stream().allMatch(AbstractBrokerMessageHandler::isBrokerAvailable)) {
+      assertTrue(System.nanoTime() < deadline, "Broker indisponível");
+      Thread.sleep(50);
+    }
+  }
+
+  private static double percentile(long[] sorted, int p) {
+    int index = Math.min(sorted.length - 1, sorted.length * p / 100);
+    return sorted[index] / 1e6;
+  }
+
+  private static int freePort() throws Exception {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static final class Receiver implements StompFrameHandler {
+    private final long[] latencies;
+    private final AtomicInteger received = new AtomicInteger();
+
+    Receiver(int capacity) {
+      this.latencies = new long[capacity];
+    }
+
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+      return Map.class;
+    }
+
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+      long now = System.nanoTime();
+      Object content = ((Map<?, ?>) payload).get("content");
+      int index = received.getAndIncrement();
+      if (index < latencies.length) {
+        latencies[index] = now - Long.parseLong(content.toString());
+      }
+    }
+
+    boolean await(int expected) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+      while (received.get() < expected) {
+        if (System.nanoTime() > deadline) {
+          return false;
+        }
+        Thread.sleep(1);
+      }
+      return true;
+    }
+
+    void reset() {
+      received.set(0);
+    }
+
+    long[] sortedLatencies() {
+      long[] copy = Arrays.copyOf(latencies, Math.min(received.get(), latencies.length));
+      Arrays.sort(copy);
+      return copy;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.bananachat.backend.benchmark;
+
+import com.bananachat.backend.model.ChatMessage;
+import com.bananachat.backend.repository.ChatHistoryRepository;
+import com.bananachat.backend.service.ChatHistoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara a vazão de inserts no histórico: uma transação por mensagem
+ * (saveMessage) contra lotes com batch do JDBC (saveAll).
+ *
+ * Executar com: ./mvnw test -Dtest=InsertThroughputBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.bananachat=WARN",
+    "spring.datasource.url=jdbc:h2:mem:insertbenchmark"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InsertThroughputBenchmarkTest {
+
+  private static final int MESSAGES = 20_000;
+  private static final int BATCH_SIZE = 200;
+
+  @Autowired
+  private ChatHistoryService chatHistoryService;
+
+  @Autowired
+  private ChatHistoryRepository chatHistoryRepository;
+
+  @Test
+  void compareSingleAndBatchedInserts() {
+    // Aquecimento
+    runSingle(2_000);
+    runBatched(2_000);
+    chatHistoryRepository.deleteAllInBatch();
+
+    double single = runSingle(MESSAGES);
+    double batched = runBatched(MESSAGES);
+
+    System.out.printf("saveMessage (1 por transação): %.0f inserts/s%n", single);
+    System.out.printf("saveAll (lotes de %d):        %.0f inserts/s%n", BATCH_SIZE, batched);
+    System.out.printf("ganho: %.1fx%n", batched / single);
+
+    assertEquals(2L * MESSAGES, chatHistoryRepository.count());
+  }
+
+  private double runSingle(int count) {
+    long start = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      chatHistoryService.saveMessage(message(i));
+    }
+    return count / ((System.nanoTime() - start) / 1e9);
+  }
+
+  private double runBatched(int count) {
+    long start = System.nanoTime();
+    List<ChatMessage> batch = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < count; i++) {
+      batch.add(message(i));
+      if (batch.size() == BATCH_SIZE) {
+        chatHistoryService.saveAll(batch);
+        batch.clear();
+      }
+    }
+    chatHistoryService.saveAll(batch);
+    return count / ((System.nanoTime() - start) / 1e9);
+  }
+
+  private static ChatMessage message(int i) {
+    return new ChatMessage("Mensagem de benchmark " + i, "bench-user-" + (i % 100), ChatMessage.MessageType.CHAT);
+  }
+}
@@ -0,0 +1,110 @@
+package com.bananachat.backend.benchmark;
+
+import com.bananachat.backend.config.JacksonConfig;
+import com.bananachat.backend.dto.GroupDto;
+import com.bananachat.backend.entity.Group;
+import com.bananachat.backend.entity.User;
+import com.bananachat.backend.model.ChatMessage;
+import com.bananachat.backend.model.GroupChatMessage;
+import com.bananachat.backend.service.MessageFanout;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compara o convertAndSend (uma serialização por destino) com o MessageFanout
+ * (uma serialização para todos os destinos, com ObjectWriter pré-resolvido):
+ * bytes alocados e tempo por envio, com um canal que descarta as mensagens
+ * para medir só a serialização e a montagem das mensagens.
+ *
+ * Executar com: ./mvnw test -Dtest=MessageFanoutBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MessageFanoutBenchmarkTest {
+
+  private static final int WARMUP_ITERATIONS = 100_000;
+  private static final int ITERATIONS = 300_000;
+
+  private final com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  @Test
+  void compareConvertAndSendWithFanout() {
+    ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    // Mesmos conversores que o Spring Boot registra no template
+    SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> true);
+    MappingJackson2MessageConverter jsonConverter = new MappingJackson2MessageConverter();
+    jsonConverter.setObjectMapper(objectMapper);
+    template.setMessageConverter(new CompositeMessageConverter(
+        List.of(new StringMessageConverter(), new ByteArrayMessageConverter(), jsonConverter)));
+
+    MessageFanout fanout = new MessageFanout();
+    ReflectionTestUtils.setField(fanout, "messagingTemplate", template);
+    ReflectionTestUtils.setField(fanout, "objectMapper", objectMapper);
+    fanout.init();
+
+    ChatMessage privateMessage = new ChatMessage("Oi, tudo bem? Vamos almoçar hoje?", "mariana.souza",
+        "carlos.lima", ChatMessage.MessageType.CHAT);
+    Map<String, Object> notification = Map.of("action", "MEMBER_ADDED", "group", groupDto(), "username",
+        "carlos.lima");
+    List<GroupChatMessage> batch = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      batch.add(new GroupChatMessage("Mensagem " + i + " do lote", "usuario" + i, 42L,
+          GroupChatMessage.MessageType.CHAT));
+    }
+
+    System.out.println("envio                              bytes/envio    ns/envio");
+    measure("privada convertAndSend x2", () -> {
+      template.convertAndSend("/queue/private.carlos.lima", privateMessage);
+      template.convertAndSend("/queue/private.mariana.souza", privateMessage);
+    });
+    measure("privada fanout (2 destinos)", () -> fanout.send(privateMessage, "/queue/private.carlos.lima",
+        "/queue/private.mariana.souza"));
+    measure("grupo convertAndSend", () -> template.convertAndSend("/topic/group.42", batch.get(0)));
+    measure("grupo fanout", () -> fanout.send(batch.get(0), "/topic/group.42"));
+    measure("lote de 20 convertAndSend", () -> template.convertAndSend("/topic/group.42", batch));
+    measure("lote de 20 fanout", () -> fanout.sendBatch(batch, "/topic/group.42"));
+    measure("groups.update convertAndSend", () -> template.convertAndSend("/topic/groups.update", notification));
+    measure("groups.update fanout", () -> fanout.send(notification, "/topic/groups.update"));
+  }
+
+  private void measure(String name, Runnable send) {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      send.run();
+    }
+    long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      send.run();
+    }
+    long elapsed = System.nanoTime() - start;
+    long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+    System.out.printf("%-32s %12d %11.0f%n", name, allocated / ITERATIONS, elapsed / (double) ITERATIONS);
+  }
+
+  // Grupo com 10 membros, como nas notificações de /topic/groups.update
+  private static GroupDto groupDto() {
+    List<User> members = new ArrayList<>();
+    for (long id = 1; id <= 10; id++) {
+      User user = new User("usuario" + id, "usuario" + id + "@bananachat.com", "senha", "Usuário " + id);
+      user.setId(id);
+      members.add(user);
+    }
+    Group group = new Group("Equipe de Produto", "Discussões da equipe de produto", members.get(0),
+        Group.GroupType.PUBLIC);
+    group.setId(42L);
+    return new GroupDto(group, members, 1L);
+  }
+}
@@ -0,0 +1,91 @@
+package com.bananachat.backend.benchmark;
+
+import com.bananachat.backend.config.BinaryPayloadCodec;
+import com.bananachat.backend.config.JacksonConfig;
+import com.bananachat.backend.model.ChatMessage;
+import com.bananachat.backend.model.GroupChatMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara o JSON atual com o CBOR de nomes curtos do BinaryPayloadCodec:
+ * bytes por mensagem, custo de serializar e desserializar, e o custo da
+ * conversão JSON -> CBOR feita no canal de saída para os clientes em CBOR.
+ *
+ * Executar com: ./mvnw test -Dtest=PayloadCodecBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PayloadCodecBenchmarkTest {
+
+  private static final int WARMUP_ITERATIONS = 50_000;
+  private static final int ITERATIONS = 200_000;
+  private static final int BATCH_SIZE = 20;
+
+  private final ObjectMapper jsonMapper = new JacksonConfig().objectMapper();
+  private final ObjectMapper compactMapper = BinaryPayloadCodec.compactMapper();
+
+  @Test
+  void compareJsonAndCbor() throws Exception {
+    BinaryPayloadCodec codec = new BinaryPayloadCodec();
+    ReflectionTestUtils.setField(codec, "objectMapper", jsonMapper);
+
+    ChatMessage privateMessage = new ChatMessage("Oi, tudo bem? Vamos almoçar hoje?", "mariana.souza",
+        "carlos.lima", ChatMessage.MessageType.CHAT);
+    GroupChatMessage groupMessage = new GroupChatMessage("Reunião às 15h na sala 3", "mariana.souza", 42L,
+        "Equipe de Produto", GroupChatMessage.MessageType.CHAT);
+    List<GroupChatMessage> batch = new ArrayList<>();
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      batch.add(new GroupChatMessage("Mensagem " + i + " do lote", "usuario" + i, 42L,
+          GroupChatMessage.MessageType.CHAT));
+    }
+
+    System.out.println("payload              json B  cbor B   json ser ns  cbor ser ns  json des ns  cbor des ns"
+        + "  json->cbor ns");
+    report("ChatMessage", privateMessage, ChatMessage.class, "/queue/private.carlos.lima", codec);
+    report("GroupChatMessage", groupMessage, GroupChatMessage.class, "/topic/group.42", codec);
+    report("lote de " + BATCH_SIZE, batch, GroupChatMessage[].class, "/topic/group.42", codec);
+  }
+
+  private void report(String name, Object value, Class<?> type, String destination, BinaryPayloadCodec codec)
+      throws Exception {
+    byte[] json = jsonMapper.writeValueAsBytes(value);
+    byte[] cbor = compactMapper.writeValueAsBytes(value);
+    assertArrayEquals(cbor, codec.toBinary(destination, json));
+
+    // Aquecimento dos quatro caminhos antes de medir
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      jsonMapper.writeValueAsBytes(value);
+      compactMapper.writeValueAsBytes(value);
+      jsonMapper.readValue(json, type);
+      compactMapper.readValue(cbor, type);
+      codec.toBinary(destination, json);
+    }
+
+    System.out.printf("%-18s %8d %7d %13.0f %12.0f %12.0f %12.0f %14.0f%n", name, json.length, cbor.length,
+        nanosPerOp(() -> jsonMapper.writeValueAsBytes(value)),
+        nanosPerOp(() -> compactMapper.writeValueAsBytes(value)),
+        nanosPerOp(() -> jsonMapper.readValue(json, type)),
+        nanosPerOp(() -> compactMapper.readValue(cbor, type)),
+        nanosPerOp(() -> codec.toBinary(destination, json)));
+  }
+
+  private static double nanosPerOp(Operation operation) throws Exception {
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      operation.run();
+    }
+    return (System.nanoTime() - start) / (double) ITERATIONS;
+  }
+
+  @FunctionalInterface
+  private interface Operation {
+    Object run() throws Exception;
+  }
+}
@@ -0,0 +1,137 @@
+package com.bananachat.backend.benchmark;
+
+import com.bananachat.backend.BackendApplication;
+import com.bananachat.backend.model.ChatMessage;
+import com.bananachat.backend.service.ChatHistoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara o pool de threads de plataforma do Tomcat com threads virtuais
+ * (spring.threads.virtual.enabled) sob requisições concorrentes que bloqueiam
+ * no banco. Cada modo sobe a aplicação em uma porta aleatória e recebe a mesma
+ * carga em níveis crescentes de concorrência.
+ *
+ * O modo virtual só roda em Java 21 ou superior.
+ *
+ * Executar com: ./mvnw -Pvirtual-threads test -Dtest=VirtualThreadsBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadsBenchmarkTest {
+
+  private static final int[] CONCURRENCY = { 50, 400, 1600 };
+  private static final int REQUESTS_PER_LEVEL = 8_000;
+  private static final int HISTORY_ROWS = 2_000;
+
+  @Test
+  void comparePlatformAndVirtualThreads() throws Exception {
+    List<String> report = new ArrayList<>(run(false));
+    if (Runtime.version().feature() >= 21) {
+      report.addAll(run(true));
+    } else {
+      report.add("threads virtuais: ignorado (Java " + Runtime.version().feature() + ")");
+    }
+
+    System.out.println("modo        concorrência   req/s      p50 ms   p99 ms   erros");
+    report.forEach(System.out::println);
+  }
+
+  private List<String> run(boolean virtualThreads) throws Exception {
+    String mode = virtualThreads ? "virtual" : "plataforma";
+    // Argumentos de linha de comando: têm precedência sobre o application.properties
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class).run(
+        "--server.port=0",
+        "--spring.threads.virtual.enabled=" + virtualThreads,
+        "--spring.datasource.url=jdbc:h2:mem:threadsbenchmark-" + mode,
+        "--spring.jpa.show-sql=false",
+        "--logging.level.root=WARN")) {
+
+      ChatHistoryService chatHistoryService = context.getBean(ChatHistoryService.class);
+      List<ChatMessage> messages = new ArrayList<>();
+      for (int i = 0; i < HISTORY_ROWS; i++) {
+        ChatMessage message = new ChatMessage("mensagem " + i, "user" + (i % 50), ChatMessage.MessageType.CHAT);
+        message.setTimestamp(LocalDateTime.now().minusSeconds(HISTORY_ROWS - i));
+        messages.add(message);
+      }
+      chatHistoryService.saveAll(messages);
+
+      String port = context.getEnvironment().getProperty("local.server.port");
+      // Limite acima da capacidade do cache de recentes: toda requisição vai ao banco
+      URI uri = URI.create("http://localhost:" + port + "/api/chat/history/public/page?limit=150");
+      HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+      // Aquecimento
+      load(client, uri, 50, 2_000);
+
+      List<String> lines = new ArrayList<>();
+      for (int concurrency : CONCURRENCY) {
+        Result result = load(client, uri, concurrency, REQUESTS_PER_LEVEL);
+        lines.add(String.format("%-11s %12d %9.0f %8.1f %8.1f %7d", mode, concurrency, result.throughput,
+            result.percentile(50), result.percentile(99), result.errors));
+      }
+      return lines;
+    }
+  }
+
+  private Result load(HttpClient client, URI uri, int concurrency, int requests) throws Exception {
+    Semaphore inFlight = new Semaphore(concurrency);
+    AtomicInteger errors = new AtomicInteger();
+    long[] latencies = new long[requests];
+    List<CompletableFuture<?>> futures = new ArrayList<>(requests);
+    HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+
+    long start = System.nanoTime();
+    for (int i = 0; i < requests; i++) {
+      inFlight.acquire();
+      int index = i;
+      long sentAt = System.nanoTime();
+      futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+          .whenComplete((response, error) -> {
+            latencies[index] = System.nanoTime() - sentAt;
+            if (error != null || response.statusCode() != 200) {
+              errors.incrementAndGet();
+            }
+            inFlight.release();
+          }));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).exceptionally(error -> null).join();
+    long elapsed = System.nanoTime() - start;
+
+    assertTrue(errors.get() < requests, "Todas as requisições falharam");
+    return new Result(requests * 1e9 / elapsed, latencies, errors.get());
+  }
+
+  private static final class Result {
+    final double throughput;
+    final long[] sortedLatencies;
+    final int errors;
+
+    Result(double throughput, long[] latencies, int errors) {
+      this.throughput = throughput;
+      this.sortedLatencies = latencies.clone();
+      Arrays.sort(this.sortedLatencies);
+      this.errors = errors;
+    }
+
+    double percentile(int p) {
+      int index = Math.min(sortedLatencies.length - 1, sortedLatencies.length * p / 100);
+      return sortedLatencies[index] / 1e6;
+    }
+  }
+}
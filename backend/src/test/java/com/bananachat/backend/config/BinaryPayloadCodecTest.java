@@ -0,0 +1,187 @@
+package com.bananachat.backend.config;
+
+import com.bananachat.backend.model.ChatMessage;
+import com.bananachat.backend.model.GroupChatMessage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryPayloadCodecTest {
+
+  private static final LocalDateTime SENT_AT = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_789);
+
+  private final ObjectMapper jsonMapper = new JacksonConfig().objectMapper();
+
+  private BinaryPayloadCodec codec;
+
+  @BeforeEach
+  void setUp() {
+    codec = new BinaryPayloadCodec();
+    ReflectionTestUtils.setField(codec, "objectMapper", jsonMapper);
+    ReflectionTestUtils.setField(codec, "enabled", true);
+  }
+
+  @Test
+  void testCompactNamesAndEpochTimestamp() throws Exception {
+    // Arrange
+    GroupChatMessage message = groupMessage("olá");
+
+    // Act
+    byte[] binary = codec.toBinary("/topic/group.7", jsonMapper.writeValueAsBytes(message));
+    JsonNode tree = BinaryPayloadCodec.compactMapper().readTree(binary);
+    GroupChatMessage decoded = BinaryPayloadCodec.compactMapper().readValue(binary, GroupChatMessage.class);
+
+    // Assert: nomes curtos, sem campos nulos, timestamp numérico em ms
+    assertEquals(List.of("c", "s", "g", "k", "t"), fieldNames(tree));
+    assertTrue(tree.get("t").isIntegralNumber());
+    assertEquals("olá", decoded.getContent());
+    assertEquals(7L, decoded.getGroupId());
+    assertEquals(SENT_AT.withNano(123_000_000), decoded.getTimestamp());
+    assertTrue(binary.length < jsonMapper.writeValueAsBytes(message).length / 2);
+  }
+
+  @Test
+  void testOnlyNegotiatedRawSessionsReceiveBinaryFrames() throws Exception {
+    // Arrange
+    codec.preSend(connect("a", true, "application/cbor"), null);
+    codec.preSend(connect("b", false, "application/cbor"), null);
+    codec.preSend(connect("c", true, null), null);
+    byte[] json = jsonMapper.writeValueAsBytes(List.of(groupMessage("1"), groupMessage("2")));
+
+    // Act
+    Message<?> toA = codec.preSend(outbound("a", json), null);
+    Message<?> toB = codec.preSend(outbound("b", json), null);
+    Message<?> toC = codec.preSend(outbound("c", json), null);
+
+    // Assert
+    assertEquals(StompCommand.MESSAGE, StompHeaderAccessor.wrap(toA).getCommand());
+    assertEquals(BinaryPayloadCodec.BINARY_FRAME, StompHeaderAccessor.wrap(toA).getContentType());
+    assertTrue(MimeTypeUtils.APPLICATION_OCTET_STREAM.isCompatibleWith(StompHeaderAccessor.wrap(toA).getContentType()));
+    GroupChatMessage[] batch = BinaryPayloadCodec.compactMapper().readValue((byte[]) toA.getPayload(),
+        GroupChatMessage[].class);
+    assertEquals("2", batch[1].getContent());
+    assertSame(json, toB.getPayload());
+    assertSame(json, toC.getPayload());
+    assertEquals(1, codec.getStats().getBinarySessions());
+  }
+
+  @Test
+  void testSamePayloadIsTranscodedOnceAndDisconnectForgetsSession() throws Exception {
+    // Arrange
+    codec.preSend(connect("a", true, "application/cbor"), null);
+    codec.preSend(connect("b", true, "application/json, application/cbor"), null);
+    byte[] json = jsonMapper.writeValueAsBytes(groupMessage("x"));
+
+    // Act: o broker simples entrega o mesmo array a cada assinante
+    Message<?> toA = codec.preSend(outbound("a", json), null);
+    Message<?> toB = codec.preSend(outbound("b", json), null);
+    codec.preSend(disconnect("a"), null);
+    Message<?> afterDisconnect = codec.preSend(outbound("a", json), null);
+
+    // Assert
+    assertSame(toA.getPayload(), toB.getPayload());
+    assertEquals(1, codec.getStats().getTranscodedFrames());
+    assertEquals(2, codec.getStats().getBinaryFrames());
+    assertSame(json, afterDisconnect.getPayload());
+  }
+
+  @Test
+  void testRelayCopiesOfSamePayloadAreTranscodedOnce() throws Exception {
+    // Arrange
+    codec.preSend(connect("a", true, "application/cbor"), null);
+    codec.preSend(connect("b", true, "application/cbor"), null);
+    byte[] json = jsonMapper.writeValueAsBytes(groupMessage("x"));
+
+    // Act: o relay entrega uma cópia do payload a cada sessão
+    Message<?> toA = codec.preSend(outbound("a", json.clone()), null);
+    Message<?> toB = codec.preSend(outbound("b", json.clone()), null);
+
+    // Assert
+    assertSame(toA.getPayload(), toB.getPayload());
+    assertEquals(1, codec.getStats().getTranscodedFrames());
+    assertEquals(2, codec.getStats().getBinaryFrames());
+  }
+
+  @Test
+  void testInboundConverterReadsOnlyCbor() throws Exception {
+    // Arrange
+    MessageConverter converter = codec.messageConverter();
+    ChatMessage message = new ChatMessage("oi", "ana", "bia", ChatMessage.MessageType.CHAT);
+    byte[] binary = BinaryPayloadCodec.compactMapper().writeValueAsBytes(message);
+
+    // Act
+    Object decoded = converter.fromMessage(send(binary, "application/cbor"), ChatMessage.class);
+    Object json = converter.fromMessage(send(jsonMapper.writeValueAsBytes(message), "application/json"),
+        ChatMessage.class);
+
+    // Assert
+    assertEquals("bia", ((ChatMessage) decoded).getRecipient());
+    assertNull(json);
+  }
+
+  private static GroupChatMessage groupMessage(String content) {
+    GroupChatMessage message = new GroupChatMessage(content, "ana", 7L, GroupChatMessage.MessageType.CHAT);
+    message.setTimestamp(SENT_AT);
+    return message;
+  }
+
+  private static Message<byte[]> connect(String sessionId, boolean rawWebSocket, String accept) {
+    StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+    accessor.setSessionId(sessionId);
+    Map<String, Object> attributes = new HashMap<>();
+    if (rawWebSocket) {
+      attributes.put(BinaryPayloadCodec.RAW_WEBSOCKET_ATTRIBUTE, Boolean.TRUE);
+    }
+    accessor.setSessionAttributes(attributes);
+    if (accept != null) {
+      accessor.setNativeHeader(BinaryPayloadCodec.ACCEPT_HEADER, accept);
+    }
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+
+  private static Message<byte[]> disconnect(String sessionId) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+    accessor.setSessionId(sessionId);
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+
+  private static Message<byte[]> outbound(String sessionId, byte[] json) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    accessor.setSessionId(sessionId);
+    accessor.setSubscriptionId("sub-0");
+    accessor.setDestination("/topic/group.7");
+    accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+    return MessageBuilder.createMessage(json, accessor.getMessageHeaders());
+  }
+
+  private static Message<byte[]> send(byte[] payload, String contentType) {
+    return MessageBuilder.withPayload(payload)
+        .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.parseMimeType(contentType))
+        .build();
+  }
+
+  private static List<String> fieldNames(JsonNode tree) {
+    List<String> names = new ArrayList<>();
+    tree.fieldNames().forEachRemaining(names::add);
+    return names;
+  }
+}
@@ -0,0 +1,113 @@
+package com.bananachat.backend.config;
+
+import com.bananachat.backend.dto.ChannelExecutorStatsDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelExecutorsTest {
+
+  private ChannelExecutors channelExecutors;
+
+  private ThreadPoolTaskExecutor inbound;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @BeforeEach
+  void setUp() {
+    channelExecutors = new ChannelExecutors();
+    ReflectionTestUtils.setField(channelExecutors, "inboundCorePoolSize", 1);
+    ReflectionTestUtils.setField(channelExecutors, "inboundMaxPoolSize", 1);
+    ReflectionTestUtils.setField(channelExecutors, "inboundQueueCapacity", 2);
+    ReflectionTestUtils.setField(channelExecutors, "inboundRejectionPolicy", "abort");
+    ReflectionTestUtils.setField(channelExecutors, "keepAliveSeconds", 60);
+
+    // No contexto o Spring inicializa o executor, que vira bean do canal
+    inbound = (ThreadPoolTaskExecutor) channelExecutors.inbound();
+    inbound.initialize();
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    inbound.shutdown();
+  }
+
+  @Test
+  void testExposesQueueDepthAndRejections() throws Exception {
+    // Arrange: uma tarefa ocupando a única thread
+    CountDownLatch started = new CountDownLatch(1);
+    inbound.execute(() -> {
+      started.countDown();
+      await(release);
+    });
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    // Act: duas na fila e a terceira rejeitada
+    inbound.execute(() -> { });
+    inbound.execute(() -> { });
+    assertThrows(RejectedExecutionException.class, () -> inbound.execute(() -> { }));
+
+    // Assert
+    ChannelExecutorStatsDto stats = channelExecutors.getStats().get(0);
+    assertEquals("inbound", stats.getChannel());
+    assertEquals("pool", stats.getMode());
+    assertEquals(1, stats.getActiveTasks());
+    assertEquals(2, stats.getQueueDepth());
+    assertEquals(2, stats.getQueueCapacity());
+    assertEquals(1, stats.getRejectedTasks());
+  }
+
+  @Test
+  void testMeasuresWaitAndRunTime() throws Exception {
+    // Arrange
+    CountDownLatch done = new CountDownLatch(2);
+    inbound.execute(() -> {
+      sleep(20);
+      done.countDown();
+    });
+    inbound.execute(done::countDown);
+
+    // Act
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    inbound.shutdown();
+    inbound.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS);
+
+    // Assert: a segunda tarefa esperou a primeira terminar
+    ChannelExecutorStatsDto stats = channelExecutors.getStats().get(0);
+    assertEquals(2, stats.getCompletedTasks());
+    assertEquals(0, stats.getActiveTasks());
+    assertTrue(stats.getMaxWaitMicros() >= 15_000, "espera máxima: " + stats.getMaxWaitMicros());
+    assertTrue(stats.getAverageRunMicros() >= 5_000, "execução média: " + stats.getAverageRunMicros());
+  }
+
+  @Test
+  void testRejectsUnknownPolicy() {
+    assertThrows(IllegalArgumentException.class, () -> ChannelExecutors.rejectionHandler("drop-all"));
+    assertNotNull(ChannelExecutors.rejectionHandler("Caller-Runs"));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
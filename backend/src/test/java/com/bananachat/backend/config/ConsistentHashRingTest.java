@@ -0,0 +1,51 @@
+package com.bananachat.backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+  private static final List<String> NODES = List.of("broker1:61613", "broker2:61613", "broker3:61613");
+
+  private static final int KEYS = 30_000;
+
+  private final ConsistentHashRing ring = new ConsistentHashRing(NODES, 160);
+
+  @Test
+  void testSpreadsKeysEvenly() {
+    // Act
+    int[] counts = new int[NODES.size()];
+    for (int i = 0; i < KEYS; i++) {
+      counts[ring.route("group." + i, node -> true)]++;
+    }
+
+    // Assert: cada nó fica com um terço das chaves, com folga de 15%
+    for (int count : counts) {
+      assertTrue(Math.abs(count - KEYS / 3) < KEYS / 3 * 0.15, "distribuição: " + count);
+    }
+  }
+
+  @Test
+  void testOnlyKeysOfUnavailableNodeMove() {
+    for (int i = 0; i < KEYS; i++) {
+      String key = "private.user" + i;
+      int owner = ring.route(key, node -> true);
+      int failover = ring.route(key, node -> node != 1);
+
+      if (owner == 1) {
+        assertNotEquals(1, failover);
+      } else {
+        assertEquals(owner, failover, key);
+      }
+    }
+  }
+
+  @Test
+  void testReturnsMinusOneWhenNoNodeIsAvailable() {
+    assertEquals(-1, ring.route("public", node -> false));
+    assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of(), 160));
+  }
+}
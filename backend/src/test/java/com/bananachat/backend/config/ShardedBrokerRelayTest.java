@@ -0,0 +1,173 @@
+package com.bananachat.backend.config;
+
+import com.bananachat.backend.dto.BrokerShardStatsDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedBrokerRelayTest {
+
+  private static final String GROUP_TOPIC = "/topic/group.7";
+
+  private ShardedBrokerRelay relay;
+
+  private final List<List<Message<?>>> received = new ArrayList<>();
+
+  private final List<AtomicBoolean> available = new ArrayList<>();
+
+  private final List<ShardedBrokerRelay.Shard> shards = new ArrayList<>();
+
+  private final List<Message<?>> toClients = new CopyOnWriteArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    relay = new ShardedBrokerRelay();
+    ReflectionTestUtils.setField(relay, "virtualNodes", 160);
+    ReflectionTestUtils.setField(relay, "clientOutboundChannel", (MessageChannel) (message, timeout) -> {
+      toClients.add(message);
+      return true;
+    });
+
+    for (int i = 0; i < 3; i++) {
+      List<Message<?>> messages = new CopyOnWriteArrayList<>();
+      AtomicBoolean up = new AtomicBoolean(true);
+      received.add(messages);
+      available.add(up);
+      shards.add(new ShardedBrokerRelay.Shard("broker" + i + ":61613", messages::add, up::get));
+    }
+    relay.init(shards);
+  }
+
+  @Test
+  void testConnectsToEveryShardAndForwardsOneConnected() {
+    // Act
+    relay.handleMessage(stomp(StompCommand.CONNECT, "s1"));
+
+    // Assert: cada shard recebe a própria cópia do CONNECT
+    for (List<Message<?>> messages : received) {
+      assertEquals(1, messages.size());
+    }
+    assertNotSame(received.get(0).get(0), received.get(1).get(0));
+
+    // O cliente só vê o CONNECTED do último shard
+    relay.toClient(stomp(StompCommand.CONNECTED, "s1"));
+    relay.toClient(stomp(StompCommand.CONNECTED, "s1"));
+    assertTrue(toClients.isEmpty());
+    relay.toClient(stomp(StompCommand.CONNECTED, "s1"));
+    assertEquals(1, toClients.size());
+  }
+
+  @Test
+  void testRoutesEveryFrameOfADestinationToItsOwner() {
+    // Arrange
+    relay.handleMessage(stomp(StompCommand.CONNECT, "s1"));
+    int owner = relay.owner(GROUP_TOPIC);
+    received.forEach(List::clear);
+
+    // Act
+    relay.handleMessage(subscription(StompCommand.SUBSCRIBE, "s1", "sub-1", GROUP_TOPIC));
+    relay.handleMessage(subscription(StompCommand.SEND, "s1", null, GROUP_TOPIC));
+    relay.handleMessage(serverMessage(GROUP_TOPIC));
+    relay.handleMessage(subscription(StompCommand.UNSUBSCRIBE, "s1", "sub-1", null));
+    // Destinos da aplicação não vão para o broker
+    relay.handleMessage(subscription(StompCommand.SEND, "s1", null, "/app/group.sendMessage"));
+
+    // Assert
+    for (int i = 0; i < shards.size(); i++) {
+      assertEquals(i == owner ? 4 : 0, received.get(i).size(), "shard " + i);
+    }
+  }
+
+  @Test
+  void testFailsOverAndResetsSessionsWhenShardReturns() {
+    // Arrange: dono do destino fora do ar
+    int owner = relay.owner(GROUP_TOPIC);
+    available.get(owner).set(false);
+
+    // Act: envio do servidor vai para o próximo do anel
+    relay.handleMessage(serverMessage(GROUP_TOPIC));
+    relay.handleMessage(stomp(StompCommand.CONNECT, "s2"));
+
+    // Assert
+    assertTrue(received.get(owner).isEmpty());
+    BrokerShardStatsDto fallback = relay.getStats().stream()
+        .filter(stats -> stats.getFailoverMessages() == 1)
+        .findFirst()
+        .orElseThrow();
+    assertEquals(1, fallback.getSessions());
+
+    // Act: o shard volta; a sessão aberta sem ele é encerrada
+    available.get(owner).set(true);
+    relay.availabilityChanged(shards.get(owner), true);
+
+    // Assert
+    assertEquals(1, toClients.size());
+    StompHeaderAccessor error = StompHeaderAccessor.wrap(toClients.get(0));
+    assertEquals(StompCommand.ERROR, error.getCommand());
+    assertEquals("s2", error.getSessionId());
+    assertTrue(relay.getStats().stream().allMatch(stats -> stats.getSessions() == 0));
+  }
+
+  @Test
+  void testUnroutableSubscribeResetsSessionWithError() {
+    // Arrange: sessão aberta com o dono fora do ar, que volta antes do aviso
+    int owner = relay.owner(GROUP_TOPIC);
+    available.get(owner).set(false);
+    relay.handleMessage(stomp(StompCommand.CONNECT, "s3"));
+    available.get(owner).set(true);
+    received.forEach(List::clear);
+
+    // Act
+    relay.handleMessage(subscription(StompCommand.SUBSCRIBE, "s3", "sub-1", GROUP_TOPIC));
+    relay.handleMessage(subscription(StompCommand.SEND, "s3", null, GROUP_TOPIC));
+
+    // Assert: o cliente recebe ERROR, a sessão sai dos shards e o SEND seguinte é ignorado
+    assertEquals(1, toClients.size());
+    StompHeaderAccessor error = StompHeaderAccessor.wrap(toClients.get(0));
+    assertEquals(StompCommand.ERROR, error.getCommand());
+    assertEquals("s3", error.getSessionId());
+    assertEquals(1, relay.getDroppedFrames());
+    assertTrue(received.get(owner).isEmpty());
+    for (int i = 0; i < shards.size(); i++) {
+      if (i != owner) {
+        assertEquals(StompCommand.DISCONNECT, StompHeaderAccessor.wrap(received.get(i).get(0)).getCommand());
+      }
+    }
+    assertTrue(relay.getStats().stream().allMatch(stats -> stats.getSessions() == 0));
+  }
+
+  private static Message<?> stomp(StompCommand command, String sessionId) {
+    StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+    accessor.setSessionId(sessionId);
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+
+  private static Message<?> subscription(StompCommand command, String sessionId, String subscriptionId,
+      String destination) {
+    StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+    accessor.setSessionId(sessionId);
+    accessor.setSubscriptionId(subscriptionId);
+    accessor.setDestination(destination);
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+
+  private static Message<?> serverMessage(String destination) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    accessor.setDestination(destination);
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+}
@@ -0,0 +1,157 @@
+package com.bananachat.backend.repository;
+
+import com.bananachat.backend.entity.ChatHistory;
+import com.bananachat.backend.model.MessageCursor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica, pelo EXPLAIN do H2, que as consultas de histórico usam os índices
+ * declarados nas entidades. O SQL é o gerado pelo Hibernate para os métodos
+ * dos repositórios, capturado pelo StatementInspector abaixo.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "com.bananachat.backend.repository.QueryPlanTest$LastStatement")
+class QueryPlanTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ChatHistoryRepository chatHistoryRepository;
+
+  @Autowired
+  private GroupMessageRepository groupMessageRepository;
+
+  @BeforeEach
+  void setUp() {
+    // SET REFERENTIAL_INTEGRITY faz commit no H2: os dados ficam entre os testes
+    if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM chat_history", Long.class) > 0) {
+      return;
+    }
+
+    // Volume suficiente para o otimizador preferir os índices à varredura
+    jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO chat_history (id, sender, recipient, conversation_key, content, type, timestamp) "
+            + "VALUES (?, ?, ?, ?, 'x', ?, ?)",
+        IntStream.range(0, 5000).mapToObj(i -> {
+          String sender = "user" + (i % 50);
+          String recipient = i % 3 == 0 ? null : "user" + (i % 37);
+          return new Object[] {
+              i + 1, sender, recipient, recipient != null ? ChatHistory.conversationKey(sender, recipient) : null,
+              i % 10 == 0 ? "JOIN" : "CHAT", Timestamp.valueOf(START.plusSeconds(i)) };
+        }).toList());
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO group_messages (id, content, type, timestamp, is_edited, sender_id, group_id) "
+            + "VALUES (?, 'x', 'CHAT', ?, FALSE, ?, ?)",
+        IntStream.range(0, 5000).mapToObj(i -> new Object[] {
+            i + 1, Timestamp.valueOf(START.plusSeconds(i)), i % 50, i % 40 }).toList());
+    jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    jdbcTemplate.execute("ANALYZE");
+  }
+
+  @Test
+  void testHistoryPagesUseTimestampIndex() {
+    LocalDateTime ts = START.plusSeconds(2500);
+
+    chatHistoryRepository.findPageBefore(ts, 2500, PageRequest.of(0, 51));
+    assertUsesIndex("IDX_CHAT_HISTORY_TIMESTAMP", ts, ts, ts, 2500L, 51);
+
+    chatHistoryRepository.findPageAfter(ts, 2500, PageRequest.of(0, 51));
+    assertUsesIndex("IDX_CHAT_HISTORY_TIMESTAMP", ts, ts, ts, 2500L, 51);
+  }
+
+  @Test
+  void testPublicHistoryUsesRecipientIndex() {
+    LocalDateTime ts = START.plusSeconds(2500);
+
+    chatHistoryRepository.findPublicPageBefore(ts, 2500, PageRequest.of(0, 51));
+    assertUsesIndex("IDX_CHAT_HISTORY_RECIPIENT_TIMESTAMP", ts, ts, ts, 2500L, 51);
+
+    chatHistoryRepository.findRecentPublicMessages(PageRequest.of(0, 50));
+    assertUsesIndex("IDX_CHAT_HISTORY_RECIPIENT_TIMESTAMP", 50);
+  }
+
+  @Test
+  void testPrivateHistoryUsesConversationIndex() {
+    String key = ChatHistory.conversationKey("user2", "user1");
+    LocalDateTime ts = START.plusSeconds(2500);
+
+    chatHistoryRepository.findConversationPageBefore(key, ts, 2500, PageRequest.of(0, 51));
+    assertUsesIndex("IDX_CHAT_HISTORY_CONVERSATION", key, ts, ts, ts, 2500L, 51);
+
+    chatHistoryRepository.findRecentConversationMessages(key, PageRequest.of(0, 50));
+    assertUsesIndex("IDX_CHAT_HISTORY_CONVERSATION", key, 50);
+  }
+
+  @Test
+  void testConversationListUsesSenderAndRecipientIndexes() {
+    chatHistoryRepository.findSentConversations("user1");
+    assertUsesIndex("IDX_CHAT_HISTORY_SENDER_RECIPIENT", "user1");
+
+    chatHistoryRepository.findReceivedConversations("user1");
+    assertUsesIndex("IDX_CHAT_HISTORY_RECIPIENT_TIMESTAMP", "user1", "user1");
+  }
+
+  @Test
+  void testTypeFilterUsesTypeIndex() {
+    chatHistoryRepository.findByTypeOrderByTimestampAsc(ChatHistory.MessageType.JOIN);
+    assertUsesIndex("IDX_CHAT_HISTORY_TYPE_TIMESTAMP", "JOIN");
+  }
+
+  @Test
+  void testGroupPagesUseGroupTimestampIndex() {
+    // Grupo sem mensagens: as linhas não são carregadas (sender e group são
+    // EAGER), mas o plano é o mesmo
+    MessageCursor latest = MessageCursor.LATEST;
+
+    groupMessageRepository.findPageBefore(999L, latest.getTimestamp(), latest.getId(), PageRequest.of(0, 51));
+    assertUsesIndex("IDX_GROUP_MESSAGES_GROUP_TIMESTAMP",
+        999L, latest.getTimestamp(), latest.getTimestamp(), latest.getTimestamp(), latest.getId(), 51);
+
+    groupMessageRepository.findPageAfter(999L, START, 0, PageRequest.of(0, 51));
+    assertUsesIndex("IDX_GROUP_MESSAGES_GROUP_TIMESTAMP", 999L, START, START, START, 0L, 51);
+  }
+
+  /**
+   * Executa EXPLAIN do último SQL gerado, com os mesmos parâmetros
+   */
+  private void assertUsesIndex(String index, Object... params) {
+    String sql = LastStatement.sql;
+    assertNotNull(sql);
+
+    Object[] args = new Object[params.length];
+    for (int i = 0; i < params.length; i++) {
+      args[i] = params[i] instanceof LocalDateTime time ? Timestamp.valueOf(time) : params[i];
+    }
+
+    String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, args);
+    assertTrue(plan.contains("PUBLIC." + index), () -> "Esperado " + index + " em:\n" + plan);
+  }
+
+  public static class LastStatement implements StatementInspector {
+    private static final long serialVersionUID = 1L;
+
+    static volatile String sql;
+
+    @Override
+    public String inspect(String statement) {
+      sql = statement;
+      return statement;
+    }
+  }
+}
@@ -1,17 +1,26 @@
 package com.bananachat.backend.service;
 
+import com.bananachat.backend.config.JacksonConfig;
 import com.bananachat.backend.dto.ChatHistoryDto;
+import com.bananachat.backend.dto.ConversationDto;
 import com.bananachat.backend.entity.ChatHistory;
 import com.bananachat.backend.model.ChatMessage;
 import com.bananachat.backend.repository.ChatHistoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -23,6 +32,18 @@ class ChatHistoryServiceTest {
   @Mock
   private ChatHistoryRepository chatHistoryRepository;
 
+  @Mock
+  private RecentMessageCache recentMessageCache;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private ChatMetrics chatMetrics;
+
+  @Spy
+  private ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
   @InjectMocks
   private ChatHistoryService chatHistoryService;
 
@@ -34,13 +55,14 @@ class ChatHistoryServiceTest {
     chatMessage.setContent("Test message");
     chatMessage.setType(ChatMessage.MessageType.CHAT);
 
-    when(chatHistoryRepository.save(any(ChatHistory.class))).thenReturn(new ChatHistory());
+    when(chatHistoryRepository.save(any(ChatHistory.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
     // Act
     chatHistoryService.saveMessage(chatMessage);
 
     // Assert
     verify(chatHistoryRepository, times(1)).save(any(ChatHistory.class));
+    verify(recentMessageCache, times(1)).chatMessageSaved(any(ChatHistoryDto.class));
   }
 
   @Test
@@ -62,4 +84,56 @@ class ChatHistoryServiceTest {
     assertEquals("CHAT", result.get(0).getType());
     verify(chatHistoryRepository, times(1)).findAllOrderByTimestampAsc();
   }
+
+  @Test
+  void testExportHistoryWritesOneLinePerMessage() throws Exception {
+    // Arrange
+    ChatHistory history1 = new ChatHistory("User1", "Message 1", ChatHistory.MessageType.CHAT);
+    ChatHistory history2 = new ChatHistory("User2", "User1", "Message 2", ChatHistory.MessageType.CHAT);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    when(chatHistoryRepository.streamAll()).thenReturn(Stream.of(history1, history2));
+
+    // Act
+    long count = chatHistoryService.exportHistory(out);
+
+    // Assert
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, count);
+    assertEquals(2, lines.length);
+    assertEquals("Message 1", objectMapper.readTree(lines[0]).get("content").asText());
+    assertEquals("User1", objectMapper.readTree(lines[1]).get("recipient").asText());
+    verify(entityManager, times(2)).detach(any(ChatHistory.class));
+  }
+
+  @Test
+  void testGetConversationsMergesBothDirections() {
+    // Arrange
+    LocalDateTime now = LocalDateTime.now();
+    when(chatHistoryRepository.findSentConversations("User1")).thenReturn(List.of(
+        new ConversationDto("User2", now.minusMinutes(5), 3),
+        new ConversationDto("User3", now.minusMinutes(1), 1)));
+    when(chatHistoryRepository.findReceivedConversations("User1")).thenReturn(List.of(
+        new ConversationDto("User2", now, 2)));
+
+    // Act
+    List<ConversationDto> result = chatHistoryService.getConversations("User1");
+
+    // Assert
+    assertEquals(2, result.size());
+    assertEquals("User2", result.get(0).getWithUser());
+    assertEquals(now, result.get(0).getLastMessageAt());
+    assertEquals(5, result.get(0).getMessageCount());
+    assertEquals("User3", result.get(1).getWithUser());
+  }
+
+  @Test
+  void testConversationKeyIgnoresDirection() {
+    ChatHistory sent = new ChatHistory("User1", "User2", "Oi", ChatHistory.MessageType.CHAT);
+    ChatHistory received = new ChatHistory("User2", "User1", "Olá", ChatHistory.MessageType.CHAT);
+    ChatHistory publicMessage = new ChatHistory("User1", "Oi", ChatHistory.MessageType.CHAT);
+
+    assertEquals(sent.getConversationKey(), received.getConversationKey());
+    assertNull(publicMessage.getConversationKey());
+  }
 }
@@ -0,0 +1,109 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.service.MessagePipelineMetrics.Destination;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatMetricsTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private ChatMetrics chatMetrics;
+
+  @BeforeEach
+  void setUp() {
+    chatMetrics = new ChatMetrics();
+    ReflectionTestUtils.setField(chatMetrics, "meterRegistry", meterRegistry);
+    ReflectionTestUtils.setField(chatMetrics, "hotGroups", 2);
+    ReflectionTestUtils.setField(chatMetrics, "windowSeconds", 10L);
+    chatMetrics.init();
+  }
+
+  @AfterEach
+  void tearDown() {
+    chatMetrics.stop();
+  }
+
+  @Test
+  void countsMessagesPerDestinationWithoutGroupTags() {
+    chatMetrics.messageSent(Destination.PUBLIC);
+    chatMetrics.messageSent(Destination.PRIVATE);
+    chatMetrics.messageSent(Destination.PRIVATE);
+    chatMetrics.groupMessageSent(1L);
+    chatMetrics.groupMessageSent(2L);
+
+    assertEquals(1, meterRegistry.get("chat.messages").tag("destination", "public").counter().count());
+    assertEquals(2, meterRegistry.get("chat.messages").tag("destination", "private").counter().count());
+    assertEquals(2, meterRegistry.get("chat.messages").tag("destination", "group").counter().count());
+    assertEquals(3, meterRegistry.get("chat.messages").counters().size());
+  }
+
+  @Test
+  void publishesOnlyTopGroupsOfTheLastWindow() {
+    send(1L, 5);
+    send(2L, 30);
+    send(3L, 20);
+    chatMetrics.refreshHotGroups();
+
+    assertEquals(Map.of("2", 3.0, "3", 2.0), hotGroups());
+
+    // Nova janela: grupos que saíram do ranking perdem a série
+    send(1L, 10);
+    chatMetrics.refreshHotGroups();
+    assertEquals(Map.of("1", 1.0), hotGroups());
+
+    chatMetrics.refreshHotGroups();
+    assertTrue(hotGroups().isEmpty());
+  }
+
+  @Test
+  void recordsSaveLatencyPerStoreAndMode() {
+    chatMetrics.recordSave(ChatMetrics.Store.CHAT_HISTORY, false, System.nanoTime());
+    chatMetrics.recordSave(ChatMetrics.Store.GROUP_MESSAGE, true, System.nanoTime());
+    chatMetrics.recordSave(ChatMetrics.Store.GROUP_MESSAGE, true, System.nanoTime());
+
+    assertEquals(1, meterRegistry.get("chat.persistence.save")
+        .tags("store", "chat_history", "mode", "single").timer().count());
+    assertEquals(2, meterRegistry.get("chat.persistence.save")
+        .tags("store", "group_message", "mode", "batch").timer().count());
+  }
+
+  @Test
+  void recordsSaveOnlyWhenTransactionCommits() {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      chatMetrics.recordSave(ChatMetrics.Store.CHAT_HISTORY, true, System.nanoTime());
+      assertEquals(0, meterRegistry.get("chat.persistence.save")
+          .tags("store", "chat_history", "mode", "batch").timer().count());
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    assertEquals(1, meterRegistry.get("chat.persistence.save")
+        .tags("store", "chat_history", "mode", "batch").timer().count());
+  }
+
+  private void send(Long groupId, int messages) {
+    for (int i = 0; i < messages; i++) {
+      chatMetrics.groupMessageSent(groupId);
+    }
+  }
+
+  private Map<String, Double> hotGroups() {
+    return meterRegistry.find("chat.groups.hot.messages").gauges().stream()
+        .collect(Collectors.toMap(gauge -> gauge.getId().getTag("group"), Gauge::value));
+  }
+}
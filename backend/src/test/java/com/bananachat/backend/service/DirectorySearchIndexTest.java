@@ -0,0 +1,180 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.repository.GroupRepository;
+import com.bananachat.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DirectorySearchIndexTest {
+
+  @Mock
+  private UserRepository userRepository;
+
+  @Mock
+  private GroupRepository groupRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @InjectMocks
+  private DirectorySearchIndex directoryIndex;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(directoryIndex, "enabled", true);
+  }
+
+  @Test
+  void testFallsBackUntilLoaded() {
+    assertEquals(Optional.empty(), directoryIndex.searchUsers("ana", 10));
+    assertEquals(Optional.empty(), directoryIndex.searchGroups("java", 10));
+    assertEquals(2, directoryIndex.getStats().getFallbackSearches());
+  }
+
+  @Test
+  void testRanksExactThenPrefixThenWordThenSubstring() {
+    // Arrange
+    load(Stream.of(
+        new Object[] { 1L, "mariana", "Mariana Souza" },
+        new Object[] { 2L, "ana", "Ana Lima" },
+        new Object[] { 3L, "anabela", "Anabela" },
+        new Object[] { 4L, "jsilva", "Joana Silva" },
+        new Object[] { 5L, "carlos", "Carlos Ana" }),
+        Stream.empty());
+
+    // Act / Assert
+    assertEquals(List.of(2L, 3L, 5L, 4L, 1L), users("ana", 10));
+    assertEquals(List.of(2L, 3L), users("ana", 2));
+    assertEquals(List.of(4L), users("silva", 10));
+    assertEquals(List.of(4L, 1L), users("s", 10));
+  }
+
+  @Test
+  void testIgnoresCaseAndAccents() {
+    // Arrange
+    load(Stream.<Object[]>of(new Object[] { 1L, "joao", "João Araújo" }),
+        Stream.<Object[]>of(new Object[] { 10L, "Programação Funcional" }));
+
+    // Act / Assert
+    assertEquals(List.of(1L), users("JOÃO", 10));
+    assertEquals(List.of(1L), users("arau", 10));
+    assertEquals(List.of(10L), groups("programacao", 10));
+    assertEquals(List.of(10L), groups("FUNC", 10));
+    assertEquals(List.of(), groups("python", 10));
+  }
+
+  @Test
+  void testWritesKeepIndexUpdated() {
+    // Arrange
+    load(Stream.empty(), Stream.<Object[]>of(new Object[] { 10L, "Java Brasil" }));
+
+    // Act
+    directoryIndex.userSaved(1L, "pedro", "Pedro");
+    directoryIndex.userSaved(1L, "pedro", "Pedro Henrique");
+    directoryIndex.groupSaved(11L, "Java Avançado", true);
+    directoryIndex.groupSaved(10L, "Kotlin Brasil", true);
+    directoryIndex.groupSaved(12L, "Java Privado", false);
+
+    // Assert
+    assertEquals(List.of(1L), users("henri", 10));
+    assertEquals(List.of(11L), groups("java", 10));
+    assertEquals(List.of(10L), groups("brasil", 10));
+
+    directoryIndex.groupRemoved(11L);
+    assertEquals(List.of(), groups("java", 10));
+  }
+
+  @Test
+  void testUpdatesDuringLoadAreReplayedOnNewIndex() {
+    // Arrange: o grupo é renomeado depois da leitura do banco, antes da troca
+    when(userRepository.streamDirectoryEntries()).thenReturn(Stream.empty());
+    when(groupRepository.streamPublicDirectoryEntries()).thenAnswer(invocation -> {
+      directoryIndex.groupSaved(10L, "Nome Novo", true);
+      return Stream.<Object[]>of(new Object[] { 10L, "Nome Antigo" });
+    });
+
+    // Act
+    directoryIndex.rebuild();
+
+    // Assert
+    assertEquals(List.of(10L), groups("novo", 10));
+    assertEquals(List.of(), groups("antigo", 10));
+  }
+
+  @Test
+  void testCompactsAfterManyUpdates() {
+    // Arrange
+    load(Stream.empty(), Stream.empty());
+
+    // Act
+    for (int round = 0; round < 5; round++) {
+      for (long id = 0; id < 1000; id++) {
+        directoryIndex.userSaved(id, "user" + id, "Round " + round);
+      }
+    }
+
+    // Assert
+    assertEquals(1000, directoryIndex.getStats().getUsers());
+    assertEquals(List.of(42L), users("user42", 1));
+    assertEquals(1000, users("round 4", 2000).size());
+    assertEquals(List.of(), users("round 3", 10));
+  }
+
+  /**
+   * Executar com: ./mvnw test -Dtest=DirectorySearchIndexTest -Dbenchmark=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  void benchmarkSuggestionsWith500kUsers() {
+    String[] first = { "ana", "bruno", "carla", "diego", "eduarda", "felipe", "gabriela", "heitor" };
+    String[] last = { "silva", "souza", "oliveira", "santos", "pereira", "lima", "costa", "ribeiro" };
+    load(IntStream.range(0, 500_000).mapToObj(i -> new Object[] { (long) i,
+        first[i % first.length] + i, first[i % first.length] + " " + last[(i / 8) % last.length] + " " + i }),
+        Stream.empty());
+
+    String[] queries = { "a", "an", "ana", "silva", "ana1234", "oliv", "12345", "eira 9" };
+    for (int i = 0; i < 20_000; i++) {
+      directoryIndex.searchUsers(queries[i % queries.length], 10);
+    }
+
+    for (String query : queries) {
+      long start = System.nanoTime();
+      int runs = 2_000;
+      for (int i = 0; i < runs; i++) {
+        directoryIndex.searchUsers(query, 10);
+      }
+      System.out.printf("%-10s %.1f µs%n", query, (System.nanoTime() - start) / 1000.0 / runs);
+    }
+  }
+
+  private void load(Stream<Object[]> users, Stream<Object[]> groups) {
+    when(userRepository.streamDirectoryEntries()).thenReturn(users);
+    when(groupRepository.streamPublicDirectoryEntries()).thenReturn(groups);
+    directoryIndex.rebuild();
+    assertTrue(directoryIndex.isReady());
+  }
+
+  private List<Long> users(String query, int limit) {
+    return directoryIndex.searchUsers(query, limit).orElseThrow();
+  }
+
+  private List<Long> groups(String query, int limit) {
+    return directoryIndex.searchGroups(query, limit).orElseThrow();
+  }
+}
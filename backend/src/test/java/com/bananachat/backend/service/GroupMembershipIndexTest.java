@@ -0,0 +1,106 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.model.UserIdentity;
+import com.bananachat.backend.repository.GroupMembershipRepository;
+import com.bananachat.backend.repository.GroupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupMembershipIndexTest {
+
+  @Mock
+  private GroupRepository groupRepository;
+
+  @Mock
+  private GroupMembershipRepository groupMembershipRepository;
+
+  @Mock
+  private UserIdentityCache userIdentityCache;
+
+  @InjectMocks
+  private GroupMembershipIndex membershipIndex;
+
+  @Test
+  void testLoadsGroupOnceAndAnswersFromMemory() {
+    // Arrange
+    when(groupRepository.findActiveFlagById(1L)).thenReturn(Optional.of(true));
+    when(groupMembershipRepository.findUserIdsByGroupId(1L)).thenReturn(List.of(30L, 10L, 20L));
+    when(userIdentityCache.get("User1")).thenReturn(Optional.of(new UserIdentity(10L, "User1", "User One")));
+
+    // Act & Assert
+    for (int i = 0; i < 5; i++) {
+      assertTrue(membershipIndex.isActive(1L));
+      assertTrue(membershipIndex.isMember(1L, "User1"));
+      assertFalse(membershipIndex.isMember(1L, 40L));
+    }
+
+    verify(groupRepository, times(1)).findActiveFlagById(1L);
+    verify(groupMembershipRepository, times(1)).findUserIdsByGroupId(1L);
+    verify(userIdentityCache, times(5)).get("User1");
+    assertEquals(1, membershipIndex.getGroupLoads());
+  }
+
+  @Test
+  void testUpdatesKeepIndexCurrent() {
+    // Arrange
+    when(groupRepository.findActiveFlagById(1L)).thenReturn(Optional.of(true));
+    when(groupMembershipRepository.findUserIdsByGroupId(1L)).thenReturn(List.of(10L));
+    assertTrue(membershipIndex.isMember(1L, 10L));
+
+    // Act
+    membershipIndex.memberAdded(1L, 5L);
+    membershipIndex.memberAdded(1L, 50L);
+    membershipIndex.memberRemoved(1L, 10L);
+
+    // Assert
+    assertTrue(membershipIndex.isMember(1L, 5L));
+    assertTrue(membershipIndex.isMember(1L, 50L));
+    assertFalse(membershipIndex.isMember(1L, 10L));
+
+    membershipIndex.groupDeactivated(1L);
+    assertFalse(membershipIndex.isActive(1L));
+    assertFalse(membershipIndex.isMember(1L, 5L));
+    verify(groupMembershipRepository, times(1)).findUserIdsByGroupId(1L);
+  }
+
+  @Test
+  void testDeactivatedGroupStaysIndexed() {
+    // Arrange
+    when(groupRepository.findActiveFlagById(2L)).thenReturn(Optional.of(false));
+
+    // Act
+    assertFalse(membershipIndex.isActive(2L));
+    assertFalse(membershipIndex.isActive(2L));
+
+    // Assert
+    verify(groupRepository, times(1)).findActiveFlagById(2L);
+    assertEquals(1, membershipIndex.getIndexedGroups());
+  }
+
+  @Test
+  void testUnknownGroupIsInactive() {
+    // Arrange
+    when(groupRepository.findActiveFlagById(99L)).thenReturn(Optional.empty());
+
+    // Act & Assert
+    assertFalse(membershipIndex.isActive(99L));
+    assertFalse(membershipIndex.isMember(99L, 1L));
+    verify(groupMembershipRepository, never()).findUserIdsByGroupId(99L);
+    // IDs inexistentes não ocupam o índice
+    assertEquals(0, membershipIndex.getIndexedGroups());
+
+    membershipIndex.groupCreated(99L, 1L);
+    assertTrue(membershipIndex.isActive(99L));
+    assertTrue(membershipIndex.isMember(99L, 1L));
+  }
+}
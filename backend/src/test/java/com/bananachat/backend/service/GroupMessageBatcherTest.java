@@ -0,0 +1,166 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.model.GroupChatMessage;
+import com.bananachat.backend.repository.GroupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupMessageBatcherTest {
+
+  @Mock
+  private MessageFanout messageFanout;
+
+  @Mock
+  private GroupRepository groupRepository;
+
+  @InjectMocks
+  private GroupMessageBatcher batcher;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(batcher, "enabled", true);
+    ReflectionTestUtils.setField(batcher, "defaultWindowMs", 0);
+    ReflectionTestUtils.setField(batcher, "defaultMaxMessages", 50);
+    ReflectionTestUtils.setField(batcher, "settingsCacheSize", 100L);
+    ReflectionTestUtils.setField(batcher, "settingsTtlSeconds", 30L);
+    batcher.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    batcher.stop();
+  }
+
+  @Test
+  void testWithoutWindowSendsEachMessageAlone() {
+    // Arrange
+    when(groupRepository.findBatchSettingsById(1L)).thenReturn(List.of());
+
+    // Act
+    batcher.publish(message(1L, "a"));
+    batcher.publish(message(1L, "b"));
+
+    // Assert: objeto por frame, como antes do agrupamento
+    verify(messageFanout, times(2)).send(any(GroupChatMessage.class), eq("/topic/group.1"));
+    verify(groupRepository, times(1)).findBatchSettingsById(1L);
+    assertEquals(2, batcher.getStats().getDirectMessages());
+  }
+
+  @Test
+  void testFullBatchesKeepArrivalOrder() {
+    // Arrange: janela longa, só o máximo por lote dispara o envio
+    when(groupRepository.findBatchSettingsById(1L)).thenReturn(settings(1000, 10));
+
+    // Act
+    for (int i = 0; i < 100; i++) {
+      batcher.publish(message(1L, "m" + i));
+    }
+
+    // Assert: 10 frames em vez de 100, na ordem de chegada
+    List<String> contents = sentContents("/topic/group.1", 10);
+    assertEquals(100, contents.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals("m" + i, contents.get(i));
+    }
+    assertEquals(10.0, batcher.getStats().getAverageBatchSize());
+    assertEquals(0, batcher.getStats().getPendingMessages());
+  }
+
+  @Test
+  void testWindowFlushesPartialBatch() {
+    // Arrange
+    when(groupRepository.findBatchSettingsById(1L)).thenReturn(settings(20, 50));
+
+    // Act
+    batcher.publish(message(1L, "a"));
+    batcher.publish(message(1L, "b"));
+
+    // Assert: um frame com as duas mensagens quando a janela fecha
+    assertEquals(List.of("a", "b"), sentContents("/topic/group.1", 1));
+    assertEquals(1, batcher.getStats().getBatchFrames());
+  }
+
+  @Test
+  void testSentBatchLeavesPendingAndSettingsExpire() {
+    // Arrange: TTL zero, a configuração é relida a cada mensagem
+    batcher.stop();
+    ReflectionTestUtils.setField(batcher, "settingsTtlSeconds", 0L);
+    batcher.start();
+    when(groupRepository.findBatchSettingsById(1L)).thenReturn(settings(20, 50));
+
+    // Act
+    batcher.publish(message(1L, "a"));
+    sentContents("/topic/group.1", 1);
+    batcher.publish(message(1L, "b"));
+
+    // Assert: o lote enviado sai do mapa e o seguinte segue pela janela
+    assertEquals(List.of("b"), sentContents("/topic/group.1", 2).subList(1, 2));
+    Map<?, ?> pending = (Map<?, ?>) ReflectionTestUtils.getField(batcher, "pending");
+    assertTrue(pending.isEmpty());
+    verify(groupRepository, times(2)).findBatchSettingsById(1L);
+  }
+
+  @Test
+  void testSettingsChangeFlushesPendingAndRemovedGroupIsForgotten() {
+    // Arrange
+    when(groupRepository.findBatchSettingsById(1L)).thenReturn(settings(1000, 50));
+    batcher.publish(message(1L, "a"));
+
+    // Act: desligar a janela envia o pendente e passa a publicar direto
+    batcher.settingsChanged(1L, 0, null);
+    batcher.publish(message(1L, "b"));
+    batcher.groupRemoved(1L);
+
+    // Assert
+    assertEquals(List.of("a"), sentContents("/topic/group.1", 1));
+    verify(messageFanout).send(any(GroupChatMessage.class), eq("/topic/group.1"));
+    assertEquals(0, batcher.getStats().getBatchingGroups());
+  }
+
+  @Test
+  void testValidatesLimits() {
+    assertDoesNotThrow(() -> GroupMessageBatcher.validate(null, null));
+    assertDoesNotThrow(() -> GroupMessageBatcher.validate(0, 1));
+    assertThrows(IllegalArgumentException.class, () -> GroupMessageBatcher.validate(-1, null));
+    assertThrows(IllegalArgumentException.class, () -> GroupMessageBatcher.validate(1001, null));
+    assertThrows(IllegalArgumentException.class, () -> GroupMessageBatcher.validate(null, 0));
+    assertThrows(IllegalArgumentException.class, () -> GroupMessageBatcher.validate(null, 501));
+  }
+
+  // Conteúdo dos frames com lote (array), na ordem de envio
+  @SuppressWarnings("unchecked")
+  private List<String> sentContents(String topic, int frames) {
+    ArgumentCaptor<List<GroupChatMessage>> captor = ArgumentCaptor.forClass(List.class);
+    verify(messageFanout, timeout(2_000).times(frames)).sendBatch(captor.capture(), eq(topic));
+    List<String> contents = new ArrayList<>();
+    captor.getAllValues().forEach(batch -> batch.forEach(message -> contents.add(message.getContent())));
+    return contents;
+  }
+
+  private static List<Object[]> settings(Integer windowMs, Integer maxMessages) {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[] { windowMs, maxMessages });
+    return rows;
+  }
+
+  private static GroupChatMessage message(Long groupId, String content) {
+    return new GroupChatMessage(content, "ana", groupId, GroupChatMessage.MessageType.CHAT);
+  }
+}
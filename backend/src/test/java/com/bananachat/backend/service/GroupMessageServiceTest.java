@@ -0,0 +1,89 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.dto.CreateGroupRequest;
+import com.bananachat.backend.dto.GroupMessageDto;
+import com.bananachat.backend.entity.GroupMessage;
+import com.bananachat.backend.entity.User;
+import com.bananachat.backend.model.GroupChatMessage;
+import com.bananachat.backend.repository.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Conta os comandos SQL de um envio para um grupo com as mensagens recentes
+ * em cache: o caso comum deve executar só o INSERT (e, a cada 50 IDs, a
+ * leitura da sequence). O SQL é capturado pelo StatementInspector abaixo.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.bananachat=WARN",
+    "spring.datasource.url=jdbc:h2:mem:groupmessagestatements",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.bananachat.backend.service.GroupMessageServiceTest$RecordedStatements"
+})
+class GroupMessageServiceTest {
+
+  @Autowired
+  private GroupMessageService groupMessageService;
+
+  @Autowired
+  private GroupService groupService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Test
+  void testSendToCachedGroupRunsOnlyTheInsert() {
+    // Arrange: grupo com uma mensagem e as recentes já em cache
+    userRepository.save(new User("stmt-ana", "stmt-ana@banana.chat", "senha123", "Ana"));
+    Long groupId = groupService.createGroup(
+        new CreateGroupRequest("Grupo SQL", "Contagem de comandos", "PUBLIC", null), "stmt-ana").getId();
+    groupMessageService.saveMessage("primeira", "stmt-ana", groupId, GroupMessage.MessageType.CHAT);
+    groupMessageService.getRecentGroupMessages(groupId, "stmt-ana", 10);
+
+    RecordedStatements.statements.clear();
+
+    // Act
+    groupMessageService.persistMessage("segunda", "stmt-ana", groupId, GroupMessage.MessageType.CHAT);
+    groupMessageService.saveAll(List.of(
+        new GroupChatMessage("terceira", "stmt-ana", groupId, GroupChatMessage.MessageType.CHAT),
+        new GroupChatMessage("quarta", "stmt-ana", groupId, GroupChatMessage.MessageType.CHAT)));
+
+    // Assert: nenhum SELECT de remetente ou grupo, e o cache recebeu as mensagens
+    List<String> executed = RecordedStatements.statements.stream()
+        .map(sql -> sql.toLowerCase(Locale.ROOT))
+        .filter(sql -> !sql.startsWith("select next value for"))
+        .toList();
+    // Um INSERT por transação: o lote do saveAll reaproveita o mesmo comando
+    assertEquals(2, executed.size(), () -> "SQL executado: " + executed);
+    assertTrue(executed.stream().allMatch(sql -> sql.startsWith("insert into group_messages")),
+        () -> "SQL executado: " + executed);
+
+    List<GroupMessageDto> recent = groupMessageService.getRecentGroupMessages(groupId, "stmt-ana", 10);
+    assertEquals(List.of("quarta", "terceira", "segunda", "primeira"),
+        recent.stream().map(GroupMessageDto::getContent).toList());
+    assertEquals("stmt-ana", recent.get(0).getSender().getUsername());
+    assertEquals("Ana", recent.get(0).getSender().getDisplayName());
+    assertEquals("Grupo SQL", recent.get(0).getGroupName());
+  }
+
+  public static class RecordedStatements implements StatementInspector {
+    private static final long serialVersionUID = 1L;
+
+    static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String statement) {
+      statements.add(statement);
+      return statement;
+    }
+  }
+}
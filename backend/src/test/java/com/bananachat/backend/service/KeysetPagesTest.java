@@ -0,0 +1,70 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.dto.CursorPageDto;
+import com.bananachat.backend.model.MessageCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPagesTest {
+
+  private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123456789);
+
+  @Test
+  void testCursorRoundTrip() {
+    // Arrange
+    MessageCursor cursor = new MessageCursor(BASE, 42L);
+
+    // Act
+    MessageCursor decoded = MessageCursor.decode(cursor.encode());
+
+    // Assert
+    assertEquals(BASE, decoded.getTimestamp());
+    assertEquals(42L, decoded.getId());
+  }
+
+  @Test
+  void testInvalidCursorIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> MessageCursor.decode("nao-e-um-cursor"));
+    assertThrows(IllegalArgumentException.class, () -> MessageCursor.decode("%%%"));
+  }
+
+  @Test
+  void testStartDefaultsToLatestPage() {
+    assertSame(MessageCursor.LATEST, KeysetPages.start(null, " "));
+  }
+
+  @Test
+  void testDescendingRowsBecomeChronologicalPage() {
+    // Arrange: limite 2, consulta trouxe 3 linhas (5, 4, 3) => hasMore
+    List<Long> rows = List.of(5L, 4L, 3L);
+
+    // Act
+    CursorPageDto<Long> page = KeysetPages.toPage(rows, 2, true, id -> id,
+        id -> new MessageCursor(BASE.plusSeconds(id), id));
+
+    // Assert
+    assertEquals(List.of(4L, 5L), page.getItems());
+    assertTrue(page.isHasMore());
+    assertEquals(4L, MessageCursor.decode(page.getBeforeCursor()).getId());
+    assertEquals(5L, MessageCursor.decode(page.getAfterCursor()).getId());
+  }
+
+  @Test
+  void testLastPageHasNoMore() {
+    // Act
+    CursorPageDto<Long> page = KeysetPages.toPage(List.of(1L), 2, false, id -> id,
+        id -> new MessageCursor(BASE.plusSeconds(id), id));
+    CursorPageDto<Long> empty = KeysetPages.toPage(List.<Long>of(), 2, false, id -> id,
+        id -> new MessageCursor(BASE.plusSeconds(id), id));
+
+    // Assert
+    assertFalse(page.isHasMore());
+    assertEquals(List.of(1L), page.getItems());
+    assertTrue(empty.getItems().isEmpty());
+    assertNull(empty.getAfterCursor());
+  }
+}
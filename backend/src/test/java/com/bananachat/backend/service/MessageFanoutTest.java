@@ -0,0 +1,85 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.config.JacksonConfig;
+import com.bananachat.backend.model.ChatMessage;
+import com.bananachat.backend.model.GroupChatMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageFanoutTest {
+
+  private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+  private final List<Message<?>> sent = new ArrayList<>();
+
+  private SimpMessagingTemplate messagingTemplate;
+
+  private MessageFanout messageFanout;
+
+  @BeforeEach
+  void setUp() {
+    messagingTemplate = new SimpMessagingTemplate((message, timeout) -> sent.add(message));
+    MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+    converter.setObjectMapper(objectMapper);
+    messagingTemplate.setMessageConverter(converter);
+
+    messageFanout = new MessageFanout();
+    ReflectionTestUtils.setField(messageFanout, "messagingTemplate", messagingTemplate);
+    ReflectionTestUtils.setField(messageFanout, "objectMapper", objectMapper);
+    messageFanout.init();
+  }
+
+  @Test
+  void testSerializesOnceForAllDestinations() {
+    // Arrange
+    ChatMessage message = new ChatMessage("oi", "ana", "bia", ChatMessage.MessageType.CHAT);
+
+    // Act
+    messageFanout.send(message, "/queue/private.bia", "/queue/private.ana");
+
+    // Assert: o mesmo array, com destino e content-type próprios de cada mensagem
+    assertEquals(2, sent.size());
+    assertSame(sent.get(0).getPayload(), sent.get(1).getPayload());
+    assertEquals("/queue/private.bia", SimpMessageHeaderAccessor.getDestination(sent.get(0).getHeaders()));
+    assertEquals("/queue/private.ana", SimpMessageHeaderAccessor.getDestination(sent.get(1).getHeaders()));
+    assertEquals(SimpMessageType.MESSAGE, SimpMessageHeaderAccessor.getMessageType(sent.get(1).getHeaders()));
+    assertEquals(MimeTypeUtils.APPLICATION_JSON, sent.get(1).getHeaders().get(MessageHeaders.CONTENT_TYPE));
+  }
+
+  @Test
+  void testSameJsonAsConvertAndSend() {
+    // Arrange
+    GroupChatMessage message = new GroupChatMessage("oi", "ana", 7L, GroupChatMessage.MessageType.CHAT);
+    message.setTimestamp(LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_789));
+    Map<String, Object> notification = Map.of("action", "GROUP_CREATED", "group", Map.of("id", 7));
+
+    // Act
+    messagingTemplate.convertAndSend("/topic/group.7", message);
+    messageFanout.send(message, "/topic/group.7");
+    messagingTemplate.convertAndSend("/topic/group.7", List.of(message, message));
+    messageFanout.sendBatch(List.of(message, message), "/topic/group.7");
+    messagingTemplate.convertAndSend("/topic/groups.update", notification);
+    messageFanout.send(notification, "/topic/groups.update");
+
+    // Assert
+    for (int i = 0; i < sent.size(); i += 2) {
+      assertArrayEquals((byte[]) sent.get(i).getPayload(), (byte[]) sent.get(i + 1).getPayload());
+    }
+  }
+}
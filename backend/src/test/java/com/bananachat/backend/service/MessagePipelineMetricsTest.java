@@ -0,0 +1,74 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.dto.PipelineStageStatsDto;
+import com.bananachat.backend.service.MessagePipelineMetrics.Destination;
+import com.bananachat.backend.service.MessagePipelineMetrics.Stage;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessagePipelineMetricsTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private MessagePipelineMetrics pipelineMetrics;
+
+  @BeforeEach
+  void setUp() {
+    pipelineMetrics = new MessagePipelineMetrics();
+    ReflectionTestUtils.setField(pipelineMetrics, "meterRegistry", meterRegistry);
+    pipelineMetrics.init();
+  }
+
+  @Test
+  void recordsEachStageUnderItsOwnTags() {
+    long start = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(2);
+    long next = pipelineMetrics.record(Stage.PERSIST, Destination.GROUP, start);
+    pipelineMetrics.record(Stage.BROADCAST, Destination.GROUP, next);
+
+    Timer persist = meterRegistry.get(MessagePipelineMetrics.TIMER_NAME)
+        .tag("stage", "persist").tag("destination", "group").timer();
+    assertEquals(1, persist.count());
+    assertTrue(persist.totalTime(TimeUnit.MILLISECONDS) >= 2);
+
+    Timer publicPersist = meterRegistry.get(MessagePipelineMetrics.TIMER_NAME)
+        .tag("stage", "persist").tag("destination", "public").timer();
+    assertEquals(0, publicPersist.count());
+  }
+
+  @Test
+  void statsCoverEveryStageAndDestination() {
+    for (int i = 0; i < 100; i++) {
+      pipelineMetrics.record(Stage.VALIDATE, Destination.PRIVATE,
+          System.nanoTime() - TimeUnit.MICROSECONDS.toNanos(50));
+    }
+
+    List<PipelineStageStatsDto> stats = pipelineMetrics.getStats();
+    assertEquals(Stage.values().length * Destination.values().length, stats.size());
+
+    PipelineStageStatsDto validate = stats.stream()
+        .filter(s -> s.getStage().equals("validate") && s.getDestination().equals("private"))
+        .findFirst().orElseThrow();
+    assertEquals(100, validate.getCount());
+    // Percentis aproximados pelo histograma do Micrometer (erro de poucos %)
+    assertTrue(validate.getP50Micros() >= 45);
+    assertTrue(validate.getP99Micros() >= validate.getP50Micros());
+    assertTrue(validate.getMaxMicros() >= validate.getP99Micros());
+  }
+
+  @Test
+  void mapsOnlyMessageDestinations() {
+    assertEquals(Destination.PUBLIC, MessagePipelineMetrics.forAppDestination("/app/chat.sendMessage"));
+    assertEquals(Destination.PRIVATE, MessagePipelineMetrics.forAppDestination("/app/chat.sendPrivateMessage"));
+    assertEquals(Destination.GROUP, MessagePipelineMetrics.forAppDestination("/app/group.sendMessage"));
+    assertNull(MessagePipelineMetrics.forAppDestination("/app/chat.addUser"));
+    assertNull(MessagePipelineMetrics.forAppDestination(null));
+  }
+}
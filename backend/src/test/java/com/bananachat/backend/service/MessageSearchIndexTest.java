@@ -0,0 +1,112 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.repository.GroupMessageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessageSearchIndexTest {
+
+  @Mock
+  private GroupMessageRepository groupMessageRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @InjectMocks
+  private MessageSearchIndex searchIndex;
+
+  private final LocalDateTime now = LocalDateTime.now();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    ReflectionTestUtils.setField(searchIndex, "enabled", true);
+    ReflectionTestUtils.setField(searchIndex, "directoryPath", "");
+    ReflectionTestUtils.setField(searchIndex, "refreshMs", 1000L);
+    searchIndex.init();
+
+    when(groupMessageRepository.streamSearchDocuments()).thenReturn(Stream.of(
+        new Object[] { 1L, 10L, "Reunião de planejamento amanhã", now.minusHours(3) },
+        new Object[] { 2L, 10L, "Alguém viu as mensagens da reunião?", now.minusHours(2) },
+        new Object[] { 3L, 10L, "Ação de marketing aprovada", now.minusHours(1) },
+        new Object[] { 4L, 20L, "Reunião do outro grupo", now }));
+    searchIndex.rebuild();
+  }
+
+  @AfterEach
+  void tearDown() {
+    searchIndex.close();
+  }
+
+  @Test
+  void testMatchesIgnoringAccentsAndInflection() {
+    assertTrue(searchIndex.isReady());
+    assertEquals(List.of(3L), search(10L, "acao"));
+    assertEquals(List.of(3L), search(10L, "AÇÕES"));
+    assertEquals(List.of(2L), search(10L, "mensagem"));
+  }
+
+  @Test
+  void testFiltersByGroupAndRanksByRelevance() {
+    // A mensagem mais curta, em que o termo pesa mais, vem primeiro
+    assertEquals(List.of(1L, 2L), search(10L, "reuniao"));
+    assertEquals(List.of(4L), search(20L, "reuniao"));
+
+    // Todos os termos são obrigatórios
+    assertEquals(List.of(1L), search(10L, "reunião planejamento"));
+  }
+
+  @Test
+  void testTiesAreBrokenByRecency() throws Exception {
+    searchIndex.indexGroupMessage(5L, 30L, "Bom dia", now.minusMinutes(1));
+    searchIndex.indexGroupMessage(6L, 30L, "Bom dia", now);
+    searchIndex.refresh();
+
+    assertEquals(List.of(6L, 5L), search(30L, "bom dia"));
+  }
+
+  @Test
+  void testPagesThroughResults() {
+    assertEquals(List.of(1L), searchIndex.search(10L, "reuniao", 0, 1).orElseThrow());
+    assertEquals(List.of(2L), searchIndex.search(10L, "reuniao", 1, 1).orElseThrow());
+    assertEquals(List.of(), searchIndex.search(10L, "reuniao", 2, 1).orElseThrow());
+  }
+
+  @Test
+  void testIncrementalUpdates() throws Exception {
+    searchIndex.indexGroupMessage(5L, 10L, "Nova reunião marcada", now.plusMinutes(1));
+    searchIndex.indexGroupMessage(3L, 10L, "Campanha aprovada", now.minusHours(1));
+    searchIndex.deleteGroupMessage(1L);
+    searchIndex.refresh();
+
+    assertEquals(List.of(5L, 2L), search(10L, "reuniao"));
+    assertEquals(List.of(), search(10L, "acao"));
+  }
+
+  @Test
+  void testFallsBackWhenDisabled() {
+    ReflectionTestUtils.setField(searchIndex, "ready", false);
+
+    assertEquals(Optional.empty(), searchIndex.search(10L, "reuniao", 0, 10));
+    assertEquals(1, searchIndex.getStats().getFallbackSearches());
+  }
+
+  private List<Long> search(Long groupId, String text) {
+    return searchIndex.search(groupId, text, 0, 10).orElseThrow();
+  }
+}
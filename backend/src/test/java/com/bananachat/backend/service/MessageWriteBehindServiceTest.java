@@ -0,0 +1,144 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.dto.WriteBehindStatsDto;
+import com.bananachat.backend.entity.GroupMessage;
+import com.bananachat.backend.model.ChatMessage;
+import com.bananachat.backend.model.GroupChatMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessageWriteBehindServiceTest {
+
+  @Mock
+  private ChatHistoryService chatHistoryService;
+
+  @Mock
+  private GroupMessageService groupMessageService;
+
+  @InjectMocks
+  private MessageWriteBehindService messageWriteBehindService;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(messageWriteBehindService, "queueCapacity", 100);
+    ReflectionTestUtils.setField(messageWriteBehindService, "batchSize", 10);
+    ReflectionTestUtils.setField(messageWriteBehindService, "flushIntervalMs", 10L);
+    ReflectionTestUtils.setField(messageWriteBehindService, "offerTimeoutMs", 10L);
+    ReflectionTestUtils.setField(messageWriteBehindService, "shutdownTimeoutMs", 1000L);
+  }
+
+  @Test
+  void testDisabledSavesSynchronously() {
+    // Arrange
+    ChatMessage chatMessage = new ChatMessage("Test message", "TestUser", ChatMessage.MessageType.CHAT);
+
+    // Act
+    messageWriteBehindService.start();
+    messageWriteBehindService.persistChatMessage(chatMessage);
+
+    // Assert
+    verify(chatHistoryService, times(1)).saveMessage(chatMessage);
+    assertFalse(messageWriteBehindService.getStats().isEnabled());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testEnabledFlushesEverythingOnShutdown() {
+    // Arrange
+    ReflectionTestUtils.setField(messageWriteBehindService, "enabled", true);
+    messageWriteBehindService.start();
+
+    // Act
+    for (int i = 0; i < 50; i++) {
+      messageWriteBehindService.persistChatMessage(
+          new ChatMessage("Message " + i, "TestUser", ChatMessage.MessageType.CHAT));
+    }
+    messageWriteBehindService.persistGroupMessage(
+        new GroupChatMessage("Group message", "TestUser", 1L, GroupChatMessage.MessageType.CHAT),
+        GroupMessage.MessageType.CHAT);
+    messageWriteBehindService.stop();
+
+    // Assert
+    ArgumentCaptor<List<ChatMessage>> chatBatches = ArgumentCaptor.forClass(List.class);
+    verify(chatHistoryService, atLeastOnce()).saveAll(chatBatches.capture());
+    assertEquals(50, chatBatches.getAllValues().stream().mapToInt(List::size).sum());
+
+    ArgumentCaptor<List<GroupChatMessage>> groupBatches = ArgumentCaptor.forClass(List.class);
+    verify(groupMessageService, times(1)).saveAll(groupBatches.capture());
+    assertEquals("Group message", groupBatches.getValue().get(0).getContent());
+    verify(chatHistoryService, never()).saveMessage(any(ChatMessage.class));
+
+    WriteBehindStatsDto stats = messageWriteBehindService.getStats();
+    assertEquals(51, stats.getPersisted());
+    assertEquals(0, stats.getQueueDepth());
+    assertEquals(0, stats.getFailed());
+  }
+
+  @Test
+  void testFailedWriteDoesNotStopWriter() {
+    // Arrange
+    ReflectionTestUtils.setField(messageWriteBehindService, "enabled", true);
+    doThrow(new IllegalArgumentException("Grupo não encontrado: 99"))
+        .when(groupMessageService).saveAll(anyList());
+    doThrow(new IllegalArgumentException("Grupo não encontrado: 99"))
+        .when(groupMessageService).persistMessage(any(), any(), eq(99L), any());
+    messageWriteBehindService.start();
+
+    // Act
+    messageWriteBehindService.persistGroupMessage(
+        new GroupChatMessage("Lost", "TestUser", 99L, GroupChatMessage.MessageType.CHAT),
+        GroupMessage.MessageType.CHAT);
+    messageWriteBehindService.persistChatMessage(
+        new ChatMessage("After failure", "TestUser", ChatMessage.MessageType.CHAT));
+    messageWriteBehindService.stop();
+
+    // Assert
+    verify(chatHistoryService, times(1)).saveAll(anyList());
+    assertEquals(1, messageWriteBehindService.getStats().getFailed());
+    assertEquals(1, messageWriteBehindService.getStats().getPersisted());
+  }
+
+  @Test
+  void testMessagesAfterStopAreWrittenByCaller() {
+    // Arrange
+    ReflectionTestUtils.setField(messageWriteBehindService, "enabled", true);
+    ChatMessage kept = new ChatMessage("After stop", "TestUser", ChatMessage.MessageType.CHAT);
+    ChatMessage broken = new ChatMessage("Broken", "TestUser", ChatMessage.MessageType.CHAT);
+    when(chatHistoryService.persistMessage(any(ChatMessage.class))).thenAnswer(invocation -> {
+      ChatMessage message = invocation.getArgument(0);
+      if (message.getContent().equals("Broken")) {
+        throw new IllegalStateException("Banco indisponível");
+      }
+      return null;
+    });
+    messageWriteBehindService.start();
+    messageWriteBehindService.stop();
+
+    // Act: com o serviço parado nada entra na fila
+    messageWriteBehindService.persistChatMessage(kept);
+    messageWriteBehindService.persistChatMessage(broken);
+
+    // Assert: a falha na thread chamadora também é contada
+    verify(chatHistoryService, times(2)).persistMessage(any(ChatMessage.class));
+    WriteBehindStatsDto stats = messageWriteBehindService.getStats();
+    assertEquals(0, stats.getQueueDepth());
+    assertEquals(2, stats.getCallerRuns());
+    assertEquals(1, stats.getPersisted());
+    assertEquals(1, stats.getFailed());
+  }
+}
@@ -0,0 +1,211 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.dto.PresenceDeltaDto;
+import com.bananachat.backend.dto.PresenceSnapshotDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OnlineUsersServiceTest {
+
+  private OnlineUsersService onlineUsersService;
+
+  @BeforeEach
+  void setUp() {
+    // Sem init(): a varredura é chamada direto nos testes
+    onlineUsersService = new OnlineUsersService();
+    ReflectionTestUtils.setField(onlineUsersService, "sessionTtlSeconds", 60L);
+  }
+
+  @Test
+  void testSecondTabDoesNotJoinOrLeave() {
+    // Act / Assert: só a primeira sessão deixa o usuário online
+    assertTrue(onlineUsersService.addSession("alice", "s1"));
+    assertFalse(onlineUsersService.addSession("alice", "s2"));
+    assertEquals(2, onlineUsersService.getSessionCount("alice"));
+    assertEquals(1, onlineUsersService.getOnlineUsersCount());
+
+    // Fechar uma das abas mantém o usuário online
+    assertNull(onlineUsersService.removeSession("s1"));
+    assertTrue(onlineUsersService.isUserOnline("alice"));
+
+    // A última aba gera a saída
+    assertEquals("alice", onlineUsersService.removeSession("s2"));
+    assertFalse(onlineUsersService.isUserOnline("alice"));
+    assertEquals(0, onlineUsersService.getSessionsCount());
+  }
+
+  @Test
+  void testRepeatedAddUserAndDisconnectAreIdempotent() {
+    // Arrange
+    assertTrue(onlineUsersService.addSession("alice", "s1"));
+
+    // Act: addUser repetido na mesma sessão e disconnect duplicado
+    assertFalse(onlineUsersService.addSession("alice", "s1"));
+    assertEquals("alice", onlineUsersService.removeSession("s1"));
+    assertNull(onlineUsersService.removeSession("s1"));
+
+    // Assert
+    assertEquals(0, onlineUsersService.getSessionCount("alice"));
+    assertEquals(Set.of(), onlineUsersService.getOnlineUsers());
+  }
+
+  @Test
+  void testIdleSessionsExpireAndNotifyLastOne() {
+    // Arrange
+    List<String> expired = new ArrayList<>();
+    onlineUsersService.onUserExpired(expired::add);
+    onlineUsersService.addSession("alice", "s1");
+    onlineUsersService.addSession("alice", "s2");
+    onlineUsersService.addSession("bob", "s3");
+
+    // Act: com TTL de 60s nada expira
+    onlineUsersService.expireIdleSessions();
+    assertEquals(3, onlineUsersService.getSessionsCount());
+
+    // TTL zero: todas as sessões estão paradas há tempo demais
+    ReflectionTestUtils.setField(onlineUsersService, "sessionTtlSeconds", 0L);
+    onlineUsersService.expireIdleSessions();
+
+    // Assert: um aviso por usuário, não por sessão
+    assertEquals(2, expired.size());
+    assertTrue(expired.containsAll(List.of("alice", "bob")));
+    assertEquals(0, onlineUsersService.getOnlineUsersCount());
+    assertFalse(onlineUsersService.touch("s1"));
+    // O disconnect que chega depois não repete o LEAVE
+    assertNull(onlineUsersService.removeSession("s1"));
+  }
+
+  @Test
+  void testConcurrentDisconnectNeverLeavesCountWithoutSession() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (int i = 0; i < 2_000; i++) {
+        // Arrange
+        String sessionId = "s" + i;
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Act: CONNECT e DISCONNECT da mesma sessão ao mesmo tempo
+        Future<?> add = executor.submit(() -> {
+          start.await();
+          return onlineUsersService.addSession("alice", sessionId);
+        });
+        Future<?> remove = executor.submit(() -> {
+          start.await();
+          return onlineUsersService.removeSession(sessionId);
+        });
+        start.countDown();
+        add.get();
+        remove.get();
+        onlineUsersService.removeSession(sessionId);
+
+        // Assert: sem sessão, sem referência
+        assertEquals(0, onlineUsersService.getSessionCount("alice"));
+        assertFalse(onlineUsersService.isUserOnline("alice"));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testTouchKnownSession() {
+    // Arrange
+    onlineUsersService.addSession("alice", "s1");
+
+    // Act / Assert
+    assertTrue(onlineUsersService.touch("s1"));
+    assertFalse(onlineUsersService.touch("desconhecida"));
+  }
+
+  @Test
+  void testDeltasCarryConsecutiveVersions() {
+    // Arrange
+    List<PresenceDeltaDto> deltas = new ArrayList<>();
+    onlineUsersService.onPresenceChange(deltas::add);
+
+    // Act: segunda aba e fechamento dela não geram delta
+    onlineUsersService.addSession("alice", "s1");
+    onlineUsersService.addSession("alice", "s2");
+    onlineUsersService.addSession("bob", "s3");
+    onlineUsersService.removeSession("s2");
+    onlineUsersService.removeSession("s1");
+
+    // Assert
+    assertEquals(3, deltas.size());
+    assertEquals("alice", deltas.get(0).getUsername());
+    assertTrue(deltas.get(0).isOnline());
+    assertEquals(1, deltas.get(0).getVersion());
+    assertEquals("bob", deltas.get(1).getUsername());
+    assertEquals(2, deltas.get(1).getVersion());
+    assertEquals("alice", deltas.get(2).getUsername());
+    assertFalse(deltas.get(2).isOnline());
+    assertEquals(3, deltas.get(2).getVersion());
+    assertEquals(3, onlineUsersService.getVersion());
+  }
+
+  @Test
+  void testConcurrentChangesArePublishedInVersionOrder() throws Exception {
+    // Arrange
+    List<PresenceDeltaDto> deltas = Collections.synchronizedList(new ArrayList<>());
+    onlineUsersService.onPresenceChange(deltas::add);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // Act: quatro threads entrando e saindo com usuários distintos
+    for (int thread = 0; thread < 4; thread++) {
+      String username = "user" + thread;
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < 500; i++) {
+          onlineUsersService.addSession(username, username + "-" + i);
+          onlineUsersService.removeSession(username + "-" + i);
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    // Assert: o listener recebe as versões sem saltos nem inversões
+    assertEquals(4_000, deltas.size());
+    for (int i = 0; i < deltas.size(); i++) {
+      assertEquals(i + 1, deltas.get(i).getVersion());
+    }
+  }
+
+  @Test
+  void testSnapshotIsReusedUntilNextChange() {
+    // Arrange
+    onlineUsersService.addSession("alice", "s1");
+
+    // Act
+    PresenceSnapshotDto first = onlineUsersService.getSnapshot();
+    PresenceSnapshotDto again = onlineUsersService.getSnapshot();
+    onlineUsersService.addSession("bob", "s2");
+    PresenceSnapshotDto changed = onlineUsersService.getSnapshot();
+
+    // Assert: mesma instância enquanto a versão não muda
+    assertSame(first, again);
+    assertEquals(1, first.getVersion());
+    assertEquals(Set.of("alice"), first.getUsers());
+    assertEquals(2, changed.getVersion());
+    assertEquals(Set.of("alice", "bob"), changed.getUsers());
+    assertThrows(UnsupportedOperationException.class, () -> changed.getUsers().add("carol"));
+  }
+}
@@ -0,0 +1,131 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.dto.ChatHistoryDto;
+import com.bananachat.backend.dto.GroupMessageDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentMessageCacheTest {
+
+  private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+  private RecentMessageCache recentMessageCache;
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    recentMessageCache = new RecentMessageCache();
+    ReflectionTestUtils.setField(recentMessageCache, "enabled", true);
+    ReflectionTestUtils.setField(recentMessageCache, "capacity", 3);
+    ReflectionTestUtils.setField(recentMessageCache, "maxMemoryMb", 1L);
+    recentMessageCache.init();
+  }
+
+  @Test
+  void testLoadsOnceThenAppendsNewMessages() {
+    // Arrange
+    List<GroupMessageDto> stored = List.of(groupMessage(2), groupMessage(1));
+
+    // Act
+    List<GroupMessageDto> first = recentMessageCache.getGroupMessages(1L, 2, limit -> load(stored));
+    recentMessageCache.groupMessageSaved(1L, groupMessage(3));
+    recentMessageCache.groupMessageSaved(1L, groupMessage(4));
+    List<GroupMessageDto> second = recentMessageCache.getGroupMessages(1L, 3, limit -> load(stored));
+
+    // Assert
+    assertEquals(List.of(2L, 1L), ids(first));
+    assertEquals(List.of(4L, 3L, 2L), ids(second));
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void testWriteDuringLoadIsNotLost() {
+    // Arrange: a mensagem 2 é commitada enquanto o load lê o banco
+    List<GroupMessageDto> result = recentMessageCache.getGroupMessages(1L, 3, limit -> {
+      recentMessageCache.groupMessageSaved(1L, null);
+      return load(List.of(groupMessage(1)));
+    });
+
+    // Act
+    List<GroupMessageDto> reloaded = recentMessageCache.getGroupMessages(1L, 3,
+        limit -> load(List.of(groupMessage(2), groupMessage(1))));
+
+    // Assert
+    assertEquals(List.of(1L), ids(result));
+    assertEquals(List.of(2L, 1L), ids(reloaded));
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void testGroupMessageWithoutDtoInvalidatesChannel() {
+    // Arrange
+    recentMessageCache.getGroupMessages(1L, 3, limit -> load(List.of(groupMessage(1))));
+    assertTrue(recentMessageCache.isGroupCached(1L));
+
+    // Act
+    recentMessageCache.groupMessageSaved(1L, null);
+
+    // Assert
+    assertFalse(recentMessageCache.isGroupCached(1L));
+  }
+
+  @Test
+  void testLimitAboveCapacityGoesToDatabase() {
+    // Act
+    recentMessageCache.getGroupMessages(1L, 10, limit -> load(List.of()));
+    recentMessageCache.getGroupMessages(1L, 10, limit -> load(List.of()));
+
+    // Assert
+    assertEquals(2, loads.get());
+    assertFalse(recentMessageCache.isGroupCached(1L));
+    assertEquals(2, recentMessageCache.getStats().getBypassed());
+  }
+
+  @Test
+  void testChatMessagesGoToGlobalAndConversationChannels() {
+    // Arrange
+    recentMessageCache.getAllMessages(3, limit -> new ArrayList<>());
+    recentMessageCache.getPublicMessages(3, limit -> new ArrayList<>());
+    recentMessageCache.getPrivateMessages("bob", "alice", 3, limit -> new ArrayList<>());
+
+    // Act
+    recentMessageCache.chatMessageSaved(chatMessage(1, null));
+    recentMessageCache.chatMessageSaved(chatMessage(2, "bob"));
+
+    // Assert
+    assertEquals(2, recentMessageCache.getAllMessages(3, limit -> fail()).size());
+    assertEquals(1L, recentMessageCache.getPublicMessages(3, limit -> fail()).get(0).getId());
+    assertEquals(2L, recentMessageCache.getPrivateMessages("alice", "bob", 3, limit -> fail()).get(0).getId());
+  }
+
+  private List<GroupMessageDto> load(List<GroupMessageDto> messages) {
+    loads.incrementAndGet();
+    return messages;
+  }
+
+  private static GroupMessageDto groupMessage(long id) {
+    GroupMessageDto dto = new GroupMessageDto();
+    dto.setId(id);
+    dto.setGroupId(1L);
+    dto.setContent("Message " + id);
+    dto.setTimestamp(BASE.plusSeconds(id));
+    return dto;
+  }
+
+  private static ChatHistoryDto chatMessage(long id, String recipient) {
+    return new ChatHistoryDto(id, "alice", recipient, "Message " + id, "CHAT", BASE.plusSeconds(id));
+  }
+
+  private static List<Long> ids(List<GroupMessageDto> messages) {
+    return messages.stream().map(GroupMessageDto::getId).toList();
+  }
+}
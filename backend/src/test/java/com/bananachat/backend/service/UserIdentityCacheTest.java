@@ -0,0 +1,83 @@
+package com.bananachat.backend.service;
+
+import com.bananachat.backend.dto.UserCacheStatsDto;
+import com.bananachat.backend.model.UserIdentity;
+import com.bananachat.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserIdentityCacheTest {
+
+  @Mock
+  private UserRepository userRepository;
+
+  @InjectMocks
+  private UserIdentityCache userIdentityCache;
+
+  private UserIdentity testIdentity;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(userIdentityCache, "maximumSize", 100L);
+    ReflectionTestUtils.setField(userIdentityCache, "expireAfterAccessMinutes", 60L);
+    userIdentityCache.init();
+
+    testIdentity = new UserIdentity(1L, "User1", "User One");
+  }
+
+  @Test
+  void testLoadsOnceAndServesFromCache() {
+    // Arrange
+    when(userRepository.findIdentityByUsername("User1")).thenReturn(Optional.of(testIdentity));
+
+    // Act
+    for (int i = 0; i < 3; i++) {
+      assertEquals(Optional.of(testIdentity), userIdentityCache.get("User1"));
+    }
+
+    // Assert
+    verify(userRepository, times(1)).findIdentityByUsername("User1");
+    UserCacheStatsDto stats = userIdentityCache.getStats();
+    assertEquals(2, stats.getHits());
+    assertEquals(1, stats.getMisses());
+  }
+
+  @Test
+  void testUnknownUsernameIsNotCached() {
+    // Arrange
+    when(userRepository.findIdentityByUsername("Ghost")).thenReturn(Optional.empty());
+
+    // Act
+    assertTrue(userIdentityCache.get("Ghost").isEmpty());
+    assertTrue(userIdentityCache.get("Ghost").isEmpty());
+
+    // Assert
+    verify(userRepository, times(2)).findIdentityByUsername("Ghost");
+    assertTrue(userIdentityCache.get(null).isEmpty());
+  }
+
+  @Test
+  void testInvalidateForcesReload() {
+    // Arrange
+    when(userRepository.findIdentityByUsername("User1")).thenReturn(Optional.of(testIdentity));
+    userIdentityCache.get("User1");
+
+    // Act
+    userIdentityCache.invalidate("User1");
+    userIdentityCache.get("User1");
+
+    // Assert
+    verify(userRepository, times(2)).findIdentityByUsername("User1");
+  }
+}
@@ -11,6 +11,7 @@ import type {
 import UserSelectionDialog from "@/components/chat/UserSelectionDialog";
 import { useChatState } from "@/hooks/useChatState";
 import { useGroups } from "@/hooks/useGroups";
+import { usePresence } from "@/hooks/usePresence";
 import { useWebSocketConnection } from "@/hooks/useWebSocketConnection";
 import { useNavigate } from "@tanstack/react-router";
 import { useCallback, useEffect, useMemo, useRef, useState } from "react";
@@ -35,8 +36,6 @@ export default function ChatLayout() {
   // Estados principais
   const [messages, setMessages] = useState<ChatMessage[]>([]);
   const [isJoined, setIsJoined] = useState<boolean>(false);
-  const [isAutoUpdating, setIsAutoUpdating] = useState<boolean>(false);
-  const [onlineUsers, setOnlineUsers] = useState<string[]>([]);
 
   // Estados para dialogs
   const [userSelectionDialog, setUserSelectionDialog] = useState<{
@@ -78,6 +77,13 @@ export default function ChatLayout() {
     filterMessages,
   } = useChatState();
 
+  // Usuários online: lista versionada + deltas de /topic/presence
+  const { onlineUsers, isSyncing: isAutoUpdating } = usePresence(
+    wsStompClient,
+    isConnected && isJoined,
+    username
+  );
+
   // Handlers para ações de grupo
   const handleCreateGroup = useCallback(
     async (request: CreateGroupRequest) => {
@@ -456,22 +462,6 @@ export default function ChatLayout() {
       });
 
       setIsJoined(true);
-
-      // Carregar usuários online
-      setTimeout(async () => {
-        try {
-          const response = await fetch(`${API_BASE_URL}/users/online`);
-          if (response.ok) {
-            const users: string[] = await response.json();
-            const sortedUsers = users
-              .filter((user) => user !== username)
-              .sort();
-            setOnlineUsers(sortedUsers);
-          }
-        } catch (error) {
-          console.error("Erro ao carregar usuários online:", error);
-        }
-      }, 1500);
     } catch (error) {
       console.error("Erro ao entrar no chat:", error);
     }
@@ -546,23 +536,6 @@ export default function ChatLayout() {
 
           receivedMessage.isNewMessage = true;
 
-          // Atualizar usuários online
-          if (
-            receivedMessage.type === "JOIN" &&
-            receivedMessage.sender !== username
-          ) {
-            setOnlineUsers((prev) => {
-              if (!prev.includes(receivedMessage.sender)) {
-                return [...prev, receivedMessage.sender].sort();
-              }
-              return prev;
-            });
-          } else if (receivedMessage.type === "LEAVE") {
-            setOnlineUsers((prev) =>
-              prev.filter((user) => user !== receivedMessage.sender)
-            );
-          }
-
           // Adicionar mensagem
           setMessages((prev) => {
             const messageExists = prev.some(
@@ -634,39 +607,39 @@ export default function ChatLayout() {
         const groupTopic = `/topic/group.${group.id}`;
         const groupSub = wsStompClient.current?.subscribe(groupTopic, (msg) => {
           try {
-            const receivedGroupMessage = JSON.parse(msg.body);
+            // Grupos movimentados podem enviar um lote (array em ordem) por frame
+            const body = JSON.parse(msg.body);
+            const receivedGroupMessages = Array.isArray(body) ? body : [body];
 
             // Converter GroupChatMessage para ChatMessage
-            const receivedMessage: ChatMessage = {
-              sender: receivedGroupMessage.sender,
-              content: receivedGroupMessage.content,
-              type: receivedGroupMessage.type,
-              recipient: `group-${receivedGroupMessage.groupId}`,
-              timestamp: receivedGroupMessage.timestamp,
-              isNewMessage: true,
-            };
-
-            if (receivedMessage.timestamp) {
-              receivedMessage.timestamp = new Date(
-                receivedMessage.timestamp
-              ).toISOString();
-            } else {
-              receivedMessage.timestamp = new Date().toISOString();
-            }
+            const receivedMessages: ChatMessage[] = receivedGroupMessages.map(
+              (receivedGroupMessage) => ({
+                sender: receivedGroupMessage.sender,
+                content: receivedGroupMessage.content,
+                type: receivedGroupMessage.type,
+                recipient: `group-${receivedGroupMessage.groupId}`,
+                timestamp: receivedGroupMessage.timestamp
+                  ? new Date(receivedGroupMessage.timestamp).toISOString()
+                  : new Date().toISOString(),
+                isNewMessage: true,
+              })
+            );
 
             setMessages((prev) => {
-              const messageExists = prev.some(
-                (existingMsg) =>
-                  existingMsg.sender === receivedMessage.sender &&
-                  existingMsg.content === receivedMessage.content &&
-                  existingMsg.timestamp === receivedMessage.timestamp &&
-                  existingMsg.recipient === receivedMessage.recipient
+              const newMessages = receivedMessages.filter(
+                (receivedMessage) =>
+                  !prev.some(
+                    (existingMsg) =>
+                      existingMsg.sender === receivedMessage.sender &&
+                      existingMsg.content === receivedMessage.content &&
+                      existingMsg.timestamp === receivedMessage.timestamp &&
+                      existingMsg.recipient === receivedMessage.recipient
+                  )
               );
 
-              if (!messageExists) {
-                const newMessages = [...prev, receivedMessage];
+              if (newMessages.length > 0) {
                 setTimeout(() => scrollToBottom(), 100);
-                return sortMessagesByTimestamp(newMessages);
+                return sortMessagesByTimestamp([...prev, ...newMessages]);
               }
               return prev;
             });
@@ -787,41 +760,6 @@ export default function ChatLayout() {
     return () => clearInterval(interval);
   }, []);
 
-  // Sincronização periódica dos usuários online
-  useEffect(() => {
-    if (isJoined && username) {
-      const syncUsers = async () => {
-        try {
-          setIsAutoUpdating(true);
-          const response = await fetch(`${API_BASE_URL}/users/online`);
-          if (response.ok) {
-            const users: string[] = await response.json();
-            const filteredUsers = users.filter((user) => user !== username);
-            setOnlineUsers((prevUsers) => {
-              const prevSet = new Set(prevUsers);
-              const newSet = new Set(filteredUsers);
-              if (
-                prevSet.size !== newSet.size ||
-                [...prevSet].some((user) => !newSet.has(user))
-              ) {
-                return filteredUsers.sort();
-              }
-              return prevUsers;
-            });
-          }
-        } catch (error) {
-          console.error("Erro na sincronização de usuários:", error);
-        } finally {
-          setIsAutoUpdating(false);
-        }
-      };
-
-      syncUsers();
-      const interval = setInterval(syncUsers, 30000);
-      return () => clearInterval(interval);
-    }
-  }, [isJoined, username]);
-
   // Enviar mensagem
   const sendMessage = (messageInput: string) => {
     if (!messageInput.trim() || !wsStompClient.current?.connected) return;
@@ -882,7 +820,6 @@ export default function ChatLayout() {
     setIsJoined(false);
     setUsername("");
     setMessages([]);
-    setOnlineUsers([]);
     setSelectedChat("global");
 
     // Redirecionar para login
@@ -0,0 +1,124 @@
+import type { Client } from "@stomp/stompjs";
+import { useEffect, useState } from "react";
+
+const API_BASE_URL = "http://localhost:8080/api";
+
+interface PresenceDelta {
+  username: string;
+  online: boolean;
+  version: number;
+}
+
+interface PresenceSnapshot {
+  version: number;
+  users: string[];
+}
+
+interface UsePresenceReturn {
+  onlineUsers: string[];
+  isSyncing: boolean;
+}
+
+/**
+ * Usuários online via /topic/presence: busca a lista versionada uma vez e
+ * aplica só os deltas seguintes. Um salto de versão (delta perdido) faz
+ * buscar a lista de novo; sem saltos não há mais consultas ao servidor.
+ */
+export function usePresence(
+  stompClient: React.RefObject<Client | null>,
+  enabled: boolean,
+  username: string
+): UsePresenceReturn {
+  const [onlineUsers, setOnlineUsers] = useState<string[]>([]);
+  const [isSyncing, setIsSyncing] = useState<boolean>(false);
+
+  useEffect(() => {
+    const client = stompClient.current;
+    if (!enabled || !client?.connected) {
+      setOnlineUsers([]);
+      return;
+    }
+
+    let cancelled = false;
+    let version = -1; // Sem lista ainda
+    let users = new Set<string>();
+    let pending: PresenceDelta[] = [];
+    let resyncing = false;
+
+    const publish = () => {
+      setOnlineUsers([...users].filter((user) => user !== username).sort());
+    };
+
+    // false se o delta não é o próximo da versão atual
+    const apply = (delta: PresenceDelta): boolean => {
+      if (delta.version <= version) {
+        return true; // Já incluído na lista
+      }
+      if (delta.version !== version + 1) {
+        return false;
+      }
+      if (delta.online) {
+        users.add(delta.username);
+      } else {
+        users.delete(delta.username);
+      }
+      version = delta.version;
+      return true;
+    };
+
+    const resync = async () => {
+      if (resyncing) return;
+      resyncing = true;
+      setIsSyncing(true);
+      let gap = false;
+      try {
+        const response = await fetch(`${API_BASE_URL}/users/presence`);
+        if (!response.ok || cancelled) return;
+        const snapshot: PresenceSnapshot = await response.json();
+        if (cancelled) return;
+
+        users = new Set(snapshot.users);
+        version = snapshot.version;
+        // Deltas que chegaram durante a busca
+        const buffered = pending.sort((a, b) => a.version - b.version);
+        pending = [];
+        gap = !buffered.every(apply);
+        publish();
+      } catch (error) {
+        console.error("Erro ao sincronizar usuários online:", error);
+      } finally {
+        resyncing = false;
+        if (!cancelled) {
+          setIsSyncing(false);
+          if (gap) resync();
+        }
+      }
+    };
+
+    const presenceSub = client.subscribe("/topic/presence", (msg) => {
+      try {
+        const delta: PresenceDelta = JSON.parse(msg.body);
+        if (resyncing) {
+          pending.push(delta);
+        } else if (apply(delta)) {
+          publish();
+        } else {
+          pending.push(delta);
+          resync();
+        }
+      } catch (error) {
+        console.error("Erro ao processar presença:", error);
+      }
+    });
+
+    // Depois de assinar, para não perder mudanças entre a lista e os deltas
+    resync();
+
+    return () => {
+      cancelled = true;
+      presenceSub.unsubscribe();
+    };
+  }, [stompClient, enabled, username]);
+
+  return { onlineUsers, isSyncing };
+}